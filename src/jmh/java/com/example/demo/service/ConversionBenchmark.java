@@ -0,0 +1,90 @@
+package com.example.demo.service;
+
+import com.example.demo.dto.ApplyExchangeResponse;
+import com.example.demo.dto.ExchangeRateResponse;
+import com.example.demo.entity.ExchangeRate;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Microbenchmarks de la conversión de montos y del mapeo y serialización de respuestas.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ConversionBenchmark {
+
+    private ExchangeApplyService exchangeApplyService;
+    private ExchangeRateService exchangeRateService;
+    private ObjectMapper objectMapper;
+
+    private BigDecimal monto;
+    private BigDecimal tipoCambio;
+    private ExchangeRate exchangeRate;
+    private ApplyExchangeResponse applyResponse;
+
+    @Setup
+    public void setUp() {
+        exchangeApplyService = new ExchangeApplyService();
+        exchangeRateService = new ExchangeRateService();
+        objectMapper = Jackson2ObjectMapperBuilder.json().build();
+
+        monto = new BigDecimal("1234.56");
+        tipoCambio = new BigDecimal("3.712345");
+        exchangeRate = ExchangeRate.builder()
+                .id(1L)
+                .monedaOrigen("USD")
+                .monedaDestino("PEN")
+                .tipoCambio(tipoCambio)
+                .fechaActualizacion(LocalDateTime.of(2024, 1, 15, 10, 30))
+                .build();
+        applyResponse = ApplyExchangeResponse.builder()
+                .monedaOrigen("USD")
+                .monedaDestino("PEN")
+                .montoInicial(monto)
+                .montoConvertido(exchangeApplyService.calculateConvertedAmount(monto, tipoCambio))
+                .tipoCambioAplicado(tipoCambio)
+                .fecha(LocalDateTime.of(2024, 1, 15, 10, 30))
+                .ruta(List.of("USD", "PEN"))
+                .build();
+    }
+
+    @Benchmark
+    public BigDecimal calculateConvertedAmount() {
+        return exchangeApplyService.calculateConvertedAmount(monto, tipoCambio);
+    }
+
+    @Benchmark
+    public BigDecimal calculateConvertedAmountFixedPoint() {
+        return FixedPointConversion.convert(monto, tipoCambio);
+    }
+
+    @Benchmark
+    public ExchangeRateResponse toResponse() {
+        return exchangeRateService.toResponse(exchangeRate);
+    }
+
+    @Benchmark
+    public byte[] serializeApplyExchangeResponse() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(applyResponse);
+    }
+}
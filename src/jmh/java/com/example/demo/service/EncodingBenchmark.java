@@ -0,0 +1,108 @@
+package com.example.demo.service;
+
+import com.example.demo.dto.ApplyExchangeResponse;
+import com.example.demo.dto.ExchangeRateResponse;
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Microbenchmarks de codificación y decodificación de respuestas en JSON, CBOR y Smile.
+ * El tamaño de cada carga se imprime en el setup.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class EncodingBenchmark {
+
+    @Param({"json", "cbor", "smile"})
+    private String format;
+
+    private ObjectMapper mapper;
+    private JavaType rateListType;
+
+    private ApplyExchangeResponse applyResponse;
+    private List<ExchangeRateResponse> rates;
+    private byte[] applyResponseBytes;
+    private byte[] ratesBytes;
+
+    @Setup
+    public void setUp() throws IOException {
+        Jackson2ObjectMapperBuilder builder = Jackson2ObjectMapperBuilder.json();
+        mapper = switch (format) {
+            case "cbor" -> builder.factory(new CBORFactory()).build();
+            case "smile" -> builder.factory(new SmileFactory()).build();
+            default -> builder.build();
+        };
+        rateListType = mapper.getTypeFactory().constructCollectionType(List.class, ExchangeRateResponse.class);
+
+        LocalDateTime fecha = LocalDateTime.of(2024, 1, 15, 10, 30);
+        applyResponse = ApplyExchangeResponse.builder()
+                .monedaOrigen("USD")
+                .monedaDestino("PEN")
+                .montoInicial(new BigDecimal("1234.56"))
+                .montoConvertido(new BigDecimal("4583.08"))
+                .tipoCambioAplicado(new BigDecimal("3.712345"))
+                .fecha(fecha)
+                .ruta(List.of("USD", "PEN"))
+                .build();
+        rates = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            rates.add(ExchangeRateResponse.builder()
+                    .id((long) i)
+                    .monedaOrigen("USD")
+                    .monedaDestino(String.format("C%02d", i))
+                    .tipoCambio(new BigDecimal("3.712345").add(BigDecimal.valueOf(i)))
+                    .fechaActualizacion(fecha)
+                    .build());
+        }
+
+        applyResponseBytes = mapper.writeValueAsBytes(applyResponse);
+        ratesBytes = mapper.writeValueAsBytes(rates);
+        System.out.printf("%n%s: applyResponse=%d bytes, 100 rates=%d bytes%n",
+                format, applyResponseBytes.length, ratesBytes.length);
+    }
+
+    @Benchmark
+    public byte[] encodeApplyExchangeResponse() throws IOException {
+        return mapper.writeValueAsBytes(applyResponse);
+    }
+
+    @Benchmark
+    public ApplyExchangeResponse decodeApplyExchangeResponse() throws IOException {
+        return mapper.readValue(applyResponseBytes, ApplyExchangeResponse.class);
+    }
+
+    @Benchmark
+    public byte[] encodeRates() throws IOException {
+        return mapper.writeValueAsBytes(rates);
+    }
+
+    @Benchmark
+    public List<ExchangeRateResponse> decodeRates() throws IOException {
+        return mapper.readValue(ratesBytes, rateListType);
+    }
+}
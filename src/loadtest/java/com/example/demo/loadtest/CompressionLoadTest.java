@@ -0,0 +1,243 @@
+package com.example.demo.loadtest;
+
+import com.example.demo.dto.LoginResponse;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.http.HttpHeaders;
+import org.springframework.web.reactive.function.client.WebClient;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.PrintStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Efecto de la compresión de respuestas y de HTTP/2 (h2c) en bytes transferidos
+ * y latencia: listas (/exchange-rate/all, /exchange/apply/batch) frente a la
+ * respuesta pequeña de /exchange/apply, que queda bajo server.compression.min-response-size.
+ * <p>
+ * Cada variante (HTTP/1.1 o h2c, con o sin Accept-Encoding: gzip) lanza las
+ * peticiones en secuencia con el cliente HTTP del JDK, que informa la versión
+ * negociada y no descomprime: se cuentan los bytes del cuerpo tal como llegan
+ * y la latencia incluye descomprimirlo. Sobre loopback el ancho de banda no
+ * limita, así que además se estima el tiempo de transferencia del cuerpo en un
+ * enlace de loadtest.link-kbps.
+ * <p>
+ * Propiedades (-D): loadtest.requests (por variante y endpoint),
+ * loadtest.rates (pares creados para /exchange-rate/all),
+ * loadtest.batch-size (operaciones por /exchange/apply/batch) y loadtest.link-kbps.
+ */
+@SpringBootTest(
+        webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = {
+                "logging.level.com.example.demo=INFO",
+                "logging.level.org.springframework.security=INFO",
+                "logging.level.org.springframework.web=INFO"
+        })
+class CompressionLoadTest {
+
+    /**
+     * Endpoints medidos: apply (respuesta pequeña), all y batch (listas).
+     */
+    private enum Endpoint {
+        APPLY,
+        ALL,
+        BATCH
+    }
+
+    private static final Duration REQUEST_TIMEOUT = Duration.ofSeconds(30);
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private WebClient.Builder webClientBuilder;
+
+    private final int requests = Integer.getInteger("loadtest.requests", 200);
+    private final int rates = Integer.getInteger("loadtest.rates", 200);
+    private final int batchSize = Integer.getInteger("loadtest.batch-size", 100);
+    private final int linkKbps = Integer.getInteger("loadtest.link-kbps", 1000);
+
+    private String token;
+    private String applyBody;
+    private String batchBody;
+
+    private final Map<String, LongAdder> bodyBytes = new ConcurrentHashMap<>();
+    private final Map<String, LongAdder> responses = new ConcurrentHashMap<>();
+
+    @BeforeEach
+    void setUp() {
+        WebClient anonymous = webClientBuilder.clone()
+                .baseUrl("http://localhost:" + port)
+                .build();
+        token = anonymous.post()
+                .uri("/auth/login")
+                .bodyValue(Map.of("username", "admin", "password", "admin123"))
+                .retrieve()
+                .bodyToMono(LoginResponse.class)
+                .map(LoginResponse::getToken)
+                .block();
+        WebClient client = anonymous.mutate()
+                .defaultHeader(HttpHeaders.AUTHORIZATION, "Bearer " + token)
+                .build();
+
+        for (int i = 0; i < rates; i++) {
+            client.post()
+                    .uri("/exchange-rate")
+                    .bodyValue(Map.of("monedaOrigen", "USD", "monedaDestino", String.format("C%03d", i),
+                            "tipoCambio", String.valueOf(1 + i / 100.0)))
+                    .retrieve()
+                    .toBodilessEntity()
+                    .block();
+        }
+
+        applyBody = "{\"monedaOrigen\":\"USD\",\"monedaDestino\":\"C000\",\"monto\":1234.56}";
+        StringBuilder batch = new StringBuilder();
+        for (int i = 0; i < batchSize; i++) {
+            batch.append(String.format("{\"monedaOrigen\":\"USD\",\"monedaDestino\":\"C%03d\",\"monto\":%d.50}%n",
+                    i % rates, 100 + i));
+        }
+        batchBody = batch.toString();
+    }
+
+    @Test
+    void compareCompressionAndProtocols() throws Exception {
+        System.out.printf("Compresión y HTTP/2: %d peticiones por variante, %d pares, lotes de %d, enlace de %d kbps%n",
+                requests, rates, batchSize, linkKbps);
+        LatencyReport report = new LatencyReport();
+        long start = System.nanoTime();
+        for (HttpClient.Version version : HttpClient.Version.values()) {
+            HttpClient client = HttpClient.newBuilder().version(version).build();
+            // h2c se negocia con Upgrade en la primera petición, que debe ir sin cuerpo
+            send(client, version, Endpoint.ALL, false, null);
+            for (boolean gzip : new boolean[] {false, true}) {
+                for (Endpoint endpoint : Endpoint.values()) {
+                    // Calentamiento
+                    for (int i = 0; i < Math.max(10, requests / 10); i++) {
+                        send(client, version, endpoint, gzip, null);
+                    }
+                    for (int i = 0; i < requests; i++) {
+                        send(client, version, endpoint, gzip, report);
+                    }
+                }
+            }
+        }
+        Duration elapsed = Duration.ofNanos(System.nanoTime() - start);
+
+        report.print(System.out, elapsed);
+        printBytes(System.out);
+        report.write(Path.of("target", "loadtest"), "compression");
+
+        assertEquals(0, report.errorCount(), "Peticiones con error");
+        for (HttpClient.Version version : HttpClient.Version.values()) {
+            assertTrue(averageBytes(label(version, Endpoint.ALL, true)) < averageBytes(label(version, Endpoint.ALL, false)),
+                    "/exchange-rate/all no se comprimió");
+            assertTrue(averageBytes(label(version, Endpoint.BATCH, true)) < averageBytes(label(version, Endpoint.BATCH, false)),
+                    "/exchange/apply/batch no se comprimió");
+            assertEquals(averageBytes(label(version, Endpoint.APPLY, false)), averageBytes(label(version, Endpoint.APPLY, true)), 1.0,
+                    "/exchange/apply no debería comprimirse bajo el umbral");
+        }
+    }
+
+    private void send(HttpClient client, HttpClient.Version version, Endpoint endpoint, boolean gzip, LatencyReport report)
+            throws IOException, InterruptedException {
+        String label = label(version, endpoint, gzip);
+        HttpRequest.Builder request = HttpRequest.newBuilder()
+                .timeout(REQUEST_TIMEOUT)
+                .header(HttpHeaders.AUTHORIZATION, "Bearer " + token);
+        if (gzip) {
+            request.header(HttpHeaders.ACCEPT_ENCODING, "gzip");
+        }
+        switch (endpoint) {
+            case APPLY -> request.uri(uri("/exchange/apply"))
+                    .header(HttpHeaders.CONTENT_TYPE, "application/json")
+                    .POST(HttpRequest.BodyPublishers.ofString(applyBody));
+            case ALL -> request.uri(uri("/exchange-rate/all")).GET();
+            case BATCH -> request.uri(uri("/exchange/apply/batch"))
+                    .header(HttpHeaders.CONTENT_TYPE, "application/x-ndjson")
+                    .POST(HttpRequest.BodyPublishers.ofString(batchBody));
+        }
+
+        long startNanos = System.nanoTime();
+        HttpResponse<byte[]> response;
+        try {
+            response = client.send(request.build(), HttpResponse.BodyHandlers.ofByteArray());
+            decode(response);
+        } catch (IOException e) {
+            if (report != null) {
+                report.recordError(label);
+            }
+            return;
+        }
+        long latencyNanos = System.nanoTime() - startNanos;
+        if (report == null) {
+            return;
+        }
+        if (response.statusCode() != 200 || response.version() != version) {
+            report.recordError(label);
+            return;
+        }
+        report.recordSuccess(label, latencyNanos);
+        bodyBytes.computeIfAbsent(label, unused -> new LongAdder()).add(response.body().length);
+        responses.computeIfAbsent(label, unused -> new LongAdder()).increment();
+    }
+
+    /**
+     * Descomprime el cuerpo si llegó con Content-Encoding: gzip, como haría un cliente real.
+     */
+    private static byte[] decode(HttpResponse<byte[]> response) throws IOException {
+        boolean gzip = response.headers().firstValue(HttpHeaders.CONTENT_ENCODING)
+                .map("gzip"::equalsIgnoreCase)
+                .orElse(false);
+        if (!gzip) {
+            return response.body();
+        }
+        try (InputStream in = new GZIPInputStream(new ByteArrayInputStream(response.body()))) {
+            return in.readAllBytes();
+        }
+    }
+
+    /**
+     * Imprime los bytes medios del cuerpo por variante y su tiempo estimado de transferencia en el enlace.
+     */
+    private void printBytes(PrintStream out) {
+        out.printf("%-26s %12s %16s%n", "endpoint", "avg bytes", "ms @ " + linkKbps + " kbps");
+        for (String label : new TreeMap<>(responses).keySet()) {
+            double bytes = averageBytes(label);
+            out.printf("%-26s %12.0f %16.2f%n", label, bytes, bytes * 8 / linkKbps);
+        }
+    }
+
+    private double averageBytes(String label) {
+        long count = responses.getOrDefault(label, new LongAdder()).sum();
+        return count == 0 ? 0 : (double) bodyBytes.get(label).sum() / count;
+    }
+
+    private static String label(HttpClient.Version version, Endpoint endpoint, boolean gzip) {
+        return String.format("%s %s %s",
+                endpoint.name().toLowerCase(),
+                version == HttpClient.Version.HTTP_2 ? "h2c" : "h1",
+                gzip ? "gzip" : "identity");
+    }
+
+    private URI uri(String path) {
+        return URI.create("http://localhost:" + port + path);
+    }
+}
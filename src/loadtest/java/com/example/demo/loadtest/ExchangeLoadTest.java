@@ -0,0 +1,251 @@
+package com.example.demo.loadtest;
+
+import com.example.demo.dto.ExchangeRateResponse;
+import com.example.demo.dto.LoginResponse;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+
+import java.math.BigDecimal;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Prueba de carga de extremo a extremo contra la aplicación levantada en un
+ * puerto aleatorio con H2 en memoria.
+ * <p>
+ * Modelo abierto: las peticiones se lanzan a una tasa fija (loadtest.rate por
+ * segundo) sin esperar a que terminen las anteriores, y la latencia se mide
+ * desde el instante en que cada petición debía salir, de modo que un servidor
+ * lento no reduce la carga ni oculta la espera en cola.
+ * <p>
+ * Con login-storm se mide primero una fase solo de conversiones a la misma
+ * tasa de /exchange/apply y luego la mezcla con logins, y se comparan los
+ * percentiles de /exchange/apply de ambas fases: BCrypt corre en su propio
+ * pool, así que la tormenta de logins no debería mover la latencia de las
+ * conversiones. Los logins rechazados por el pool lleno (503) se reportan
+ * aparte y no cuentan como error.
+ * <p>
+ * Propiedades (-D): loadtest.workload (apply-heavy, read-heavy, admin-writes,
+ * login-storm), loadtest.rate, loadtest.duration y loadtest.warmup (segundos),
+ * loadtest.connections, loadtest.max-p99-ms (opcional, falla si algún
+ * endpoint que no sea /auth/login lo supera) y loadtest.max-apply-p99-ratio
+ * (opcional, solo login-storm: falla si el p99 de /exchange/apply durante la
+ * tormenta supera ese múltiplo del p99 sin logins).
+ * <p>
+ * Los logs DEBUG de application.yml se bajan a INFO para no medir la escritura
+ * en consola.
+ */
+@SpringBootTest(
+        webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = {
+                "logging.level.com.example.demo=INFO",
+                "logging.level.org.springframework.security=INFO",
+                "logging.level.org.springframework.web=INFO"
+        })
+class ExchangeLoadTest {
+
+    private static final List<String[]> PAIRS = List.of(
+            new String[] {"PEN", "USD", "0.27"},
+            new String[] {"USD", "EUR", "0.92"},
+            new String[] {"EUR", "GBP", "0.86"},
+            new String[] {"USD", "JPY", "148.50"},
+            new String[] {"GBP", "CHF", "1.11"});
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private WebClient.Builder webClientBuilder;
+
+    private final Workload workload = Workload.parse(System.getProperty("loadtest.workload", "apply-heavy"));
+    private final int rate = Integer.getInteger("loadtest.rate", 200);
+    private final Duration duration = Duration.ofSeconds(Integer.getInteger("loadtest.duration", 30));
+    private final Duration warmup = Duration.ofSeconds(Integer.getInteger("loadtest.warmup", 5));
+    private final int connections = Integer.getInteger("loadtest.connections", 500);
+    private final String maxP99Millis = System.getProperty("loadtest.max-p99-ms");
+    private final String maxApplyP99Ratio = System.getProperty("loadtest.max-apply-p99-ratio");
+
+    private static final String APPLY = Workload.Operation.APPLY.endpoint();
+    private static final String LOGIN_REJECTED = Workload.Operation.LOGIN.endpoint() + " 503";
+
+    private WebClient anonymous;
+    private WebClient client;
+    private final List<Long> rateIds = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        ConnectionProvider provider = ConnectionProvider.builder("loadtest")
+                .maxConnections(connections)
+                .pendingAcquireMaxCount(-1)
+                .build();
+        anonymous = webClientBuilder.clone()
+                .baseUrl("http://localhost:" + port)
+                .clientConnector(new ReactorClientHttpConnector(HttpClient.create(provider)))
+                .build();
+
+        String token = anonymous.post()
+                .uri("/auth/login")
+                .bodyValue(Map.of("username", "admin", "password", "admin123"))
+                .retrieve()
+                .bodyToMono(LoginResponse.class)
+                .map(LoginResponse::getToken)
+                .block();
+        client = anonymous.mutate()
+                .defaultHeader(HttpHeaders.AUTHORIZATION, "Bearer " + token)
+                .build();
+
+        for (String[] pair : PAIRS) {
+            ExchangeRateResponse created = client.post()
+                    .uri("/exchange-rate")
+                    .bodyValue(Map.of("monedaOrigen", pair[0], "monedaDestino", pair[1], "tipoCambio", pair[2]))
+                    .retrieve()
+                    .bodyToMono(ExchangeRateResponse.class)
+                    .block();
+            rateIds.add(created.getId());
+        }
+    }
+
+    @Test
+    void runWorkload() throws Exception {
+        LatencyReport baseline = null;
+        if (workload.hasLogins()) {
+            int applyRate = Math.max(1, rate * workload.applyPercent() / 100);
+            System.out.printf("Sin logins: %d req/s de %s durante %ds (calentamiento %ds)%n",
+                    applyRate, APPLY, duration.toSeconds(), warmup.toSeconds());
+            run(() -> Workload.Operation.APPLY, applyRate, warmup);
+            long start = System.nanoTime();
+            baseline = run(() -> Workload.Operation.APPLY, applyRate, duration);
+            baseline.print(System.out, Duration.ofNanos(System.nanoTime() - start));
+            baseline.write(Path.of("target", "loadtest"), workload.name().toLowerCase() + "-baseline");
+        }
+
+        System.out.printf("Carga %s: %d req/s durante %ds (calentamiento %ds)%n",
+                workload, rate, duration.toSeconds(), warmup.toSeconds());
+        run(workload::next, rate, warmup);
+        long start = System.nanoTime();
+        LatencyReport report = run(workload::next, rate, duration);
+        Duration elapsed = Duration.ofNanos(System.nanoTime() - start);
+
+        report.print(System.out, elapsed);
+        report.write(Path.of("target", "loadtest"), workload.name().toLowerCase());
+        if (baseline != null) {
+            System.out.printf("%s p50/p99/p999: %.2f/%.2f/%.2f ms sin logins, %.2f/%.2f/%.2f ms con logins%n",
+                    APPLY,
+                    baseline.percentileMillis(APPLY, 50.0), baseline.p99Millis(APPLY), baseline.percentileMillis(APPLY, 99.9),
+                    report.percentileMillis(APPLY, 50.0), report.p99Millis(APPLY), report.percentileMillis(APPLY, 99.9));
+        }
+
+        assertEquals(0, report.errorCount(), "Peticiones con error");
+        if (maxP99Millis != null) {
+            for (String endpoint : report.endpoints()) {
+                if (endpoint.startsWith(Workload.Operation.LOGIN.endpoint())) {
+                    continue;
+                }
+                assertTrue(report.p99Millis(endpoint) <= Double.parseDouble(maxP99Millis),
+                        "p99 de " + endpoint + " supera " + maxP99Millis + " ms");
+            }
+        }
+        if (baseline != null && maxApplyP99Ratio != null) {
+            assertTrue(report.p99Millis(APPLY) <= baseline.p99Millis(APPLY) * Double.parseDouble(maxApplyP99Ratio),
+                    "p99 de " + APPLY + " con logins (" + report.p99Millis(APPLY) + " ms) supera "
+                            + maxApplyP99Ratio + " veces el p99 sin logins (" + baseline.p99Millis(APPLY) + " ms)");
+        }
+    }
+
+    /**
+     * Lanza requestsPerSecond peticiones por segundo durante la duración dada y espera a que terminen.
+     */
+    private LatencyReport run(Supplier<Workload.Operation> operations, int requestsPerSecond, Duration phase) {
+        LatencyReport report = new LatencyReport();
+        long intervalNanos = 1_000_000_000L / requestsPerSecond;
+        long requests = phase.toNanos() / intervalNanos;
+        long start = System.nanoTime();
+        Flux.interval(Duration.ofNanos(intervalNanos))
+                .take(requests)
+                .flatMap(i -> send(report, operations.get(), start + i * intervalNanos), Integer.MAX_VALUE)
+                .blockLast(phase.plusMinutes(5));
+        return report;
+    }
+
+    private Mono<Void> send(LatencyReport report, Workload.Operation operation, long intendedStartNanos) {
+        return request(operation)
+                .doOnSuccess(unused -> report.recordSuccess(
+                        operation.endpoint(), System.nanoTime() - intendedStartNanos))
+                .onErrorResume(error -> {
+                    if (operation == Workload.Operation.LOGIN && error instanceof WebClientResponseException response
+                            && response.getStatusCode() == HttpStatus.SERVICE_UNAVAILABLE) {
+                        // Rechazo por pool de hashing lleno: es la protección esperada, no un error
+                        report.recordSuccess(LOGIN_REJECTED, System.nanoTime() - intendedStartNanos);
+                    } else {
+                        report.recordError(operation.endpoint());
+                    }
+                    return Mono.empty();
+                });
+    }
+
+    private Mono<Void> request(Workload.Operation operation) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        int index = random.nextInt(PAIRS.size());
+        String[] pair = PAIRS.get(index);
+        return switch (operation) {
+            case APPLY -> {
+                boolean inverse = random.nextBoolean();
+                yield client.post()
+                        .uri("/exchange/apply")
+                        .bodyValue(Map.of(
+                                "monedaOrigen", inverse ? pair[1] : pair[0],
+                                "monedaDestino", inverse ? pair[0] : pair[1],
+                                "monto", BigDecimal.valueOf(random.nextInt(1, 100_000), 2)))
+                        .retrieve()
+                        .toBodilessEntity()
+                        .then();
+            }
+            case READ -> client.get()
+                    .uri(uri -> uri.path("/exchange-rate")
+                            .queryParam("origen", pair[0])
+                            .queryParam("destino", pair[1])
+                            .build())
+                    .retrieve()
+                    .toBodilessEntity()
+                    .then();
+            case WRITE -> client.put()
+                    .uri("/exchange-rate/{id}", rateIds.get(index))
+                    .bodyValue(Map.of("tipoCambio",
+                            new BigDecimal(pair[2]).multiply(BigDecimal.valueOf(random.nextInt(95, 106), 2))))
+                    .retrieve()
+                    .toBodilessEntity()
+                    .then();
+            case LOGIN -> {
+                boolean admin = random.nextBoolean();
+                yield anonymous.post()
+                        .uri("/auth/login")
+                        .bodyValue(Map.of(
+                                "username", admin ? "admin" : "user",
+                                "password", admin ? "admin123" : "user123"))
+                        .retrieve()
+                        .toBodilessEntity()
+                        .then();
+            }
+        };
+    }
+}
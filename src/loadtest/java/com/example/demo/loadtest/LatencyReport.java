@@ -0,0 +1,94 @@
+package com.example.demo.loadtest;
+
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Latencias (HdrHistogram, en nanosegundos) y errores por endpoint.
+ */
+class LatencyReport {
+
+    private static final long MAX_LATENCY_NANOS = TimeUnit.MINUTES.toNanos(5);
+    private static final double NANOS_PER_MILLI = 1_000_000.0;
+
+    private final Map<String, Histogram> latencies = new ConcurrentHashMap<>();
+    private final Map<String, LongAdder> errors = new ConcurrentHashMap<>();
+
+    void recordSuccess(String endpoint, long latencyNanos) {
+        latencies.computeIfAbsent(endpoint, unused -> new ConcurrentHistogram(MAX_LATENCY_NANOS, 3))
+                .recordValue(Math.min(latencyNanos, MAX_LATENCY_NANOS));
+    }
+
+    void recordError(String endpoint) {
+        errors.computeIfAbsent(endpoint, unused -> new LongAdder()).increment();
+    }
+
+    long errorCount() {
+        return errors.values().stream().mapToLong(LongAdder::sum).sum();
+    }
+
+    /**
+     * Percentil 99 de un endpoint en milisegundos, o 0 si no tuvo respuestas.
+     */
+    double p99Millis(String endpoint) {
+        return percentileMillis(endpoint, 99.0);
+    }
+
+    /**
+     * Percentil de un endpoint en milisegundos, o 0 si no tuvo respuestas.
+     */
+    double percentileMillis(String endpoint, double percentile) {
+        Histogram histogram = latencies.get(endpoint);
+        return histogram == null ? 0 : histogram.getValueAtPercentile(percentile) / NANOS_PER_MILLI;
+    }
+
+    Iterable<String> endpoints() {
+        return new TreeMap<>(latencies).keySet();
+    }
+
+    /**
+     * Imprime throughput y percentiles por endpoint.
+     */
+    void print(PrintStream out, Duration elapsed) {
+        double seconds = elapsed.toNanos() / 1_000_000_000.0;
+        out.printf("%-26s %9s %7s %10s %9s %9s %9s %9s%n",
+                "endpoint", "count", "errors", "req/s", "p50 ms", "p99 ms", "p999 ms", "max ms");
+        Map<String, Histogram> sorted = new TreeMap<>(latencies);
+        for (Map.Entry<String, Histogram> entry : sorted.entrySet()) {
+            Histogram histogram = entry.getValue();
+            out.printf("%-26s %9d %7d %10.1f %9.2f %9.2f %9.2f %9.2f%n",
+                    entry.getKey(),
+                    histogram.getTotalCount(),
+                    errors.getOrDefault(entry.getKey(), new LongAdder()).sum(),
+                    histogram.getTotalCount() / seconds,
+                    histogram.getValueAtPercentile(50.0) / NANOS_PER_MILLI,
+                    histogram.getValueAtPercentile(99.0) / NANOS_PER_MILLI,
+                    histogram.getValueAtPercentile(99.9) / NANOS_PER_MILLI,
+                    histogram.getMaxValue() / NANOS_PER_MILLI);
+        }
+    }
+
+    /**
+     * Guarda la distribución completa de cada endpoint en formato .hgrm.
+     */
+    void write(Path directory, String prefix) throws IOException {
+        Files.createDirectories(directory);
+        for (Map.Entry<String, Histogram> entry : latencies.entrySet()) {
+            String name = prefix + "-" + entry.getKey().replaceAll("[^A-Za-z0-9]+", "_") + ".hgrm";
+            try (PrintStream out = new PrintStream(Files.newOutputStream(directory.resolve(name)))) {
+                entry.getValue().outputPercentileDistribution(out, NANOS_PER_MILLI);
+            }
+        }
+    }
+}
@@ -0,0 +1,160 @@
+package com.example.demo.loadtest;
+
+import com.example.demo.DemoApplication;
+import com.example.demo.dto.ApplyExchangeResponse;
+import com.example.demo.dto.ExchangeRateResponse;
+import com.example.demo.dto.LoginResponse;
+import com.example.demo.dto.RateImportSummary;
+import com.example.demo.service.RateImportService;
+import com.example.demo.service.RatePersistence;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Flux;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tiempo de arranque con persistencia en snapshot: una primera instancia
+ * importa un tipo de cambio por cada par ordenado de loadtest.currencies
+ * monedas y al cerrar guarda el snapshot; una segunda instancia, con otra
+ * base de datos en memoria (como tras reiniciar el proceso), arranca desde
+ * ese archivo.
+ * <p>
+ * Se mide el arranque del contexto, la restauración (parte del arranque,
+ * antes de readiness) y el tiempo hasta la primera conversión correcta, y se
+ * comprueba que las conversiones usan los tipos restaurados y que los IDs
+ * nuevos continúan después de los restaurados. No incluye el arranque de la JVM.
+ * <p>
+ * Falla si la restauración, el arranque del contexto o la primera conversión
+ * superan su límite.
+ * <p>
+ * Propiedades (-D): loadtest.currencies, loadtest.conversions (conversiones
+ * verificadas tras arrancar), loadtest.max-restore-ms (por defecto 800),
+ * loadtest.max-context-start-ms (por defecto 2000) y
+ * loadtest.max-first-conversion-ms (por defecto 2800).
+ */
+class StartupLoadTest {
+
+    private final int currencies = Integer.getInteger("loadtest.currencies", 100);
+    private final int rates = currencies * (currencies - 1);
+    private final int conversions = Integer.getInteger("loadtest.conversions", 200);
+    private final long maxRestoreMillis = Long.getLong("loadtest.max-restore-ms", 800);
+    private final long maxContextStartMillis = Long.getLong("loadtest.max-context-start-ms", 2000);
+    private final long maxFirstConversionMillis = Long.getLong("loadtest.max-first-conversion-ms", 2800);
+
+    private final Path file = Path.of("target", "loadtest", "startup", "exchange-rates.snapshot");
+
+    @Test
+    void restartFromSnapshot() throws IOException {
+        Files.deleteIfExists(file);
+
+        try (ConfigurableApplicationContext first = start("startup_first")) {
+            StringBuilder csv = new StringBuilder();
+            for (int origen = 0; origen < currencies; origen++) {
+                for (int destino = 0; destino < currencies; destino++) {
+                    if (origen != destino) {
+                        csv.append(currency(origen)).append(',').append(currency(destino)).append(',')
+                                .append(rate(origen, destino)).append('\n');
+                    }
+                }
+            }
+            RateImportSummary summary = first.getBean(RateImportService.class)
+                    .importRates(Flux.just(DefaultDataBufferFactory.sharedInstance.wrap(
+                            csv.toString().getBytes(StandardCharsets.UTF_8))), RateImportService.Format.CSV)
+                    .block();
+            assertEquals(rates, summary.getCreadas(), "Tipos de cambio importados");
+        }
+        assertTrue(Files.exists(file), "El snapshot no se guardó al cerrar");
+
+        long start = System.nanoTime();
+        try (ConfigurableApplicationContext second = start("startup_second")) {
+            Duration contextStart = Duration.ofNanos(System.nanoTime() - start);
+            RatePersistence persistence = second.getBean(RatePersistence.class);
+            WebClient client = WebClient.builder()
+                    .baseUrl("http://localhost:" + second.getEnvironment().getProperty("local.server.port"))
+                    .build();
+
+            String readiness = client.get().uri("/actuator/health/readiness")
+                    .retrieve().bodyToMono(String.class).block();
+            String token = client.post().uri("/auth/login")
+                    .bodyValue(Map.of("username", "admin", "password", "admin123"))
+                    .retrieve().bodyToMono(LoginResponse.class)
+                    .map(LoginResponse::getToken)
+                    .block();
+
+            Duration firstConversion = null;
+            for (int n = 0; n < conversions; n++) {
+                int origen = ThreadLocalRandom.current().nextInt(currencies);
+                int destino = (origen + 1 + ThreadLocalRandom.current().nextInt(currencies - 1)) % currencies;
+                ApplyExchangeResponse response = client.post().uri("/exchange/apply")
+                        .header(HttpHeaders.AUTHORIZATION, "Bearer " + token)
+                        .bodyValue(Map.of("monedaOrigen", currency(origen), "monedaDestino", currency(destino), "monto", "100"))
+                        .retrieve().bodyToMono(ApplyExchangeResponse.class)
+                        .block();
+                if (firstConversion == null) {
+                    firstConversion = Duration.ofNanos(System.nanoTime() - start);
+                }
+                assertEquals(0, rate(origen, destino).compareTo(response.getTipoCambioAplicado()),
+                        "Tipo de cambio de " + currency(origen) + " a " + currency(destino));
+            }
+
+            ExchangeRateResponse created = client.post().uri("/exchange-rate")
+                    .header(HttpHeaders.AUTHORIZATION, "Bearer " + token)
+                    .bodyValue(Map.of("monedaOrigen", "EUR", "monedaDestino", "USD", "tipoCambio", "1.08"))
+                    .retrieve().bodyToMono(ExchangeRateResponse.class)
+                    .block();
+
+            System.out.printf("Arranque desde snapshot: %d tipos de cambio (%d monedas), %d bytes%n",
+                    rates, currencies, Files.size(file));
+            System.out.printf("%-36s %8d ms%n", "arranque del contexto", contextStart.toMillis());
+            System.out.printf("%-36s %8d ms%n", "  restauración (antes de readiness)", persistence.restoreTime().toMillis());
+            System.out.printf("%-36s %8d ms%n", "primera conversión correcta", firstConversion.toMillis());
+
+            assertTrue(readiness.contains("UP"), "Readiness: " + readiness);
+            assertEquals(rates, persistence.restored(), "Tipos de cambio restaurados");
+            assertEquals(rates + 1L, created.getId(), "ID del primer tipo de cambio nuevo");
+            assertTrue(persistence.restoreTime().toMillis() <= maxRestoreMillis,
+                    "Restauración de " + persistence.restoreTime().toMillis() + " ms");
+            assertTrue(contextStart.toMillis() <= maxContextStartMillis,
+                    "Arranque del contexto de " + contextStart.toMillis() + " ms");
+            assertTrue(firstConversion.toMillis() <= maxFirstConversionMillis,
+                    "Primera conversión a los " + firstConversion.toMillis() + " ms");
+        }
+    }
+
+    /**
+     * Arranca la aplicación en puertos aleatorios con su propia base de datos en memoria.
+     */
+    private ConfigurableApplicationContext start(String database) {
+        return new SpringApplicationBuilder(DemoApplication.class).run(
+                "--server.port=0",
+                "--spring.rsocket.server.port=0",
+                "--spring.r2dbc.url=r2dbc:h2:mem:///" + database + ";DB_CLOSE_DELAY=-1",
+                "--exchange-rate.persistence.snapshot-file=" + file,
+                "--logging.level.com.example.demo=INFO",
+                "--logging.level.org.springframework.security=INFO",
+                "--logging.level.org.springframework.web=INFO");
+    }
+
+    private static String currency(int i) {
+        return String.format("C%03d", i);
+    }
+
+    private static BigDecimal rate(int origen, int destino) {
+        return BigDecimal.valueOf(1_000_000 + origen * 1000L + destino, 6);
+    }
+}
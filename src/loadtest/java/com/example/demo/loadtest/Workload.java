@@ -0,0 +1,86 @@
+package com.example.demo.loadtest;
+
+import java.util.Locale;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Mezclas de tráfico de la prueba de carga, en porcentaje de operaciones.
+ */
+enum Workload {
+
+    APPLY_HEAVY(80, 15, 5, 0),
+    READ_HEAVY(10, 85, 5, 0),
+    ADMIN_WRITES(30, 30, 40, 0),
+    /** Conversiones mientras llegan logins (BCrypt) a más ritmo del que el pool de hashing puede atender. */
+    LOGIN_STORM(50, 0, 0, 50);
+
+    /**
+     * Operaciones generadas por la prueba.
+     */
+    enum Operation {
+        APPLY("POST /exchange/apply"),
+        READ("GET /exchange-rate"),
+        WRITE("PUT /exchange-rate/{id}"),
+        LOGIN("POST /auth/login");
+
+        private final String endpoint;
+
+        Operation(String endpoint) {
+            this.endpoint = endpoint;
+        }
+
+        String endpoint() {
+            return endpoint;
+        }
+    }
+
+    private final int apply;
+    private final int read;
+    private final int write;
+    private final int login;
+
+    Workload(int apply, int read, int write, int login) {
+        if (apply + read + write + login != 100) {
+            throw new IllegalArgumentException("Los porcentajes deben sumar 100");
+        }
+        this.apply = apply;
+        this.read = read;
+        this.write = write;
+        this.login = login;
+    }
+
+    /**
+     * Elige la siguiente operación según los porcentajes de la mezcla.
+     */
+    Operation next() {
+        int roll = ThreadLocalRandom.current().nextInt(100);
+        if (roll < apply) {
+            return Operation.APPLY;
+        }
+        if (roll < apply + read) {
+            return Operation.READ;
+        }
+        return roll < apply + read + write ? Operation.WRITE : Operation.LOGIN;
+    }
+
+    /**
+     * Porcentaje de conversiones de la mezcla.
+     */
+    int applyPercent() {
+        return apply;
+    }
+
+    /**
+     * Indica si la mezcla incluye logins.
+     */
+    boolean hasLogins() {
+        return login > 0;
+    }
+
+    /**
+     * Obtiene la mezcla a partir de su nombre en minúsculas con guiones (por ejemplo "read-heavy").
+     */
+    static Workload parse(String name) {
+        return valueOf(name.trim().toUpperCase(Locale.ROOT).replace('-', '_'));
+    }
+}
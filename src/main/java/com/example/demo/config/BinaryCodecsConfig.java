@@ -0,0 +1,80 @@
+package com.example.demo.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import org.reactivestreams.Publisher;
+import org.springframework.boot.web.codec.CodecCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.ResolvableType;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferFactory;
+import org.springframework.http.MediaType;
+import org.springframework.http.codec.cbor.Jackson2CborDecoder;
+import org.springframework.http.codec.cbor.Jackson2CborEncoder;
+import org.springframework.http.codec.json.Jackson2JsonEncoder;
+import org.springframework.http.codec.json.Jackson2SmileDecoder;
+import org.springframework.http.codec.json.Jackson2SmileEncoder;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.util.MimeType;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.Map;
+
+/**
+ * Codecs binarios (CBOR y Smile) para los DTOs de tipos de cambio, elegidos por
+ * Accept / Content-Type. Los ObjectMapper se crean con el mismo builder que el
+ * de JSON, así que fechas, BigDecimal y propiedades se codifican igual.
+ */
+@Configuration
+public class BinaryCodecsConfig {
+    
+    /** Tipo MIME de Smile; Spring no define una constante en MediaType. */
+    public static final String APPLICATION_SMILE_VALUE = "application/x-jackson-smile";
+    
+    public static final MediaType APPLICATION_SMILE = MediaType.parseMediaType(APPLICATION_SMILE_VALUE);
+    
+    @Bean
+    public CodecCustomizer binaryCodecsCustomizer(
+            Jackson2ObjectMapperBuilder jackson2ObjectMapperBuilder,
+            ObjectMapper objectMapper) {
+        ObjectMapper cborMapper = jackson2ObjectMapperBuilder.factory(new CBORFactory()).build();
+        ObjectMapper smileMapper = jackson2ObjectMapperBuilder.factory(new SmileFactory()).build();
+        // Sin tipos MIME explícitos los codecs de Jackson asumen application/json
+        return configurer -> {
+            // Los codecs propios se consultan antes que los por defecto: JSON va primero
+            // para seguir siendo el formato elegido sin Accept o con Accept */*
+            configurer.customCodecs().register(new Jackson2JsonEncoder(objectMapper));
+            configurer.customCodecs().register(new Jackson2CborDecoder(cborMapper, MediaType.APPLICATION_CBOR));
+            configurer.customCodecs().register(new SingleValueCborEncoder(cborMapper));
+            configurer.defaultCodecs().jackson2SmileDecoder(new Jackson2SmileDecoder(smileMapper, APPLICATION_SMILE));
+            configurer.defaultCodecs().jackson2SmileEncoder(new Jackson2SmileEncoder(smileMapper, APPLICATION_SMILE));
+        };
+    }
+    
+    /**
+     * Jackson2CborEncoder rechaza cualquier Publisher en encode(); las respuestas
+     * de estos endpoints son un único valor (Mono), que se codifica con encodeValue.
+     */
+    private static final class SingleValueCborEncoder extends Jackson2CborEncoder {
+        
+        SingleValueCborEncoder(ObjectMapper mapper) {
+            super(mapper, MediaType.APPLICATION_CBOR);
+        }
+        
+        @Override
+        public Flux<DataBuffer> encode(
+                Publisher<?> inputStream,
+                DataBufferFactory bufferFactory,
+                ResolvableType elementType,
+                MimeType mimeType,
+                Map<String, Object> hints) {
+            if (inputStream instanceof Mono<?> mono) {
+                return mono.map(value -> encodeValue(value, bufferFactory, elementType, mimeType, hints)).flux();
+            }
+            return super.encode(inputStream, bufferFactory, elementType, mimeType, hints);
+        }
+    }
+}
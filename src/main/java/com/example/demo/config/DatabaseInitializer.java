@@ -1,16 +1,25 @@
 package com.example.demo.config;
 
+import io.r2dbc.pool.ConnectionPool;
+import io.r2dbc.pool.PoolMetrics;
 import io.r2dbc.spi.ConnectionFactory;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationRunner;
 import org.springframework.core.io.ClassPathResource;
 import org.springframework.r2dbc.connection.init.ConnectionFactoryInitializer;
 import org.springframework.r2dbc.connection.init.ResourceDatabasePopulator;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
+import java.time.Duration;
+
 /**
- * Configuración para inicializar la base de datos con el schema SQL.
+ * Configuración para inicializar la base de datos con el schema SQL
+ * y precalentar el pool de conexiones.
  */
+@Slf4j
 @Configuration
 public class DatabaseInitializer {
     
@@ -28,5 +37,24 @@ public class DatabaseInitializer {
         initializer.setDatabasePopulator(populator);
         return initializer;
     }
+    
+    /**
+     * Abre al arrancar las conexiones iniciales del pool (spring.r2dbc.pool.initial-size)
+     * para que las primeras peticiones no paguen el costo de crearlas. Si el pool ya
+     * las abrió (por ejemplo al ejecutar schema.sql con min-idle) no se hace nada.
+     */
+    @Bean
+    public ApplicationRunner connectionPoolWarmup(
+            @Value("${spring.r2dbc.pool.initial-size:10}") int initialSize,
+            @Value("${spring.r2dbc.pool.max-create-connection-time:30000}") Duration timeout) {
+        return args -> {
+            if (connectionFactory instanceof ConnectionPool pool) {
+                int allocated = pool.getMetrics().map(PoolMetrics::allocatedSize).orElse(0);
+                if (allocated < initialSize) {
+                    allocated += pool.warmup().block(timeout);
+                }
+                log.info("Pool R2DBC precalentado con {} conexiones", allocated);
+            }
+        };
+    }
 }
-
@@ -0,0 +1,22 @@
+package com.example.demo.config;
+
+import jakarta.validation.Validator;
+import org.springframework.boot.autoconfigure.rsocket.RSocketMessageHandlerCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.validation.beanvalidation.SpringValidatorAdapter;
+
+/**
+ * Configuración del servidor RSocket.
+ */
+@Configuration
+public class RSocketConfig {
+
+    /**
+     * Aplica Jakarta Validation a los payloads con @Valid, igual que en los controladores HTTP.
+     */
+    @Bean
+    public RSocketMessageHandlerCustomizer validatingMessageHandlerCustomizer(Validator validator) {
+        return messageHandler -> messageHandler.setValidator(new SpringValidatorAdapter(validator));
+    }
+}
@@ -0,0 +1,79 @@
+package com.example.demo.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.aopalliance.intercept.MethodInterceptor;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.repository.core.support.RepositoryFactoryBeanSupport;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.SignalType;
+
+/**
+ * Mide cada llamada a los repositorios R2DBC con el timer exchange.repository
+ * (tags repository, method y outcome).
+ * <p>
+ * El tiempo va desde la suscripción hasta que el Mono/Flux termina, no solo la
+ * creación del publisher, por eso no se usa la métrica de repositorios de
+ * Spring Boot (deshabilitada en application.yml).
+ */
+@Configuration
+public class RepositoryMetricsConfig {
+
+    @Bean
+    public static BeanPostProcessor repositoryMetricsPostProcessor(ObjectProvider<MeterRegistry> meterRegistry) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessBeforeInitialization(Object bean, String beanName) {
+                if (bean instanceof RepositoryFactoryBeanSupport<?, ?, ?> factoryBean) {
+                    factoryBean.addRepositoryFactoryCustomizer(factory -> factory.addRepositoryProxyPostProcessor(
+                            (proxyFactory, metadata) -> proxyFactory.addAdvice(timingInterceptor(
+                                    meterRegistry, metadata.getRepositoryInterface().getSimpleName()))));
+                }
+                return bean;
+            }
+        };
+    }
+
+    private static MethodInterceptor timingInterceptor(ObjectProvider<MeterRegistry> meterRegistry, String repository) {
+        return invocation -> {
+            Object result = invocation.proceed();
+            String method = invocation.getMethod().getName();
+            if (result instanceof Mono<?> mono) {
+                return Mono.defer(() -> {
+                    Timer.Sample sample = Timer.start(meterRegistry.getObject());
+                    return mono.doFinally(signal -> stop(sample, meterRegistry, repository, method, signal));
+                });
+            }
+            if (result instanceof Flux<?> flux) {
+                return Flux.defer(() -> {
+                    Timer.Sample sample = Timer.start(meterRegistry.getObject());
+                    return flux.doFinally(signal -> stop(sample, meterRegistry, repository, method, signal));
+                });
+            }
+            return result;
+        };
+    }
+
+    private static void stop(
+            Timer.Sample sample,
+            ObjectProvider<MeterRegistry> meterRegistry,
+            String repository,
+            String method,
+            SignalType signal) {
+        String outcome = switch (signal) {
+            case ON_COMPLETE -> "success";
+            case ON_ERROR -> "error";
+            default -> "cancelled";
+        };
+        sample.stop(Timer.builder("exchange.repository")
+                .description("Llamadas a repositorios R2DBC")
+                .tag("repository", repository)
+                .tag("method", method)
+                .tag("outcome", outcome)
+                .register(meterRegistry.getObject()));
+    }
+}
@@ -0,0 +1,84 @@
+package com.example.demo.controllers;
+
+import com.example.demo.dto.AuditLogPage;
+import com.example.demo.dto.AuditLogQuery;
+import com.example.demo.dto.ConversionRollup;
+import com.example.demo.exception.InvalidAuditQueryException;
+import com.example.demo.service.AuditService;
+import com.example.demo.service.ConversionRollups;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.ResponseStatus;
+import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Controlador para consultar los logs de auditoría y los acumulados de conversiones.
+ */
+@RestController
+@RequestMapping("/audit")
+public class AuditController {
+    
+    @Autowired
+    private AuditService auditService;
+    
+    @Autowired
+    private ConversionRollups conversionRollups;
+    
+    /**
+     * Consulta logs de auditoría filtrando por usuario, par de monedas y rango
+     * de fechas, paginados por cursor del más reciente al más antiguo.
+     * 
+     * @param query Filtros (usuario, monedaOrigen, monedaDestino, desde, hasta), cursor y limit
+     * @return AuditLogPage con los logs y el cursor de la siguiente página
+     */
+    @GetMapping(value = "/logs", produces = MediaType.APPLICATION_JSON_VALUE)
+    @ResponseStatus(HttpStatus.OK)
+    @PreAuthorize("hasRole('ADMIN')")
+    public Mono<AuditLogPage> findLogs(AuditLogQuery query) {
+        return auditService.findPage(query);
+    }
+    
+    /**
+     * Acumulados de conversiones por par de monedas en los últimos minutos.
+     * 
+     * @param minutos Ventana en minutos (1 a 1440, por defecto 60)
+     * @return Lista de ConversionRollup por par
+     */
+    @GetMapping(value = "/rollups/pairs", produces = MediaType.APPLICATION_JSON_VALUE)
+    @ResponseStatus(HttpStatus.OK)
+    @PreAuthorize("hasRole('ADMIN')")
+    public Mono<List<ConversionRollup>> findPairRollups(@RequestParam(defaultValue = "60") int minutos) {
+        return Mono.fromSupplier(() -> conversionRollups.byPair(window(minutos)));
+    }
+    
+    /**
+     * Acumulados de conversiones por usuario en los últimos minutos.
+     * 
+     * @param minutos Ventana en minutos (1 a 1440, por defecto 60)
+     * @return Lista de ConversionRollup por usuario
+     */
+    @GetMapping(value = "/rollups/users", produces = MediaType.APPLICATION_JSON_VALUE)
+    @ResponseStatus(HttpStatus.OK)
+    @PreAuthorize("hasRole('ADMIN')")
+    public Mono<List<ConversionRollup>> findUserRollups(@RequestParam(defaultValue = "60") int minutos) {
+        return Mono.fromSupplier(() -> conversionRollups.byUser(window(minutos)));
+    }
+    
+    private Duration window(int minutos) {
+        Duration ventana = Duration.ofMinutes(minutos);
+        if (minutos < 1 || ventana.compareTo(ConversionRollups.MAX_WINDOW) > 0) {
+            throw new InvalidAuditQueryException(
+                    "minutos debe estar entre 1 y " + ConversionRollups.MAX_WINDOW.toMinutes());
+        }
+        return ventana;
+    }
+}
@@ -1,9 +1,19 @@
 package com.example.demo.controllers;
 
+import com.example.demo.dto.AuditLogPage;
+import com.example.demo.dto.AuditLogQuery;
 import com.example.demo.entity.AuditLog;
 import com.example.demo.entity.ExchangeRate;
-import com.example.demo.repository.AuditLogRepository;
 import com.example.demo.repository.ExchangeRateRepository;
+import com.example.demo.security.PasswordVerifier;
+import com.example.demo.security.VerifiedTokenCache;
+import com.example.demo.service.AuditService;
+import com.example.demo.service.ExchangeRateCache;
+import com.example.demo.service.IdempotencyCache;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import io.r2dbc.pool.ConnectionPool;
+import io.r2dbc.pool.PoolMetrics;
+import io.r2dbc.spi.ConnectionFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.MediaType;
 import org.springframework.security.access.prepost.PreAuthorize;
@@ -11,6 +21,10 @@ import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
 
 /**
  * Controlador para consultar datos de la base de datos.
@@ -24,7 +38,22 @@ public class DatabaseController {
     private ExchangeRateRepository exchangeRateRepository;
     
     @Autowired
-    private AuditLogRepository auditLogRepository;
+    private AuditService auditService;
+    
+    @Autowired
+    private ExchangeRateCache exchangeRateCache;
+    
+    @Autowired
+    private VerifiedTokenCache verifiedTokenCache;
+    
+    @Autowired
+    private IdempotencyCache idempotencyCache;
+    
+    @Autowired
+    private PasswordVerifier passwordVerifier;
+    
+    @Autowired
+    private ConnectionFactory connectionFactory;
     
     /**
      * Obtiene todos los tipos de cambio.
@@ -38,14 +67,102 @@ public class DatabaseController {
     }
     
     /**
-     * Obtiene todos los logs de auditoría.
+     * Obtiene los logs de auditoría más recientes, como arreglo, hasta limit
+     * (por defecto 50, máximo 500); nunca lee la tabla completa. Para recorrer
+     * todas las páginas con cursor se usa /audit/logs.
      * 
-     * @return Flux con todos los logs de auditoría
+     * @param query Filtros y limit
+     * @return Flux con los logs, del más reciente al más antiguo
      */
     @GetMapping(value = "/audit-logs", produces = MediaType.APPLICATION_JSON_VALUE)
     @PreAuthorize("hasRole('ADMIN')")
-    public Flux<AuditLog> getAllAuditLogs() {
-        return auditLogRepository.findAll();
+    public Flux<AuditLog> getAllAuditLogs(AuditLogQuery query) {
+        return auditService.findPage(query)
+                .flatMapIterable(AuditLogPage::getItems);
+    }
+    
+    /**
+     * Obtiene las estadísticas de la caché de tipos de cambio.
+     * 
+     * @return Mono con aciertos, fallos y tamaño de la caché
+     */
+    @GetMapping(value = "/exchange-rate-cache", produces = MediaType.APPLICATION_JSON_VALUE)
+    @PreAuthorize("hasRole('ADMIN')")
+    public Mono<Map<String, Object>> getExchangeRateCacheStats() {
+        return Mono.just(toStatsBody(exchangeRateCache.size(), exchangeRateCache.stats()));
+    }
+    
+    /**
+     * Obtiene las estadísticas de la caché de tokens JWT verificados.
+     * 
+     * @return Mono con aciertos, fallos y tamaño de la caché
+     */
+    @GetMapping(value = "/token-cache", produces = MediaType.APPLICATION_JSON_VALUE)
+    @PreAuthorize("hasRole('ADMIN')")
+    public Mono<Map<String, Object>> getTokenCacheStats() {
+        return Mono.just(toStatsBody(verifiedTokenCache.size(), verifiedTokenCache.stats()));
+    }
+    
+    /**
+     * Obtiene las estadísticas de la caché de respuestas por Idempotency-Key.
+     * 
+     * @return Mono con aciertos, fallos y tamaño de la caché
+     */
+    @GetMapping(value = "/idempotency-cache", produces = MediaType.APPLICATION_JSON_VALUE)
+    @PreAuthorize("hasRole('ADMIN')")
+    public Mono<Map<String, Object>> getIdempotencyCacheStats() {
+        return Mono.just(toStatsBody(idempotencyCache.size(), idempotencyCache.stats()));
+    }
+    
+    /**
+     * Obtiene las estadísticas del pool de verificación de contraseñas.
+     * 
+     * @return Mono con profundidad de cola, verificaciones y tiempos de hash
+     */
+    @GetMapping(value = "/password-hashing", produces = MediaType.APPLICATION_JSON_VALUE)
+    @PreAuthorize("hasRole('ADMIN')")
+    public Mono<Map<String, Object>> getPasswordHashingStats() {
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("queueDepth", passwordVerifier.queueDepth());
+        body.put("active", passwordVerifier.activeCount());
+        body.put("verifications", passwordVerifier.verifications());
+        body.put("rejected", passwordVerifier.rejected());
+        body.put("avgHashMillis", passwordVerifier.meanHashMillis());
+        body.put("maxHashMillis", passwordVerifier.maxHashMillis());
+        return Mono.just(body);
+    }
+
+    /**
+     * Obtiene el estado del pool de conexiones R2DBC.
+     *
+     * @return Mono con conexiones adquiridas, ociosas, asignadas y adquisiciones en espera
+     */
+    @GetMapping(value = "/connection-pool", produces = MediaType.APPLICATION_JSON_VALUE)
+    @PreAuthorize("hasRole('ADMIN')")
+    public Mono<Map<String, Object>> getConnectionPoolStats() {
+        Map<String, Object> body = new LinkedHashMap<>();
+        PoolMetrics metrics = connectionFactory instanceof ConnectionPool pool
+                ? pool.getMetrics().orElse(null)
+                : null;
+        body.put("pooled", metrics != null);
+        if (metrics != null) {
+            body.put("acquired", metrics.acquiredSize());
+            body.put("idle", metrics.idleSize());
+            body.put("allocated", metrics.allocatedSize());
+            body.put("pending", metrics.pendingAcquireSize());
+            body.put("maxAllocated", metrics.getMaxAllocatedSize());
+            body.put("maxPending", metrics.getMaxPendingAcquireSize());
+        }
+        return Mono.just(body);
     }
-}
 
+    private Map<String, Object> toStatsBody(long size, CacheStats stats) {
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("size", size);
+        body.put("hits", stats.hitCount());
+        body.put("misses", stats.missCount());
+        body.put("hitRate", stats.hitRate());
+        body.put("evictions", stats.evictionCount());
+        return body;
+    }
+}
@@ -1,5 +1,6 @@
 package com.example.demo.controllers;
 
+import com.example.demo.dto.ApplyExchangeBatchResult;
 import com.example.demo.dto.ApplyExchangeRequest;
 import com.example.demo.dto.ApplyExchangeResponse;
 import com.example.demo.service.ExchangeApplyService;
@@ -8,8 +9,11 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
+import static com.example.demo.config.BinaryCodecsConfig.APPLICATION_SMILE_VALUE;
+
 /**
  * Controlador para aplicar tipos de cambio a montos.
  */
@@ -22,14 +26,38 @@ public class ExchangeController {
     
     /**
      * Aplica un tipo de cambio a un monto y registra la operación en auditoría.
+     * Acepta y devuelve JSON, CBOR o Smile según Content-Type y Accept.
+     * Con el header Idempotency-Key los reintentos reciben la respuesta de la
+     * primera ejecución sin volver a registrarse.
      * 
      * @param request Datos de la operación (monedas y monto)
+     * @param idempotencyKey Clave de idempotencia elegida por el cliente (opcional)
      * @return ApplyExchangeResponse con el resultado de la conversión
      */
-    @PostMapping(value = "/apply", produces = MediaType.APPLICATION_JSON_VALUE, consumes = MediaType.APPLICATION_JSON_VALUE)
+    @PostMapping(
+            value = "/apply",
+            produces = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_CBOR_VALUE, APPLICATION_SMILE_VALUE},
+            consumes = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_CBOR_VALUE, APPLICATION_SMILE_VALUE})
+    @ResponseStatus(HttpStatus.OK)
+    public Mono<ApplyExchangeResponse> applyExchange(
+            @Valid @RequestBody Mono<ApplyExchangeRequest> request,
+            @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey) {
+        return request.flatMap(req -> exchangeApplyService.applyExchange(req, idempotencyKey));
+    }
+    
+    /**
+     * Aplica tipos de cambio a un lote de montos recibido como arreglo JSON o
+     * NDJSON, devolviendo cada resultado a medida que se calcula.
+     * 
+     * @param requests Operaciones del lote (monedas y monto)
+     * @return Flux con el resultado o el error de cada operación
+     */
+    @PostMapping(
+            value = "/apply/batch",
+            produces = {MediaType.APPLICATION_NDJSON_VALUE, MediaType.APPLICATION_JSON_VALUE},
+            consumes = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE})
     @ResponseStatus(HttpStatus.OK)
-    public Mono<ApplyExchangeResponse> applyExchange(@Valid @RequestBody Mono<ApplyExchangeRequest> request) {
-        return request.flatMap(exchangeApplyService::applyExchange);
+    public Flux<ApplyExchangeBatchResult> applyExchangeBatch(@RequestBody Flux<ApplyExchangeRequest> requests) {
+        return exchangeApplyService.applyExchangeBatch(requests);
     }
 }
-
@@ -0,0 +1,95 @@
+package com.example.demo.controllers;
+
+import com.example.demo.dto.ApplyExchangeBatchResult;
+import com.example.demo.dto.ApplyExchangeRequest;
+import com.example.demo.dto.ApplyExchangeResponse;
+import com.example.demo.dto.ExchangeRateEvent;
+import com.example.demo.service.ExchangeApplyService;
+import com.example.demo.service.ExchangeRateEventPublisher;
+import io.rsocket.exceptions.ApplicationErrorException;
+import jakarta.validation.Valid;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.messaging.handler.annotation.DestinationVariable;
+import org.springframework.messaging.handler.annotation.MessageExceptionHandler;
+import org.springframework.messaging.handler.annotation.MessageMapping;
+import org.springframework.messaging.handler.annotation.Payload;
+import org.springframework.messaging.handler.annotation.support.MethodArgumentNotValidException;
+import org.springframework.stereotype.Controller;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.stream.Collectors;
+
+/**
+ * Interfaz RSocket para clientes internos de alto volumen: una conexión
+ * persistente y multiplexada, autenticada una sola vez en el SETUP.
+ */
+@Controller
+public class ExchangeRSocketController {
+
+    @Autowired
+    private ExchangeApplyService exchangeApplyService;
+
+    @Autowired
+    private ExchangeRateEventPublisher exchangeRateEventPublisher;
+
+    /**
+     * Request-response: aplica un tipo de cambio a un monto y registra la operación en auditoría.
+     *
+     * @param request Datos de la operación (monedas y monto)
+     * @return Mono con el resultado de la conversión
+     */
+    @MessageMapping("exchange.apply")
+    public Mono<ApplyExchangeResponse> applyExchange(@Valid @Payload ApplyExchangeRequest request) {
+        return exchangeApplyService.applyExchange(request);
+    }
+
+    /**
+     * Request-channel: aplica tipos de cambio a un flujo de montos, emitiendo
+     * cada resultado en el orden de entrada. Las operaciones se piden al
+     * cliente según la demanda de resultados (request-n en ambos sentidos).
+     *
+     * @param requests Flujo de operaciones (monedas y monto)
+     * @return Flux con el resultado o el error de cada operación
+     */
+    @MessageMapping("exchange.apply.channel")
+    public Flux<ApplyExchangeBatchResult> applyExchangeChannel(Flux<ApplyExchangeRequest> requests) {
+        return exchangeApplyService.applyExchangeBatch(requests);
+    }
+
+    /**
+     * Request-stream: transmite en vivo los cambios de todos los tipos de cambio.
+     *
+     * @return Flux de eventos de cambio
+     */
+    @MessageMapping("exchange-rate.stream")
+    public Flux<ExchangeRateEvent> stream() {
+        return exchangeRateEventPublisher.subscribe(null, null);
+    }
+
+    /**
+     * Request-stream: transmite en vivo los cambios de un par de monedas.
+     *
+     * @param origen Moneda origen
+     * @param destino Moneda destino
+     * @return Flux de eventos de cambio del par
+     */
+    @MessageMapping("exchange-rate.stream.{origen}.{destino}")
+    public Flux<ExchangeRateEvent> stream(@DestinationVariable String origen, @DestinationVariable String destino) {
+        return exchangeRateEventPublisher.subscribe(origen, destino);
+    }
+
+    /**
+     * Devuelve los errores de validación como un único mensaje de error RSocket.
+     */
+    @MessageExceptionHandler
+    public Mono<Void> handleValidationExceptions(MethodArgumentNotValidException ex) {
+        String message = ex.getBindingResult() == null
+                ? ex.getMessage()
+                : ex.getBindingResult().getFieldErrors().stream()
+                        .map(error -> error.getField() + ": " + error.getDefaultMessage())
+                        .sorted()
+                        .collect(Collectors.joining("; "));
+        return Mono.error(new ApplicationErrorException(message));
+    }
+}
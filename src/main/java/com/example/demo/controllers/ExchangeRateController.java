@@ -1,17 +1,41 @@
 package com.example.demo.controllers;
 
+import com.example.demo.dto.ExchangeRateEvent;
 import com.example.demo.dto.ExchangeRateRequest;
 import com.example.demo.dto.ExchangeRateResponse;
 import com.example.demo.dto.ExchangeRateUpdateRequest;
+import com.example.demo.dto.RateImportSummary;
+import com.example.demo.service.ExchangeRateEventPublisher;
 import com.example.demo.service.ExchangeRateService;
+import com.example.demo.service.RateImportService;
+import com.example.demo.service.RateSnapshot;
+import com.example.demo.service.RateTableVersion;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.codec.ServerSentEvent;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.util.MimeTypeUtils;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ServerWebExchange;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
+import java.nio.ByteBuffer;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static com.example.demo.config.BinaryCodecsConfig.APPLICATION_SMILE;
+import static com.example.demo.config.BinaryCodecsConfig.APPLICATION_SMILE_VALUE;
+
 /**
  * Controlador para operaciones CRUD de tipos de cambio.
  */
@@ -22,6 +46,21 @@ public class ExchangeRateController {
     @Autowired
     private ExchangeRateService exchangeRateService;
     
+    @Autowired
+    private ExchangeRateEventPublisher exchangeRateEventPublisher;
+    
+    @Autowired
+    private RateImportService rateImportService;
+    
+    @Autowired
+    private RateTableVersion rateTableVersion;
+    
+    @Autowired
+    private RateSnapshot rateSnapshot;
+    
+    @Value("${exchange-rate.events.heartbeat:15000}")
+    private long heartbeatMillis;
+    
     /**
      * Crea un nuevo tipo de cambio.
      * 
@@ -34,6 +73,41 @@ public class ExchangeRateController {
         return request.flatMap(exchangeRateService::create);
     }
     
+    /**
+     * Importa tipos de cambio de forma masiva desde un cuerpo CSV
+     * (monedaOrigen,monedaDestino,tipoCambio) o NDJSON, creando los pares
+     * nuevos y actualizando los existentes.
+     * 
+     * @param body Cuerpo de la petición, leído en streaming
+     * @return Resumen con líneas procesadas, creadas, actualizadas y errores por línea
+     */
+    @PostMapping(
+            value = "/import",
+            produces = MediaType.APPLICATION_JSON_VALUE,
+            consumes = "text/csv")
+    @PreAuthorize("hasRole('ADMIN')")
+    @ResponseStatus(HttpStatus.OK)
+    public Mono<RateImportSummary> importCsv(@RequestBody Flux<DataBuffer> body) {
+        return rateImportService.importRates(body, RateImportService.Format.CSV);
+    }
+    
+    /**
+     * Importa tipos de cambio de forma masiva desde un cuerpo NDJSON
+     * con un ExchangeRateRequest por línea.
+     * 
+     * @param body Cuerpo de la petición, leído en streaming
+     * @return Resumen con líneas procesadas, creadas, actualizadas y errores por línea
+     */
+    @PostMapping(
+            value = "/import",
+            produces = MediaType.APPLICATION_JSON_VALUE,
+            consumes = MediaType.APPLICATION_NDJSON_VALUE)
+    @PreAuthorize("hasRole('ADMIN')")
+    @ResponseStatus(HttpStatus.OK)
+    public Mono<RateImportSummary> importNdjson(@RequestBody Flux<DataBuffer> body) {
+        return rateImportService.importRates(body, RateImportService.Format.NDJSON);
+    }
+    
     /**
      * Actualiza un tipo de cambio existente.
      * 
@@ -50,40 +124,123 @@ public class ExchangeRateController {
     }
     
     /**
-     * Busca un tipo de cambio por moneda origen y destino.
+     * Busca un tipo de cambio por moneda origen y destino, en JSON, CBOR o Smile según Accept
+     * (con Vary: Accept, también en el 304).
+     * Responde 304 sin consultar si If-None-Match coincide con la versión actual de la tabla.
      * 
      * @param origen Moneda origen
      * @param destino Moneda destino
      * @return ExchangeRateResponse con el tipo de cambio encontrado
      */
-    @GetMapping(produces = MediaType.APPLICATION_JSON_VALUE)
-    @ResponseStatus(HttpStatus.OK)
+    @GetMapping(produces = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_CBOR_VALUE, APPLICATION_SMILE_VALUE})
     public Mono<ExchangeRateResponse> findByMonedas(
             @RequestParam String origen,
-            @RequestParam String destino) {
+            @RequestParam String destino,
+            ServerWebExchange exchange) {
+        exchange.getResponse().getHeaders().setVary(List.of(HttpHeaders.ACCEPT));
+        if (exchange.checkNotModified(rateTableVersion.etag())) {
+            return Mono.empty();
+        }
         return exchangeRateService.findByMonedas(origen, destino);
     }
     
     /**
-     * Obtiene todos los tipos de cambio.
+     * Busca el tipo de cambio de un par vigente en una fecha pasada.
      * 
-     * @return Flux con todos los tipos de cambio
+     * @param origen Moneda origen
+     * @param destino Moneda destino
+     * @param fecha Instante consultado (ISO-8601)
+     * @return ExchangeRateResponse vigente en esa fecha
      */
-    @GetMapping(value = "/all", produces = MediaType.APPLICATION_JSON_VALUE)
+    @GetMapping(value = "/as-of", produces = MediaType.APPLICATION_JSON_VALUE)
     @ResponseStatus(HttpStatus.OK)
-    public Flux<ExchangeRateResponse> findAll() {
-        return exchangeRateService.findAll();
+    public Mono<ExchangeRateResponse> findAsOf(
+            @RequestParam String origen,
+            @RequestParam String destino,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime fecha) {
+        return exchangeRateService.findAsOf(origen, destino, fecha);
+    }
+    
+    /**
+     * Obtiene todos los tipos de cambio. En JSON se sirve el snapshot ya serializado,
+     * comprimido con gzip si el cliente lo acepta; en CBOR o Smile solo si Accept
+     * los prefiere a JSON.
+     * Responde 304 sin consultar si If-None-Match coincide con la versión actual de la tabla.
+     * 
+     * @return Mono con la lista de tipos de cambio
+     */
+    @GetMapping(
+            value = "/all",
+            produces = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_CBOR_VALUE, APPLICATION_SMILE_VALUE})
+    public Mono<ResponseEntity<Object>> findAll(ServerWebExchange exchange) {
+        exchange.getResponse().getHeaders().setVary(List.of(HttpHeaders.ACCEPT, HttpHeaders.ACCEPT_ENCODING));
+        if (exchange.checkNotModified(rateTableVersion.etag())) {
+            return Mono.empty();
+        }
+        MediaType binary = binaryMediaType(exchange.getRequest().getHeaders());
+        if (binary != null) {
+            return exchangeRateService.findAll().collectList()
+                    .map(rates -> ResponseEntity.ok()
+                            .contentType(binary)
+                            .varyBy(HttpHeaders.ACCEPT)
+                            .body(rates));
+        }
+        boolean gzip = acceptsGzip(exchange.getRequest().getHeaders());
+        return rateSnapshot.current().map(snapshot -> {
+            ByteBuffer body = gzip ? snapshot.gzip() : snapshot.json();
+            ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .contentLength(body.remaining())
+                    .varyBy(HttpHeaders.ACCEPT, HttpHeaders.ACCEPT_ENCODING);
+            if (gzip) {
+                // Ya comprimido: con Content-Encoding la compresión del servidor no lo vuelve a comprimir
+                response.header(HttpHeaders.CONTENT_ENCODING, "gzip");
+            }
+            return response.body(body);
+        });
     }
     
     /**
-     * Obtiene un tipo de cambio por ID.
+     * Transmite en vivo (Server-Sent Events) los cambios de tipos de cambio,
+     * con un comentario periódico de heartbeat para mantener la conexión.
+     * 
+     * @param origen Moneda origen para filtrar (opcional)
+     * @param destino Moneda destino para filtrar (opcional)
+     * @return Flux de eventos de cambio
+     */
+    @GetMapping(value = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public Flux<ServerSentEvent<ExchangeRateEvent>> stream(
+            @RequestParam(required = false) String origen,
+            @RequestParam(required = false) String destino) {
+        Flux<ServerSentEvent<ExchangeRateEvent>> events = exchangeRateEventPublisher.subscribe(origen, destino)
+                .map(event -> ServerSentEvent.builder(event)
+                        .id(String.valueOf(event.getSecuencia()))
+                        .event(event.getTipo().name())
+                        .build());
+        Flux<ServerSentEvent<ExchangeRateEvent>> heartbeat = Flux.interval(Duration.ofMillis(heartbeatMillis))
+                .onBackpressureDrop()
+                .map(tick -> ServerSentEvent.<ExchangeRateEvent>builder()
+                        .comment("heartbeat")
+                        .build());
+        return Flux.merge(events, heartbeat);
+    }
+    
+    /**
+     * Obtiene un tipo de cambio por ID, en JSON, CBOR o Smile según Accept
+     * (con Vary: Accept, también en el 304).
+     * Responde 304 sin consultar si If-None-Match coincide con la versión actual de la tabla.
      * 
      * @param id ID del tipo de cambio
      * @return ExchangeRateResponse con el tipo de cambio encontrado
      */
-    @GetMapping(value = "/{id}", produces = MediaType.APPLICATION_JSON_VALUE)
-    @ResponseStatus(HttpStatus.OK)
-    public Mono<ExchangeRateResponse> findById(@PathVariable Long id) {
+    @GetMapping(
+            value = "/{id}",
+            produces = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_CBOR_VALUE, APPLICATION_SMILE_VALUE})
+    public Mono<ExchangeRateResponse> findById(@PathVariable Long id, ServerWebExchange exchange) {
+        exchange.getResponse().getHeaders().setVary(List.of(HttpHeaders.ACCEPT));
+        if (exchange.checkNotModified(rateTableVersion.etag())) {
+            return Mono.empty();
+        }
         return exchangeRateService.findById(id);
     }
     
@@ -98,5 +255,54 @@ public class ExchangeRateController {
     public Mono<Void> delete(@PathVariable Long id) {
         return exchangeRateService.delete(id);
     }
+    
+    /**
+     * Tipo binario (CBOR o Smile) si Accept lo prefiere a JSON, o null si prefiere
+     * JSON o no indica preferencia (sin Accept o solo con comodines).
+     */
+    private static MediaType binaryMediaType(HttpHeaders headers) {
+        List<MediaType> accepted = new ArrayList<>(headers.getAccept());
+        MimeTypeUtils.sortBySpecificity(accepted);
+        for (MediaType mediaType : accepted) {
+            if (mediaType.getQualityValue() == 0) {
+                continue;
+            }
+            if (mediaType.isCompatibleWith(MediaType.APPLICATION_JSON)) {
+                return null;
+            }
+            if (mediaType.isCompatibleWith(MediaType.APPLICATION_CBOR)) {
+                return MediaType.APPLICATION_CBOR;
+            }
+            if (mediaType.isCompatibleWith(APPLICATION_SMILE)) {
+                return APPLICATION_SMILE;
+            }
+        }
+        return null;
+    }
+    
+    /**
+     * Indica si Accept-Encoding incluye gzip (o *) sin q=0.
+     */
+    private static boolean acceptsGzip(HttpHeaders headers) {
+        for (String value : headers.getOrEmpty(HttpHeaders.ACCEPT_ENCODING)) {
+            for (String coding : value.split(",")) {
+                String[] parts = coding.split(";");
+                String name = parts[0].trim();
+                if (!name.equalsIgnoreCase("gzip") && !name.equals("*")) {
+                    continue;
+                }
+                boolean rejected = false;
+                for (int i = 1; i < parts.length; i++) {
+                    String param = parts[i].trim().replace(" ", "");
+                    if (param.startsWith("q=") && param.substring(2).matches("0(\\.0*)?")) {
+                        rejected = true;
+                    }
+                }
+                if (!rejected) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
 }
-
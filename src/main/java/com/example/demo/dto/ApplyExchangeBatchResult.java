@@ -0,0 +1,37 @@
+package com.example.demo.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * DTO de respuesta para un elemento de una conversión por lotes.
+ * Contiene el resultado de la conversión o el error del elemento.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class ApplyExchangeBatchResult {
+    
+    private long index;
+    private ApplyExchangeResponse result;
+    private String error;
+    
+    public static ApplyExchangeBatchResult success(long index, ApplyExchangeResponse result) {
+        return ApplyExchangeBatchResult.builder()
+                .index(index)
+                .result(result)
+                .build();
+    }
+    
+    public static ApplyExchangeBatchResult failure(long index, String error) {
+        return ApplyExchangeBatchResult.builder()
+                .index(index)
+                .error(error)
+                .build();
+    }
+}
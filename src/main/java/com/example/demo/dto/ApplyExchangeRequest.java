@@ -2,12 +2,14 @@ package com.example.demo.dto;
 
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.PastOrPresent;
 import jakarta.validation.constraints.Positive;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
 import java.math.BigDecimal;
+import java.time.LocalDateTime;
 
 /**
  * DTO para aplicar un tipo de cambio a un monto.
@@ -26,5 +28,11 @@ public class ApplyExchangeRequest {
     @NotNull(message = "El monto es obligatorio")
     @Positive(message = "El monto debe ser positivo")
     private BigDecimal monto;
+    
+    /**
+     * Fecha cuyo tipo de cambio vigente se aplica (opcional, por defecto el actual).
+     */
+    @PastOrPresent(message = "La fecha del tipo de cambio no puede ser futura")
+    private LocalDateTime fechaTipoCambio;
 }
 
@@ -7,6 +7,7 @@ import lombok.NoArgsConstructor;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.util.List;
 
 /**
  * DTO de respuesta al aplicar un tipo de cambio.
@@ -23,5 +24,6 @@ public class ApplyExchangeResponse {
     private BigDecimal montoConvertido;
     private BigDecimal tipoCambioAplicado;
     private LocalDateTime fecha;
+    private List<String> ruta;
 }
 
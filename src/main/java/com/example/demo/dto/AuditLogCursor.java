@@ -0,0 +1,43 @@
+package com.example.demo.dto;
+
+import com.example.demo.exception.InvalidAuditQueryException;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+/**
+ * Posición (fecha, id) del último log de una página, usada para paginación keyset.
+ *
+ * @param fecha Fecha del último log devuelto
+ * @param id ID del último log devuelto
+ */
+public record AuditLogCursor(LocalDateTime fecha, Long id) {
+    
+    /**
+     * Codifica el cursor como texto opaco apto para URL.
+     */
+    public String encode() {
+        String raw = fecha + "|" + id;
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+    
+    /**
+     * Decodifica un cursor generado por encode().
+     * 
+     * @throws InvalidAuditQueryException si el cursor no es válido
+     */
+    public static AuditLogCursor decode(String cursor) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int separator = raw.indexOf('|');
+            return new AuditLogCursor(
+                    LocalDateTime.parse(raw.substring(0, separator)),
+                    Long.parseLong(raw.substring(separator + 1)));
+        } catch (IllegalArgumentException | IndexOutOfBoundsException | DateTimeParseException e) {
+            throw new InvalidAuditQueryException("Cursor inválido: " + cursor);
+        }
+    }
+}
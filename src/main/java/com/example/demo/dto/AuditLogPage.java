@@ -0,0 +1,23 @@
+package com.example.demo.dto;
+
+import com.example.demo.entity.AuditLog;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * DTO de respuesta con una página de logs de auditoría.
+ * nextCursor es null cuando no hay más resultados.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class AuditLogPage {
+    
+    private List<AuditLog> items;
+    private String nextCursor;
+}
@@ -0,0 +1,34 @@
+package com.example.demo.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+
+import java.time.LocalDateTime;
+
+/**
+ * Filtros y paginación para consultar logs de auditoría.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class AuditLogQuery {
+    
+    private String usuario;
+    private String monedaOrigen;
+    private String monedaDestino;
+    
+    /** Fecha desde (inclusive). */
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+    private LocalDateTime desde;
+    
+    /** Fecha hasta (exclusiva). */
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+    private LocalDateTime hasta;
+    
+    /** Cursor opaco devuelto como nextCursor por la página anterior. */
+    private String cursor;
+    
+    private Integer limit;
+}
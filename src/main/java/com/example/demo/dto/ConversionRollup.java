@@ -0,0 +1,30 @@
+package com.example.demo.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+/**
+ * DTO con el acumulado de conversiones de un par de monedas o de un usuario
+ * en una ventana de tiempo.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ConversionRollup {
+
+    /**
+     * Par de monedas ("USD:PEN") o nombre de usuario.
+     */
+    private String clave;
+
+    private long operaciones;
+    private BigDecimal montoInicialTotal;
+    private BigDecimal montoConvertidoTotal;
+    private BigDecimal tipoCambioMinimo;
+    private BigDecimal tipoCambioMaximo;
+}
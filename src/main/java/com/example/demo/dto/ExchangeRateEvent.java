@@ -0,0 +1,32 @@
+package com.example.demo.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Evento de cambio de un tipo de cambio, publicado a los suscriptores en vivo.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ExchangeRateEvent {
+    
+    /**
+     * Tipo de cambio realizado sobre el tipo de cambio.
+     */
+    public enum Tipo {
+        CREATED,
+        UPDATED,
+        DELETED
+    }
+    
+    private long secuencia;
+    private Tipo tipo;
+    private ExchangeRateResponse exchangeRate;
+    private LocalDateTime fecha;
+}
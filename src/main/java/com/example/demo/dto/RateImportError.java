@@ -0,0 +1,23 @@
+package com.example.demo.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * DTO con el error de una línea de una importación masiva de tipos de cambio.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class RateImportError {
+    
+    /**
+     * Número de línea en el cuerpo recibido, empezando en 1.
+     */
+    private long linea;
+    
+    private String error;
+}
@@ -0,0 +1,39 @@
+package com.example.demo.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * DTO de respuesta de una importación masiva de tipos de cambio.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class RateImportSummary {
+    
+    /**
+     * Líneas con datos leídas (sin cabecera ni líneas vacías).
+     */
+    private long procesadas;
+    
+    private long creadas;
+    private long actualizadas;
+    
+    /**
+     * Líneas válidas cuyo par ya apareció antes en la misma importación
+     * (prevalece la última); no se cuentan como creadas ni actualizadas.
+     */
+    private long duplicadas;
+    
+    private long errores;
+    
+    /**
+     * Detalle de los primeros errores (exchange-rate.import.max-errors).
+     */
+    private List<RateImportError> detalleErrores;
+}
@@ -0,0 +1,46 @@
+package com.example.demo.entity;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.relational.core.mapping.Column;
+import org.springframework.data.relational.core.mapping.Table;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Entidad que representa una versión de un tipo de cambio, vigente desde validFrom
+ * hasta la siguiente versión del mismo par. Una versión eliminada marca que el par
+ * dejó de existir desde esa fecha.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Table("exchange_rate_history")
+public class ExchangeRateHistory {
+    
+    @Id
+    private Long id;
+    
+    @Column("exchange_rate_id")
+    private Long exchangeRateId;
+    
+    @Column("moneda_origen")
+    private String monedaOrigen;
+    
+    @Column("moneda_destino")
+    private String monedaDestino;
+    
+    @Column("tipo_cambio")
+    private BigDecimal tipoCambio;
+    
+    @Column("valid_from")
+    private LocalDateTime validFrom;
+    
+    @Column("eliminado")
+    private boolean eliminado;
+}
@@ -0,0 +1,15 @@
+package com.example.demo.exception;
+
+/**
+ * Excepción lanzada cuando el buffer de auditoría está lleno y no acepta más registros.
+ */
+public class AuditBufferFullException extends RuntimeException {
+    
+    public AuditBufferFullException(String message) {
+        super(message);
+    }
+    
+    public AuditBufferFullException(int capacity) {
+        super(String.format("El buffer de auditoría está lleno (capacidad %d)", capacity));
+    }
+}
@@ -0,0 +1,15 @@
+package com.example.demo.exception;
+
+/**
+ * Excepción lanzada cuando el pool de verificación de contraseñas está saturado.
+ */
+public class AuthenticationBusyException extends RuntimeException {
+    
+    public AuthenticationBusyException(String message) {
+        super(message);
+    }
+    
+    public AuthenticationBusyException() {
+        super("Demasiadas solicitudes de autenticación, intente nuevamente");
+    }
+}
@@ -2,6 +2,7 @@ package com.example.demo.exception;
 
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.AccessDeniedException;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.RestControllerAdvice;
 import org.springframework.web.bind.support.WebExchangeBindException;
@@ -41,6 +42,78 @@ public class GlobalExceptionHandler {
         return Mono.just(ResponseEntity.status(HttpStatus.CONFLICT).body(body));
     }
     
+    @ExceptionHandler(AuditBufferFullException.class)
+    public Mono<ResponseEntity<Map<String, Object>>> handleAuditBufferFull(
+            AuditBufferFullException ex) {
+        Map<String, Object> body = new HashMap<>();
+        body.put("timestamp", LocalDateTime.now());
+        body.put("status", HttpStatus.SERVICE_UNAVAILABLE.value());
+        body.put("error", "Service Unavailable");
+        body.put("message", ex.getMessage());
+        
+        return Mono.just(ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body(body));
+    }
+    
+    @ExceptionHandler(AuthenticationBusyException.class)
+    public Mono<ResponseEntity<Map<String, Object>>> handleAuthenticationBusy(
+            AuthenticationBusyException ex) {
+        Map<String, Object> body = new HashMap<>();
+        body.put("timestamp", LocalDateTime.now());
+        body.put("status", HttpStatus.SERVICE_UNAVAILABLE.value());
+        body.put("error", "Service Unavailable");
+        body.put("message", ex.getMessage());
+        
+        return Mono.just(ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body(body));
+    }
+    
+    @ExceptionHandler(InvalidAuditQueryException.class)
+    public Mono<ResponseEntity<Map<String, Object>>> handleInvalidAuditQuery(
+            InvalidAuditQueryException ex) {
+        Map<String, Object> body = new HashMap<>();
+        body.put("timestamp", LocalDateTime.now());
+        body.put("status", HttpStatus.BAD_REQUEST.value());
+        body.put("error", "Bad Request");
+        body.put("message", ex.getMessage());
+        
+        return Mono.just(ResponseEntity.status(HttpStatus.BAD_REQUEST).body(body));
+    }
+    
+    @ExceptionHandler(InvalidIdempotencyKeyException.class)
+    public Mono<ResponseEntity<Map<String, Object>>> handleInvalidIdempotencyKey(
+            InvalidIdempotencyKeyException ex) {
+        Map<String, Object> body = new HashMap<>();
+        body.put("timestamp", LocalDateTime.now());
+        body.put("status", HttpStatus.BAD_REQUEST.value());
+        body.put("error", "Bad Request");
+        body.put("message", ex.getMessage());
+        
+        return Mono.just(ResponseEntity.status(HttpStatus.BAD_REQUEST).body(body));
+    }
+    
+    @ExceptionHandler(IdempotencyKeyReusedException.class)
+    public Mono<ResponseEntity<Map<String, Object>>> handleIdempotencyKeyReused(
+            IdempotencyKeyReusedException ex) {
+        Map<String, Object> body = new HashMap<>();
+        body.put("timestamp", LocalDateTime.now());
+        body.put("status", HttpStatus.UNPROCESSABLE_ENTITY.value());
+        body.put("error", "Unprocessable Entity");
+        body.put("message", ex.getMessage());
+        
+        return Mono.just(ResponseEntity.status(HttpStatus.UNPROCESSABLE_ENTITY).body(body));
+    }
+    
+    @ExceptionHandler(AccessDeniedException.class)
+    public Mono<ResponseEntity<Map<String, Object>>> handleAccessDenied(
+            AccessDeniedException ex) {
+        Map<String, Object> body = new HashMap<>();
+        body.put("timestamp", LocalDateTime.now());
+        body.put("status", HttpStatus.FORBIDDEN.value());
+        body.put("error", "Forbidden");
+        body.put("message", ex.getMessage());
+        
+        return Mono.just(ResponseEntity.status(HttpStatus.FORBIDDEN).body(body));
+    }
+    
     @ExceptionHandler(WebExchangeBindException.class)
     public Mono<ResponseEntity<Map<String, Object>>> handleValidationExceptions(
             WebExchangeBindException ex) {
@@ -0,0 +1,11 @@
+package com.example.demo.exception;
+
+/**
+ * Excepción lanzada cuando se reutiliza un Idempotency-Key con una operación distinta.
+ */
+public class IdempotencyKeyReusedException extends RuntimeException {
+    
+    public IdempotencyKeyReusedException(String idempotencyKey) {
+        super(String.format("El Idempotency-Key %s ya se usó con otra operación", idempotencyKey));
+    }
+}
@@ -0,0 +1,11 @@
+package com.example.demo.exception;
+
+/**
+ * Excepción lanzada cuando los parámetros de consulta de auditoría no son válidos.
+ */
+public class InvalidAuditQueryException extends RuntimeException {
+    
+    public InvalidAuditQueryException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,11 @@
+package com.example.demo.exception;
+
+/**
+ * Excepción lanzada cuando el header Idempotency-Key está vacío o es demasiado largo.
+ */
+public class InvalidIdempotencyKeyException extends RuntimeException {
+    
+    public InvalidIdempotencyKeyException(String message) {
+        super(message);
+    }
+}
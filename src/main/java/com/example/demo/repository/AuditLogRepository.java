@@ -8,6 +8,6 @@ import org.springframework.stereotype.Repository;
  * Repositorio reactivo para operaciones CRUD de logs de auditoría.
  */
 @Repository
-public interface AuditLogRepository extends ReactiveCrudRepository<AuditLog, Long> {
+public interface AuditLogRepository extends ReactiveCrudRepository<AuditLog, Long>, AuditLogRepositoryCustom {
 }
 
@@ -0,0 +1,63 @@
+package com.example.demo.repository;
+
+import com.example.demo.dto.AuditLogCursor;
+import com.example.demo.dto.AuditLogQuery;
+import com.example.demo.entity.AuditLog;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Consultas y escrituras propias de los logs de auditoría: inserción masiva,
+ * paginación keyset, lectura y borrado por rango de fechas para el archivado.
+ */
+public interface AuditLogRepositoryCustom {
+    
+    /**
+     * Inserta varios logs de auditoría con una única sentencia INSERT multi-fila.
+     * 
+     * @param auditLogs Logs a insertar
+     * @return Mono con el número de filas insertadas
+     */
+    Mono<Long> insertAll(List<AuditLog> auditLogs);
+    
+    /**
+     * Busca logs de auditoría filtrados, del más reciente al más antiguo,
+     * empezando después de la posición del cursor (paginación keyset).
+     * 
+     * @param query Filtros de usuario, par de monedas y rango de fechas
+     * @param after Posición del último log de la página anterior, o null
+     * @param limit Número máximo de logs a devolver
+     * @return Flux con los logs de la página
+     */
+    Flux<AuditLog> findPage(AuditLogQuery query, AuditLogCursor after, int limit);
+    
+    /**
+     * Busca los logs de auditoría de un rango de fechas, del más antiguo al más reciente.
+     * 
+     * @param desde Fecha desde (inclusive)
+     * @param hasta Fecha hasta (exclusiva)
+     * @return Flux con los logs del rango ordenados por (fecha, id)
+     */
+    Flux<AuditLog> findBetween(LocalDateTime desde, LocalDateTime hasta);
+    
+    /**
+     * Elimina los logs de auditoría de un rango de fechas con una única sentencia
+     * DELETE, sin tocar los insertados después del de ID maxId.
+     * 
+     * @param desde Fecha desde (inclusive)
+     * @param hasta Fecha hasta (exclusiva)
+     * @param maxId Mayor ID a eliminar (inclusive)
+     * @return Mono con el número de filas eliminadas
+     */
+    Mono<Long> deleteBetween(LocalDateTime desde, LocalDateTime hasta, long maxId);
+    
+    /**
+     * Fecha del log de auditoría más antiguo.
+     * 
+     * @return Mono con la fecha, o vacío si no hay logs
+     */
+    Mono<LocalDateTime> findOldestFecha();
+}
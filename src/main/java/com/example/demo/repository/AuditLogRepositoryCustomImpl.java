@@ -0,0 +1,127 @@
+package com.example.demo.repository;
+
+import com.example.demo.dto.AuditLogCursor;
+import com.example.demo.dto.AuditLogQuery;
+import com.example.demo.entity.AuditLog;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.r2dbc.core.R2dbcEntityTemplate;
+import org.springframework.data.relational.core.query.Criteria;
+import org.springframework.data.relational.core.query.Query;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.util.StringUtils;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Implementación de las consultas y escrituras propias de los logs de auditoría.
+ */
+public class AuditLogRepositoryCustomImpl implements AuditLogRepositoryCustom {
+    
+    private static final String INSERT_PREFIX = "INSERT INTO audit_logs "
+            + "(usuario, moneda_origen, moneda_destino, monto_inicial, monto_convertido, tipo_cambio_aplicado, fecha) "
+            + "VALUES ";
+    
+    private static final Sort NEWEST_FIRST = Sort.by(Sort.Order.desc("fecha"), Sort.Order.desc("id"));
+    
+    private static final Sort OLDEST_FIRST = Sort.by(Sort.Order.asc("fecha"), Sort.Order.asc("id"));
+    
+    private final DatabaseClient databaseClient;
+    
+    private final R2dbcEntityTemplate entityTemplate;
+    
+    public AuditLogRepositoryCustomImpl(DatabaseClient databaseClient, R2dbcEntityTemplate entityTemplate) {
+        this.databaseClient = databaseClient;
+        this.entityTemplate = entityTemplate;
+    }
+    
+    @Override
+    public Mono<Long> insertAll(List<AuditLog> auditLogs) {
+        if (auditLogs.isEmpty()) {
+            return Mono.just(0L);
+        }
+        
+        StringBuilder sql = new StringBuilder(INSERT_PREFIX);
+        for (int i = 0; i < auditLogs.size(); i++) {
+            if (i > 0) {
+                sql.append(", ");
+            }
+            sql.append("(:usuario").append(i)
+                    .append(", :origen").append(i)
+                    .append(", :destino").append(i)
+                    .append(", :inicial").append(i)
+                    .append(", :convertido").append(i)
+                    .append(", :tipo").append(i)
+                    .append(", :fecha").append(i)
+                    .append(')');
+        }
+        
+        DatabaseClient.GenericExecuteSpec spec = databaseClient.sql(sql.toString());
+        for (int i = 0; i < auditLogs.size(); i++) {
+            AuditLog auditLog = auditLogs.get(i);
+            spec = spec.bind("usuario" + i, auditLog.getUsuario())
+                    .bind("origen" + i, auditLog.getMonedaOrigen())
+                    .bind("destino" + i, auditLog.getMonedaDestino())
+                    .bind("inicial" + i, auditLog.getMontoInicial())
+                    .bind("convertido" + i, auditLog.getMontoConvertido())
+                    .bind("tipo" + i, auditLog.getTipoCambioAplicado())
+                    .bind("fecha" + i, auditLog.getFecha());
+        }
+        return spec.fetch().rowsUpdated();
+    }
+    
+    @Override
+    public Flux<AuditLog> findPage(AuditLogQuery query, AuditLogCursor after, int limit) {
+        Criteria criteria = Criteria.empty();
+        if (StringUtils.hasText(query.getUsuario())) {
+            criteria = criteria.and("usuario").is(query.getUsuario());
+        }
+        if (StringUtils.hasText(query.getMonedaOrigen())) {
+            criteria = criteria.and("moneda_origen").is(query.getMonedaOrigen());
+        }
+        if (StringUtils.hasText(query.getMonedaDestino())) {
+            criteria = criteria.and("moneda_destino").is(query.getMonedaDestino());
+        }
+        if (query.getDesde() != null) {
+            criteria = criteria.and("fecha").greaterThanOrEquals(query.getDesde());
+        }
+        if (query.getHasta() != null) {
+            criteria = criteria.and("fecha").lessThan(query.getHasta());
+        }
+        if (after != null) {
+            criteria = criteria.and(Criteria.where("fecha").lessThan(after.fecha())
+                    .or(Criteria.where("fecha").is(after.fecha()).and("id").lessThan(after.id())));
+        }
+        
+        return entityTemplate.select(
+                Query.query(criteria).sort(NEWEST_FIRST).limit(limit),
+                AuditLog.class);
+    }
+    
+    @Override
+    public Flux<AuditLog> findBetween(LocalDateTime desde, LocalDateTime hasta) {
+        return entityTemplate.select(
+                Query.query(between(desde, hasta)).sort(OLDEST_FIRST),
+                AuditLog.class);
+    }
+    
+    @Override
+    public Mono<Long> deleteBetween(LocalDateTime desde, LocalDateTime hasta, long maxId) {
+        return entityTemplate.delete(
+                Query.query(between(desde, hasta).and("id").lessThanOrEquals(maxId)),
+                AuditLog.class);
+    }
+    
+    @Override
+    public Mono<LocalDateTime> findOldestFecha() {
+        return entityTemplate.select(Query.empty().sort(OLDEST_FIRST).limit(1), AuditLog.class)
+                .next()
+                .map(AuditLog::getFecha);
+    }
+    
+    private static Criteria between(LocalDateTime desde, LocalDateTime hasta) {
+        return Criteria.where("fecha").greaterThanOrEquals(desde).and("fecha").lessThan(hasta);
+    }
+}
@@ -0,0 +1,43 @@
+package com.example.demo.repository;
+
+import com.example.demo.entity.ExchangeRateHistory;
+import org.springframework.data.r2dbc.repository.Query;
+import org.springframework.data.repository.reactive.ReactiveCrudRepository;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDateTime;
+
+/**
+ * Repositorio reactivo para el historial de tipos de cambio.
+ */
+@Repository
+public interface ExchangeRateHistoryRepository extends ReactiveCrudRepository<ExchangeRateHistory, Long>,
+        ExchangeRateHistoryRepositoryCustom {
+    
+    /**
+     * Busca la versión vigente de un par en un instante dado.
+     * Usa el índice (moneda_origen, moneda_destino, valid_from).
+     * 
+     * @param monedaOrigen Moneda origen
+     * @param monedaDestino Moneda destino
+     * @param instante Instante consultado
+     * @return Mono con la versión vigente o vacío si no existía
+     */
+    @Query("SELECT * FROM exchange_rate_history WHERE moneda_origen = $1 AND moneda_destino = $2 "
+            + "AND valid_from <= $3 ORDER BY valid_from DESC, id DESC LIMIT 1")
+    Mono<ExchangeRateHistory> findEffectiveAt(String monedaOrigen, String monedaDestino, LocalDateTime instante);
+    
+    /**
+     * Obtiene las versiones posteriores a una fecha y, por cada par, la última
+     * versión anterior a ella (la vigente en esa fecha).
+     * 
+     * @param desde Fecha de corte
+     * @return Flux con las versiones
+     */
+    @Query("SELECT * FROM exchange_rate_history WHERE valid_from >= $1 "
+            + "OR id IN (SELECT MAX(id) FROM exchange_rate_history WHERE valid_from < $1 "
+            + "GROUP BY moneda_origen, moneda_destino)")
+    Flux<ExchangeRateHistory> findRecentSince(LocalDateTime desde);
+}
@@ -0,0 +1,28 @@
+package com.example.demo.repository;
+
+import com.example.demo.entity.ExchangeRateHistory;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+
+/**
+ * Operaciones de escritura masiva para el historial de tipos de cambio.
+ */
+public interface ExchangeRateHistoryRepositoryCustom {
+    
+    /**
+     * Inserta varias versiones con una única sentencia INSERT multi-fila.
+     * 
+     * @param versions Versiones a insertar
+     * @return Mono con el número de filas insertadas
+     */
+    Mono<Long> insertAll(List<ExchangeRateHistory> versions);
+    
+    /**
+     * Registra como versión vigente cada fila de exchange_rates, desde su
+     * fecha de actualización, con una única sentencia INSERT ... SELECT.
+     * 
+     * @return Mono con el número de filas insertadas
+     */
+    Mono<Long> insertCurrentVersions();
+}
@@ -0,0 +1,66 @@
+package com.example.demo.repository;
+
+import com.example.demo.entity.ExchangeRateHistory;
+import org.springframework.r2dbc.core.DatabaseClient;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+
+/**
+ * Implementación de las escrituras masivas del historial de tipos de cambio.
+ */
+public class ExchangeRateHistoryRepositoryCustomImpl implements ExchangeRateHistoryRepositoryCustom {
+    
+    private static final String INSERT_PREFIX = "INSERT INTO exchange_rate_history "
+            + "(exchange_rate_id, moneda_origen, moneda_destino, tipo_cambio, valid_from, eliminado) "
+            + "VALUES ";
+    
+    private final DatabaseClient databaseClient;
+    
+    public ExchangeRateHistoryRepositoryCustomImpl(DatabaseClient databaseClient) {
+        this.databaseClient = databaseClient;
+    }
+    
+    @Override
+    public Mono<Long> insertAll(List<ExchangeRateHistory> versions) {
+        if (versions.isEmpty()) {
+            return Mono.just(0L);
+        }
+        
+        StringBuilder sql = new StringBuilder(INSERT_PREFIX);
+        for (int i = 0; i < versions.size(); i++) {
+            if (i > 0) {
+                sql.append(", ");
+            }
+            sql.append("(:rate").append(i)
+                    .append(", :origen").append(i)
+                    .append(", :destino").append(i)
+                    .append(", :tipo").append(i)
+                    .append(", :desde").append(i)
+                    .append(", :eliminado").append(i)
+                    .append(')');
+        }
+        
+        DatabaseClient.GenericExecuteSpec spec = databaseClient.sql(sql.toString());
+        for (int i = 0; i < versions.size(); i++) {
+            ExchangeRateHistory version = versions.get(i);
+            spec = spec.bind("rate" + i, version.getExchangeRateId())
+                    .bind("origen" + i, version.getMonedaOrigen())
+                    .bind("destino" + i, version.getMonedaDestino())
+                    .bind("tipo" + i, version.getTipoCambio())
+                    .bind("desde" + i, version.getValidFrom())
+                    .bind("eliminado" + i, version.isEliminado());
+        }
+        return spec.fetch().rowsUpdated();
+    }
+    
+    @Override
+    public Mono<Long> insertCurrentVersions() {
+        return databaseClient.sql("INSERT INTO exchange_rate_history "
+                        + "(exchange_rate_id, moneda_origen, moneda_destino, tipo_cambio, valid_from, eliminado) "
+                        + "SELECT id, moneda_origen, moneda_destino, tipo_cambio, fecha_actualizacion, FALSE "
+                        + "FROM exchange_rates")
+                .fetch()
+                .rowsUpdated();
+    }
+}
@@ -6,11 +6,14 @@ import org.springframework.data.repository.reactive.ReactiveCrudRepository;
 import org.springframework.stereotype.Repository;
 import reactor.core.publisher.Mono;
 
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
 /**
  * Repositorio reactivo para operaciones CRUD de tipos de cambio.
  */
 @Repository
-public interface ExchangeRateRepository extends ReactiveCrudRepository<ExchangeRate, Long> {
+public interface ExchangeRateRepository extends ReactiveCrudRepository<ExchangeRate, Long>, ExchangeRateRepositoryCustom {
     
     /**
      * Busca un tipo de cambio por moneda origen y destino.
@@ -23,13 +26,25 @@ public interface ExchangeRateRepository extends ReactiveCrudRepository<ExchangeR
     Mono<ExchangeRate> findByMonedaOrigenAndMonedaDestino(String monedaOrigen, String monedaDestino);
     
     /**
-     * Verifica si existe un tipo de cambio para las monedas dadas.
+     * Actualiza el tipo de cambio de un registro en una sola sentencia y devuelve
+     * la fila resultante (tabla delta FINAL TABLE de H2).
      * 
-     * @param monedaOrigen Moneda origen
-     * @param monedaDestino Moneda destino
-     * @return Mono<Boolean> true si existe, false en caso contrario
+     * @param id ID del tipo de cambio
+     * @param tipoCambio Nuevo tipo de cambio
+     * @param fechaActualizacion Fecha de la actualización
+     * @return Mono con el ExchangeRate actualizado o vacío si no existía
+     */
+    @Query("SELECT * FROM FINAL TABLE (UPDATE exchange_rates SET tipo_cambio = $2, fecha_actualizacion = $3 "
+            + "WHERE id = $1)")
+    Mono<ExchangeRate> updateTipoCambio(Long id, BigDecimal tipoCambio, LocalDateTime fechaActualizacion);
+    
+    /**
+     * Elimina un registro en una sola sentencia y devuelve la fila eliminada
+     * (tabla delta OLD TABLE de H2).
+     * 
+     * @param id ID del tipo de cambio
+     * @return Mono con el ExchangeRate eliminado o vacío si no existía
      */
-    @Query("SELECT COUNT(*) > 0 FROM exchange_rates WHERE moneda_origen = $1 AND moneda_destino = $2")
-    Mono<Boolean> existsByMonedaOrigenAndMonedaDestino(String monedaOrigen, String monedaDestino);
+    @Query("SELECT * FROM OLD TABLE (DELETE FROM exchange_rates WHERE id = $1)")
+    Mono<ExchangeRate> deleteReturning(Long id);
 }
-
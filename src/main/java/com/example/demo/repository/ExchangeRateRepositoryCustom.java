@@ -0,0 +1,49 @@
+package com.example.demo.repository;
+
+import com.example.demo.entity.ExchangeRate;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+
+/**
+ * Operaciones masivas sobre tipos de cambio.
+ */
+public interface ExchangeRateRepositoryCustom {
+    
+    /**
+     * Crea o actualiza varios tipos de cambio con una única sentencia MERGE multi-fila,
+     * usando (moneda_origen, moneda_destino) como clave. La misma sentencia devuelve
+     * las filas previas (tabla delta OLD TABLE de H2), así que los pares que ya
+     * existían se conocen sin una lectura aparte que pueda quedar desfasada.
+     * 
+     * @param exchangeRates Tipos de cambio a guardar, sin pares repetidos
+     * @return Flux con la fila anterior de cada par actualizado; los pares creados no aparecen
+     */
+    Flux<ExchangeRate> upsertAll(List<ExchangeRate> exchangeRates);
+    
+    /**
+     * Busca los tipos de cambio de varios pares con una única consulta.
+     * 
+     * @param exchangeRates Tipos de cambio cuyos pares (moneda origen y destino) se buscan
+     * @return Flux con los tipos de cambio existentes
+     */
+    Flux<ExchangeRate> findAllByMonedas(List<ExchangeRate> exchangeRates);
+    
+    /**
+     * Inserta varios tipos de cambio conservando sus IDs, con una única sentencia
+     * INSERT ... SELECT sobre arreglos de valores por columna.
+     * 
+     * @param exchangeRates Tipos de cambio a insertar, con ID
+     * @return Mono con el número de filas insertadas
+     */
+    Mono<Long> insertAll(List<ExchangeRate> exchangeRates);
+    
+    /**
+     * Reinicia la secuencia de IDs después del mayor ID existente, para que las
+     * inserciones siguientes no choquen con IDs insertados explícitamente.
+     * 
+     * @return Mono vacío que completa al terminar
+     */
+    Mono<Void> restartIdSequence();
+}
@@ -0,0 +1,133 @@
+package com.example.demo.repository;
+
+import com.example.demo.entity.ExchangeRate;
+import org.springframework.data.r2dbc.core.R2dbcEntityTemplate;
+import org.springframework.r2dbc.core.DatabaseClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Implementación de las operaciones masivas sobre tipos de cambio.
+ */
+public class ExchangeRateRepositoryCustomImpl implements ExchangeRateRepositoryCustom {
+    
+    private static final String MERGE_PREFIX = "SELECT * FROM OLD TABLE (MERGE INTO exchange_rates "
+            + "(moneda_origen, moneda_destino, tipo_cambio, fecha_actualizacion) "
+            + "KEY (moneda_origen, moneda_destino) VALUES ";
+    
+    private static final String INSERT_SQL = "INSERT INTO exchange_rates "
+            + "(id, moneda_origen, moneda_destino, tipo_cambio, fecha_actualizacion) "
+            + "SELECT * FROM UNNEST(CAST(:ids AS BIGINT ARRAY), CAST(:origenes AS VARCHAR ARRAY), "
+            + "CAST(:destinos AS VARCHAR ARRAY), CAST(:tipos AS DECIMAL(20, 6) ARRAY), "
+            + "CAST(:fechas AS TIMESTAMP ARRAY))";
+    
+    private final DatabaseClient databaseClient;
+    
+    private final R2dbcEntityTemplate entityTemplate;
+    
+    public ExchangeRateRepositoryCustomImpl(DatabaseClient databaseClient, R2dbcEntityTemplate entityTemplate) {
+        this.databaseClient = databaseClient;
+        this.entityTemplate = entityTemplate;
+    }
+    
+    @Override
+    public Flux<ExchangeRate> upsertAll(List<ExchangeRate> exchangeRates) {
+        if (exchangeRates.isEmpty()) {
+            return Flux.empty();
+        }
+        
+        StringBuilder sql = new StringBuilder(MERGE_PREFIX);
+        for (int i = 0; i < exchangeRates.size(); i++) {
+            if (i > 0) {
+                sql.append(", ");
+            }
+            sql.append("(:origen").append(i)
+                    .append(", :destino").append(i)
+                    .append(", :tipo").append(i)
+                    .append(", :fecha").append(i)
+                    .append(')');
+        }
+        sql.append(')');
+        
+        DatabaseClient.GenericExecuteSpec spec = databaseClient.sql(sql.toString());
+        for (int i = 0; i < exchangeRates.size(); i++) {
+            ExchangeRate exchangeRate = exchangeRates.get(i);
+            spec = spec.bind("origen" + i, exchangeRate.getMonedaOrigen())
+                    .bind("destino" + i, exchangeRate.getMonedaDestino())
+                    .bind("tipo" + i, exchangeRate.getTipoCambio())
+                    .bind("fecha" + i, exchangeRate.getFechaActualizacion());
+        }
+        return spec.map((row, metadata) -> entityTemplate.getConverter().read(ExchangeRate.class, row, metadata))
+                .all();
+    }
+    
+    @Override
+    public Flux<ExchangeRate> findAllByMonedas(List<ExchangeRate> exchangeRates) {
+        if (exchangeRates.isEmpty()) {
+            return Flux.empty();
+        }
+        
+        StringBuilder sql = new StringBuilder("SELECT * FROM exchange_rates WHERE ");
+        for (int i = 0; i < exchangeRates.size(); i++) {
+            if (i > 0) {
+                sql.append(" OR ");
+            }
+            sql.append("(moneda_origen = :origen").append(i)
+                    .append(" AND moneda_destino = :destino").append(i)
+                    .append(')');
+        }
+        
+        DatabaseClient.GenericExecuteSpec spec = databaseClient.sql(sql.toString());
+        for (int i = 0; i < exchangeRates.size(); i++) {
+            spec = spec.bind("origen" + i, exchangeRates.get(i).getMonedaOrigen())
+                    .bind("destino" + i, exchangeRates.get(i).getMonedaDestino());
+        }
+        return spec.map((row, metadata) -> entityTemplate.getConverter().read(ExchangeRate.class, row, metadata))
+                .all();
+    }
+    
+    @Override
+    public Mono<Long> insertAll(List<ExchangeRate> exchangeRates) {
+        if (exchangeRates.isEmpty()) {
+            return Mono.just(0L);
+        }
+        int size = exchangeRates.size();
+        Long[] ids = new Long[size];
+        String[] origenes = new String[size];
+        String[] destinos = new String[size];
+        BigDecimal[] tipos = new BigDecimal[size];
+        LocalDateTime[] fechas = new LocalDateTime[size];
+        for (int i = 0; i < size; i++) {
+            ExchangeRate exchangeRate = exchangeRates.get(i);
+            ids[i] = exchangeRate.getId();
+            origenes[i] = exchangeRate.getMonedaOrigen();
+            destinos[i] = exchangeRate.getMonedaDestino();
+            tipos[i] = exchangeRate.getTipoCambio();
+            fechas[i] = exchangeRate.getFechaActualizacion();
+        }
+        // Un parámetro por columna: H2 analiza y ejecuta una sola sentencia para todas las filas
+        return databaseClient.sql(INSERT_SQL)
+                .bind("ids", ids)
+                .bind("origenes", origenes)
+                .bind("destinos", destinos)
+                .bind("tipos", tipos)
+                .bind("fechas", fechas)
+                .fetch()
+                .rowsUpdated();
+    }
+    
+    @Override
+    public Mono<Void> restartIdSequence() {
+        // RESTART WITH no admite parámetros; el valor es un long calculado por la base de datos
+        return databaseClient.sql("SELECT COALESCE(MAX(id), 0) + 1 AS next_id FROM exchange_rates")
+                .map(row -> row.get("next_id", Long.class))
+                .one()
+                .flatMap(next -> databaseClient
+                        .sql("ALTER TABLE exchange_rates ALTER COLUMN id RESTART WITH " + next)
+                        .then());
+    }
+}
@@ -2,7 +2,6 @@ package com.example.demo.security;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpHeaders;
-import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.ReactiveSecurityContextHolder;
 import org.springframework.stereotype.Component;
@@ -12,16 +11,15 @@ import org.springframework.web.server.WebFilter;
 import org.springframework.web.server.WebFilterChain;
 import reactor.core.publisher.Mono;
 
-import java.util.Collections;
-
 /**
- * Filtro para validar tokens JWT en cada request.
+ * Filtro para validar tokens JWT en cada request. Los roles del token se
+ * usan como authorities, para que @PreAuthorize pueda evaluarlos.
  */
 @Component
 public class JwtAuthenticationFilter implements WebFilter {
     
     @Autowired
-    private JwtUtil jwtUtil;
+    private VerifiedTokenCache verifiedTokenCache;
     
     @Override
     public Mono<Void> filter(ServerWebExchange exchange, WebFilterChain chain) {
@@ -29,13 +27,9 @@ public class JwtAuthenticationFilter implements WebFilter {
         
         if (StringUtils.hasText(token)) {
             try {
-                String username = jwtUtil.extractUsername(token);
-                if (username != null && jwtUtil.validateToken(token, username)) {
-                    Authentication authentication = new UsernamePasswordAuthenticationToken(
-                            username,
-                            null,
-                            Collections.emptyList()
-                    );
+                VerifiedTokenCache.VerifiedToken verified = verifiedTokenCache.get(token);
+                if (verified != null) {
+                    Authentication authentication = verified.toAuthentication();
                     
                     return chain.filter(exchange)
                             .contextWrite(ReactiveSecurityContextHolder.withAuthentication(authentication));
@@ -0,0 +1,74 @@
+package com.example.demo.security;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import io.rsocket.metadata.AuthMetadataCodec;
+import io.rsocket.metadata.WellKnownAuthType;
+import io.rsocket.metadata.WellKnownMimeType;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.codec.ByteArrayDecoder;
+import org.springframework.messaging.rsocket.DefaultMetadataExtractor;
+import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.security.config.annotation.rsocket.PayloadInterceptorOrder;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.rsocket.api.PayloadExchange;
+import org.springframework.security.rsocket.authentication.AuthenticationPayloadInterceptor;
+import org.springframework.security.web.authentication.preauth.PreAuthenticatedAuthenticationToken;
+import org.springframework.stereotype.Component;
+import org.springframework.util.MimeType;
+import org.springframework.util.MimeTypeUtils;
+import reactor.core.publisher.Mono;
+
+/**
+ * Autentica conexiones RSocket con el mismo token JWT que usa la API HTTP,
+ * enviado como metadata de autenticación Bearer (message/x.rsocket.authentication.v0).
+ * <p>
+ * Basta con enviarlo en el frame SETUP: la autenticación de la conexión se
+ * propaga a todas sus peticiones, que no necesitan volver a enviar el token.
+ */
+@Component
+public class JwtPayloadInterceptor extends AuthenticationPayloadInterceptor {
+
+    private static final MimeType AUTHENTICATION_MIME_TYPE =
+            MimeTypeUtils.parseMimeType(WellKnownMimeType.MESSAGE_RSOCKET_AUTHENTICATION.getString());
+
+    private static final String AUTHENTICATION_KEY = "authentication";
+
+    private static final DefaultMetadataExtractor METADATA_EXTRACTOR = new DefaultMetadataExtractor(new ByteArrayDecoder());
+
+    static {
+        METADATA_EXTRACTOR.metadataToExtract(AUTHENTICATION_MIME_TYPE, byte[].class, AUTHENTICATION_KEY);
+    }
+
+    @Autowired
+    public JwtPayloadInterceptor(VerifiedTokenCache verifiedTokenCache) {
+        super(authentication -> Mono.fromCallable(
+                        () -> verifiedTokenCache.get((String) authentication.getCredentials()))
+                .onErrorMap(e -> new BadCredentialsException("Token JWT inválido", e))
+                .switchIfEmpty(Mono.error(() -> new BadCredentialsException("Token JWT expirado")))
+                .map(VerifiedTokenCache.VerifiedToken::toAuthentication));
+        setAuthenticationConverter(JwtPayloadInterceptor::convert);
+        setOrder(PayloadInterceptorOrder.AUTHENTICATION.getOrder());
+    }
+
+    /**
+     * Extrae el token Bearer de la metadata, o vacío si el payload no trae uno.
+     */
+    private static Mono<Authentication> convert(PayloadExchange exchange) {
+        return Mono.fromCallable(() -> METADATA_EXTRACTOR.extract(exchange.getPayload(), exchange.getMetadataMimeType()))
+                .mapNotNull(metadata -> bearerToken((byte[]) metadata.get(AUTHENTICATION_KEY)))
+                .map(token -> new PreAuthenticatedAuthenticationToken(null, token));
+    }
+
+    private static String bearerToken(byte[] authentication) {
+        if (authentication == null) {
+            return null;
+        }
+        ByteBuf metadata = Unpooled.wrappedBuffer(authentication);
+        if (!AuthMetadataCodec.isWellKnownAuthType(metadata)
+                || AuthMetadataCodec.readWellKnownAuthType(metadata) != WellKnownAuthType.BEARER) {
+            return null;
+        }
+        return new String(AuthMetadataCodec.readBearerTokenAsCharArray(metadata));
+    }
+}
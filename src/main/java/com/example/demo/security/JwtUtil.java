@@ -1,16 +1,25 @@
 package com.example.demo.security;
 
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.JwtException;
 import io.jsonwebtoken.security.Keys;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
 import javax.crypto.SecretKey;
 import java.nio.charset.StandardCharsets;
+import java.util.Collection;
 import java.util.Date;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.TimeUnit;
 import java.util.function.Function;
 
 /**
@@ -19,12 +28,47 @@ import java.util.function.Function;
 @Component
 public class JwtUtil {
     
+    /** Claim con los roles del usuario (authorities, p. ej. ROLE_ADMIN). */
+    public static final String ROLES_CLAIM = "roles";
+    
     @Value("${jwt.secret}")
     private String secret;
     
     @Value("${jwt.expiration}")
     private Long expiration;
     
+    @Autowired
+    private MeterRegistry meterRegistry;
+    
+    private SecretKey signingKey;
+    
+    private JwtParser parser;
+    
+    private Timer validVerifications;
+    
+    private Timer invalidVerifications;
+    
+    /**
+     * Construye una sola vez la clave de firma y el parser, que son inmutables
+     * y seguros para uso concurrente.
+     */
+    @PostConstruct
+    public void init() {
+        signingKey = Keys.hmacShaKeyFor(secret.getBytes(StandardCharsets.UTF_8));
+        parser = Jwts.parser()
+                .verifyWith(signingKey)
+                .build();
+        validVerifications = verificationTimer("valid");
+        invalidVerifications = verificationTimer("invalid");
+    }
+    
+    private Timer verificationTimer(String outcome) {
+        return Timer.builder("jwt.verification")
+                .description("Verificación de firma y expiración de tokens JWT")
+                .tag("outcome", outcome)
+                .register(meterRegistry);
+    }
+    
     /**
      * Genera un token JWT para un usuario.
      * 
@@ -32,7 +76,20 @@ public class JwtUtil {
      * @return Token JWT
      */
     public String generateToken(String username) {
+        return generateToken(username, List.of());
+    }
+    
+    /**
+     * Genera un token JWT para un usuario con sus roles, para que las peticiones
+     * autenticadas con él puedan autorizarse sin volver a cargar el usuario.
+     * 
+     * @param username Nombre de usuario
+     * @param roles Authorities del usuario (p. ej. ROLE_ADMIN)
+     * @return Token JWT
+     */
+    public String generateToken(String username, Collection<String> roles) {
         Map<String, Object> claims = new HashMap<>();
+        claims.put(ROLES_CLAIM, List.copyOf(roles));
         return createToken(claims, username);
     }
     
@@ -45,7 +102,7 @@ public class JwtUtil {
                 .subject(subject)
                 .issuedAt(new Date(System.currentTimeMillis()))
                 .expiration(new Date(System.currentTimeMillis() + expiration))
-                .signWith(getSigningKey())
+                .signWith(signingKey)
                 .compact();
     }
     
@@ -72,21 +129,25 @@ public class JwtUtil {
     }
     
     /**
-     * Extrae todos los claims del token.
-     */
-    private Claims extractAllClaims(String token) {
-        return Jwts.parser()
-                .verifyWith(getSigningKey())
-                .build()
-                .parseSignedClaims(token)
-                .getPayload();
-    }
-    
-    /**
-     * Verifica si el token ha expirado.
+     * Verifica la firma y la expiración del token y extrae todos sus claims
+     * en una sola pasada.
+     * 
+     * @param token Token a verificar
+     * @return Claims del token
+     * @throws io.jsonwebtoken.JwtException si el token es inválido o expiró
      */
-    private Boolean isTokenExpired(String token) {
-        return extractExpiration(token).before(new Date());
+    public Claims extractAllClaims(String token) {
+        long start = System.nanoTime();
+        try {
+            Claims claims = parser
+                    .parseSignedClaims(token)
+                    .getPayload();
+            validVerifications.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            return claims;
+        } catch (JwtException | IllegalArgumentException e) {
+            invalidVerifications.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            throw e;
+        }
     }
     
     /**
@@ -97,16 +158,8 @@ public class JwtUtil {
      * @return true si el token es válido
      */
     public Boolean validateToken(String token, String username) {
-        final String extractedUsername = extractUsername(token);
-        return (extractedUsername.equals(username) && !isTokenExpired(token));
-    }
-    
-    /**
-     * Obtiene la clave de firma para JWT.
-     */
-    private SecretKey getSigningKey() {
-        byte[] keyBytes = secret.getBytes(StandardCharsets.UTF_8);
-        return Keys.hmacShaKeyFor(keyBytes);
+        final Claims claims = extractAllClaims(token);
+        return (claims.getSubject().equals(username) && !claims.getExpiration().before(new Date()));
     }
 }
 
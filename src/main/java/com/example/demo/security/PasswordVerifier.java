@@ -0,0 +1,134 @@
+package com.example.demo.security;
+
+import com.example.demo.exception.AuthenticationBusyException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Verifica contraseñas (BCrypt) en un pool de hilos dedicado y acotado,
+ * fuera del event loop de Netty. Si la cola está llena la verificación se
+ * rechaza con AuthenticationBusyException en lugar de acumular trabajo.
+ * Las estadísticas se leen de los medidores de Micrometer que publica.
+ */
+@Component
+public class PasswordVerifier {
+
+    private final PasswordEncoder passwordEncoder;
+    private final ThreadPoolExecutor executor;
+    private final Scheduler scheduler;
+    private final Timer hashTimer;
+    private final Counter rejected;
+
+    @Autowired
+    public PasswordVerifier(
+            PasswordEncoder passwordEncoder,
+            MeterRegistry meterRegistry,
+            @Value("${security.password-hashing.threads:0}") int threads,
+            @Value("${security.password-hashing.queue-capacity:100}") int queueCapacity) {
+        this.passwordEncoder = passwordEncoder;
+        int poolSize = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        AtomicInteger threadCount = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(
+                poolSize,
+                poolSize,
+                0L,
+                TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "password-hashing-" + threadCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+        this.scheduler = Schedulers.fromExecutorService(executor, "password-hashing");
+        this.hashTimer = Timer.builder("password.hashing")
+                .description("Cálculo de hashes BCrypt en el pool de verificación de contraseñas")
+                .register(meterRegistry);
+        this.rejected = Counter.builder("password.hashing.rejected")
+                .description("Verificaciones de contraseña rechazadas por cola llena")
+                .register(meterRegistry);
+        Gauge.builder("password.hashing.queue", this, PasswordVerifier::queueDepth)
+                .description("Verificaciones de contraseña en espera en la cola")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Verifica una contraseña contra su hash.
+     *
+     * @param rawPassword Contraseña en texto plano
+     * @param encodedPassword Hash almacenado
+     * @return Mono con true si coinciden
+     */
+    public Mono<Boolean> matches(CharSequence rawPassword, String encodedPassword) {
+        return Mono.fromCallable(() -> hashTimer.recordCallable(
+                        () -> passwordEncoder.matches(rawPassword, encodedPassword)))
+                .subscribeOn(scheduler)
+                .onErrorMap(RejectedExecutionException.class, e -> {
+                    rejected.increment();
+                    return new AuthenticationBusyException();
+                });
+    }
+
+    /**
+     * Número de verificaciones en espera en la cola.
+     */
+    public int queueDepth() {
+        return executor.getQueue().size();
+    }
+
+    /**
+     * Número de verificaciones en ejecución.
+     */
+    public int activeCount() {
+        return executor.getActiveCount();
+    }
+
+    /**
+     * Número de verificaciones completadas.
+     */
+    public long verifications() {
+        return hashTimer.count();
+    }
+
+    /**
+     * Tiempo medio de cálculo de un hash, en milisegundos.
+     */
+    public double meanHashMillis() {
+        return hashTimer.mean(TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Tiempo máximo reciente de cálculo de un hash (ventana de Micrometer), en milisegundos.
+     */
+    public double maxHashMillis() {
+        return hashTimer.max(TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Número de verificaciones rechazadas por cola llena.
+     */
+    public long rejected() {
+        return (long) rejected.count();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        scheduler.dispose();
+    }
+}
@@ -0,0 +1,31 @@
+package com.example.demo.security;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.security.config.annotation.rsocket.EnableRSocketSecurity;
+import org.springframework.security.config.annotation.rsocket.RSocketSecurity;
+import org.springframework.security.rsocket.core.PayloadSocketAcceptorInterceptor;
+
+/**
+ * Configuración de seguridad del servidor RSocket: toda conexión debe
+ * autenticarse con un token JWT en el frame SETUP.
+ */
+@Configuration
+@EnableRSocketSecurity
+public class RSocketSecurityConfig {
+
+    @Autowired
+    private JwtPayloadInterceptor jwtPayloadInterceptor;
+
+    @Bean
+    public PayloadSocketAcceptorInterceptor rsocketInterceptor(RSocketSecurity rsocket) {
+        return rsocket
+                .addPayloadInterceptor(jwtPayloadInterceptor)
+                .authorizePayload(authorize -> authorize
+                        .setup().authenticated()
+                        .anyExchange().authenticated()
+                )
+                .build();
+    }
+}
@@ -0,0 +1,139 @@
+package com.example.demo.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import io.jsonwebtoken.Claims;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.authority.AuthorityUtils;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+import java.util.List;
+
+/**
+ * Caché acotada de tokens JWT ya verificados, indexada por el hash SHA-256 del token.
+ * Cada entrada expira junto con su token, por lo que un acierto no necesita
+ * volver a verificar la firma ni a parsear el token.
+ */
+@Component
+public class VerifiedTokenCache {
+
+    /**
+     * Datos de un token verificado.
+     */
+    public record VerifiedToken(String username, List<String> roles, long expiresAtMillis) {
+
+        /**
+         * Authentication del usuario del token, con sus roles como authorities.
+         */
+        public Authentication toAuthentication() {
+            return new UsernamePasswordAuthenticationToken(
+                    username,
+                    null,
+                    AuthorityUtils.createAuthorityList(roles));
+        }
+    }
+
+    private final JwtUtil jwtUtil;
+
+    private final Cache<String, VerifiedToken> cache;
+
+    @Autowired
+    public VerifiedTokenCache(JwtUtil jwtUtil, @Value("${jwt.cache.max-size:10000}") long maxSize) {
+        this.jwtUtil = jwtUtil;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfter(new Expiry<String, VerifiedToken>() {
+                    @Override
+                    public long expireAfterCreate(String key, VerifiedToken value, long currentTime) {
+                        return remainingNanos(value);
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(String key, VerifiedToken value, long currentTime, long currentDuration) {
+                        return remainingNanos(value);
+                    }
+
+                    @Override
+                    public long expireAfterRead(String key, VerifiedToken value, long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+                })
+                .recordStats()
+                .build();
+    }
+
+    /**
+     * Obtiene el usuario de un token, verificándolo solo si no está en caché.
+     *
+     * @param token Token JWT
+     * @return Nombre de usuario del token
+     * @throws io.jsonwebtoken.JwtException si el token es inválido o expiró
+     */
+    public String getUsername(String token) {
+        VerifiedToken verified = get(token);
+        return verified == null ? null : verified.username();
+    }
+
+    /**
+     * Obtiene los datos de un token, verificándolo solo si no está en caché.
+     *
+     * @param token Token JWT
+     * @return Datos del token, o null si expiró desde que se guardó en caché
+     * @throws io.jsonwebtoken.JwtException si el token es inválido o expiró
+     */
+    public VerifiedToken get(String token) {
+        String key = hash(token);
+        VerifiedToken verified = cache.get(key, unused -> verify(token));
+        if (verified.expiresAtMillis() <= System.currentTimeMillis()) {
+            cache.invalidate(key);
+            return null;
+        }
+        return verified;
+    }
+
+    /**
+     * Estadísticas de aciertos y fallos de la caché.
+     */
+    public CacheStats stats() {
+        return cache.stats();
+    }
+
+    /**
+     * Número aproximado de tokens en caché.
+     */
+    public long size() {
+        return cache.estimatedSize();
+    }
+
+    private VerifiedToken verify(String token) {
+        Claims claims = jwtUtil.extractAllClaims(token);
+        List<?> roles = claims.get(JwtUtil.ROLES_CLAIM, List.class);
+        return new VerifiedToken(
+                claims.getSubject(),
+                roles == null ? List.of() : roles.stream().map(String::valueOf).toList(),
+                claims.getExpiration().getTime());
+    }
+
+    private static long remainingNanos(VerifiedToken value) {
+        return Math.max(0, value.expiresAtMillis() - System.currentTimeMillis()) * 1_000_000L;
+    }
+
+    private static String hash(String token) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256")
+                    .digest(token.getBytes(StandardCharsets.UTF_8));
+            return Base64.getEncoder().encodeToString(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 no disponible", e);
+        }
+    }
+}
@@ -0,0 +1,222 @@
+package com.example.demo.service;
+
+import com.example.demo.dto.AuditLogCursor;
+import com.example.demo.dto.AuditLogQuery;
+import com.example.demo.entity.AuditLog;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.function.Predicate;
+import java.util.stream.Stream;
+
+/**
+ * Archivo histórico de auditoría: un archivo comprimido por mes cerrado
+ * (audit-logs-AAAA-MM.arc en audit.archive.dir), con los registros que ya no
+ * están en audit_logs.
+ * <p>
+ * Los archivos se mapean en memoria al abrirlos y las consultas descomprimen
+ * solo los bloques del rango pedido, fuera del event loop.
+ */
+@Slf4j
+@Component
+public class AuditArchive {
+
+    private static final String PREFIX = "audit-logs-";
+    private static final String SUFFIX = ".arc";
+
+    private final Path directory;
+    private final int blockSize;
+
+    private final NavigableMap<YearMonth, AuditArchiveFile> files = new ConcurrentSkipListMap<>();
+
+    @Autowired
+    public AuditArchive(
+            @Value("${audit.archive.dir:audit-archive}") String directory,
+            @Value("${audit.archive.block-size:1024}") int blockSize) {
+        this.directory = Path.of(directory);
+        this.blockSize = blockSize;
+    }
+
+    /**
+     * Abre los archivos existentes y borra los temporales de escrituras interrumpidas.
+     */
+    @PostConstruct
+    public void open() throws IOException {
+        if (!Files.isDirectory(directory)) {
+            return;
+        }
+        try (Stream<Path> paths = Files.list(directory)) {
+            for (Path path : paths.toList()) {
+                String name = path.getFileName().toString();
+                if (name.startsWith(PREFIX) && name.endsWith(SUFFIX + ".tmp")) {
+                    Files.deleteIfExists(path);
+                } else if (name.startsWith(PREFIX) && name.endsWith(SUFFIX)) {
+                    openFile(path, name);
+                }
+            }
+        }
+        log.info("Archivo de auditoría: {} meses en {}", files.size(), directory.toAbsolutePath());
+    }
+
+    /**
+     * Indica si el mes ya está archivado.
+     */
+    public boolean contains(YearMonth month) {
+        return files.containsKey(month);
+    }
+
+    /**
+     * Inicio del primer mes posterior al último archivado: todos los registros
+     * archivados tienen fecha anterior.
+     *
+     * @return Fecha límite, o null si no hay meses archivados
+     */
+    public LocalDateTime horizon() {
+        Map.Entry<YearMonth, AuditArchiveFile> last = files.lastEntry();
+        return last == null ? null : start(last.getKey().plusMonths(1));
+    }
+
+    /**
+     * Escribe el archivo de un mes y lo publica para las consultas.
+     *
+     * @param month Mes a archivar
+     * @param logs Logs del mes en orden (fecha, id)
+     * @return Mono con el número de registros archivados
+     */
+    public Mono<Long> write(YearMonth month, Flux<AuditLog> logs) {
+        Path path = directory.resolve(PREFIX + month + SUFFIX);
+        return Mono.using(
+                        () -> {
+                            Files.createDirectories(directory);
+                            return AuditArchiveFile.create(path);
+                        },
+                        writer -> logs.buffer(blockSize)
+                                .publishOn(Schedulers.boundedElastic())
+                                .<Long>handle((block, sink) -> {
+                                    try {
+                                        writer.append(block);
+                                        sink.next((long) block.size());
+                                    } catch (IOException e) {
+                                        sink.error(e);
+                                    }
+                                })
+                                .reduce(0L, Long::sum)
+                                .flatMap(count -> Mono.fromCallable(() -> {
+                                    writer.commit();
+                                    files.put(month, AuditArchiveFile.open(path));
+                                    return count;
+                                })),
+                        writer -> {
+                            try {
+                                writer.close();
+                            } catch (IOException e) {
+                                log.warn("No se pudo cerrar el archivo de auditoría {}", path, e);
+                            }
+                        })
+                .subscribeOn(Schedulers.boundedElastic());
+    }
+
+    /**
+     * Lee todos los logs archivados de un mes, descomprimiendo un bloque a la vez.
+     *
+     * @param month Mes archivado
+     * @return Flux con los logs en orden (fecha, id), vacío si el mes no está archivado
+     */
+    public Flux<AuditLog> read(YearMonth month) {
+        return Flux.defer(() -> {
+                    AuditArchiveFile file = files.get(month);
+                    return file == null
+                            ? Flux.<AuditLog>empty()
+                            : Flux.range(0, file.blockCount()).concatMapIterable(file::read);
+                })
+                .subscribeOn(Schedulers.boundedElastic());
+    }
+
+    /**
+     * Busca logs archivados filtrados, del más reciente al más antiguo,
+     * empezando después de la posición del cursor (mismo orden que audit_logs).
+     *
+     * @param query Filtros de usuario, par de monedas y rango de fechas
+     * @param after Posición del último log de la página anterior, o null
+     * @param limit Número máximo de logs a devolver
+     * @return Flux con los logs de la página
+     */
+    public Flux<AuditLog> findPage(AuditLogQuery query, AuditLogCursor after, int limit) {
+        return Mono.fromCallable(() -> collect(query, after, limit))
+                .subscribeOn(Schedulers.boundedElastic())
+                .flatMapIterable(logs -> logs);
+    }
+
+    /**
+     * Recorre los meses del más reciente al más antiguo; dentro de cada archivo
+     * el índice descarta sin descomprimir los bloques fuera del rango.
+     */
+    private List<AuditLog> collect(AuditLogQuery query, AuditLogCursor after, int limit) {
+        AuditArchiveFile.Position upper = null;
+        if (query.getHasta() != null) {
+            upper = AuditArchiveFile.Position.of(query.getHasta(), Long.MIN_VALUE);
+        }
+        if (after != null) {
+            AuditArchiveFile.Position cursor = AuditArchiveFile.Position.of(after.fecha(), after.id());
+            if (upper == null || cursor.compareTo(upper.nanos(), upper.id()) < 0) {
+                upper = cursor;
+            }
+        }
+        LocalDateTime lower = query.getDesde();
+        Predicate<AuditLog> filter = filter(query);
+
+        List<AuditLog> result = new ArrayList<>(Math.min(limit, 1024));
+        for (Map.Entry<YearMonth, AuditArchiveFile> entry : files.descendingMap().entrySet()) {
+            if (result.size() >= limit || (lower != null && !start(entry.getKey().plusMonths(1)).isAfter(lower))) {
+                break;
+            }
+            entry.getValue().collect(lower, upper, filter, limit, result);
+        }
+        return result;
+    }
+
+    private static Predicate<AuditLog> filter(AuditLogQuery query) {
+        Predicate<AuditLog> filter = auditLog -> true;
+        if (StringUtils.hasText(query.getUsuario())) {
+            filter = filter.and(auditLog -> query.getUsuario().equals(auditLog.getUsuario()));
+        }
+        if (StringUtils.hasText(query.getMonedaOrigen())) {
+            filter = filter.and(auditLog -> query.getMonedaOrigen().equals(auditLog.getMonedaOrigen()));
+        }
+        if (StringUtils.hasText(query.getMonedaDestino())) {
+            filter = filter.and(auditLog -> query.getMonedaDestino().equals(auditLog.getMonedaDestino()));
+        }
+        return filter;
+    }
+
+    private void openFile(Path path, String name) {
+        try {
+            YearMonth month = YearMonth.parse(name.substring(PREFIX.length(), name.length() - SUFFIX.length()));
+            files.put(month, AuditArchiveFile.open(path));
+        } catch (IOException | DateTimeParseException e) {
+            log.error("Se ignora el archivo de auditoría {}", path, e);
+        }
+    }
+
+    private static LocalDateTime start(YearMonth month) {
+        return month.atDay(1).atStartOfDay();
+    }
+}
@@ -0,0 +1,361 @@
+package com.example.demo.service;
+
+import com.example.demo.entity.AuditLog;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Predicate;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * Archivo con los logs de auditoría de un mes, ordenados por (fecha, id).
+ * <p>
+ * Formato: MAGIC, bloques de registros comprimidos con Deflate, índice (por
+ * bloque: offset, tamaños, registros y primera y última posición), offset del
+ * índice y MAGIC. Se escribe una sola vez de forma secuencial y no se modifica
+ * después; para leerlo se mapea en memoria y se descomprimen solo los bloques
+ * que cruzan el rango pedido.
+ */
+final class AuditArchiveFile {
+
+    private static final int MAGIC = 0x41554441; // "AUDA"
+
+    private static final int TRAILER_SIZE = Long.BYTES + Integer.BYTES;
+
+    private final Path path;
+    private final MappedByteBuffer buffer;
+    private final List<Block> blocks;
+
+    private AuditArchiveFile(Path path, MappedByteBuffer buffer, List<Block> blocks) {
+        this.path = path;
+        this.buffer = buffer;
+        this.blocks = blocks;
+    }
+
+    /**
+     * Abre un archivo existente mapeándolo en memoria y carga su índice.
+     *
+     * @throws IOException si no se puede leer o no tiene el formato esperado
+     */
+    static AuditArchiveFile open(Path path) throws IOException {
+        MappedByteBuffer buffer;
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size < Integer.BYTES + TRAILER_SIZE || size > Integer.MAX_VALUE) {
+                throw new IOException("Tamaño de archivo de auditoría inválido: " + path);
+            }
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+        }
+        int trailer = buffer.limit() - TRAILER_SIZE;
+        long indexOffset = buffer.getLong(trailer);
+        if (buffer.getInt(0) != MAGIC || buffer.getInt(trailer + Long.BYTES) != MAGIC
+                || indexOffset < Integer.BYTES || indexOffset > trailer) {
+            throw new IOException("Archivo de auditoría corrupto: " + path);
+        }
+        ByteBuffer index = buffer.slice((int) indexOffset, trailer - (int) indexOffset);
+        int count = index.getInt();
+        List<Block> blocks = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            blocks.add(new Block(index.getLong(), index.getInt(), index.getInt(), index.getInt(),
+                    index.getLong(), index.getLong(), index.getLong(), index.getLong()));
+        }
+        return new AuditArchiveFile(path, buffer, blocks);
+    }
+
+    /**
+     * Crea un archivo nuevo. Los bloques se escriben en un temporal que solo
+     * reemplaza al destino en commit().
+     */
+    static Writer create(Path path) throws IOException {
+        return new Writer(path);
+    }
+
+    Path path() {
+        return path;
+    }
+
+    /**
+     * Número de registros del archivo.
+     */
+    long size() {
+        return blocks.stream().mapToLong(Block::count).sum();
+    }
+
+    /**
+     * Número de bloques del archivo.
+     */
+    int blockCount() {
+        return blocks.size();
+    }
+
+    /**
+     * Descomprime un bloque.
+     *
+     * @param block Índice del bloque, de 0 a blockCount() - 1
+     * @return Logs del bloque en orden (fecha, id)
+     */
+    List<AuditLog> read(int block) {
+        return read(blocks.get(block));
+    }
+
+    /**
+     * Agrega a result, del más reciente al más antiguo, los logs con fecha
+     * desde lower (inclusive) y posición anterior a upper que cumplen el filtro,
+     * hasta que result tenga limit elementos.
+     *
+     * @param lower Fecha mínima, o null
+     * @param upper Posición (fecha, id) exclusiva, o null
+     */
+    void collect(LocalDateTime lower, Position upper, Predicate<AuditLog> filter, int limit, List<AuditLog> result) {
+        long lowerNanos = lower == null ? Long.MIN_VALUE : toNanos(lower);
+        for (int b = blocks.size() - 1; b >= 0 && result.size() < limit; b--) {
+            Block block = blocks.get(b);
+            if (block.lastNanos < lowerNanos) {
+                return;
+            }
+            if (upper != null && upper.compareTo(block.firstNanos, block.firstId) <= 0) {
+                continue;
+            }
+            List<AuditLog> logs = read(block);
+            for (int i = logs.size() - 1; i >= 0 && result.size() < limit; i--) {
+                AuditLog auditLog = logs.get(i);
+                long nanos = toNanos(auditLog.getFecha());
+                if (nanos < lowerNanos) {
+                    return;
+                }
+                if ((upper == null || upper.compareTo(nanos, auditLog.getId()) > 0) && filter.test(auditLog)) {
+                    result.add(auditLog);
+                }
+            }
+        }
+    }
+
+    private List<AuditLog> read(Block block) {
+        byte[] raw = new byte[block.rawLength];
+        Inflater inflater = new Inflater();
+        try {
+            inflater.setInput(buffer.slice((int) block.offset, block.compressedLength));
+            int read = 0;
+            while (read < raw.length) {
+                int inflated = inflater.inflate(raw, read, raw.length - read);
+                // Sin avance: datos truncados, fin de stream prematuro o diccionario desconocido
+                if (inflated == 0 && (inflater.finished() || inflater.needsInput() || inflater.needsDictionary())) {
+                    throw new IOException("Bloque de auditoría truncado: " + read + " de " + raw.length + " bytes");
+                }
+                read += inflated;
+            }
+            DataInputStream in = new DataInputStream(new ByteArrayInputStream(raw));
+            List<AuditLog> logs = new ArrayList<>(block.count);
+            for (int i = 0; i < block.count; i++) {
+                logs.add(AuditLog.builder()
+                        .id(in.readLong())
+                        .fecha(fromNanos(in.readLong()))
+                        .usuario(in.readUTF())
+                        .monedaOrigen(in.readUTF())
+                        .monedaDestino(in.readUTF())
+                        .montoInicial(readDecimal(in))
+                        .montoConvertido(readDecimal(in))
+                        .tipoCambioAplicado(readDecimal(in))
+                        .build());
+            }
+            return logs;
+        } catch (IOException | DataFormatException e) {
+            throw new IllegalStateException("Bloque de auditoría corrupto en " + path, e);
+        } finally {
+            inflater.end();
+        }
+    }
+
+    private static void writeDecimal(DataOutputStream out, BigDecimal value) throws IOException {
+        byte[] unscaled = value.unscaledValue().toByteArray();
+        out.writeShort(value.scale());
+        out.writeByte(unscaled.length);
+        out.write(unscaled);
+    }
+
+    private static BigDecimal readDecimal(DataInputStream in) throws IOException {
+        int scale = in.readShort();
+        byte[] unscaled = new byte[in.readUnsignedByte()];
+        in.readFully(unscaled);
+        return new BigDecimal(new BigInteger(unscaled), scale);
+    }
+
+    static long toNanos(LocalDateTime fecha) {
+        return fecha.toEpochSecond(ZoneOffset.UTC) * 1_000_000_000L + fecha.getNano();
+    }
+
+    private static LocalDateTime fromNanos(long nanos) {
+        return LocalDateTime.ofEpochSecond(
+                Math.floorDiv(nanos, 1_000_000_000L), (int) Math.floorMod(nanos, 1_000_000_000L), ZoneOffset.UTC);
+    }
+
+    /**
+     * Posición (fecha, id) en el orden del archivo.
+     */
+    record Position(long nanos, long id) {
+
+        static Position of(LocalDateTime fecha, long id) {
+            return new Position(toNanos(fecha), id);
+        }
+
+        int compareTo(long otherNanos, long otherId) {
+            int byFecha = Long.compare(nanos, otherNanos);
+            return byFecha != 0 ? byFecha : Long.compare(id, otherId);
+        }
+    }
+
+    /**
+     * Entrada del índice: ubicación y rango de posiciones de un bloque.
+     */
+    private record Block(long offset, int compressedLength, int rawLength, int count,
+                         long firstNanos, long firstId, long lastNanos, long lastId) {
+    }
+
+    /**
+     * Escritura secuencial de un archivo nuevo.
+     */
+    static final class Writer implements Closeable {
+
+        private final Path path;
+        private final Path temp;
+        private final FileChannel channel;
+        private final DataOutputStream out;
+        private final List<Block> blocks = new ArrayList<>();
+        private final Deflater deflater = new Deflater();
+        private long position;
+        private Position last;
+        private boolean committed;
+
+        private Writer(Path path) throws IOException {
+            this.path = path;
+            this.temp = path.resolveSibling(path.getFileName() + ".tmp");
+            this.channel = FileChannel.open(temp,
+                    StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE);
+            this.out = new DataOutputStream(new BufferedOutputStream(Channels.newOutputStream(channel)));
+            out.writeInt(MAGIC);
+            position = Integer.BYTES;
+        }
+
+        /**
+         * Comprime y escribe un bloque. Los logs deben venir en orden (fecha, id)
+         * y ser posteriores a los del bloque anterior.
+         */
+        void append(List<AuditLog> logs) throws IOException {
+            if (logs.isEmpty()) {
+                return;
+            }
+            ByteArrayOutputStream raw = new ByteArrayOutputStream(logs.size() * 64);
+            DataOutputStream record = new DataOutputStream(raw);
+            for (AuditLog auditLog : logs) {
+                Position current = Position.of(auditLog.getFecha(), auditLog.getId());
+                if (last != null && last.compareTo(current.nanos, current.id) >= 0) {
+                    throw new IllegalArgumentException("Logs de auditoría fuera de orden: " + auditLog.getId());
+                }
+                last = current;
+                record.writeLong(auditLog.getId());
+                record.writeLong(current.nanos);
+                record.writeUTF(auditLog.getUsuario());
+                record.writeUTF(auditLog.getMonedaOrigen());
+                record.writeUTF(auditLog.getMonedaDestino());
+                writeDecimal(record, auditLog.getMontoInicial());
+                writeDecimal(record, auditLog.getMontoConvertido());
+                writeDecimal(record, auditLog.getTipoCambioAplicado());
+            }
+            byte[] compressed = deflate(raw.toByteArray());
+            AuditLog first = logs.get(0);
+            blocks.add(new Block(position, compressed.length, raw.size(), logs.size(),
+                    toNanos(first.getFecha()), first.getId(), last.nanos, last.id));
+            out.write(compressed);
+            position += compressed.length;
+        }
+
+        /**
+         * Escribe el índice, lo sincroniza con el disco y publica el archivo
+         * reemplazando el destino de forma atómica. Al volver, el archivo sobrevive
+         * a una caída del sistema, así que sus registros ya se pueden eliminar de la tabla.
+         */
+        void commit() throws IOException {
+            out.writeInt(blocks.size());
+            for (Block block : blocks) {
+                out.writeLong(block.offset);
+                out.writeInt(block.compressedLength);
+                out.writeInt(block.rawLength);
+                out.writeInt(block.count);
+                out.writeLong(block.firstNanos);
+                out.writeLong(block.firstId);
+                out.writeLong(block.lastNanos);
+                out.writeLong(block.lastId);
+            }
+            out.writeLong(position);
+            out.writeInt(MAGIC);
+            out.flush();
+            channel.force(true);
+            out.close();
+            Files.move(temp, path, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            committed = true;
+            forceDirectory(path.toAbsolutePath().getParent());
+        }
+
+        /**
+         * Sincroniza el directorio para que el renombrado también sea durable.
+         * Algunos sistemas (Windows) no permiten abrir un directorio; ahí el
+         * renombrado ya es durable al volver.
+         */
+        private static void forceDirectory(Path directory) throws IOException {
+            FileChannel channel;
+            try {
+                channel = FileChannel.open(directory, StandardOpenOption.READ);
+            } catch (IOException e) {
+                return;
+            }
+            try (channel) {
+                channel.force(true);
+            }
+        }
+
+        /**
+         * Libera el archivo; si no se publicó con commit() borra el temporal.
+         */
+        @Override
+        public void close() throws IOException {
+            deflater.end();
+            if (!committed) {
+                out.close();
+                Files.deleteIfExists(temp);
+            }
+        }
+
+        private byte[] deflate(byte[] raw) {
+            deflater.reset();
+            deflater.setInput(raw);
+            deflater.finish();
+            ByteArrayOutputStream compressed = new ByteArrayOutputStream(raw.length / 4 + 64);
+            byte[] chunk = new byte[8192];
+            while (!deflater.finished()) {
+                compressed.write(chunk, 0, deflater.deflate(chunk));
+            }
+            return compressed.toByteArray();
+        }
+    }
+}
@@ -0,0 +1,124 @@
+package com.example.demo.service;
+
+import com.example.demo.entity.AuditLog;
+import com.example.demo.repository.AuditLogRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.Comparator;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Retención de audit_logs por meses: periódicamente exporta cada mes cerrado
+ * al AuditArchive y luego lo elimina de la tabla con un único DELETE por rango
+ * de fecha, de modo que la tabla (y sus índices) solo contiene los meses recientes.
+ * <p>
+ * Un mes se considera cerrado cuando es anterior a los audit.archive.hot-months
+ * meses previos al actual. El DELETE solo llega hasta el mayor ID exportado y
+ * se ejecuta después de que el archivo está sincronizado en disco, así que una
+ * fila insertada durante la exportación queda en la tabla. Si un mes ya tiene
+ * archivo y aún le quedan filas (por ejemplo, porque se interrumpió el proceso
+ * tras escribirlo), se vuelve a escribir fusionando el archivo con esas filas.
+ */
+@Slf4j
+@Component
+public class AuditArchiver {
+
+    private static final Comparator<AuditLog> OLDEST_FIRST =
+            Comparator.comparing(AuditLog::getFecha).thenComparing(AuditLog::getId);
+
+    private final AuditLogRepository auditLogRepository;
+    private final AuditArchive auditArchive;
+    private final int hotMonths;
+    private final Duration interval;
+
+    private Disposable ticker;
+
+    @Autowired
+    public AuditArchiver(
+            AuditLogRepository auditLogRepository,
+            AuditArchive auditArchive,
+            @Value("${audit.archive.hot-months:3}") int hotMonths,
+            @Value("${audit.archive.interval:3600000}") long interval) {
+        this.auditLogRepository = auditLogRepository;
+        this.auditArchive = auditArchive;
+        this.hotMonths = hotMonths;
+        this.interval = Duration.ofMillis(interval);
+    }
+
+    /**
+     * Inicia la ejecución periódica.
+     */
+    @PostConstruct
+    public void start() {
+        ticker = Flux.interval(interval)
+                .onBackpressureDrop()
+                .concatMap(tick -> archiveClosedMonths(YearMonth.now())
+                        .onErrorResume(e -> {
+                            log.error("Error archivando logs de auditoría", e);
+                            return Mono.empty();
+                        }))
+                .subscribe();
+    }
+
+    /**
+     * Detiene la ejecución periódica.
+     */
+    @PreDestroy
+    public void shutdown() {
+        if (ticker != null) {
+            ticker.dispose();
+        }
+    }
+
+    /**
+     * Archiva y elimina de audit_logs todos los meses cerrados, del más antiguo al más reciente.
+     *
+     * @param currentMonth Mes actual
+     * @return Mono con el número de filas eliminadas de audit_logs
+     */
+    public Mono<Long> archiveClosedMonths(YearMonth currentMonth) {
+        LocalDateTime cutoff = start(currentMonth.minusMonths(hotMonths));
+        return auditLogRepository.findOldestFecha()
+                .filter(oldest -> oldest.isBefore(cutoff))
+                .flatMap(oldest -> archiveMonth(YearMonth.from(oldest)))
+                .flatMap(removed -> removed == 0
+                        ? Mono.just(0L)
+                        : archiveClosedMonths(currentMonth).map(more -> removed + more))
+                .defaultIfEmpty(0L);
+    }
+
+    private Mono<Long> archiveMonth(YearMonth month) {
+        LocalDateTime desde = start(month);
+        LocalDateTime hasta = start(month.plusMonths(1));
+        return Mono.defer(() -> {
+            Flux<AuditLog> logs = auditLogRepository.findBetween(desde, hasta);
+            if (auditArchive.contains(month)) {
+                // Las filas ya archivadas (exportadas pero no eliminadas) aparecen en ambos
+                logs = Flux.mergeComparing(OLDEST_FIRST, auditArchive.read(month), logs)
+                        .distinctUntilChanged(AuditLog::getId);
+            }
+            AtomicLong maxId = new AtomicLong(Long.MIN_VALUE);
+            Flux<AuditLog> exported = logs.doOnNext(auditLog -> maxId.accumulateAndGet(auditLog.getId(), Math::max));
+            return auditArchive.write(month, exported)
+                    .doOnNext(count -> log.info("Archivados {} registros de auditoría de {}", count, month))
+                    .flatMap(count -> count == 0
+                            ? Mono.just(0L)
+                            : auditLogRepository.deleteBetween(desde, hasta, maxId.get()));
+        });
+    }
+
+    private static LocalDateTime start(YearMonth month) {
+        return month.atDay(1).atStartOfDay();
+    }
+}
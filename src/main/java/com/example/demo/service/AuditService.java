@@ -1,5 +1,8 @@
 package com.example.demo.service;
 
+import com.example.demo.dto.AuditLogCursor;
+import com.example.demo.dto.AuditLogPage;
+import com.example.demo.dto.AuditLogQuery;
 import com.example.demo.entity.AuditLog;
 import com.example.demo.repository.AuditLogRepository;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -8,6 +11,8 @@ import reactor.core.publisher.Mono;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
 
 /**
  * Servicio para registrar operaciones de auditoría.
@@ -15,11 +20,21 @@ import java.time.LocalDateTime;
 @Service
 public class AuditService {
     
+    static final int DEFAULT_PAGE_SIZE = 50;
+    static final int MAX_PAGE_SIZE = 500;
+    
+    @Autowired
+    private AuditWriter auditWriter;
+    
     @Autowired
     private AuditLogRepository auditLogRepository;
     
+    @Autowired
+    private AuditArchive auditArchive;
+    
     /**
      * Registra una operación de cambio de moneda en el log de auditoría.
+     * La escritura es asíncrona: el Mono completa cuando el registro entra al buffer.
      * 
      * @param usuario Usuario que realizó la operación
      * @param monedaOrigen Moneda origen
@@ -27,7 +42,7 @@ public class AuditService {
      * @param montoInicial Monto inicial
      * @param montoConvertido Monto convertido
      * @param tipoCambioAplicado Tipo de cambio aplicado
-     * @return Mono con el AuditLog guardado
+     * @return Mono con el AuditLog encolado
      */
     public Mono<AuditLog> logExchangeOperation(
             String usuario,
@@ -47,7 +62,64 @@ public class AuditService {
                 .fecha(LocalDateTime.now())
                 .build();
         
-        return auditLogRepository.save(auditLog);
+        return auditWriter.submit(auditLog);
+    }
+    
+    /**
+     * Consulta una página de logs de auditoría, del más reciente al más antiguo.
+     * Los meses archivados son anteriores a todo lo que queda en audit_logs, así
+     * que la página se completa con el AuditArchive cuando la tabla se agota.
+     * 
+     * @param query Filtros, cursor y tamaño de página
+     * @return Mono con la página y el cursor de la siguiente
+     */
+    public Mono<AuditLogPage> findPage(AuditLogQuery query) {
+        int limit = query.getLimit() == null
+                ? DEFAULT_PAGE_SIZE
+                : Math.max(1, Math.min(query.getLimit(), MAX_PAGE_SIZE));
+        
+        return Mono.defer(() -> {
+            AuditLogCursor after = query.getCursor() == null ? null : AuditLogCursor.decode(query.getCursor());
+            LocalDateTime horizon = auditArchive.horizon();
+            if (horizon == null) {
+                return auditLogRepository.findPage(query, after, limit + 1)
+                        .collectList()
+                        .map(logs -> toPage(logs, limit));
+            }
+            boolean archived = query.getDesde() == null || query.getDesde().isBefore(horizon);
+            AuditLogQuery live = query;
+            if (archived) {
+                // Filas de un mes ya archivado pendientes de eliminar se leen solo del archivo
+                live = new AuditLogQuery(query.getUsuario(), query.getMonedaOrigen(), query.getMonedaDestino(),
+                        horizon, query.getHasta(), query.getCursor(), query.getLimit());
+            }
+            return auditLogRepository.findPage(live, after, limit + 1)
+                    .collectList()
+                    .flatMap(logs -> logs.size() > limit || !archived
+                            ? Mono.just(logs)
+                            : auditArchive.findPage(query, after, limit + 1 - logs.size())
+                                    .collectList()
+                                    .map(older -> concat(logs, older)))
+                    .map(logs -> toPage(logs, limit));
+        });
+    }
+    
+    private static List<AuditLog> concat(List<AuditLog> newer, List<AuditLog> older) {
+        List<AuditLog> logs = new ArrayList<>(newer.size() + older.size());
+        logs.addAll(newer);
+        logs.addAll(older);
+        return logs;
+    }
+    
+    private AuditLogPage toPage(List<AuditLog> logs, int limit) {
+        if (logs.size() <= limit) {
+            return AuditLogPage.builder().items(logs).build();
+        }
+        List<AuditLog> items = logs.subList(0, limit);
+        AuditLog last = items.get(limit - 1);
+        return AuditLogPage.builder()
+                .items(items)
+                .nextCursor(new AuditLogCursor(last.getFecha(), last.getId()).encode())
+                .build();
     }
 }
-
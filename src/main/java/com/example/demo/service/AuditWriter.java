@@ -0,0 +1,227 @@
+package com.example.demo.service;
+
+import com.example.demo.entity.AuditLog;
+import com.example.demo.exception.AuditBufferFullException;
+import com.example.demo.repository.AuditLogRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.core.scheduler.Schedulers;
+import reactor.util.retry.Retry;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Escritor asíncrono (write-behind) de logs de auditoría.
+ * Los registros se acumulan en un buffer acotado y se insertan en lotes
+ * multi-fila al alcanzar el tamaño de lote o al vencer la ventana de tiempo.
+ * Un lote que falla se reintenta audit.writer.retries veces con backoff
+ * exponencial desde audit.writer.retry-backoff; si sigue fallando se descarta
+ * y se cuenta en dropped().
+ * <p>
+ * Al cerrar, el vaciado en curso termina de escribir su lote antes del
+ * vaciado final: cancelarlo perdería registros ya sacados del buffer.
+ */
+@Slf4j
+@Component
+public class AuditWriter {
+
+    /**
+     * Comportamiento cuando el buffer está lleno.
+     */
+    public enum OverflowPolicy {
+        /** Espera (fuera del event loop) hasta que haya espacio o venza el timeout. */
+        BLOCK,
+        /** Descarta el registro más antiguo del buffer. */
+        DROP_OLDEST,
+        /** Rechaza la operación con AuditBufferFullException. */
+        FAIL
+    }
+
+    private final AuditLogRepository auditLogRepository;
+    private final BlockingQueue<AuditLog> buffer;
+    private final int capacity;
+    private final int batchSize;
+    private final Duration flushInterval;
+    private final OverflowPolicy overflowPolicy;
+    private final Duration blockTimeout;
+    private final int retries;
+    private final Duration retryBackoff;
+
+    /** Señal de fin del vaciado en curso, o null si no hay ninguno. */
+    private final AtomicReference<Sinks.Empty<Void>> flushing = new AtomicReference<>();
+    private final AtomicLong dropped = new AtomicLong();
+    private final AtomicLong written = new AtomicLong();
+
+    private final Sinks.Empty<Void> stopTicker = Sinks.empty();
+
+    @Autowired
+    public AuditWriter(
+            AuditLogRepository auditLogRepository,
+            @Value("${audit.writer.capacity:10000}") int capacity,
+            @Value("${audit.writer.batch-size:500}") int batchSize,
+            @Value("${audit.writer.flush-interval:200}") long flushInterval,
+            @Value("${audit.writer.overflow-policy:BLOCK}") OverflowPolicy overflowPolicy,
+            @Value("${audit.writer.block-timeout:1000}") long blockTimeout,
+            @Value("${audit.writer.retries:3}") int retries,
+            @Value("${audit.writer.retry-backoff:100}") long retryBackoff) {
+        this.auditLogRepository = auditLogRepository;
+        this.buffer = new ArrayBlockingQueue<>(capacity);
+        this.capacity = capacity;
+        this.batchSize = batchSize;
+        this.flushInterval = Duration.ofMillis(flushInterval);
+        this.overflowPolicy = overflowPolicy;
+        this.blockTimeout = Duration.ofMillis(blockTimeout);
+        this.retries = retries;
+        this.retryBackoff = Duration.ofMillis(retryBackoff);
+    }
+
+    /**
+     * Inicia el vaciado periódico del buffer.
+     */
+    @PostConstruct
+    public void start() {
+        // takeUntilOther detiene los ticks sin cancelar el vaciado que concatMap tiene en curso
+        Flux.interval(flushInterval)
+                .takeUntilOther(stopTicker.asMono())
+                .onBackpressureDrop()
+                .concatMap(tick -> flush())
+                .subscribe();
+    }
+
+    /**
+     * Detiene el vaciado periódico, espera a que termine el vaciado en curso y
+     * escribe todos los registros pendientes.
+     */
+    @PreDestroy
+    public void shutdown() {
+        stopTicker.tryEmitEmpty();
+        Duration timeout = blockTimeout.multipliedBy(10);
+        try {
+            Sinks.Empty<Void> running = flushing.get();
+            if (running != null) {
+                running.asMono().block(timeout);
+            }
+            drain().block(timeout);
+        } catch (RuntimeException e) {
+            log.error("No se pudieron escribir {} registros de auditoría al cerrar", buffer.size(), e);
+        }
+    }
+
+    /**
+     * Encola un log de auditoría para su escritura asíncrona.
+     *
+     * @param auditLog Log a registrar
+     * @return Mono con el AuditLog aceptado (sin ID asignado)
+     */
+    public Mono<AuditLog> submit(AuditLog auditLog) {
+        return Mono.defer(() -> {
+            if (buffer.offer(auditLog)) {
+                return accepted(auditLog);
+            }
+            return switch (overflowPolicy) {
+                case FAIL -> Mono.error(new AuditBufferFullException(capacity));
+                case DROP_OLDEST -> {
+                    while (!buffer.offer(auditLog)) {
+                        if (buffer.poll() != null) {
+                            dropped.incrementAndGet();
+                        }
+                    }
+                    yield accepted(auditLog);
+                }
+                case BLOCK -> Mono.fromCallable(() ->
+                                buffer.offer(auditLog, blockTimeout.toMillis(), TimeUnit.MILLISECONDS))
+                        .subscribeOn(Schedulers.boundedElastic())
+                        .flatMap(offered -> offered
+                                ? accepted(auditLog)
+                                : Mono.error(new AuditBufferFullException(capacity)));
+            };
+        });
+    }
+
+    /**
+     * Escribe los registros pendientes si no hay otro vaciado en curso.
+     *
+     * @return Mono que completa al terminar el vaciado
+     */
+    public Mono<Void> flush() {
+        return Mono.defer(() -> {
+            Sinks.Empty<Void> done = Sinks.empty();
+            if (!flushing.compareAndSet(null, done)) {
+                return Mono.empty();
+            }
+            return drain().doFinally(signal -> {
+                flushing.set(null);
+                done.tryEmitEmpty();
+            });
+        });
+    }
+
+    /**
+     * Número de registros pendientes de escritura.
+     */
+    public int pending() {
+        return buffer.size();
+    }
+
+    /**
+     * Número de registros descartados: por la política DROP_OLDEST o por lotes
+     * que no se pudieron escribir tras los reintentos.
+     */
+    public long dropped() {
+        return dropped.get();
+    }
+
+    /**
+     * Número de registros escritos en la base de datos.
+     */
+    public long written() {
+        return written.get();
+    }
+
+    private Mono<AuditLog> accepted(AuditLog auditLog) {
+        if (buffer.size() >= batchSize) {
+            flush().subscribe();
+        }
+        return Mono.just(auditLog);
+    }
+
+    /**
+     * Inserta lotes de hasta batchSize registros hasta vaciar el buffer. Cada
+     * lote es una única sentencia, así que reintentarlo no duplica filas.
+     */
+    private Mono<Void> drain() {
+        return Mono.defer(() -> {
+            List<AuditLog> batch = new ArrayList<>(Math.min(batchSize, buffer.size()));
+            buffer.drainTo(batch, batchSize);
+            if (batch.isEmpty()) {
+                return Mono.empty();
+            }
+            return Mono.defer(() -> auditLogRepository.insertAll(batch))
+                    .retryWhen(Retry.backoff(retries, retryBackoff)
+                            .doBeforeRetry(retry -> log.warn("Reintento {} del lote de {} registros de auditoría: {}",
+                                    retry.totalRetries() + 1, batch.size(), retry.failure().toString())))
+                    .doOnNext(written::addAndGet)
+                    .onErrorResume(e -> {
+                        dropped.addAndGet(batch.size());
+                        log.error("Se descartan {} registros de auditoría tras {} reintentos",
+                                batch.size(), retries, e);
+                        return Mono.empty();
+                    })
+                    .then(drain());
+        });
+    }
+}
@@ -0,0 +1,325 @@
+package com.example.demo.service;
+
+import com.example.demo.dto.ApplyExchangeResponse;
+import com.example.demo.dto.ConversionRollup;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+/**
+ * Acumulados en memoria de las conversiones aplicadas, por par de monedas y por
+ * usuario, en buckets deslizantes de un minuto (última hora) y de una hora
+ * (últimas 24 horas).
+ * <p>
+ * Cada serie es un anillo de buckets que se reemplazan por CAS al cambiar de
+ * período; registrar y consultar no toman locks ni acceden a audit_logs. Una
+ * lectura concurrente con escrituras puede ver una operación contada pero aún
+ * no sumada.
+ * <p>
+ * Una vez por minuto, el primer registro del minuto elimina las series cuyos
+ * buckets quedaron todos fuera de MAX_WINDOW, para que los usuarios y pares
+ * sin actividad reciente no permanezcan en memoria.
+ */
+@Component
+public class ConversionRollups {
+
+    private static final long MINUTE_MILLIS = Duration.ofMinutes(1).toMillis();
+    private static final long HOUR_MILLIS = Duration.ofHours(1).toMillis();
+    private static final int MINUTE_BUCKETS = 60;
+    private static final int HOUR_BUCKETS = 24;
+
+    /**
+     * Ventana máxima consultable.
+     */
+    public static final Duration MAX_WINDOW = Duration.ofHours(HOUR_BUCKETS);
+
+    private final LongSupplier currentTimeMillis;
+
+    private final Map<String, Series> byPair = new ConcurrentHashMap<>();
+    private final Map<String, Series> byUser = new ConcurrentHashMap<>();
+
+    /** Minuto del último barrido de series inactivas. */
+    private final AtomicLong sweptMinute = new AtomicLong();
+
+    @Autowired
+    public ConversionRollups() {
+        this(System::currentTimeMillis);
+    }
+
+    ConversionRollups(LongSupplier currentTimeMillis) {
+        this.currentTimeMillis = currentTimeMillis;
+    }
+
+    /**
+     * Registra una conversión aplicada.
+     *
+     * @param usuario Usuario que realizó la operación
+     * @param response Resultado de la conversión
+     */
+    public void record(String usuario, ApplyExchangeResponse response) {
+        long now = currentTimeMillis.getAsLong();
+        String pair = response.getMonedaOrigen() + ':' + response.getMonedaDestino();
+        record(byPair, pair, now, response);
+        record(byUser, usuario, now, response);
+
+        long minute = now / MINUTE_MILLIS;
+        long swept = sweptMinute.get();
+        if (minute > swept && sweptMinute.compareAndSet(swept, minute)) {
+            evictIdle(now);
+        }
+    }
+
+    private static void record(Map<String, Series> series, String clave, long now, ApplyExchangeResponse response) {
+        while (true) {
+            Series current = series.computeIfAbsent(clave, unused -> new Series());
+            if (current.add(now, response)) {
+                return;
+            }
+            // La serie se retiró entre la búsqueda y el registro: se registra en una nueva
+            series.remove(clave, current);
+        }
+    }
+
+    /**
+     * Elimina las series sin operaciones dentro de MAX_WINDOW.
+     */
+    void evictIdle(long now) {
+        byPair.values().removeIf(series -> series.retireIfIdle(now));
+        byUser.values().removeIf(series -> series.retireIfIdle(now));
+    }
+
+    /**
+     * Número de series (pares más usuarios) en memoria.
+     */
+    int size() {
+        return byPair.size() + byUser.size();
+    }
+
+    /**
+     * Acumulados por par de monedas en la ventana dada.
+     *
+     * @param ventana Duración hacia atrás desde ahora, hasta MAX_WINDOW
+     * @return Acumulados de los pares con operaciones, ordenados por clave
+     */
+    public List<ConversionRollup> byPair(Duration ventana) {
+        return snapshot(byPair, ventana);
+    }
+
+    /**
+     * Acumulados por usuario en la ventana dada.
+     *
+     * @param ventana Duración hacia atrás desde ahora, hasta MAX_WINDOW
+     * @return Acumulados de los usuarios con operaciones, ordenados por clave
+     */
+    public List<ConversionRollup> byUser(Duration ventana) {
+        return snapshot(byUser, ventana);
+    }
+
+    private List<ConversionRollup> snapshot(Map<String, Series> series, Duration ventana) {
+        long now = currentTimeMillis.getAsLong();
+        List<ConversionRollup> rollups = new ArrayList<>();
+        for (Map.Entry<String, Series> entry : series.entrySet()) {
+            Totals totals = entry.getValue().sum(now, ventana);
+            if (totals.operaciones > 0) {
+                rollups.add(totals.toRollup(entry.getKey()));
+            }
+        }
+        rollups.sort(Comparator.comparing(ConversionRollup::getClave));
+        return rollups;
+    }
+
+    /**
+     * Buckets de minuto y de hora de una misma clave.
+     * <p>
+     * writers cuenta los registros en curso; al retirar la serie se pasa de 0 a
+     * RETIRING y, si sigue inactiva, a RETIRED. Un registro que ve RETIRING espera
+     * la decisión y uno que ve RETIRED se hace en una serie nueva, así que ninguna
+     * operación queda en una serie ya eliminada del mapa.
+     */
+    private static final class Series {
+
+        private static final int RETIRING = -1;
+        private static final int RETIRED = -2;
+
+        private final AtomicReferenceArray<Bucket> minutes = new AtomicReferenceArray<>(MINUTE_BUCKETS);
+        private final AtomicReferenceArray<Bucket> hours = new AtomicReferenceArray<>(HOUR_BUCKETS);
+        private final AtomicInteger writers = new AtomicInteger();
+        private volatile long lastMillis;
+
+        /**
+         * Registra una operación.
+         *
+         * @return false si la serie ya se retiró y la operación no se registró
+         */
+        boolean add(long now, ApplyExchangeResponse response) {
+            while (true) {
+                int current = writers.get();
+                if (current == RETIRED) {
+                    return false;
+                }
+                if (current == RETIRING) {
+                    Thread.onSpinWait();
+                } else if (writers.compareAndSet(current, current + 1)) {
+                    break;
+                }
+            }
+            try {
+                if (now > lastMillis) {
+                    lastMillis = now;
+                }
+                add(minutes, now / MINUTE_MILLIS, response);
+                add(hours, now / HOUR_MILLIS, response);
+                return true;
+            } finally {
+                writers.decrementAndGet();
+            }
+        }
+
+        /**
+         * Retira la serie si no tiene registros en curso y su último bucket de
+         * hora ya quedó fuera de MAX_WINDOW.
+         *
+         * @return true si se retiró y debe eliminarse del mapa
+         */
+        boolean retireIfIdle(long now) {
+            if (!idle(now) || !writers.compareAndSet(0, RETIRING)) {
+                return false;
+            }
+            // Un registro pudo terminar entre la primera comprobación y el CAS
+            if (!idle(now)) {
+                writers.set(0);
+                return false;
+            }
+            writers.set(RETIRED);
+            return true;
+        }
+
+        private boolean idle(long now) {
+            return lastMillis / HOUR_MILLIS <= now / HOUR_MILLIS - HOUR_BUCKETS;
+        }
+
+        /**
+         * Suma los buckets de la ventana: de minuto si cabe en la última hora,
+         * si no de hora (redondeando la ventana hacia arriba a horas completas).
+         */
+        Totals sum(long now, Duration ventana) {
+            long millis = ventana.toMillis();
+            if (millis <= HOUR_MILLIS) {
+                return sum(minutes, now / MINUTE_MILLIS, (millis + MINUTE_MILLIS - 1) / MINUTE_MILLIS);
+            }
+            return sum(hours, now / HOUR_MILLIS, (millis + HOUR_MILLIS - 1) / HOUR_MILLIS);
+        }
+
+        private static void add(AtomicReferenceArray<Bucket> ring, long period, ApplyExchangeResponse response) {
+            int slot = (int) Math.floorMod(period, (long) ring.length());
+            while (true) {
+                Bucket current = ring.get(slot);
+                if (current != null && current.period >= period) {
+                    if (current.period == period) {
+                        current.add(response);
+                    }
+                    return;
+                }
+                Bucket fresh = new Bucket(period);
+                if (ring.compareAndSet(slot, current, fresh)) {
+                    fresh.add(response);
+                    return;
+                }
+            }
+        }
+
+        private static Totals sum(AtomicReferenceArray<Bucket> ring, long currentPeriod, long periods) {
+            Totals totals = new Totals();
+            for (int i = 0; i < ring.length(); i++) {
+                Bucket bucket = ring.get(i);
+                if (bucket != null && bucket.period > currentPeriod - periods && bucket.period <= currentPeriod) {
+                    totals.add(bucket);
+                }
+            }
+            return totals;
+        }
+    }
+
+    /**
+     * Acumulado de un período; se actualiza sin locks.
+     */
+    private static final class Bucket {
+
+        private final long period;
+        private final LongAdder operaciones = new LongAdder();
+        private final AtomicReference<BigDecimal> montoInicial = new AtomicReference<>(BigDecimal.ZERO);
+        private final AtomicReference<BigDecimal> montoConvertido = new AtomicReference<>(BigDecimal.ZERO);
+        private final AtomicReference<BigDecimal> tipoCambioMinimo = new AtomicReference<>();
+        private final AtomicReference<BigDecimal> tipoCambioMaximo = new AtomicReference<>();
+
+        Bucket(long period) {
+            this.period = period;
+        }
+
+        void add(ApplyExchangeResponse response) {
+            operaciones.increment();
+            montoInicial.accumulateAndGet(response.getMontoInicial(), BigDecimal::add);
+            montoConvertido.accumulateAndGet(response.getMontoConvertido(), BigDecimal::add);
+            tipoCambioMinimo.accumulateAndGet(response.getTipoCambioAplicado(), ConversionRollups::min);
+            tipoCambioMaximo.accumulateAndGet(response.getTipoCambioAplicado(), ConversionRollups::max);
+        }
+    }
+
+    /**
+     * Suma de varios buckets.
+     */
+    private static final class Totals {
+
+        private long operaciones;
+        private BigDecimal montoInicial = BigDecimal.ZERO;
+        private BigDecimal montoConvertido = BigDecimal.ZERO;
+        private BigDecimal tipoCambioMinimo;
+        private BigDecimal tipoCambioMaximo;
+
+        void add(Bucket bucket) {
+            operaciones += bucket.operaciones.sum();
+            montoInicial = montoInicial.add(bucket.montoInicial.get());
+            montoConvertido = montoConvertido.add(bucket.montoConvertido.get());
+            tipoCambioMinimo = min(tipoCambioMinimo, bucket.tipoCambioMinimo.get());
+            tipoCambioMaximo = max(tipoCambioMaximo, bucket.tipoCambioMaximo.get());
+        }
+
+        ConversionRollup toRollup(String clave) {
+            return ConversionRollup.builder()
+                    .clave(clave)
+                    .operaciones(operaciones)
+                    .montoInicialTotal(montoInicial)
+                    .montoConvertidoTotal(montoConvertido)
+                    .tipoCambioMinimo(tipoCambioMinimo)
+                    .tipoCambioMaximo(tipoCambioMaximo)
+                    .build();
+        }
+    }
+
+    private static BigDecimal min(BigDecimal current, BigDecimal value) {
+        if (current == null) {
+            return value;
+        }
+        return value == null || current.compareTo(value) <= 0 ? current : value;
+    }
+
+    private static BigDecimal max(BigDecimal current, BigDecimal value) {
+        if (current == null) {
+            return value;
+        }
+        return value == null || current.compareTo(value) >= 0 ? current : value;
+    }
+}
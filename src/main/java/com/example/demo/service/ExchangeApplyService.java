@@ -1,19 +1,28 @@
 package com.example.demo.service;
 
+import com.example.demo.dto.ApplyExchangeBatchResult;
 import com.example.demo.dto.ApplyExchangeRequest;
 import com.example.demo.dto.ApplyExchangeResponse;
-import com.example.demo.entity.ExchangeRate;
-import com.example.demo.repository.ExchangeRateRepository;
+import com.example.demo.exception.ExchangeRateNotFoundException;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.ReactiveSecurityContextHolder;
 import org.springframework.security.core.context.SecurityContext;
 import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
 import java.math.BigDecimal;
 import java.math.RoundingMode;
 import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
 
 /**
  * Servicio para aplicar tipos de cambio a montos y registrar auditoría.
@@ -22,55 +31,178 @@ import java.time.LocalDateTime;
 public class ExchangeApplyService {
     
     @Autowired
-    private ExchangeRateRepository exchangeRateRepository;
+    private ExchangeRateGraph exchangeRateGraph;
+    
+    @Autowired
+    private RateHistoryService rateHistoryService;
     
     @Autowired
     private AuditService auditService;
     
+    @Autowired
+    private ConversionRollups conversionRollups;
+    
+    @Autowired
+    private ExchangeMetrics exchangeMetrics;
+    
+    @Autowired
+    private IdempotencyCache idempotencyCache;
+    
+    @Autowired
+    private Validator validator;
+    
+    /**
+     * Si es true el monto convertido se calcula en enteros escalados (FixedPointConversion).
+     */
+    @Value("${exchange-rate.conversion.fixed-point:false}")
+    private boolean fixedPoint;
+    
     /**
      * Aplica un tipo de cambio a un monto y registra la operación en auditoría.
+     * Si no existe el par exacto se usa un tipo de cambio inverso o cruzado.
+     * Si se indica fechaTipoCambio se aplica el tipo vigente en esa fecha.
      * 
      * @param request Datos de la operación (monedas y monto)
      * @return Mono con el ApplyExchangeResponse
      */
     public Mono<ApplyExchangeResponse> applyExchange(ApplyExchangeRequest request) {
-        return exchangeRateRepository
-                .findByMonedaOrigenAndMonedaDestino(
-                        request.getMonedaOrigen(), 
-                        request.getMonedaDestino())
-                .switchIfEmpty(Mono.error(new com.example.demo.exception.ExchangeRateNotFoundException(
-                        request.getMonedaOrigen(), 
-                        request.getMonedaDestino())))
-                .flatMap(exchangeRate -> {
-                    BigDecimal montoConvertido = calculateConvertedAmount(
-                            request.getMonto(), 
-                            exchangeRate.getTipoCambio());
-                    
-                    ApplyExchangeResponse response = ApplyExchangeResponse.builder()
-                            .monedaOrigen(request.getMonedaOrigen())
-                            .monedaDestino(request.getMonedaDestino())
-                            .montoInicial(request.getMonto())
-                            .montoConvertido(montoConvertido)
-                            .tipoCambioAplicado(exchangeRate.getTipoCambio())
-                            .fecha(LocalDateTime.now())
-                            .build();
-                    
-                    // Obtener el usuario autenticado y registrar auditoría
-                    return getCurrentUsername()
-                            .flatMap(username -> 
-                                auditService.logExchangeOperation(
-                                        username,
-                                        request.getMonedaOrigen(),
-                                        request.getMonedaDestino(),
-                                        request.getMonto(),
-                                        montoConvertido,
-                                        exchangeRate.getTipoCambio()
-                                )
-                            )
-                            .thenReturn(response);
+        return findRoute(request)
+                .flatMap(route -> getCurrentUsername()
+                        .flatMap(username -> apply(request, route, username)));
+    }
+    
+    /**
+     * Aplica un tipo de cambio a un monto una sola vez por Idempotency-Key:
+     * los reintentos del mismo usuario con la misma clave reciben la respuesta
+     * de la primera ejecución.
+     * 
+     * @param request Datos de la operación (monedas y monto)
+     * @param idempotencyKey Valor del header Idempotency-Key, o null si no se envió
+     * @return Mono con el ApplyExchangeResponse
+     */
+    public Mono<ApplyExchangeResponse> applyExchange(ApplyExchangeRequest request, String idempotencyKey) {
+        if (idempotencyKey == null) {
+            return applyExchange(request);
+        }
+        return getCurrentUsername()
+                .flatMap(username -> idempotencyCache.execute(
+                        username, idempotencyKey, request, () -> applyExchange(request)));
+    }
+    
+    /**
+     * Aplica tipos de cambio a un flujo de montos, emitiendo cada resultado
+     * en el orden de entrada a medida que se calcula. El tipo de cambio de
+     * cada par se busca una sola vez por lote y los errores se reportan por
+     * elemento sin interrumpir el resto del lote.
+     * 
+     * @param requests Flujo de operaciones (monedas y monto)
+     * @return Flux con un ApplyExchangeBatchResult por operación
+     */
+    public Flux<ApplyExchangeBatchResult> applyExchangeBatch(Flux<ApplyExchangeRequest> requests) {
+        return getCurrentUsername().flatMapMany(username -> {
+            Map<String, Mono<RateRoute>> routesByPair = new ConcurrentHashMap<>();
+            return requests.index().flatMapSequential(indexed -> {
+                long index = indexed.getT1();
+                ApplyExchangeRequest request = indexed.getT2();
+                
+                String violations = validate(request);
+                if (violations != null) {
+                    return Mono.just(ApplyExchangeBatchResult.failure(index, violations));
+                }
+                
+                return routesByPair
+                        .computeIfAbsent(
+                                request.getMonedaOrigen() + ':' + request.getMonedaDestino()
+                                        + '@' + request.getFechaTipoCambio(),
+                                pair -> findRoute(request).cache())
+                        .flatMap(route -> apply(request, route, username))
+                        .map(response -> ApplyExchangeBatchResult.success(index, response))
+                        .onErrorResume(RuntimeException.class, e ->
+                                Mono.just(ApplyExchangeBatchResult.failure(index, e.getMessage())));
+            });
+        });
+    }
+    
+    /**
+     * Busca la ruta de conversión de la operación, fallando si no existe.
+     */
+    private Mono<RateRoute> findRoute(ApplyExchangeRequest request) {
+        String monedaOrigen = request.getMonedaOrigen();
+        String monedaDestino = request.getMonedaDestino();
+        Mono<RateRoute> route = request.getFechaTipoCambio() == null
+                ? exchangeRateGraph.findRoute(monedaOrigen, monedaDestino)
+                : findHistoricalRoute(monedaOrigen, monedaDestino, request.getFechaTipoCambio());
+        return route.switchIfEmpty(Mono.error(() -> {
+            exchangeMetrics.recordRateNotFound(monedaOrigen, monedaDestino);
+            return new ExchangeRateNotFoundException(monedaOrigen, monedaDestino);
+        }));
+    }
+    
+    /**
+     * Busca el tipo de cambio directo o inverso de un par vigente en una fecha pasada.
+     */
+    private Mono<RateRoute> findHistoricalRoute(String monedaOrigen, String monedaDestino, LocalDateTime fecha) {
+        List<String> ruta = List.of(monedaOrigen, monedaDestino);
+        return rateHistoryService.findAsOf(monedaOrigen, monedaDestino, fecha)
+                .map(version -> new RateRoute(ruta, version.getTipoCambio()))
+                .switchIfEmpty(Mono.defer(() -> rateHistoryService.findAsOf(monedaDestino, monedaOrigen, fecha)
+                        .map(version -> new RateRoute(ruta, ExchangeRateGraph.inverse(version.getTipoCambio())))));
+    }
+    
+    /**
+     * Calcula la conversión, registra la operación en auditoría y la suma a los acumulados.
+     */
+    private Mono<ApplyExchangeResponse> apply(
+            ApplyExchangeRequest request,
+            RateRoute route,
+            String username) {
+        BigDecimal montoConvertido = calculateConvertedAmount(
+                request.getMonto(), 
+                route.tipoCambio());
+        
+        ApplyExchangeResponse response = ApplyExchangeResponse.builder()
+                .monedaOrigen(request.getMonedaOrigen())
+                .monedaDestino(request.getMonedaDestino())
+                .montoInicial(request.getMonto())
+                .montoConvertido(montoConvertido)
+                .tipoCambioAplicado(route.tipoCambio())
+                .fecha(LocalDateTime.now())
+                .ruta(route.ruta())
+                .build();
+        
+        return auditService.logExchangeOperation(
+                        username,
+                        request.getMonedaOrigen(),
+                        request.getMonedaDestino(),
+                        request.getMonto(),
+                        montoConvertido,
+                        route.tipoCambio())
+                .thenReturn(response)
+                .doOnNext(applied -> {
+                    conversionRollups.record(username, applied);
+                    exchangeMetrics.recordConversion(applied.getMonedaOrigen(), applied.getMonedaDestino());
                 });
     }
     
+    /**
+     * Valida un elemento del lote.
+     * 
+     * @return Mensajes de error concatenados o null si es válido
+     */
+    private String validate(ApplyExchangeRequest request) {
+        if (request == null) {
+            return "La operación es obligatoria";
+        }
+        Set<ConstraintViolation<ApplyExchangeRequest>> violations = validator.validate(request);
+        if (violations.isEmpty()) {
+            return null;
+        }
+        return violations.stream()
+                .map(violation -> violation.getPropertyPath() + ": " + violation.getMessage())
+                .sorted()
+                .collect(Collectors.joining("; "));
+    }
+    
     /**
      * Calcula el monto convertido aplicando el tipo de cambio.
      * 
@@ -78,9 +210,15 @@ public class ExchangeApplyService {
      * @param tipoCambio Tipo de cambio
      * @return Monto convertido
      */
-    private BigDecimal calculateConvertedAmount(BigDecimal monto, BigDecimal tipoCambio) {
+    BigDecimal calculateConvertedAmount(BigDecimal monto, BigDecimal tipoCambio) {
+        if (fixedPoint) {
+            BigDecimal converted = FixedPointConversion.convert(monto, tipoCambio);
+            if (converted != null) {
+                return converted;
+            }
+        }
         return monto.multiply(tipoCambio)
-                .setScale(2, RoundingMode.HALF_UP);
+                .setScale(FixedPointConversion.AMOUNT_SCALE, RoundingMode.HALF_UP);
     }
     
     /**
@@ -95,4 +233,3 @@ public class ExchangeApplyService {
                 .defaultIfEmpty("anonymous");
     }
 }
-
@@ -0,0 +1,88 @@
+package com.example.demo.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Contadores de negocio por par de monedas.
+ * <p>
+ * El tag "pair" se limita a los primeros exchange-rate.metrics.max-pair-tags
+ * pares con una conversión aplicada; el resto se agrupa bajo OTHER, de modo
+ * que pares arbitrarios enviados por clientes no crean series sin límite. Un
+ * par no encontrado nunca ocupa un lugar: solo conserva su tag si ya lo tenía
+ * por sus conversiones, así que consultar pares inventados no desplaza a los reales.
+ */
+@Component
+public class ExchangeMetrics {
+
+    static final String OTHER = "OTHER";
+
+    private final MeterRegistry meterRegistry;
+
+    private final int maxPairTags;
+
+    private final Set<String> pairTags = ConcurrentHashMap.newKeySet();
+
+    private final Map<String, Counter> conversions = new ConcurrentHashMap<>();
+
+    private final Map<String, Counter> notFound = new ConcurrentHashMap<>();
+
+    @Autowired
+    public ExchangeMetrics(
+            MeterRegistry meterRegistry,
+            @Value("${exchange-rate.metrics.max-pair-tags:100}") int maxPairTags) {
+        this.meterRegistry = meterRegistry;
+        this.maxPairTags = maxPairTags;
+    }
+
+    /**
+     * Cuenta una conversión aplicada.
+     */
+    public void recordConversion(String monedaOrigen, String monedaDestino) {
+        conversions.computeIfAbsent(pairTag(monedaOrigen, monedaDestino, true), pair -> Counter
+                        .builder("exchange.conversions")
+                        .description("Conversiones aplicadas por par de monedas")
+                        .tag("pair", pair)
+                        .register(meterRegistry))
+                .increment();
+    }
+
+    /**
+     * Cuenta una búsqueda de tipo de cambio sin resultado.
+     */
+    public void recordRateNotFound(String monedaOrigen, String monedaDestino) {
+        notFound.computeIfAbsent(pairTag(monedaOrigen, monedaDestino, false), pair -> Counter
+                        .builder("exchange.rate.not.found")
+                        .description("Tipos de cambio no encontrados por par de monedas")
+                        .tag("pair", pair)
+                        .register(meterRegistry))
+                .increment();
+    }
+
+    /**
+     * @param admit si el par puede ocupar un lugar libre del límite de tags
+     */
+    private String pairTag(String monedaOrigen, String monedaDestino, boolean admit) {
+        String pair = monedaOrigen + ':' + monedaDestino;
+        if (pairTags.contains(pair)) {
+            return pair;
+        }
+        if (!admit) {
+            return OTHER;
+        }
+        synchronized (pairTags) {
+            if (pairTags.size() < maxPairTags) {
+                pairTags.add(pair);
+                return pair;
+            }
+        }
+        return OTHER;
+    }
+}
@@ -0,0 +1,111 @@
+package com.example.demo.service;
+
+import com.example.demo.entity.ExchangeRate;
+import com.example.demo.repository.ExchangeRateRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Caché en memoria (read-through) de tipos de cambio por par de monedas para
+ * la consulta por par. /exchange/apply no la usa: resuelve la conversión con
+ * las rutas precalculadas de ExchangeRateGraph, que ya están en memoria.
+ * Las escrituras de ExchangeRateService deben refrescar o invalidar las entradas.
+ */
+@Component
+public class ExchangeRateCache {
+
+    private final ExchangeRateRepository exchangeRateRepository;
+
+    private final Cache<String, ExchangeRate> cache;
+
+    /**
+     * Se incrementa en cada escritura (antes de tocar la caché) para que una
+     * lectura iniciada antes no deje cacheado un tipo de cambio ya reemplazado
+     * o eliminado.
+     */
+    private final AtomicLong generation = new AtomicLong();
+
+    @Autowired
+    public ExchangeRateCache(
+            ExchangeRateRepository exchangeRateRepository,
+            @Value("${exchange-rate.cache.max-size:10000}") long maxSize,
+            @Value("${exchange-rate.cache.ttl:300000}") long ttl) {
+        this.exchangeRateRepository = exchangeRateRepository;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(Duration.ofMillis(ttl))
+                .recordStats()
+                .build();
+    }
+
+    /**
+     * Busca un tipo de cambio por moneda origen y destino, consultando la
+     * base de datos solo si no está en caché.
+     *
+     * @param monedaOrigen Moneda origen
+     * @param monedaDestino Moneda destino
+     * @return Mono con el ExchangeRate encontrado o vacío
+     */
+    public Mono<ExchangeRate> findByMonedas(String monedaOrigen, String monedaDestino) {
+        return Mono.defer(() -> {
+            String key = key(monedaOrigen, monedaDestino);
+            ExchangeRate cached = cache.getIfPresent(key);
+            if (cached != null) {
+                return Mono.just(cached);
+            }
+            long readGeneration = generation.get();
+            return exchangeRateRepository
+                    .findByMonedaOrigenAndMonedaDestino(monedaOrigen, monedaDestino)
+                    .doOnNext(exchangeRate -> {
+                        // Se inserta y luego se comprueba: una escritura que corra entre
+                        // ambos pasos ya incrementó generation, así que la entrada se retira
+                        if (cache.asMap().putIfAbsent(key, exchangeRate) == null
+                                && generation.get() != readGeneration) {
+                            cache.asMap().remove(key, exchangeRate);
+                        }
+                    });
+        });
+    }
+
+    /**
+     * Guarda en caché la versión vigente de un tipo de cambio.
+     */
+    public void put(ExchangeRate exchangeRate) {
+        generation.incrementAndGet();
+        cache.put(key(exchangeRate.getMonedaOrigen(), exchangeRate.getMonedaDestino()), exchangeRate);
+    }
+
+    /**
+     * Elimina de la caché el tipo de cambio de un par de monedas.
+     */
+    public void invalidate(String monedaOrigen, String monedaDestino) {
+        generation.incrementAndGet();
+        cache.invalidate(key(monedaOrigen, monedaDestino));
+    }
+
+    /**
+     * Estadísticas de aciertos y fallos de la caché.
+     */
+    public CacheStats stats() {
+        return cache.stats();
+    }
+
+    /**
+     * Número aproximado de entradas en caché.
+     */
+    public long size() {
+        return cache.estimatedSize();
+    }
+
+    private static String key(String monedaOrigen, String monedaDestino) {
+        return monedaOrigen + ':' + monedaDestino;
+    }
+}
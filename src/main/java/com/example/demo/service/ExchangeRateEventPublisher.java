@@ -0,0 +1,92 @@
+package com.example.demo.service;
+
+import com.example.demo.dto.ExchangeRateEvent;
+import com.example.demo.dto.ExchangeRateResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.BufferOverflowStrategy;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Sinks;
+
+import java.time.LocalDateTime;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Difunde en caliente los cambios de tipos de cambio a todos los suscriptores,
+ * sin consultar la base de datos. Cada suscriptor tiene su propio buffer acotado,
+ * de modo que un cliente lento solo pierde sus propios eventos.
+ */
+@Component
+public class ExchangeRateEventPublisher {
+    
+    /**
+     * Política para un suscriptor cuyo buffer está lleno.
+     */
+    public enum OverflowPolicy {
+        /** Descarta el evento más antiguo del buffer. */
+        DROP_OLDEST,
+        /** Conserva solo el evento más reciente. */
+        LATEST
+    }
+    
+    private final Sinks.Many<ExchangeRateEvent> sink = Sinks.many().multicast().directBestEffort();
+    
+    private final AtomicLong sequence = new AtomicLong();
+    
+    private final int bufferSize;
+    
+    private final OverflowPolicy overflowPolicy;
+    
+    public ExchangeRateEventPublisher(
+            @Value("${exchange-rate.events.buffer-size:256}") int bufferSize,
+            @Value("${exchange-rate.events.overflow-policy:DROP_OLDEST}") OverflowPolicy overflowPolicy) {
+        this.bufferSize = bufferSize;
+        this.overflowPolicy = overflowPolicy;
+    }
+    
+    /**
+     * Publica un cambio a los suscriptores actuales.
+     * 
+     * @param tipo Tipo de cambio realizado
+     * @param exchangeRate Estado del tipo de cambio tras la operación
+     */
+    public synchronized void publish(ExchangeRateEvent.Tipo tipo, ExchangeRateResponse exchangeRate) {
+        ExchangeRateEvent event = ExchangeRateEvent.builder()
+                .secuencia(sequence.incrementAndGet())
+                .tipo(tipo)
+                .exchangeRate(exchangeRate)
+                .fecha(LocalDateTime.now())
+                .build();
+        // Sin suscriptores el evento simplemente se descarta
+        sink.tryEmitNext(event);
+    }
+    
+    /**
+     * Suscribe a los cambios, opcionalmente filtrados por par de monedas.
+     * 
+     * @param monedaOrigen Moneda origen, o null para todas
+     * @param monedaDestino Moneda destino, o null para todas
+     * @return Flux en caliente con los eventos de cambio
+     */
+    public Flux<ExchangeRateEvent> subscribe(String monedaOrigen, String monedaDestino) {
+        Flux<ExchangeRateEvent> events = sink.asFlux()
+                .filter(event -> matches(monedaOrigen, event.getExchangeRate().getMonedaOrigen())
+                        && matches(monedaDestino, event.getExchangeRate().getMonedaDestino()));
+        
+        return switch (overflowPolicy) {
+            case LATEST -> events.onBackpressureLatest();
+            case DROP_OLDEST -> events.onBackpressureBuffer(bufferSize, dropped -> { }, BufferOverflowStrategy.DROP_OLDEST);
+        };
+    }
+    
+    /**
+     * Número de suscriptores conectados.
+     */
+    public int subscriberCount() {
+        return sink.currentSubscriberCount();
+    }
+    
+    private static boolean matches(String filter, String value) {
+        return filter == null || filter.equals(value);
+    }
+}
@@ -0,0 +1,422 @@
+package com.example.demo.service;
+
+import com.example.demo.entity.ExchangeRate;
+import com.example.demo.repository.ExchangeRateRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.math.BigDecimal;
+import java.math.MathContext;
+import java.math.RoundingMode;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Grafo en memoria de tipos de cambio construido a partir de la tabla exchange_rates.
+ * Deriva tipos de cambio inversos y cruzados (por ejemplo PEN -> USD -> EUR) y
+ * mantiene precalculada la mejor ruta para cada par de monedas.
+ * <p>
+ * La mejor ruta es la de menos saltos y, a igual número de saltos, la que usa
+ * menos tramos inversos. Un cambio de valor en un tramo solo recalcula el tipo
+ * de cambio de las rutas que lo usan. Una baja vuelve a buscar las rutas de los
+ * orígenes que usaban el tramo; un alta, las de los orígenes que ya llegaban a
+ * alguna de sus dos monedas, que son los únicos que pueden usarlo.
+ */
+@Component
+public class ExchangeRateGraph {
+
+    private static final MathContext PRECISION = MathContext.DECIMAL128;
+    private static final int RATE_SCALE = 6;
+
+    /** Costo de un tramo almacenado; un tramo inverso cuesta uno más. */
+    private static final int LEG_COST = 1000;
+
+    private static final Duration FOREVER = Duration.ofMillis(Long.MAX_VALUE);
+
+    private final ExchangeRateRepository exchangeRateRepository;
+    private final int maxHops;
+    private final Mono<Void> loaded;
+
+    /** Tipos de cambio almacenados: origen -> destino -> tipo de cambio. Protegido por this. */
+    private final Map<String, Map<String, BigDecimal>> outbound = new HashMap<>();
+
+    /** Índice inverso de los tipos almacenados: destino -> orígenes. Protegido por this. */
+    private final Map<String, Set<String>> inbound = new HashMap<>();
+
+    /** Monedas origen cuyas rutas usan cada tramo almacenado ("origen:destino"). Protegido por this. */
+    private Map<String, Set<String>> sourcesByLeg = new HashMap<>();
+
+    /** Tramos que usan las rutas de cada moneda origen, para podar sourcesByLeg. Protegido por this. */
+    private Map<String, Set<String>> legsBySource = new HashMap<>();
+
+    /** Cambios recibidos antes de terminar la carga inicial. Protegido por this. */
+    private final List<Runnable> pending = new ArrayList<>();
+
+    private boolean initialized;
+
+    /** Si el grafo se cargó con preload(), la carga inicial no lee exchange_rates. Protegido por this. */
+    private boolean preloaded;
+
+    /** Rutas precalculadas: origen -> destino -> ruta. Lectura sin bloqueo. */
+    private volatile Map<String, Map<String, RateRoute>> routes = new ConcurrentHashMap<>();
+
+    @Autowired
+    public ExchangeRateGraph(
+            ExchangeRateRepository exchangeRateRepository,
+            @Value("${exchange-rate.graph.max-hops:3}") int maxHops) {
+        this.exchangeRateRepository = exchangeRateRepository;
+        this.maxHops = maxHops;
+        this.loaded = Mono.defer(() -> isPreloaded()
+                        ? Mono.<List<ExchangeRate>>empty()
+                        : this.exchangeRateRepository.findAll().collectList())
+                .doOnNext(this::loadFromTable)
+                .then()
+                .cache(unused -> FOREVER, error -> Duration.ZERO, () -> FOREVER);
+    }
+
+    /**
+     * Busca la mejor ruta precalculada entre dos monedas.
+     *
+     * @param monedaOrigen Moneda origen
+     * @param monedaDestino Moneda destino
+     * @return Mono con la RateRoute encontrada o vacío si no hay ruta
+     */
+    public Mono<RateRoute> findRoute(String monedaOrigen, String monedaDestino) {
+        return loaded.then(Mono.fromSupplier(() -> {
+            Map<String, RateRoute> fromOrigen = routes.get(monedaOrigen);
+            return fromOrigen == null ? null : fromOrigen.get(monedaDestino);
+        }));
+    }
+
+    /**
+     * Carga el grafo desde exchange_rates si aún no se cargó.
+     *
+     * @return Mono que completa cuando las rutas están calculadas
+     */
+    public Mono<Void> warmup() {
+        return loaded;
+    }
+
+    /**
+     * Carga el grafo con los tipos de cambio dados sin leer exchange_rates, por
+     * ejemplo los recién restaurados en la tabla. Reemplaza una carga inicial ya
+     * hecha, que pudo leer la tabla antes de que terminara de llenarse.
+     */
+    public synchronized void preload(List<ExchangeRate> exchangeRates) {
+        preloaded = true;
+        load(exchangeRates);
+    }
+
+    private synchronized boolean isPreloaded() {
+        return preloaded;
+    }
+
+    private synchronized void loadFromTable(List<ExchangeRate> exchangeRates) {
+        if (!preloaded) {
+            load(exchangeRates);
+        }
+    }
+
+    /**
+     * Registra un tipo de cambio creado o actualizado.
+     */
+    public synchronized void upsert(ExchangeRate exchangeRate) {
+        String origen = exchangeRate.getMonedaOrigen();
+        String destino = exchangeRate.getMonedaDestino();
+        BigDecimal tipoCambio = exchangeRate.getTipoCambio();
+        if (!initialized) {
+            pending.add(() -> putLeg(origen, destino, tipoCambio));
+            return;
+        }
+
+        boolean existed = putLeg(origen, destino, tipoCambio);
+        if (existed) {
+            refreshRates(origen, destino);
+        } else {
+            sourcesNear(origen, destino).forEach(this::recomputeFrom);
+        }
+    }
+
+    /**
+     * Registra varios tipos de cambio creados o actualizados, buscando una sola
+     * vez las rutas de cada origen afectado por los tramos nuevos del lote.
+     */
+    public synchronized void upsertAll(List<ExchangeRate> exchangeRates) {
+        if (!initialized) {
+            exchangeRates.forEach(this::upsert);
+            return;
+        }
+
+        // Con las rutas previas al lote: un origen solo puede usar un tramo nuevo
+        // llegando antes, por tramos ya existentes, a una de sus monedas
+        Set<String> affected = new HashSet<>();
+        List<ExchangeRate> changed = new ArrayList<>();
+        for (ExchangeRate exchangeRate : exchangeRates) {
+            String origen = exchangeRate.getMonedaOrigen();
+            String destino = exchangeRate.getMonedaDestino();
+            if (putLeg(origen, destino, exchangeRate.getTipoCambio())) {
+                changed.add(exchangeRate);
+            } else {
+                affected.addAll(sourcesNear(origen, destino));
+            }
+        }
+        affected.forEach(this::recomputeFrom);
+        for (ExchangeRate exchangeRate : changed) {
+            refreshRates(exchangeRate.getMonedaOrigen(), exchangeRate.getMonedaDestino());
+        }
+    }
+
+    /**
+     * Elimina un tipo de cambio del grafo.
+     */
+    public synchronized void remove(String monedaOrigen, String monedaDestino) {
+        if (!initialized) {
+            pending.add(() -> removeLeg(monedaOrigen, monedaDestino));
+            return;
+        }
+
+        if (removeLeg(monedaOrigen, monedaDestino)) {
+            Set<String> affected = sourcesByLeg.getOrDefault(legKey(monedaOrigen, monedaDestino), Set.of());
+            new ArrayList<>(affected).forEach(this::recomputeFrom);
+        }
+    }
+
+    private synchronized void load(List<ExchangeRate> exchangeRates) {
+        outbound.clear();
+        inbound.clear();
+        for (ExchangeRate exchangeRate : exchangeRates) {
+            putLeg(exchangeRate.getMonedaOrigen(), exchangeRate.getMonedaDestino(), exchangeRate.getTipoCambio());
+        }
+        pending.forEach(Runnable::run);
+        pending.clear();
+        initialized = true;
+        recomputeAll();
+    }
+
+    private boolean putLeg(String origen, String destino, BigDecimal tipoCambio) {
+        inbound.computeIfAbsent(destino, key -> new HashSet<>()).add(origen);
+        return outbound.computeIfAbsent(origen, key -> new HashMap<>()).put(destino, tipoCambio) != null;
+    }
+
+    private boolean removeLeg(String origen, String destino) {
+        Map<String, BigDecimal> destinos = outbound.get(origen);
+        if (destinos == null || destinos.remove(destino) == null) {
+            return false;
+        }
+        if (destinos.isEmpty()) {
+            outbound.remove(origen);
+        }
+        Set<String> origenes = inbound.get(destino);
+        origenes.remove(origen);
+        if (origenes.isEmpty()) {
+            inbound.remove(destino);
+        }
+        return true;
+    }
+
+    /**
+     * Recalcula todas las rutas y publica el resultado de una vez.
+     */
+    private void recomputeAll() {
+        Map<String, Map<String, RateRoute>> newRoutes = new ConcurrentHashMap<>();
+        Map<String, Set<String>> newSourcesByLeg = new HashMap<>();
+        Map<String, Set<String>> newLegsBySource = new HashMap<>();
+        Set<String> currencies = new HashSet<>(outbound.keySet());
+        currencies.addAll(inbound.keySet());
+        for (String source : currencies) {
+            recomputeFrom(source, newRoutes, newSourcesByLeg, newLegsBySource);
+        }
+        sourcesByLeg = newSourcesByLeg;
+        legsBySource = newLegsBySource;
+        routes = newRoutes;
+    }
+
+    private void recomputeFrom(String source) {
+        recomputeFrom(source, routes, sourcesByLeg, legsBySource);
+    }
+
+    /**
+     * Orígenes cuyas rutas pueden cambiar con un tramo nuevo entre dos monedas: las
+     * dos monedas y los que ya llegan a alguna de ellas. Todo tramo se recorre en
+     * ambos sentidos, así que son los destinos de las rutas que salen de ellas.
+     */
+    private Set<String> sourcesNear(String origen, String destino) {
+        Set<String> sources = new HashSet<>();
+        sources.add(origen);
+        sources.add(destino);
+        sources.addAll(routes.getOrDefault(origen, Map.of()).keySet());
+        sources.addAll(routes.getOrDefault(destino, Map.of()).keySet());
+        return sources;
+    }
+
+    /**
+     * Recalcula el tipo de cambio de las rutas que usan un tramo cuyo valor cambió,
+     * sin volver a buscar caminos.
+     */
+    private void refreshRates(String origen, String destino) {
+        String leg = legKey(origen, destino);
+        for (String source : sourcesByLeg.getOrDefault(leg, Set.of())) {
+            Map<String, RateRoute> current = routes.get(source);
+            if (current == null) {
+                continue;
+            }
+            Map<String, RateRoute> updated = new HashMap<>(current);
+            for (Map.Entry<String, RateRoute> entry : current.entrySet()) {
+                if (usesLeg(entry.getValue().ruta(), leg)) {
+                    updated.put(entry.getKey(), route(entry.getValue().ruta()));
+                }
+            }
+            routes.put(source, Collections.unmodifiableMap(updated));
+        }
+    }
+
+    /**
+     * Busca las mejores rutas desde una moneda (Dijkstra limitado a maxHops saltos)
+     * y reemplaza las rutas de esa moneda y sus tramos en los mapas dados.
+     */
+    private void recomputeFrom(
+            String source,
+            Map<String, Map<String, RateRoute>> targetRoutes,
+            Map<String, Set<String>> targetSourcesByLeg,
+            Map<String, Set<String>> targetLegsBySource) {
+        Set<String> previousLegs = targetLegsBySource.remove(source);
+        if (previousLegs != null) {
+            for (String leg : previousLegs) {
+                Set<String> sources = targetSourcesByLeg.get(leg);
+                sources.remove(source);
+                if (sources.isEmpty()) {
+                    targetSourcesByLeg.remove(leg);
+                }
+            }
+        }
+
+        Map<String, Integer> cost = new HashMap<>();
+        Map<String, Integer> hops = new HashMap<>();
+        Map<String, String> previous = new HashMap<>();
+        Set<String> settled = new HashSet<>();
+        PriorityQueue<Map.Entry<String, Integer>> queue = new PriorityQueue<>(Map.Entry.comparingByValue());
+
+        cost.put(source, 0);
+        hops.put(source, 0);
+        queue.add(Map.entry(source, 0));
+
+        while (!queue.isEmpty()) {
+            String node = queue.poll().getKey();
+            if (!settled.add(node) || hops.get(node) >= maxHops) {
+                continue;
+            }
+            for (Map.Entry<String, Integer> edge : neighbours(node).entrySet()) {
+                String next = edge.getKey();
+                int nextCost = cost.get(node) + edge.getValue();
+                if (!settled.contains(next) && nextCost < cost.getOrDefault(next, Integer.MAX_VALUE)) {
+                    cost.put(next, nextCost);
+                    hops.put(next, hops.get(node) + 1);
+                    previous.put(next, node);
+                    queue.add(Map.entry(next, nextCost));
+                }
+            }
+        }
+
+        Map<String, RateRoute> sourceRoutes = new HashMap<>();
+        Set<String> sourceLegs = new HashSet<>();
+        for (String target : previous.keySet()) {
+            LinkedList<String> ruta = new LinkedList<>();
+            for (String node = target; node != null; node = previous.get(node)) {
+                ruta.addFirst(node);
+            }
+            List<String> path = List.copyOf(ruta);
+            sourceRoutes.put(target, route(path));
+            for (int i = 1; i < path.size(); i++) {
+                sourceLegs.add(legFor(path.get(i - 1), path.get(i)));
+            }
+        }
+        for (String leg : sourceLegs) {
+            targetSourcesByLeg.computeIfAbsent(leg, key -> new HashSet<>()).add(source);
+        }
+        if (!sourceLegs.isEmpty()) {
+            targetLegsBySource.put(source, sourceLegs);
+        }
+        if (sourceRoutes.isEmpty()) {
+            targetRoutes.remove(source);
+        } else {
+            targetRoutes.put(source, Collections.unmodifiableMap(sourceRoutes));
+        }
+    }
+
+    /**
+     * Tramos salientes de una moneda con su costo: los almacenados y los inversos
+     * de tipos almacenados que no tienen fila en el sentido contrario.
+     */
+    private Map<String, Integer> neighbours(String node) {
+        Map<String, Integer> edges = new HashMap<>();
+        for (String origen : inbound.getOrDefault(node, Set.of())) {
+            edges.put(origen, LEG_COST + 1);
+        }
+        for (String destino : outbound.getOrDefault(node, Map.of()).keySet()) {
+            edges.put(destino, LEG_COST);
+        }
+        return edges;
+    }
+
+    /**
+     * Construye la ruta calculando su tipo de cambio con los valores actuales.
+     */
+    private RateRoute route(List<String> ruta) {
+        if (ruta.size() == 2 && storedRate(ruta.get(0), ruta.get(1)) != null) {
+            return new RateRoute(ruta, storedRate(ruta.get(0), ruta.get(1)));
+        }
+        BigDecimal tipoCambio = BigDecimal.ONE;
+        for (int i = 1; i < ruta.size(); i++) {
+            String from = ruta.get(i - 1);
+            String to = ruta.get(i);
+            BigDecimal direct = storedRate(from, to);
+            BigDecimal leg = direct != null
+                    ? direct
+                    : BigDecimal.ONE.divide(storedRate(to, from), PRECISION);
+            tipoCambio = tipoCambio.multiply(leg, PRECISION);
+        }
+        return new RateRoute(ruta, tipoCambio.setScale(RATE_SCALE, RoundingMode.HALF_UP));
+    }
+
+    /**
+     * Tipo de cambio inverso, con la misma precisión que las rutas derivadas.
+     */
+    static BigDecimal inverse(BigDecimal tipoCambio) {
+        return BigDecimal.ONE.divide(tipoCambio, PRECISION).setScale(RATE_SCALE, RoundingMode.HALF_UP);
+    }
+
+    private boolean usesLeg(List<String> ruta, String leg) {
+        for (int i = 1; i < ruta.size(); i++) {
+            if (legFor(ruta.get(i - 1), ruta.get(i)).equals(leg)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private BigDecimal storedRate(String origen, String destino) {
+        return outbound.getOrDefault(origen, Map.of()).get(destino);
+    }
+
+    /**
+     * Tramo almacenado que respalda un salto: el directo si existe o el inverso.
+     */
+    private String legFor(String from, String to) {
+        return storedRate(from, to) != null ? legKey(from, to) : legKey(to, from);
+    }
+
+    private static String legKey(String origen, String destino) {
+        return origen + ':' + destino;
+    }
+}
@@ -1,5 +1,6 @@
-2package com.example.demo.service;
+package com.example.demo.service;
 
+import com.example.demo.dto.ExchangeRateEvent;
 import com.example.demo.dto.ExchangeRateRequest;
 import com.example.demo.dto.ExchangeRateResponse;
 import com.example.demo.dto.ExchangeRateUpdateRequest;
@@ -8,7 +9,9 @@ import com.example.demo.exception.ExchangeRateAlreadyExistsException;
 import com.example.demo.exception.ExchangeRateNotFoundException;
 import com.example.demo.repository.ExchangeRateRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DuplicateKeyException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.reactive.TransactionalOperator;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
@@ -16,6 +19,10 @@ import java.time.LocalDateTime;
 
 /**
  * Servicio para operaciones CRUD de tipos de cambio.
+ * <p>
+ * Cada escritura y su versión en exchange_rate_history se confirman en una
+ * misma transacción; la caché, el grafo, la versión de la tabla y los
+ * suscriptores se actualizan solo después de confirmar.
  */
 @Service
 public class ExchangeRateService {
@@ -23,6 +30,27 @@ public class ExchangeRateService {
     @Autowired
     private ExchangeRateRepository exchangeRateRepository;
     
+    @Autowired
+    private ExchangeRateCache exchangeRateCache;
+    
+    @Autowired
+    private ExchangeRateGraph exchangeRateGraph;
+    
+    @Autowired
+    private ExchangeRateEventPublisher exchangeRateEventPublisher;
+    
+    @Autowired
+    private RateHistoryService rateHistoryService;
+    
+    @Autowired
+    private ExchangeMetrics exchangeMetrics;
+    
+    @Autowired
+    private RateTableVersion rateTableVersion;
+    
+    @Autowired
+    private TransactionalOperator transactionalOperator;
+    
     /**
      * Crea un nuevo tipo de cambio.
      * 
@@ -30,27 +58,23 @@ public class ExchangeRateService {
      * @return Mono con el ExchangeRateResponse creado
      */
     public Mono<ExchangeRateResponse> create(ExchangeRateRequest request) {
-        return exchangeRateRepository
-                .existsByMonedaOrigenAndMonedaDestino(
+        ExchangeRate exchangeRate = ExchangeRate.builder()
+                .monedaOrigen(request.getMonedaOrigen())
+                .monedaDestino(request.getMonedaDestino())
+                .tipoCambio(request.getTipoCambio())
+                .fechaActualizacion(LocalDateTime.now())
+                .build();
+        
+        // Un solo INSERT: la restricción UNIQUE del par detecta los duplicados
+        return exchangeRateRepository.save(exchangeRate)
+                .onErrorMap(DuplicateKeyException.class, e -> new ExchangeRateAlreadyExistsException(
                         request.getMonedaOrigen(), 
-                        request.getMonedaDestino())
-                .flatMap(exists -> {
-                    if (exists) {
-                        return Mono.error(new ExchangeRateAlreadyExistsException(
-                                request.getMonedaOrigen(), 
-                                request.getMonedaDestino()));
-                    }
-                    
-                    ExchangeRate exchangeRate = ExchangeRate.builder()
-                            .monedaOrigen(request.getMonedaOrigen())
-                            .monedaDestino(request.getMonedaDestino())
-                            .tipoCambio(request.getTipoCambio())
-                            .fechaActualizacion(LocalDateTime.now())
-                            .build();
-                    
-                    return exchangeRateRepository.save(exchangeRate)
-                            .map(this::toResponse);
-                });
+                        request.getMonedaDestino()))
+                .flatMap(saved -> rateHistoryService.record(saved).thenReturn(saved))
+                .as(transactionalOperator::transactional)
+                // transactional(Mono) emite después del COMMIT
+                .doOnNext(saved -> onSaved(saved, ExchangeRateEvent.Tipo.CREATED))
+                .map(this::toResponse);
     }
     
     /**
@@ -61,15 +85,13 @@ public class ExchangeRateService {
      * @return Mono con el ExchangeRateResponse actualizado
      */
     public Mono<ExchangeRateResponse> update(Long id, ExchangeRateUpdateRequest request) {
-        return exchangeRateRepository.findById(id)
-                .switchIfEmpty(Mono.error(new ExchangeRateNotFoundException(
+        return exchangeRateRepository.updateTipoCambio(id, request.getTipoCambio(), LocalDateTime.now())
+                .switchIfEmpty(Mono.error(() -> new ExchangeRateNotFoundException(
                         "No se encontró tipo de cambio con ID: " + id)))
-                .flatMap(exchangeRate -> {
-                    exchangeRate.setTipoCambio(request.getTipoCambio());
-                    exchangeRate.setFechaActualizacion(LocalDateTime.now());
-                    return exchangeRateRepository.save(exchangeRate)
-                            .map(this::toResponse);
-                });
+                .flatMap(saved -> rateHistoryService.record(saved).thenReturn(saved))
+                .as(transactionalOperator::transactional)
+                .doOnNext(saved -> onSaved(saved, ExchangeRateEvent.Tipo.UPDATED))
+                .map(this::toResponse);
     }
     
     /**
@@ -80,13 +102,38 @@ public class ExchangeRateService {
      * @return Mono con el ExchangeRateResponse encontrado
      */
     public Mono<ExchangeRateResponse> findByMonedas(String monedaOrigen, String monedaDestino) {
-        return exchangeRateRepository
-                .findByMonedaOrigenAndMonedaDestino(monedaOrigen, monedaDestino)
-                .switchIfEmpty(Mono.error(new ExchangeRateNotFoundException(
-                        monedaOrigen, monedaDestino)))
+        return exchangeRateCache
+                .findByMonedas(monedaOrigen, monedaDestino)
+                .switchIfEmpty(Mono.error(() -> {
+                    exchangeMetrics.recordRateNotFound(monedaOrigen, monedaDestino);
+                    return new ExchangeRateNotFoundException(monedaOrigen, monedaDestino);
+                }))
                 .map(this::toResponse);
     }
     
+    /**
+     * Busca el tipo de cambio de un par vigente en un instante dado.
+     * 
+     * @param monedaOrigen Moneda origen
+     * @param monedaDestino Moneda destino
+     * @param fecha Instante consultado
+     * @return Mono con el ExchangeRateResponse vigente en esa fecha
+     */
+    public Mono<ExchangeRateResponse> findAsOf(String monedaOrigen, String monedaDestino, LocalDateTime fecha) {
+        return rateHistoryService
+                .findAsOf(monedaOrigen, monedaDestino, fecha)
+                .switchIfEmpty(Mono.error(new ExchangeRateNotFoundException(
+                        String.format("No se encontró tipo de cambio para %s -> %s vigente en %s",
+                                monedaOrigen, monedaDestino, fecha))))
+                .map(version -> ExchangeRateResponse.builder()
+                        .id(version.getExchangeRateId())
+                        .monedaOrigen(version.getMonedaOrigen())
+                        .monedaDestino(version.getMonedaDestino())
+                        .tipoCambio(version.getTipoCambio())
+                        .fechaActualizacion(version.getValidFrom())
+                        .build());
+    }
+    
     /**
      * Obtiene todos los tipos de cambio.
      * 
@@ -117,16 +164,39 @@ public class ExchangeRateService {
      * @return Mono vacío
      */
     public Mono<Void> delete(Long id) {
-        return exchangeRateRepository.findById(id)
-                .switchIfEmpty(Mono.error(new ExchangeRateNotFoundException(
+        return exchangeRateRepository.deleteReturning(id)
+                .switchIfEmpty(Mono.error(() -> new ExchangeRateNotFoundException(
                         "No se encontró tipo de cambio con ID: " + id)))
-                .flatMap(exchangeRateRepository::delete);
+                .flatMap(deleted -> rateHistoryService.recordDeletion(deleted).thenReturn(deleted))
+                .as(transactionalOperator::transactional)
+                .doOnNext(this::onDeleted)
+                .then();
+    }
+    
+    /**
+     * Propaga un tipo de cambio guardado a la caché, al grafo, a la versión de la tabla y a los suscriptores.
+     */
+    private void onSaved(ExchangeRate saved, ExchangeRateEvent.Tipo tipo) {
+        exchangeRateCache.put(saved);
+        exchangeRateGraph.upsert(saved);
+        rateTableVersion.increment();
+        exchangeRateEventPublisher.publish(tipo, toResponse(saved));
+    }
+    
+    /**
+     * Propaga la eliminación de un tipo de cambio a la caché, al grafo, a la versión de la tabla y a los suscriptores.
+     */
+    private void onDeleted(ExchangeRate deleted) {
+        exchangeRateCache.invalidate(deleted.getMonedaOrigen(), deleted.getMonedaDestino());
+        exchangeRateGraph.remove(deleted.getMonedaOrigen(), deleted.getMonedaDestino());
+        rateTableVersion.increment();
+        exchangeRateEventPublisher.publish(ExchangeRateEvent.Tipo.DELETED, toResponse(deleted));
     }
     
     /**
      * Convierte una entidad ExchangeRate a DTO ExchangeRateResponse.
      */
-    private ExchangeRateResponse toResponse(ExchangeRate exchangeRate) {
+    ExchangeRateResponse toResponse(ExchangeRate exchangeRate) {
         return ExchangeRateResponse.builder()
                 .id(exchangeRate.getId())
                 .monedaOrigen(exchangeRate.getMonedaOrigen())
@@ -0,0 +1,87 @@
+package com.example.demo.service;
+
+import java.math.BigDecimal;
+
+/**
+ * Conversión de montos en aritmética de enteros escalados (long), equivalente
+ * bit a bit a {@code monto.multiply(tipoCambio).setScale(2, RoundingMode.HALF_UP)}.
+ * <p>
+ * El producto de los valores sin escala se calcula en un long y se redondea a
+ * centavos con una sola división, sin los BigDecimal intermedios del cálculo
+ * original. Si algún operando o el producto no cabe en un long (o la escala es
+ * negativa o demasiado grande) devuelve null y el llamador usa BigDecimal.
+ */
+final class FixedPointConversion {
+
+    /** Escala de los montos convertidos (DECIMAL(20,2)). */
+    static final int AMOUNT_SCALE = 2;
+
+    /** Máximo de dígitos que caben siempre en un long. */
+    private static final int MAX_LONG_DIGITS = 18;
+
+    private static final long[] POWERS_OF_TEN = new long[MAX_LONG_DIGITS + 1];
+
+    static {
+        POWERS_OF_TEN[0] = 1;
+        for (int i = 1; i < POWERS_OF_TEN.length; i++) {
+            POWERS_OF_TEN[i] = POWERS_OF_TEN[i - 1] * 10;
+        }
+    }
+
+    private FixedPointConversion() {
+    }
+
+    /**
+     * Convierte un monto con un tipo de cambio, redondeando HALF_UP a 2 decimales.
+     *
+     * @param monto Monto inicial
+     * @param tipoCambio Tipo de cambio
+     * @return Monto convertido con escala 2, o null si no es representable en long
+     */
+    static BigDecimal convert(BigDecimal monto, BigDecimal tipoCambio) {
+        int montoScale = monto.scale();
+        int tipoCambioScale = tipoCambio.scale();
+        if (montoScale < 0 || tipoCambioScale < 0
+                || monto.precision() > MAX_LONG_DIGITS || tipoCambio.precision() > MAX_LONG_DIGITS) {
+            return null;
+        }
+
+        long product = unscaled(monto);
+        long factor = unscaled(tipoCambio);
+        long high = Math.multiplyHigh(product, factor);
+        product *= factor;
+        if (high != (product >> 63)) {
+            return null;
+        }
+
+        int shift = montoScale + tipoCambioScale - AMOUNT_SCALE;
+        if (shift < 0) {
+            long scaled = product * POWERS_OF_TEN[-shift];
+            if (Math.multiplyHigh(product, POWERS_OF_TEN[-shift]) != (scaled >> 63)) {
+                return null;
+            }
+            return BigDecimal.valueOf(scaled, AMOUNT_SCALE);
+        }
+        if (shift > MAX_LONG_DIGITS) {
+            return null;
+        }
+
+        long divisor = POWERS_OF_TEN[shift];
+        long quotient = product / divisor;
+        long remainder = product % divisor;
+        // HALF_UP: se aleja de cero si el resto es al menos la mitad del divisor
+        if (Math.abs(remainder) >= divisor - Math.abs(remainder)) {
+            quotient += Long.signum(product);
+        }
+        return BigDecimal.valueOf(quotient, AMOUNT_SCALE);
+    }
+
+    /**
+     * Valor sin escala de un BigDecimal de hasta 18 dígitos. A diferencia de
+     * unscaledValue() no crea un BigInteger: el BigDecimal temporal no escapa
+     * y el JIT lo elimina.
+     */
+    private static long unscaled(BigDecimal value) {
+        return value.scaleByPowerOfTen(value.scale()).longValueExact();
+    }
+}
@@ -0,0 +1,92 @@
+package com.example.demo.service;
+
+import com.example.demo.dto.ApplyExchangeRequest;
+import com.example.demo.dto.ApplyExchangeResponse;
+import com.example.demo.exception.IdempotencyKeyReusedException;
+import com.example.demo.exception.InvalidIdempotencyKeyException;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.function.Supplier;
+
+/**
+ * Caché acotada de conversiones por (usuario, Idempotency-Key).
+ * <p>
+ * Cada entrada guarda la operación en curso o ya completada: un duplicado
+ * concurrente espera el resultado de la primera ejecución y uno posterior
+ * recibe la misma respuesta sin volver a buscar el tipo de cambio ni a
+ * escribir en auditoría. Si la operación falla la entrada se descarta para
+ * que el cliente pueda reintentar.
+ */
+@Component
+public class IdempotencyCache {
+    
+    /** Longitud máxima aceptada para el header Idempotency-Key. */
+    static final int MAX_KEY_LENGTH = 255;
+    
+    private record Entry(ApplyExchangeRequest request, Mono<ApplyExchangeResponse> response) {
+    }
+    
+    private final Cache<String, Entry> cache;
+    
+    @Autowired
+    public IdempotencyCache(
+            @Value("${exchange-rate.idempotency.max-size:10000}") long maxSize,
+            @Value("${exchange-rate.idempotency.ttl:86400000}") long ttl) {
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(Duration.ofMillis(ttl))
+                .recordStats()
+                .build();
+    }
+    
+    /**
+     * Ejecuta la operación una sola vez por usuario y Idempotency-Key.
+     * 
+     * @param usuario Usuario que realiza la operación
+     * @param idempotencyKey Valor del header Idempotency-Key
+     * @param request Operación solicitada; debe coincidir con la de la primera ejecución
+     * @param operation Operación a ejecutar si la clave es nueva
+     * @return Mono con la respuesta de la primera ejecución
+     */
+    public Mono<ApplyExchangeResponse> execute(
+            String usuario,
+            String idempotencyKey,
+            ApplyExchangeRequest request,
+            Supplier<Mono<ApplyExchangeResponse>> operation) {
+        if (idempotencyKey.isBlank() || idempotencyKey.length() > MAX_KEY_LENGTH) {
+            return Mono.error(new InvalidIdempotencyKeyException(
+                    "El header Idempotency-Key debe tener entre 1 y " + MAX_KEY_LENGTH + " caracteres"));
+        }
+        
+        String key = usuario + ':' + idempotencyKey;
+        return Mono.defer(() -> {
+            Entry entry = cache.get(key, unused -> new Entry(request, Mono.defer(operation).cache()));
+            if (!entry.request().equals(request)) {
+                return Mono.error(new IdempotencyKeyReusedException(idempotencyKey));
+            }
+            return entry.response()
+                    .doOnError(e -> cache.asMap().remove(key, entry));
+        });
+    }
+    
+    /**
+     * Estadísticas de aciertos y fallos de la caché.
+     */
+    public CacheStats stats() {
+        return cache.stats();
+    }
+    
+    /**
+     * Número aproximado de claves en caché.
+     */
+    public long size() {
+        return cache.estimatedSize();
+    }
+}
@@ -0,0 +1,185 @@
+package com.example.demo.service;
+
+import com.example.demo.entity.ExchangeRate;
+import com.example.demo.entity.ExchangeRateHistory;
+import com.example.demo.repository.ExchangeRateHistoryRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.NoTransactionException;
+import org.springframework.transaction.reactive.TransactionSynchronization;
+import org.springframework.transaction.reactive.TransactionSynchronizationManager;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+/**
+ * Servicio para registrar versiones de tipos de cambio y consultar el tipo
+ * vigente en cualquier instante.
+ * <p>
+ * Las versiones de las últimas horas (exchange-rate.history.retention) se
+ * mantienen en memoria por par, ordenadas por validFrom, junto con la versión
+ * vigente al inicio de esa ventana; las consultas dentro de la ventana se
+ * resuelven con floorEntry sin acceder a la base de datos.
+ * <p>
+ * Las versiones registradas dentro de una transacción se agregan a memoria
+ * solo cuando la transacción confirma; si se revierte, no quedan en memoria.
+ */
+@Service
+public class RateHistoryService {
+
+    private static final Duration FOREVER = Duration.ofMillis(Long.MAX_VALUE);
+
+    private final ExchangeRateHistoryRepository historyRepository;
+
+    private final Duration retention;
+
+    private final Map<String, NavigableMap<LocalDateTime, ExchangeRateHistory>> recent = new ConcurrentHashMap<>();
+
+    private final Mono<Void> loaded;
+
+    @Autowired
+    public RateHistoryService(
+            ExchangeRateHistoryRepository historyRepository,
+            @Value("${exchange-rate.history.retention:21600000}") long retention) {
+        this.historyRepository = historyRepository;
+        this.retention = Duration.ofMillis(retention);
+        this.loaded = Flux.defer(() -> historyRepository.findRecentSince(LocalDateTime.now().minus(this.retention)))
+                .doOnNext(version -> remember(version, false))
+                .then()
+                .cache(unused -> FOREVER, error -> Duration.ZERO, () -> FOREVER);
+    }
+
+    /**
+     * Registra la versión actual de un tipo de cambio creado o actualizado.
+     *
+     * @param exchangeRate Tipo de cambio guardado
+     * @return Mono con la versión registrada
+     */
+    public Mono<ExchangeRateHistory> record(ExchangeRate exchangeRate) {
+        return append(exchangeRate, exchangeRate.getFechaActualizacion(), false);
+    }
+
+    /**
+     * Registra la versión actual de varios tipos de cambio con una sola inserción.
+     *
+     * @param exchangeRates Tipos de cambio guardados
+     * @return Mono vacío que completa cuando las versiones quedaron registradas
+     */
+    public Mono<Void> recordAll(List<ExchangeRate> exchangeRates) {
+        List<ExchangeRateHistory> versions = exchangeRates.stream()
+                .map(exchangeRate -> toVersion(exchangeRate, exchangeRate.getFechaActualizacion(), false))
+                .toList();
+        return historyRepository.insertAll(versions)
+                .then(rememberAfterCommit(versions));
+    }
+
+    /**
+     * Registra la versión actual de todos los tipos de cambio de la tabla sin
+     * leerlos, por ejemplo tras restaurarla. No se agregan a memoria: la carga
+     * inicial las lee de la base de datos y, si ya se hizo, findAsOf consulta
+     * la base de datos para los pares que no tiene en memoria.
+     *
+     * @return Mono vacío que completa cuando las versiones quedaron registradas
+     */
+    public Mono<Void> recordCurrentVersions() {
+        return historyRepository.insertCurrentVersions().then();
+    }
+
+    /**
+     * Registra la eliminación de un tipo de cambio.
+     *
+     * @param exchangeRate Tipo de cambio eliminado
+     * @return Mono con la versión registrada
+     */
+    public Mono<ExchangeRateHistory> recordDeletion(ExchangeRate exchangeRate) {
+        return append(exchangeRate, LocalDateTime.now(), true);
+    }
+
+    /**
+     * Busca la versión de un par vigente en un instante dado.
+     *
+     * @param monedaOrigen Moneda origen
+     * @param monedaDestino Moneda destino
+     * @param instante Instante consultado
+     * @return Mono con la versión vigente, o vacío si el par no existía en ese instante
+     */
+    public Mono<ExchangeRateHistory> findAsOf(String monedaOrigen, String monedaDestino, LocalDateTime instante) {
+        return loaded.then(Mono.defer(() -> {
+            NavigableMap<LocalDateTime, ExchangeRateHistory> versions = recent.get(key(monedaOrigen, monedaDestino));
+            Map.Entry<LocalDateTime, ExchangeRateHistory> entry = versions == null ? null : versions.floorEntry(instante);
+            Mono<ExchangeRateHistory> version = entry != null
+                    ? Mono.just(entry.getValue())
+                    : historyRepository.findEffectiveAt(monedaOrigen, monedaDestino, instante);
+            return version.filter(found -> !found.isEliminado());
+        }));
+    }
+
+    private Mono<ExchangeRateHistory> append(ExchangeRate exchangeRate, LocalDateTime validFrom, boolean eliminado) {
+        return historyRepository.save(toVersion(exchangeRate, validFrom, eliminado))
+                .flatMap(saved -> rememberAfterCommit(List.of(saved)).thenReturn(saved));
+    }
+
+    /**
+     * Agrega versiones a memoria al confirmar la transacción en curso, o de
+     * inmediato si no hay una.
+     */
+    private Mono<Void> rememberAfterCommit(List<ExchangeRateHistory> versions) {
+        Runnable rememberAll = () -> versions.forEach(version -> remember(version, true));
+        return TransactionSynchronizationManager.forCurrentTransaction()
+                .filter(TransactionSynchronizationManager::isSynchronizationActive)
+                .doOnNext(synchronizations -> synchronizations.registerSynchronization(new TransactionSynchronization() {
+                    @Override
+                    public Mono<Void> afterCommit() {
+                        return Mono.fromRunnable(rememberAll);
+                    }
+                }))
+                .switchIfEmpty(Mono.fromRunnable(rememberAll))
+                .onErrorResume(NoTransactionException.class, e -> Mono.fromRunnable(rememberAll))
+                .then();
+    }
+
+    private static ExchangeRateHistory toVersion(ExchangeRate exchangeRate, LocalDateTime validFrom, boolean eliminado) {
+        return ExchangeRateHistory.builder()
+                .exchangeRateId(exchangeRate.getId())
+                .monedaOrigen(exchangeRate.getMonedaOrigen())
+                .monedaDestino(exchangeRate.getMonedaDestino())
+                .tipoCambio(exchangeRate.getTipoCambio())
+                .validFrom(validFrom)
+                .eliminado(eliminado)
+                .build();
+    }
+
+    /**
+     * Guarda una versión en memoria y descarta las que quedaron fuera de la ventana,
+     * conservando siempre la vigente al inicio de la ventana.
+     *
+     * @param overwrite false durante la carga inicial, para no pisar versiones más recientes
+     */
+    private void remember(ExchangeRateHistory version, boolean overwrite) {
+        NavigableMap<LocalDateTime, ExchangeRateHistory> versions = recent.computeIfAbsent(
+                key(version.getMonedaOrigen(), version.getMonedaDestino()),
+                unused -> new ConcurrentSkipListMap<>());
+        if (overwrite) {
+            versions.put(version.getValidFrom(), version);
+        } else {
+            versions.putIfAbsent(version.getValidFrom(), version);
+        }
+
+        LocalDateTime floor = versions.floorKey(LocalDateTime.now().minus(retention));
+        if (floor != null) {
+            versions.headMap(floor, false).clear();
+        }
+    }
+
+    private static String key(String monedaOrigen, String monedaDestino) {
+        return monedaOrigen + ':' + monedaDestino;
+    }
+}
@@ -0,0 +1,301 @@
+package com.example.demo.service;
+
+import com.example.demo.dto.ExchangeRateEvent;
+import com.example.demo.dto.ExchangeRateRequest;
+import com.example.demo.dto.RateImportError;
+import com.example.demo.dto.RateImportSummary;
+import com.example.demo.entity.ExchangeRate;
+import com.example.demo.repository.ExchangeRateRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.ResolvableType;
+import org.springframework.core.codec.StringDecoder;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.reactive.TransactionalOperator;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Servicio para importar tipos de cambio de forma masiva.
+ * <p>
+ * El cuerpo se decodifica línea a línea a medida que llega, sin acumular la
+ * carga completa en memoria. Las líneas válidas se agrupan en lotes de
+ * exchange-rate.import.batch-size y cada lote se guarda con un único MERGE
+ * multi-fila; las líneas inválidas se reportan por número de línea sin
+ * interrumpir la importación.
+ * <p>
+ * Los pares creados y actualizados se cuentan a partir de lo que hizo el
+ * MERGE (sus filas previas), no de una lectura anterior, así que una escritura
+ * concurrente no los altera. Una línea cuyo par ya apareció antes en la misma
+ * importación (en el mismo lote o en uno anterior) se cuenta como duplicada.
+ * <p>
+ * El MERGE de cada lote y sus versiones en exchange_rate_history se confirman
+ * en una misma transacción; el lote se cuenta y se propaga a memoria solo
+ * después de confirmar.
+ */
+@Slf4j
+@Service
+public class RateImportService {
+    
+    /**
+     * Formato del cuerpo de la importación.
+     */
+    public enum Format {
+        /** Líneas "monedaOrigen,monedaDestino,tipoCambio", con cabecera opcional. */
+        CSV,
+        /** Un ExchangeRateRequest en JSON por línea. */
+        NDJSON
+    }
+    
+    private static final String CSV_HEADER = "monedaOrigen";
+    
+    private static final StringDecoder LINE_DECODER = StringDecoder.allMimeTypes();
+    
+    @Autowired
+    private ExchangeRateRepository exchangeRateRepository;
+    
+    @Autowired
+    private ExchangeRateService exchangeRateService;
+    
+    @Autowired
+    private ExchangeRateCache exchangeRateCache;
+    
+    @Autowired
+    private ExchangeRateGraph exchangeRateGraph;
+    
+    @Autowired
+    private ExchangeRateEventPublisher exchangeRateEventPublisher;
+    
+    @Autowired
+    private RateHistoryService rateHistoryService;
+    
+    @Autowired
+    private RateTableVersion rateTableVersion;
+    
+    @Autowired
+    private TransactionalOperator transactionalOperator;
+    
+    @Autowired
+    private Validator validator;
+    
+    @Autowired
+    private ObjectMapper objectMapper;
+    
+    @Value("${exchange-rate.import.batch-size:500}")
+    private int batchSize;
+    
+    @Value("${exchange-rate.import.max-errors:100}")
+    private int maxErrors;
+    
+    /**
+     * Crea o actualiza los tipos de cambio contenidos en el cuerpo.
+     * 
+     * @param body Cuerpo de la petición
+     * @param format Formato del cuerpo
+     * @return Mono con el resumen de la importación
+     */
+    public Mono<RateImportSummary> importRates(Flux<DataBuffer> body, Format format) {
+        return importLines(
+                LINE_DECODER.decode(body, ResolvableType.forClass(String.class), null, Collections.emptyMap()),
+                format);
+    }
+    
+    /**
+     * Crea o actualiza los tipos de cambio contenidos en un flujo de líneas.
+     */
+    Mono<RateImportSummary> importLines(Flux<String> lines, Format format) {
+        return Mono.defer(() -> {
+            Progress progress = new Progress();
+            return lines.index()
+                    .filter(indexed -> !indexed.getT2().isBlank())
+                    .filter(indexed -> !(format == Format.CSV && indexed.getT1() == 0 && isCsvHeader(indexed.getT2())))
+                    .map(indexed -> parse(indexed.getT1() + 1, indexed.getT2(), format))
+                    .filter(row -> {
+                        progress.procesadas++;
+                        if (row.error() != null) {
+                            progress.addError(row);
+                            return false;
+                        }
+                        return true;
+                    })
+                    .buffer(batchSize)
+                    .concatMap(batch -> upsertBatch(batch, progress))
+                    .then(Mono.fromSupplier(progress::toSummary))
+                    .doOnNext(summary -> log.info("Importación de tipos de cambio: {} procesadas, {} creadas, "
+                                    + "{} actualizadas, {} duplicadas, {} errores", summary.getProcesadas(),
+                            summary.getCreadas(), summary.getActualizadas(), summary.getDuplicadas(),
+                            summary.getErrores()));
+        });
+    }
+    
+    /**
+     * Guarda un lote de líneas válidas. Si un par se repite dentro del lote
+     * prevalece la última línea.
+     * 
+     * @return Mono que completa cuando el lote está guardado y contado en progress
+     */
+    private Mono<Void> upsertBatch(List<ImportRow> batch, Progress progress) {
+        LocalDateTime now = LocalDateTime.now();
+        Map<String, ExchangeRate> byPair = new LinkedHashMap<>();
+        Set<String> firstSeen = new HashSet<>();
+        for (ImportRow row : batch) {
+            ExchangeRateRequest request = row.request();
+            String key = key(request.getMonedaOrigen(), request.getMonedaDestino());
+            if (progress.seen.add(key)) {
+                firstSeen.add(key);
+            } else {
+                progress.duplicadas++;
+            }
+            byPair.put(key, ExchangeRate.builder()
+                    .monedaOrigen(request.getMonedaOrigen())
+                    .monedaDestino(request.getMonedaDestino())
+                    .tipoCambio(request.getTipoCambio())
+                    .fechaActualizacion(now)
+                    .build());
+        }
+        List<ExchangeRate> rates = new ArrayList<>(byPair.values());
+        
+        return exchangeRateRepository.upsertAll(rates)
+                .map(previous -> key(previous.getMonedaOrigen(), previous.getMonedaDestino()))
+                .collect(Collectors.toSet())
+                .flatMap(existing -> Flux.defer(() -> exchangeRateRepository.findAllByMonedas(rates))
+                        .collectList()
+                        .flatMap(saved -> rateHistoryService.recordAll(saved)
+                                .thenReturn(new SavedBatch(saved, existing))))
+                .as(transactionalOperator::transactional)
+                .doOnNext(savedBatch -> {
+                    for (String key : firstSeen) {
+                        if (savedBatch.existing().contains(key)) {
+                            progress.actualizadas++;
+                        } else {
+                            progress.creadas++;
+                        }
+                    }
+                    onSaved(savedBatch.saved(), savedBatch.existing());
+                })
+                .then();
+    }
+    
+    /**
+     * Propaga un lote guardado a la caché, al grafo, a la versión de la tabla y a los suscriptores.
+     */
+    private void onSaved(List<ExchangeRate> saved, Set<String> existing) {
+        saved.forEach(exchangeRateCache::put);
+        exchangeRateGraph.upsertAll(saved);
+        rateTableVersion.increment();
+        for (ExchangeRate exchangeRate : saved) {
+            ExchangeRateEvent.Tipo tipo = existing.contains(key(exchangeRate.getMonedaOrigen(), exchangeRate.getMonedaDestino()))
+                    ? ExchangeRateEvent.Tipo.UPDATED
+                    : ExchangeRateEvent.Tipo.CREATED;
+            exchangeRateEventPublisher.publish(tipo, exchangeRateService.toResponse(exchangeRate));
+        }
+    }
+    
+    private ImportRow parse(long linea, String line, Format format) {
+        ExchangeRateRequest request;
+        if (format == Format.CSV) {
+            String[] fields = line.split(",", -1);
+            if (fields.length != 3) {
+                return ImportRow.failure(linea, "Se esperaban 3 columnas (monedaOrigen,monedaDestino,tipoCambio)");
+            }
+            BigDecimal tipoCambio;
+            try {
+                tipoCambio = new BigDecimal(fields[2].trim());
+            } catch (NumberFormatException e) {
+                return ImportRow.failure(linea, "tipoCambio: no es un número válido");
+            }
+            request = new ExchangeRateRequest(fields[0].trim(), fields[1].trim(), tipoCambio);
+        } else {
+            try {
+                request = objectMapper.readValue(line, ExchangeRateRequest.class);
+            } catch (JsonProcessingException e) {
+                return ImportRow.failure(linea, "JSON inválido: " + e.getOriginalMessage());
+            }
+            if (request == null) {
+                return ImportRow.failure(linea, "El tipo de cambio es obligatorio");
+            }
+        }
+        
+        Set<ConstraintViolation<ExchangeRateRequest>> violations = validator.validate(request);
+        if (!violations.isEmpty()) {
+            return ImportRow.failure(linea, violations.stream()
+                    .map(violation -> violation.getPropertyPath() + ": " + violation.getMessage())
+                    .sorted()
+                    .collect(Collectors.joining("; ")));
+        }
+        return new ImportRow(linea, request, null);
+    }
+    
+    private static boolean isCsvHeader(String line) {
+        return line.trim().regionMatches(true, 0, CSV_HEADER, 0, CSV_HEADER.length());
+    }
+    
+    private static String key(String monedaOrigen, String monedaDestino) {
+        return monedaOrigen + ':' + monedaDestino;
+    }
+    
+    /**
+     * Filas de un lote tras el MERGE y pares que ya existían antes de él.
+     */
+    private record SavedBatch(List<ExchangeRate> saved, Set<String> existing) {
+    }
+    
+    private record ImportRow(long linea, ExchangeRateRequest request, String error) {
+        
+        static ImportRow failure(long linea, String error) {
+            return new ImportRow(linea, null, error);
+        }
+    }
+    
+    /**
+     * Contadores de una importación. Cada campo lo actualiza un único operador,
+     * cuyas señales están serializadas, y se lee después de completar.
+     */
+    private final class Progress {
+        
+        private long procesadas;
+        private long creadas;
+        private long actualizadas;
+        private long duplicadas;
+        private long errores;
+        private final List<RateImportError> detalleErrores = new ArrayList<>();
+        
+        /** Pares ya vistos en la importación, para contar las líneas duplicadas. */
+        private final Set<String> seen = new HashSet<>();
+        
+        void addError(ImportRow row) {
+            errores++;
+            if (detalleErrores.size() < maxErrors) {
+                detalleErrores.add(new RateImportError(row.linea(), row.error()));
+            }
+        }
+        
+        RateImportSummary toSummary() {
+            return RateImportSummary.builder()
+                    .procesadas(procesadas)
+                    .creadas(creadas)
+                    .actualizadas(actualizadas)
+                    .duplicadas(duplicadas)
+                    .errores(errores)
+                    .detalleErrores(detalleErrores)
+                    .build();
+        }
+    }
+}
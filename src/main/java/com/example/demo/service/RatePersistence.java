@@ -0,0 +1,255 @@
+package com.example.demo.service;
+
+import com.example.demo.entity.ExchangeRate;
+import com.example.demo.repository.ExchangeRateRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.web.context.WebServerGracefulShutdownLifecycle;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+import reactor.core.Disposable;
+import reactor.core.Exceptions;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Persistencia de la tabla exchange_rates en un snapshot binario
+ * (exchange-rate.persistence.snapshot-file), para que la base de datos en
+ * memoria sobreviva a los reinicios. Sin archivo configurado no hace nada.
+ * <p>
+ * La restauración empieza en cuanto se crea el bean (después de schema.sql),
+ * en paralelo con el resto del arranque del contexto, y se espera en una fase
+ * del ciclo de vida anterior a la del servidor web: hasta que termina no se
+ * aceptan conexiones, así que ninguna escritura puede tomar un ID del snapshot
+ * ni colarse entre la comprobación de tabla vacía y la carga. Carga el snapshot en exchange_rates conservando
+ * los IDs, registra la versión de cada tipo de cambio en el historial y precarga
+ * la caché y el grafo; la lista serializada de /exchange-rate/all no se precarga
+ * (compite por CPU con las primeras conversiones) y se construye en la primera
+ * petición, como tras cualquier cambio. Luego reescribe el snapshot cada
+ * exchange-rate.persistence.flush-interval si la tabla cambió (según
+ * RateTableVersion), y una última vez al cerrar.
+ */
+@Slf4j
+@Component
+@DependsOn("initializer")
+public class RatePersistence implements SmartLifecycle {
+
+    /** Antes del arranque del servidor web (WebServerStartStopLifecycle). */
+    static final int PHASE = WebServerGracefulShutdownLifecycle.SMART_LIFECYCLE_PHASE - 2048;
+
+    private final ExchangeRateRepository exchangeRateRepository;
+    private final RateHistoryService rateHistoryService;
+    private final ExchangeRateCache exchangeRateCache;
+    private final ExchangeRateGraph exchangeRateGraph;
+    private final RateTableVersion rateTableVersion;
+    private final Path file;
+    private final Duration flushInterval;
+
+    /** Versión de la tabla guardada en el archivo; -1 si aún no se guardó. Protegida por this. */
+    private long writtenVersion = -1;
+
+    private volatile int restored;
+    private volatile Duration restoreTime = Duration.ZERO;
+
+    /** Restauración iniciada en beginRestore(); start() espera su resultado. */
+    private Mono<Integer> restoration = Mono.just(0);
+
+    private Disposable ticker;
+    private volatile boolean running;
+
+    @Autowired
+    public RatePersistence(
+            ExchangeRateRepository exchangeRateRepository,
+            RateHistoryService rateHistoryService,
+            ExchangeRateCache exchangeRateCache,
+            ExchangeRateGraph exchangeRateGraph,
+            RateTableVersion rateTableVersion,
+            @Value("${exchange-rate.persistence.snapshot-file:}") String file,
+            @Value("${exchange-rate.persistence.flush-interval:1000}") long flushInterval) {
+        this.exchangeRateRepository = exchangeRateRepository;
+        this.rateHistoryService = rateHistoryService;
+        this.exchangeRateCache = exchangeRateCache;
+        this.exchangeRateGraph = exchangeRateGraph;
+        this.rateTableVersion = rateTableVersion;
+        this.file = StringUtils.hasText(file) ? Path.of(file) : null;
+        this.flushInterval = Duration.ofMillis(flushInterval);
+    }
+
+    /**
+     * Inicia la restauración sin esperarla, para que avance mientras se crean
+     * los demás beans y arranca el servidor.
+     */
+    @PostConstruct
+    public void beginRestore() {
+        if (file == null) {
+            return;
+        }
+        restoration = restore().cache();
+        restoration.subscribe(count -> { }, e -> { });
+    }
+
+    /**
+     * Espera la restauración e inicia la reescritura periódica del snapshot. Se
+     * ejecuta antes de que el servidor web empiece a escuchar, así que no llega
+     * tráfico hasta que termina; si la restauración falló (por ejemplo, el
+     * snapshot está truncado), falla el arranque indicando el archivo y la causa.
+     */
+    @Override
+    public void start() {
+        if (file != null) {
+            try {
+                restoration.block();
+            } catch (RuntimeException e) {
+                Throwable cause = Exceptions.unwrap(e);
+                throw new IllegalStateException(
+                        "No se pudo restaurar el snapshot de tipos de cambio " + file + ": " + cause.getMessage(), cause);
+            }
+            ticker = Flux.interval(flushInterval)
+                    .onBackpressureDrop()
+                    .concatMap(tick -> write()
+                            .onErrorResume(e -> {
+                                log.error("Error guardando el snapshot de tipos de cambio en {}", file, e);
+                                return Mono.empty();
+                            }))
+                    .subscribe();
+        }
+        running = true;
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    @Override
+    public int getPhase() {
+        return PHASE;
+    }
+
+    /**
+     * Detiene la reescritura periódica y guarda los cambios pendientes.
+     */
+    @PreDestroy
+    public void shutdown() {
+        if (file == null) {
+            return;
+        }
+        if (ticker != null) {
+            ticker.dispose();
+        }
+        try {
+            write().block(flushInterval.multipliedBy(10));
+        } catch (RuntimeException e) {
+            log.error("No se pudo guardar el snapshot de tipos de cambio al cerrar", e);
+        }
+    }
+
+    /**
+     * Carga el snapshot en exchange_rates si la tabla está vacía (con H2 en
+     * archivo, una tabla con datos se conserva) y precarga las estructuras en memoria.
+     *
+     * @return Mono con el número de tipos de cambio restaurados
+     */
+    public Mono<Integer> restore() {
+        long start = System.nanoTime();
+        return Mono.fromCallable(() -> Files.exists(file) ? RateSnapshotFile.read(file) : List.<ExchangeRate>of())
+                .subscribeOn(Schedulers.boundedElastic())
+                .zipWith(exchangeRateRepository.count())
+                .flatMap(snapshot -> {
+                    List<ExchangeRate> exchangeRates = snapshot.getT1();
+                    if (exchangeRates.isEmpty() || snapshot.getT2() > 0) {
+                        if (!exchangeRates.isEmpty()) {
+                            log.info("exchange_rates ya tiene {} filas; no se restaura {}", snapshot.getT2(), file);
+                        }
+                        return Mono.just(0);
+                    }
+                    // El historial se registra en el servidor a partir de las filas ya insertadas
+                    return exchangeRateRepository.insertAll(exchangeRates)
+                            .then(rateHistoryService.recordCurrentVersions())
+                            .then(exchangeRateRepository.restartIdSequence())
+                            .then(Mono.fromRunnable(() -> {
+                                exchangeRates.forEach(exchangeRateCache::put);
+                                exchangeRateGraph.preload(exchangeRates);
+                                rateTableVersion.increment();
+                            }))
+                            .thenReturn(exchangeRates.size());
+                })
+                .flatMap(count -> count > 0 ? Mono.just(count) : exchangeRateGraph.warmup().thenReturn(count))
+                .doOnNext(count -> {
+                    synchronized (this) {
+                        writtenVersion = rateTableVersion.current();
+                    }
+                    restored = count;
+                    restoreTime = Duration.ofNanos(System.nanoTime() - start);
+                    log.info("Restaurados {} tipos de cambio desde {} en {} ms ({} ms desde el inicio de la JVM)",
+                            count, file, restoreTime.toMillis(), ManagementFactory.getRuntimeMXBean().getUptime());
+                });
+    }
+
+    /**
+     * Guarda la tabla en el snapshot si cambió desde la última escritura. La versión
+     * se lee antes de consultar, así que el archivo es al menos tan reciente como ella.
+     *
+     * @return Mono con true si se escribió el archivo
+     */
+    public Mono<Boolean> write() {
+        return Mono.defer(() -> {
+            long version = rateTableVersion.current();
+            synchronized (this) {
+                if (version == writtenVersion) {
+                    return Mono.just(false);
+                }
+            }
+            return exchangeRateRepository.findAll()
+                    .collectList()
+                    .publishOn(Schedulers.boundedElastic())
+                    .handle((exchangeRates, sink) -> {
+                        synchronized (this) {
+                            if (version <= writtenVersion) {
+                                sink.next(false);
+                                return;
+                            }
+                            try {
+                                RateSnapshotFile.write(file, exchangeRates);
+                                writtenVersion = version;
+                                sink.next(true);
+                            } catch (IOException e) {
+                                sink.error(e);
+                            }
+                        }
+                    });
+        });
+    }
+
+    /**
+     * Número de tipos de cambio restaurados al arrancar.
+     */
+    public int restored() {
+        return restored;
+    }
+
+    /**
+     * Tiempo que tomó la restauración al arrancar, incluida la precarga en memoria.
+     */
+    public Duration restoreTime() {
+        return restoreTime;
+    }
+}
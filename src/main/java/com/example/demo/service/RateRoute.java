@@ -0,0 +1,13 @@
+package com.example.demo.service;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+/**
+ * Ruta de conversión entre dos monedas y tipo de cambio resultante.
+ *
+ * @param ruta Monedas recorridas, desde la moneda origen hasta la destino
+ * @param tipoCambio Tipo de cambio compuesto de la ruta
+ */
+public record RateRoute(List<String> ruta, BigDecimal tipoCambio) {
+}
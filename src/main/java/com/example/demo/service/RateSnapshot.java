@@ -0,0 +1,117 @@
+package com.example.demo.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Lista completa de tipos de cambio ya serializada en JSON, y comprimida con
+ * gzip, para GET /exchange-rate/all.
+ * <p>
+ * El snapshot se reconstruye la primera vez que se pide después de un cambio
+ * en RateTableVersion (un lote importado se codifica una sola vez) y todas
+ * las respuestas comparten los mismos bytes de solo lectura. Las peticiones
+ * concurrentes de una misma versión esperan a una única reconstrucción.
+ */
+@Component
+public class RateSnapshot {
+    
+    private static final Duration FOREVER = Duration.ofMillis(Long.MAX_VALUE);
+    
+    /**
+     * Bytes de una versión de la lista. Los buffers devueltos son vistas
+     * independientes de solo lectura.
+     */
+    public record Snapshot(long version, ByteBuffer json, ByteBuffer gzip) {
+        
+        @Override
+        public ByteBuffer json() {
+            return json.duplicate();
+        }
+        
+        @Override
+        public ByteBuffer gzip() {
+            return gzip.duplicate();
+        }
+    }
+    
+    private record Pending(long version, Mono<Snapshot> snapshot) {
+    }
+    
+    private final ExchangeRateService exchangeRateService;
+    
+    private final RateTableVersion rateTableVersion;
+    
+    private final ObjectMapper objectMapper;
+    
+    private final AtomicReference<Pending> pending = new AtomicReference<>();
+    
+    @Autowired
+    public RateSnapshot(
+            ExchangeRateService exchangeRateService,
+            RateTableVersion rateTableVersion,
+            ObjectMapper objectMapper) {
+        this.exchangeRateService = exchangeRateService;
+        this.rateTableVersion = rateTableVersion;
+        this.objectMapper = objectMapper;
+    }
+    
+    /**
+     * Obtiene el snapshot de la versión actual de la tabla, o uno más reciente.
+     * 
+     * @return Mono con el snapshot
+     */
+    public Mono<Snapshot> current() {
+        long version = rateTableVersion.current();
+        while (true) {
+            Pending existing = pending.get();
+            if (existing != null && existing.version() >= version) {
+                return existing.snapshot();
+            }
+            Pending next = new Pending(version, build(version));
+            if (pending.compareAndSet(existing, next)) {
+                return next.snapshot();
+            }
+        }
+    }
+    
+    /**
+     * Consulta y codifica la lista. La versión se leyó antes de consultar, así que
+     * los datos son al menos tan recientes como ella. Un error no queda en caché.
+     */
+    private Mono<Snapshot> build(long version) {
+        return exchangeRateService.findAll()
+                .collectList()
+                .map(rates -> {
+                    try {
+                        byte[] json = objectMapper.writeValueAsBytes(rates);
+                        return new Snapshot(version,
+                                ByteBuffer.wrap(json).asReadOnlyBuffer(),
+                                ByteBuffer.wrap(gzip(json)).asReadOnlyBuffer());
+                    } catch (JsonProcessingException e) {
+                        throw new IllegalStateException("No se pudo serializar la lista de tipos de cambio", e);
+                    }
+                })
+                .cache(snapshot -> FOREVER, error -> Duration.ZERO, () -> Duration.ZERO);
+    }
+    
+    private static byte[] gzip(byte[] data) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(data.length / 4 + 64);
+        try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+            gzip.write(data);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return out.toByteArray();
+    }
+}
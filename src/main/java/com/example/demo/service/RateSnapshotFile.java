@@ -0,0 +1,146 @@
+package com.example.demo.service;
+
+import com.example.demo.entity.ExchangeRate;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.CRC32;
+
+/**
+ * Snapshot binario de la tabla exchange_rates.
+ * <p>
+ * Formato: MAGIC, número de tipos de cambio, un registro por tipo de cambio
+ * (id, monedas, tipo de cambio como escala y valor sin escala, fecha en
+ * nanosegundos) y CRC32 de todo lo anterior. Se reemplaza de forma atómica
+ * y durable (el temporal y el directorio se sincronizan con el disco), así
+ * que ni un lector ni un corte de energía dejan un snapshot a medio escribir.
+ */
+final class RateSnapshotFile {
+
+    private static final int MAGIC = 0x52415445; // "RATE"
+
+    private RateSnapshotFile() {
+    }
+
+    /**
+     * Escribe el snapshot en un temporal del mismo directorio, lo sincroniza con
+     * el disco y lo mueve sobre path.
+     */
+    static void write(Path path, List<ExchangeRate> exchangeRates) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(64 + exchangeRates.size() * 48);
+        DataOutputStream out = new DataOutputStream(bytes);
+        out.writeInt(MAGIC);
+        out.writeInt(exchangeRates.size());
+        for (ExchangeRate exchangeRate : exchangeRates) {
+            BigDecimal tipoCambio = exchangeRate.getTipoCambio();
+            byte[] unscaled = tipoCambio.unscaledValue().toByteArray();
+            LocalDateTime fecha = exchangeRate.getFechaActualizacion();
+            out.writeLong(exchangeRate.getId());
+            out.writeUTF(exchangeRate.getMonedaOrigen());
+            out.writeUTF(exchangeRate.getMonedaDestino());
+            out.writeShort(tipoCambio.scale());
+            out.writeByte(unscaled.length);
+            out.write(unscaled);
+            out.writeLong(fecha.toEpochSecond(ZoneOffset.UTC) * 1_000_000_000L + fecha.getNano());
+        }
+        CRC32 crc = new CRC32();
+        crc.update(bytes.toByteArray());
+        out.writeInt((int) crc.getValue());
+
+        Path directory = path.toAbsolutePath().getParent();
+        Files.createDirectories(directory);
+        Path temp = Files.createTempFile(directory, path.getFileName().toString(), ".tmp");
+        try {
+            try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.WRITE)) {
+                ByteBuffer buffer = ByteBuffer.wrap(bytes.toByteArray());
+                while (buffer.hasRemaining()) {
+                    channel.write(buffer);
+                }
+                channel.force(true);
+            }
+            Files.move(temp, path, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+        forceDirectory(directory);
+    }
+
+    /**
+     * Sincroniza el directorio para que el renombrado sobreviva a un corte de
+     * energía. Donde no se puede abrir un directorio (Windows) se omite.
+     */
+    private static void forceDirectory(Path directory) throws IOException {
+        FileChannel channel;
+        try {
+            channel = FileChannel.open(directory, StandardOpenOption.READ);
+        } catch (IOException e) {
+            return;
+        }
+        try (channel) {
+            channel.force(true);
+        }
+    }
+
+    /**
+     * Lee un snapshot escrito por write().
+     *
+     * @throws IOException si no se puede leer, está truncado o está corrupto
+     */
+    static List<ExchangeRate> read(Path path) throws IOException {
+        byte[] bytes = Files.readAllBytes(path);
+        if (bytes.length < 3 * Integer.BYTES) {
+            throw new IOException(String.format(
+                    "Snapshot de tipos de cambio truncado (%d bytes): %s", bytes.length, path));
+        }
+        if (ByteBuffer.wrap(bytes, 0, Integer.BYTES).getInt() != MAGIC) {
+            throw new IOException("El archivo no es un snapshot de tipos de cambio: " + path);
+        }
+        int length = bytes.length - Integer.BYTES;
+        CRC32 crc = new CRC32();
+        crc.update(bytes, 0, length);
+        if (ByteBuffer.wrap(bytes, length, Integer.BYTES).getInt() != (int) crc.getValue()) {
+            throw new IOException(String.format(
+                    "Snapshot de tipos de cambio truncado o corrupto (%d bytes, CRC32 no coincide): %s",
+                    bytes.length, path));
+        }
+
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(bytes, Integer.BYTES, length - Integer.BYTES));
+        int count = in.readInt();
+        List<ExchangeRate> exchangeRates = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            long id = in.readLong();
+            String origen = in.readUTF();
+            String destino = in.readUTF();
+            int scale = in.readShort();
+            byte[] unscaled = new byte[in.readUnsignedByte()];
+            in.readFully(unscaled);
+            long nanos = in.readLong();
+            exchangeRates.add(ExchangeRate.builder()
+                    .id(id)
+                    .monedaOrigen(origen)
+                    .monedaDestino(destino)
+                    .tipoCambio(new BigDecimal(new BigInteger(unscaled), scale))
+                    .fechaActualizacion(LocalDateTime.ofEpochSecond(
+                            Math.floorDiv(nanos, 1_000_000_000L),
+                            (int) Math.floorMod(nanos, 1_000_000_000L),
+                            ZoneOffset.UTC))
+                    .build());
+        }
+        return exchangeRates;
+    }
+}
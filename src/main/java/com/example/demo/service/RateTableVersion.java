@@ -0,0 +1,43 @@
+package com.example.demo.service;
+
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Versión de la tabla de tipos de cambio, incrementada después de cada
+ * escritura confirmada. Las lecturas toman la versión antes de consultar,
+ * de modo que una respuesta nunca queda etiquetada con una versión más
+ * nueva que sus datos.
+ * <p>
+ * El ETag incluye el instante de arranque para que las versiones de una
+ * ejecución anterior no coincidan tras un reinicio.
+ */
+@Component
+public class RateTableVersion {
+    
+    private final String epoch = Long.toString(System.currentTimeMillis(), Character.MAX_RADIX);
+    
+    private final AtomicLong version = new AtomicLong();
+    
+    /**
+     * Versión actual de la tabla.
+     */
+    public long current() {
+        return version.get();
+    }
+    
+    /**
+     * Registra una escritura en la tabla.
+     */
+    public void increment() {
+        version.incrementAndGet();
+    }
+    
+    /**
+     * ETag débil de la versión actual.
+     */
+    public String etag() {
+        return "W/\"" + epoch + '-' + version.get() + '"';
+    }
+}
@@ -3,11 +3,12 @@ package com.example.demo.service;
 import com.example.demo.dto.LoginRequest;
 import com.example.demo.dto.LoginResponse;
 import com.example.demo.security.JwtUtil;
+import com.example.demo.security.PasswordVerifier;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.security.core.authority.AuthorityUtils;
 import org.springframework.security.core.userdetails.ReactiveUserDetailsService;
 import org.springframework.security.core.userdetails.UserDetails;
-import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 import reactor.core.publisher.Mono;
 
@@ -21,25 +22,28 @@ public class UserAuthService {
     private ReactiveUserDetailsService userDetailsService;
     
     @Autowired
-    private PasswordEncoder passwordEncoder;
+    private PasswordVerifier passwordVerifier;
     
     @Autowired
     private JwtUtil jwtUtil;
     
     /**
-     * Autentica un usuario y genera un token JWT.
+     * Autentica un usuario y genera un token JWT con sus roles.
+     * La verificación BCrypt se ejecuta en el pool de PasswordVerifier.
      * 
      * @param loginRequest Credenciales del usuario
      * @return LoginResponse con el token JWT
      */
     public Mono<LoginResponse> login(LoginRequest loginRequest) {
         return userDetailsService.findByUsername(loginRequest.getUsername())
-                .filter(userDetails -> passwordEncoder.matches(
+                .filterWhen(userDetails -> passwordVerifier.matches(
                         loginRequest.getPassword(), 
                         userDetails.getPassword()))
                 .switchIfEmpty(Mono.error(new BadCredentialsException("Credenciales inválidas")))
                 .map(userDetails -> {
-                    String token = jwtUtil.generateToken(loginRequest.getUsername());
+                    String token = jwtUtil.generateToken(
+                            loginRequest.getUsername(),
+                            AuthorityUtils.authorityListToSet(userDetails.getAuthorities()));
                     return LoginResponse.of(token, loginRequest.getUsername());
                 });
     }
@@ -8,6 +8,20 @@ CREATE TABLE IF NOT EXISTS exchange_rates (
     UNIQUE(moneda_origen, moneda_destino)
 );
 
+-- Historial de versiones de tipos de cambio (solo inserciones)
+CREATE TABLE IF NOT EXISTS exchange_rate_history (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    exchange_rate_id BIGINT NOT NULL,
+    moneda_origen VARCHAR(10) NOT NULL,
+    moneda_destino VARCHAR(10) NOT NULL,
+    tipo_cambio DECIMAL(20, 6) NOT NULL,
+    valid_from TIMESTAMP NOT NULL,
+    eliminado BOOLEAN NOT NULL DEFAULT FALSE
+);
+
+CREATE INDEX IF NOT EXISTS idx_exchange_rate_history_monedas_valid_from
+    ON exchange_rate_history (moneda_origen, moneda_destino, valid_from);
+
 -- Tabla para logs de auditoría
 CREATE TABLE IF NOT EXISTS audit_logs (
     id BIGINT AUTO_INCREMENT PRIMARY KEY,
@@ -20,3 +34,10 @@ CREATE TABLE IF NOT EXISTS audit_logs (
     fecha TIMESTAMP NOT NULL
 );
 
+-- Índices para consultas paginadas (keyset sobre fecha, id) de auditoría
+CREATE INDEX IF NOT EXISTS idx_audit_logs_fecha_id
+    ON audit_logs (fecha DESC, id DESC);
+CREATE INDEX IF NOT EXISTS idx_audit_logs_usuario_fecha_id
+    ON audit_logs (usuario, fecha DESC, id DESC);
+CREATE INDEX IF NOT EXISTS idx_audit_logs_monedas_fecha_id
+    ON audit_logs (moneda_origen, moneda_destino, fecha DESC, id DESC);
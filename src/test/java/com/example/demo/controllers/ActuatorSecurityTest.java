@@ -0,0 +1,50 @@
+package com.example.demo.controllers;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.autoconfigure.actuate.observability.AutoConfigureObservability;
+import org.springframework.http.HttpHeaders;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests de extremo a extremo del acceso a los endpoints de actuator: health y
+ * sus sondas son públicos, Prometheus requiere rol ADMIN.
+ */
+@AutoConfigureObservability(tracing = false)
+class ActuatorSecurityTest extends EndToEndTest {
+    
+    @Test
+    void testHealth_IsPublic() {
+        webTestClient.get().uri("/actuator/health")
+                .exchange()
+                .expectStatus().isOk();
+        webTestClient.get().uri("/actuator/health/readiness")
+                .exchange()
+                .expectStatus().isOk();
+    }
+    
+    @Test
+    void testPrometheus_RequiresAuthentication() {
+        webTestClient.get().uri("/actuator/prometheus")
+                .exchange()
+                .expectStatus().isUnauthorized();
+    }
+    
+    @Test
+    void testPrometheus_UserTokenIsForbidden() {
+        webTestClient.get().uri("/actuator/prometheus")
+                .header(HttpHeaders.AUTHORIZATION, "Bearer " + login("user", "user123"))
+                .exchange()
+                .expectStatus().isForbidden();
+    }
+    
+    @Test
+    void testPrometheus_AdminTokenReadsMetrics() {
+        webTestClient.get().uri("/actuator/prometheus")
+                .header(HttpHeaders.AUTHORIZATION, "Bearer " + login("admin", "admin123"))
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody(String.class)
+                .value(body -> assertTrue(body.contains("jvm_memory_used_bytes"), "Métricas: " + body));
+    }
+}
@@ -0,0 +1,160 @@
+package com.example.demo.controllers;
+
+import com.example.demo.dto.ApplyExchangeResponse;
+import com.example.demo.dto.AuditLogPage;
+import com.example.demo.entity.AuditLog;
+import com.example.demo.repository.AuditLogRepository;
+import com.example.demo.service.ConversionRollups;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.web.util.UriBuilder;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Tests de extremo a extremo de la consulta de logs de auditoría y de acumulados,
+ * autenticando con el token JWT de /auth/login.
+ */
+class AuditControllerTest extends EndToEndTest {
+    
+    @Autowired
+    private AuditLogRepository auditLogRepository;
+    
+    @Autowired
+    private ConversionRollups conversionRollups;
+    
+    @Test
+    void testFindLogs_AdminTokenPagesByCursor() {
+        LocalDateTime base = LocalDateTime.now().truncatedTo(ChronoUnit.SECONDS).minusMinutes(10);
+        List<AuditLog> saved = auditLogRepository.saveAll(List.of(
+                        auditLog(base),
+                        auditLog(base.plusMinutes(1)),
+                        auditLog(base.plusMinutes(1)),
+                        auditLog(base.plusMinutes(2)),
+                        auditLog(base.plusMinutes(3))))
+                .collectList()
+                .block();
+        List<Long> expected = saved.stream()
+                .sorted(Comparator.comparing(AuditLog::getFecha).thenComparing(AuditLog::getId).reversed())
+                .map(AuditLog::getId)
+                .toList();
+        String token = login("admin", "admin123");
+        
+        List<Long> ids = new ArrayList<>();
+        List<Integer> pageSizes = new ArrayList<>();
+        String cursor = null;
+        do {
+            String after = cursor;
+            AuditLogPage page = webTestClient.get()
+                    .uri(uri -> withCursor(uri.path("/audit/logs")
+                            .queryParam("usuario", "paginacion")
+                            .queryParam("limit", 2), after)
+                            .build())
+                    .header(HttpHeaders.AUTHORIZATION, "Bearer " + token)
+                    .exchange()
+                    .expectStatus().isOk()
+                    .expectBody(AuditLogPage.class)
+                    .returnResult()
+                    .getResponseBody();
+            page.getItems().forEach(log -> ids.add(log.getId()));
+            pageSizes.add(page.getItems().size());
+            cursor = page.getNextCursor();
+        } while (cursor != null);
+        
+        assertEquals(expected, ids);
+        assertEquals(List.of(2, 2, 1), pageSizes);
+    }
+    
+    @Test
+    void testFindLogs_InvalidCursorIsBadRequest() {
+        webTestClient.get().uri("/audit/logs?cursor=no-es-un-cursor")
+                .header(HttpHeaders.AUTHORIZATION, "Bearer " + login("admin", "admin123"))
+                .exchange()
+                .expectStatus().isBadRequest();
+    }
+    
+    @Test
+    void testFindLogs_AdminTokenIsAllowed() {
+        webTestClient.get().uri("/audit/logs?limit=1")
+                .header(HttpHeaders.AUTHORIZATION, "Bearer " + login("admin", "admin123"))
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.items").isArray();
+    }
+    
+    @Test
+    void testFindLogs_WithoutTokenIsUnauthorized() {
+        webTestClient.get().uri("/audit/logs")
+                .exchange()
+                .expectStatus().isUnauthorized();
+    }
+    
+    @Test
+    void testFindLogs_UserTokenIsForbidden() {
+        webTestClient.get().uri("/audit/logs")
+                .header(HttpHeaders.AUTHORIZATION, "Bearer " + login("user", "user123"))
+                .exchange()
+                .expectStatus().isForbidden();
+    }
+    
+    @Test
+    void testFindRollups_AdminTokenReadsPairsAndUsers() {
+        conversionRollups.record("rollups", ApplyExchangeResponse.builder()
+                .monedaOrigen("RLA")
+                .monedaDestino("RLB")
+                .montoInicial(new BigDecimal("100.00"))
+                .montoConvertido(new BigDecimal("125.00"))
+                .tipoCambioAplicado(new BigDecimal("1.25"))
+                .build());
+        String token = login("admin", "admin123");
+        
+        webTestClient.get().uri("/audit/rollups/pairs?minutos=5")
+                .header(HttpHeaders.AUTHORIZATION, "Bearer " + token)
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$[?(@.clave == 'RLA:RLB')].operaciones").isEqualTo(1);
+        webTestClient.get().uri("/audit/rollups/users?minutos=5")
+                .header(HttpHeaders.AUTHORIZATION, "Bearer " + token)
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$[?(@.clave == 'rollups')].montoInicialTotal").isEqualTo(100.00);
+    }
+    
+    @ParameterizedTest
+    @ValueSource(strings = {"/audit/rollups/pairs", "/audit/rollups/users"})
+    void testFindRollups_UserTokenIsForbidden(String path) {
+        webTestClient.get().uri(path)
+                .header(HttpHeaders.AUTHORIZATION, "Bearer " + login("user", "user123"))
+                .exchange()
+                .expectStatus().isForbidden();
+    }
+    
+    private static UriBuilder withCursor(UriBuilder uri, String cursor) {
+        return cursor == null ? uri : uri.queryParam("cursor", cursor);
+    }
+    
+    private static AuditLog auditLog(LocalDateTime fecha) {
+        return AuditLog.builder()
+                .usuario("paginacion")
+                .monedaOrigen("USD")
+                .monedaDestino("PEN")
+                .montoInicial(new BigDecimal("100.00"))
+                .montoConvertido(new BigDecimal("370.00"))
+                .tipoCambioAplicado(new BigDecimal("3.700000"))
+                .fecha(fecha)
+                .build();
+    }
+}
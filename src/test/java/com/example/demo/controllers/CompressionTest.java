@@ -0,0 +1,124 @@
+package com.example.demo.controllers;
+
+import com.example.demo.entity.AuditLog;
+import com.example.demo.repository.AuditLogRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import org.springframework.test.web.reactive.server.EntityExchangeResult;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import reactor.netty.http.client.HttpClient;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.IntStream;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests de extremo a extremo de la compresión de respuestas
+ * (server.compression.min-response-size = 1024). El conector por defecto de
+ * WebTestClient descomprime y quita Content-Encoding; estos tests usan uno sin
+ * compresión para ver el cuerpo tal como lo envía el servidor.
+ */
+class CompressionTest extends EndToEndTest {
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private AuditLogRepository auditLogRepository;
+
+    private WebTestClient rawClient;
+
+    @BeforeEach
+    void setUp() {
+        rawClient = WebTestClient.bindToServer(new ReactorClientHttpConnector(HttpClient.create()))
+                .baseUrl("http://localhost:" + port)
+                .build();
+    }
+
+    @Test
+    void testLargeResponses_AreGzippedOnce() throws IOException {
+        String token = login("admin", "admin123");
+        StringBuilder csv = new StringBuilder();
+        for (int i = 0; i < 30; i++) {
+            csv.append("GZ").append((char) ('A' + i % 26)).append(',')
+                    .append("Z").append(i).append(",1.5\n");
+        }
+        webTestClient.post().uri("/exchange-rate/import")
+                .header(HttpHeaders.AUTHORIZATION, "Bearer " + token)
+                .contentType(MediaType.parseMediaType("text/csv"))
+                .bodyValue(csv.toString())
+                .exchange()
+                .expectStatus().isOk();
+        auditLogRepository.saveAll(IntStream.range(0, 20)
+                        .mapToObj(i -> AuditLog.builder()
+                                .usuario("compresion")
+                                .monedaOrigen("USD")
+                                .monedaDestino("PEN")
+                                .montoInicial(new BigDecimal("100.00"))
+                                .montoConvertido(new BigDecimal("370.00"))
+                                .tipoCambioAplicado(new BigDecimal("3.700000"))
+                                .fecha(LocalDateTime.now())
+                                .build())
+                        .toList())
+                .blockLast();
+
+        for (String uri : List.of("/exchange-rate/all", "/db/audit-logs")) {
+            EntityExchangeResult<byte[]> result = rawClient.get().uri(uri)
+                    .header(HttpHeaders.AUTHORIZATION, "Bearer " + token)
+                    .header(HttpHeaders.ACCEPT_ENCODING, "gzip")
+                    .accept(MediaType.APPLICATION_JSON)
+                    .exchange()
+                    .expectStatus().isOk()
+                    .expectHeader().valueEquals(HttpHeaders.CONTENT_ENCODING, "gzip")
+                    .expectBody().returnResult();
+
+            // Una sola capa de gzip: el snapshot ya comprimido de /all no se vuelve a comprimir
+            String json = new String(gunzip(result.getResponseBody()), StandardCharsets.UTF_8);
+            assertTrue(json.length() > 1024, uri);
+            assertTrue(json.startsWith("[") || json.startsWith("{"), uri);
+        }
+    }
+
+    @Test
+    void testSmallResponse_IsNotCompressed() {
+        String token = login("admin", "admin123");
+        webTestClient.post().uri("/exchange-rate")
+                .header(HttpHeaders.AUTHORIZATION, "Bearer " + token)
+                .bodyValue(Map.of("monedaOrigen", "GSA", "monedaDestino", "GSB", "tipoCambio", "1.5"))
+                .exchange()
+                .expectStatus().isCreated();
+
+        EntityExchangeResult<byte[]> result = rawClient.post().uri("/exchange/apply")
+                .header(HttpHeaders.AUTHORIZATION, "Bearer " + token)
+                .header(HttpHeaders.ACCEPT_ENCODING, "gzip")
+                .bodyValue(Map.of("monedaOrigen", "GSA", "monedaDestino", "GSB", "monto", "100"))
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody().returnResult();
+
+        assertNull(result.getResponseHeaders().getFirst(HttpHeaders.CONTENT_ENCODING));
+        assertTrue(result.getResponseBody().length < 1024);
+        assertEquals('{', (char) result.getResponseBody()[0]);
+    }
+
+    private static byte[] gunzip(byte[] bytes) throws IOException {
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(bytes))) {
+            return in.readAllBytes();
+        }
+    }
+}
@@ -0,0 +1,78 @@
+package com.example.demo.controllers;
+
+import com.example.demo.entity.AuditLog;
+import com.example.demo.repository.AuditLogRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Tests de extremo a extremo de los endpoints de estadísticas y de logs de
+ * auditoría de /db, restringidos al rol ADMIN.
+ */
+class DatabaseControllerTest extends EndToEndTest {
+    
+    @Autowired
+    private AuditLogRepository auditLogRepository;
+    
+    @Test
+    void testAuditLogs_AreReturnedAsArrayUpToLimit() {
+        LocalDateTime fecha = LocalDateTime.now();
+        auditLogRepository.saveAll(List.of(auditLog(fecha), auditLog(fecha), auditLog(fecha))).blockLast();
+        
+        webTestClient.get().uri("/db/audit-logs?usuario=db-paginacion&limit=2")
+                .header(HttpHeaders.AUTHORIZATION, "Bearer " + login("admin", "admin123"))
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$").isArray()
+                .jsonPath("$.length()").isEqualTo(2)
+                .jsonPath("$[0].usuario").isEqualTo("db-paginacion");
+    }
+    
+    @Test
+    void testAuditLogs_UserTokenIsForbidden() {
+        webTestClient.get().uri("/db/audit-logs")
+                .header(HttpHeaders.AUTHORIZATION, "Bearer " + login("user", "user123"))
+                .exchange()
+                .expectStatus().isForbidden();
+    }
+    
+    @ParameterizedTest
+    @ValueSource(strings = {"/db/exchange-rate-cache", "/db/token-cache", "/db/password-hashing",
+            "/db/connection-pool", "/db/idempotency-cache"})
+    void testStats_AdminTokenIsAllowed(String path) {
+        webTestClient.get().uri(path)
+                .header(HttpHeaders.AUTHORIZATION, "Bearer " + login("admin", "admin123"))
+                .exchange()
+                .expectStatus().isOk();
+    }
+    
+    @ParameterizedTest
+    @ValueSource(strings = {"/db/exchange-rate-cache", "/db/token-cache", "/db/password-hashing",
+            "/db/connection-pool", "/db/idempotency-cache"})
+    void testStats_UserTokenIsForbidden(String path) {
+        webTestClient.get().uri(path)
+                .header(HttpHeaders.AUTHORIZATION, "Bearer " + login("user", "user123"))
+                .exchange()
+                .expectStatus().isForbidden();
+    }
+    
+    private static AuditLog auditLog(LocalDateTime fecha) {
+        return AuditLog.builder()
+                .usuario("db-paginacion")
+                .monedaOrigen("USD")
+                .monedaDestino("PEN")
+                .montoInicial(new BigDecimal("100.00"))
+                .montoConvertido(new BigDecimal("370.00"))
+                .tipoCambioAplicado(new BigDecimal("3.700000"))
+                .fecha(fecha)
+                .build();
+    }
+}
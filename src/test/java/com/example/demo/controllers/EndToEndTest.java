@@ -0,0 +1,40 @@
+package com.example.demo.controllers;
+
+import com.example.demo.dto.LoginResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.reactive.server.WebTestClient;
+
+import java.util.Map;
+
+/**
+ * Base de los tests de extremo a extremo: levanta la aplicación en un puerto
+ * aleatorio (con RSocket también en un puerto libre) y obtiene tokens JWT
+ * mediante /auth/login.
+ */
+@SpringBootTest(
+        webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = "spring.rsocket.server.port=0")
+abstract class EndToEndTest {
+
+    @Autowired
+    protected WebTestClient webTestClient;
+
+    /**
+     * Inicia sesión y devuelve el token JWT emitido.
+     *
+     * @param username Nombre de usuario
+     * @param password Contraseña
+     * @return Token JWT
+     */
+    protected String login(String username, String password) {
+        return webTestClient.post().uri("/auth/login")
+                .bodyValue(Map.of("username", username, "password", password))
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody(LoginResponse.class)
+                .returnResult()
+                .getResponseBody()
+                .getToken();
+    }
+}
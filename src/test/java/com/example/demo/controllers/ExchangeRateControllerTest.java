@@ -0,0 +1,254 @@
+package com.example.demo.controllers;
+
+import com.example.demo.dto.ApplyExchangeResponse;
+import com.example.demo.dto.ExchangeRateResponse;
+import com.example.demo.dto.RateImportSummary;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests de extremo a extremo de la importación masiva de tipos de cambio, del
+ * CRUD (códigos de estado de duplicados e IDs inexistentes) y de la negociación
+ * de formato de las consultas y de los cuerpos CBOR/Smile de /exchange/apply,
+ * autenticando con el token JWT de /auth/login.
+ */
+class ExchangeRateControllerTest extends EndToEndTest {
+    
+    @LocalServerPort
+    private int port;
+    
+    @Test
+    void testImportCsv_AdminTokenImportsRates() {
+        String token = login("admin", "admin123");
+        
+        RateImportSummary summary = webTestClient.post().uri("/exchange-rate/import")
+                .header(HttpHeaders.AUTHORIZATION, "Bearer " + token)
+                .contentType(MediaType.parseMediaType("text/csv"))
+                .bodyValue("monedaOrigen,monedaDestino,tipoCambio\nIMA,IMB,1.25\nIMB,IMC,0.5\n")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody(RateImportSummary.class)
+                .returnResult()
+                .getResponseBody();
+        
+        assertEquals(2, summary.getProcesadas());
+        assertEquals(0, summary.getErrores());
+        
+        ExchangeRateResponse imported = webTestClient.get().uri("/exchange-rate?origen=IMA&destino=IMB")
+                .header(HttpHeaders.AUTHORIZATION, "Bearer " + token)
+                .accept(MediaType.APPLICATION_JSON)
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody(ExchangeRateResponse.class)
+                .returnResult()
+                .getResponseBody();
+        
+        assertEquals(0, new BigDecimal("1.25").compareTo(imported.getTipoCambio()));
+    }
+    
+    @Test
+    void testImportNdjson_AdminTokenImportsRates() {
+        String token = login("admin", "admin123");
+        
+        webTestClient.post().uri("/exchange-rate/import")
+                .header(HttpHeaders.AUTHORIZATION, "Bearer " + token)
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .bodyValue("{\"monedaOrigen\":\"IMD\",\"monedaDestino\":\"IME\",\"tipoCambio\":2}\n")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.procesadas").isEqualTo(1)
+                .jsonPath("$.errores").isEqualTo(0);
+    }
+    
+    @Test
+    void testImportCsv_UserTokenIsForbidden() {
+        String token = login("user", "user123");
+        
+        webTestClient.post().uri("/exchange-rate/import")
+                .header(HttpHeaders.AUTHORIZATION, "Bearer " + token)
+                .contentType(MediaType.parseMediaType("text/csv"))
+                .bodyValue("IMF,IMG,1.5\n")
+                .exchange()
+                .expectStatus().isForbidden();
+    }
+    
+    @Test
+    void testCrud_MapsConstraintsAndMissingIdsToHttpStatus() {
+        String token = login("admin", "admin123");
+        Map<String, String> request = Map.of("monedaOrigen", "CRA", "monedaDestino", "CRB", "tipoCambio", "1.5");
+        
+        ExchangeRateResponse created = webTestClient.post().uri("/exchange-rate")
+                .header(HttpHeaders.AUTHORIZATION, "Bearer " + token)
+                .bodyValue(request)
+                .exchange()
+                .expectStatus().isCreated()
+                .expectBody(ExchangeRateResponse.class)
+                .returnResult()
+                .getResponseBody();
+        
+        webTestClient.post().uri("/exchange-rate")
+                .header(HttpHeaders.AUTHORIZATION, "Bearer " + token)
+                .bodyValue(request)
+                .exchange()
+                .expectStatus().isEqualTo(HttpStatus.CONFLICT);
+        
+        webTestClient.put().uri("/exchange-rate/" + created.getId())
+                .header(HttpHeaders.AUTHORIZATION, "Bearer " + token)
+                .bodyValue(Map.of("tipoCambio", "1.75"))
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.id").isEqualTo(created.getId())
+                .jsonPath("$.tipoCambio").isEqualTo(1.75);
+        
+        webTestClient.delete().uri("/exchange-rate/" + created.getId())
+                .header(HttpHeaders.AUTHORIZATION, "Bearer " + token)
+                .exchange()
+                .expectStatus().isNoContent();
+        
+        webTestClient.put().uri("/exchange-rate/" + created.getId())
+                .header(HttpHeaders.AUTHORIZATION, "Bearer " + token)
+                .bodyValue(Map.of("tipoCambio", "1.75"))
+                .exchange()
+                .expectStatus().isNotFound();
+        
+        webTestClient.delete().uri("/exchange-rate/" + created.getId())
+                .header(HttpHeaders.AUTHORIZATION, "Bearer " + token)
+                .exchange()
+                .expectStatus().isNotFound();
+    }
+    
+    @ParameterizedTest
+    @CsvSource({"application/json,VRJ", "application/cbor,VRC", "application/x-jackson-smile,VRS"})
+    void testFindByMonedasAndId_VaryByAcceptInEveryFormat(String format, String destino) {
+        String token = login("admin", "admin123");
+        ExchangeRateResponse created = webTestClient.post().uri("/exchange-rate")
+                .header(HttpHeaders.AUTHORIZATION, "Bearer " + token)
+                .bodyValue(Map.of("monedaOrigen", "VRA", "monedaDestino", destino, "tipoCambio", "1.5"))
+                .exchange()
+                .expectStatus().isCreated()
+                .expectBody(ExchangeRateResponse.class)
+                .returnResult()
+                .getResponseBody();
+        MediaType mediaType = MediaType.parseMediaType(format);
+        
+        for (String uri : new String[] {
+                "/exchange-rate?origen=VRA&destino=" + destino,
+                "/exchange-rate/" + created.getId()}) {
+            String etag = webTestClient.get().uri(uri)
+                    .header(HttpHeaders.AUTHORIZATION, "Bearer " + token)
+                    .accept(mediaType)
+                    .exchange()
+                    .expectStatus().isOk()
+                    .expectHeader().contentType(mediaType)
+                    .expectHeader().valueEquals(HttpHeaders.VARY, HttpHeaders.ACCEPT)
+                    .expectBody().returnResult()
+                    .getResponseHeaders().getETag();
+            
+            webTestClient.get().uri(uri)
+                    .header(HttpHeaders.AUTHORIZATION, "Bearer " + token)
+                    .accept(mediaType)
+                    .ifNoneMatch(etag)
+                    .exchange()
+                    .expectStatus().isNotModified()
+                    .expectHeader().valueEquals(HttpHeaders.VARY, HttpHeaders.ACCEPT);
+        }
+    }
+    
+    @Test
+    void testFindByMonedasAndAll_WithoutAcceptOrWildcardAnswerJson() throws IOException, InterruptedException {
+        String token = login("admin", "admin123");
+        webTestClient.post().uri("/exchange-rate")
+                .header(HttpHeaders.AUTHORIZATION, "Bearer " + token)
+                .bodyValue(Map.of("monedaOrigen", "DNA", "monedaDestino", "DNB", "tipoCambio", "1.5"))
+                .exchange()
+                .expectStatus().isCreated();
+        // El cliente de WebTestClient siempre envía Accept; HttpClient del JDK no envía ninguno
+        HttpClient client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+        
+        for (String uri : new String[] {"/exchange-rate?origen=DNA&destino=DNB", "/exchange-rate/all"}) {
+            HttpResponse<String> response = client.send(HttpRequest.newBuilder(URI.create("http://localhost:" + port + uri))
+                            .header(HttpHeaders.AUTHORIZATION, "Bearer " + token)
+                            .build(),
+                    HttpResponse.BodyHandlers.ofString());
+            assertEquals(200, response.statusCode(), uri);
+            assertEquals(MediaType.APPLICATION_JSON,
+                    MediaType.parseMediaType(response.headers().firstValue(HttpHeaders.CONTENT_TYPE).orElseThrow()), uri);
+            
+            webTestClient.get().uri(uri)
+                    .header(HttpHeaders.AUTHORIZATION, "Bearer " + token)
+                    .accept(MediaType.ALL)
+                    .exchange()
+                    .expectStatus().isOk()
+                    .expectHeader().contentTypeCompatibleWith(MediaType.APPLICATION_JSON)
+                    .expectBody()
+                    .jsonPath("$").isNotEmpty();
+        }
+    }
+    
+    @ParameterizedTest
+    @CsvSource({"application/cbor,BNC", "application/x-jackson-smile,BNS"})
+    void testApplyAndFindAll_ReadAndWriteBinaryBodies(String format, String destino) throws IOException {
+        String token = login("admin", "admin123");
+        webTestClient.post().uri("/exchange-rate")
+                .header(HttpHeaders.AUTHORIZATION, "Bearer " + token)
+                .bodyValue(Map.of("monedaOrigen", "BNA", "monedaDestino", destino, "tipoCambio", "1.25"))
+                .exchange()
+                .expectStatus().isCreated();
+        MediaType mediaType = MediaType.parseMediaType(format);
+        // Cuerpos codificados a mano: el servidor recibe y devuelve el formato binario, no JSON
+        ObjectMapper mapper = Jackson2ObjectMapperBuilder.json()
+                .factory(format.endsWith("cbor") ? new CBORFactory() : new SmileFactory())
+                .build();
+        
+        byte[] applied = webTestClient.post().uri("/exchange/apply")
+                .header(HttpHeaders.AUTHORIZATION, "Bearer " + token)
+                .contentType(mediaType)
+                .accept(mediaType)
+                .bodyValue(mapper.writeValueAsBytes(Map.of("monedaOrigen", "BNA", "monedaDestino", destino, "monto", 100)))
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().contentType(mediaType)
+                .expectBody(byte[].class)
+                .returnResult()
+                .getResponseBody();
+        ApplyExchangeResponse response = mapper.readValue(applied, ApplyExchangeResponse.class);
+        assertEquals(0, new BigDecimal("125").compareTo(response.getMontoConvertido()));
+        
+        byte[] all = webTestClient.get().uri("/exchange-rate/all")
+                .header(HttpHeaders.AUTHORIZATION, "Bearer " + token)
+                .accept(mediaType)
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().contentType(mediaType)
+                .expectBody(byte[].class)
+                .returnResult()
+                .getResponseBody();
+        List<ExchangeRateResponse> rates = mapper.readValue(all, new TypeReference<>() { });
+        assertTrue(rates.stream().anyMatch(rate -> rate.getMonedaOrigen().equals("BNA")
+                && rate.getMonedaDestino().equals(destino)));
+    }
+}
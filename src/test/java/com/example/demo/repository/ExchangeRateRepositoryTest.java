@@ -0,0 +1,154 @@
+package com.example.demo.repository;
+
+import com.example.demo.entity.ExchangeRate;
+import com.example.demo.entity.ExchangeRateHistory;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.transaction.reactive.TransactionalOperator;
+import reactor.test.StepVerifier;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Tests de integración de las consultas propias de ExchangeRateRepository
+ * (tablas delta FINAL TABLE y OLD TABLE de H2, también sobre MERGE) contra la
+ * base de datos en memoria.
+ */
+@SpringBootTest(properties = "spring.rsocket.server.port=0")
+class ExchangeRateRepositoryTest {
+    
+    private static final long MISSING_ID = Long.MAX_VALUE;
+    
+    @Autowired
+    private ExchangeRateRepository exchangeRateRepository;
+    
+    @Autowired
+    private ExchangeRateHistoryRepository historyRepository;
+    
+    @Autowired
+    private TransactionalOperator transactionalOperator;
+    
+    private ExchangeRate save(String monedaOrigen, String monedaDestino, String tipoCambio) {
+        return exchangeRateRepository.save(ExchangeRate.builder()
+                        .monedaOrigen(monedaOrigen)
+                        .monedaDestino(monedaDestino)
+                        .tipoCambio(new BigDecimal(tipoCambio))
+                        .fechaActualizacion(LocalDateTime.of(2024, 1, 15, 10, 30))
+                        .build())
+                .block();
+    }
+    
+    @Test
+    void testUpdateTipoCambio_ReturnsUpdatedRow() {
+        ExchangeRate saved = save("RUA", "RUB", "1.250000");
+        LocalDateTime fecha = LocalDateTime.of(2024, 2, 1, 8, 0);
+        
+        StepVerifier.create(exchangeRateRepository.updateTipoCambio(saved.getId(), new BigDecimal("1.300000"), fecha))
+                .assertNext(updated -> {
+                    assertEquals(saved.getId(), updated.getId());
+                    assertEquals("RUA", updated.getMonedaOrigen());
+                    assertEquals("RUB", updated.getMonedaDestino());
+                    assertEquals(new BigDecimal("1.300000"), updated.getTipoCambio());
+                    assertEquals(fecha, updated.getFechaActualizacion());
+                })
+                .verifyComplete();
+        StepVerifier.create(exchangeRateRepository.findById(saved.getId()))
+                .assertNext(stored -> assertEquals(new BigDecimal("1.300000"), stored.getTipoCambio()))
+                .verifyComplete();
+    }
+    
+    @Test
+    void testUpdateTipoCambio_MissingIdIsEmpty() {
+        StepVerifier.create(exchangeRateRepository.updateTipoCambio(MISSING_ID, BigDecimal.ONE, LocalDateTime.now()))
+                .verifyComplete();
+    }
+    
+    @Test
+    void testDeleteReturning_ReturnsDeletedRow() {
+        ExchangeRate saved = save("RDA", "RDB", "0.500000");
+        
+        StepVerifier.create(exchangeRateRepository.deleteReturning(saved.getId()))
+                .assertNext(deleted -> {
+                    assertEquals(saved.getId(), deleted.getId());
+                    assertEquals("RDA", deleted.getMonedaOrigen());
+                    assertEquals(new BigDecimal("0.500000"), deleted.getTipoCambio());
+                })
+                .verifyComplete();
+        StepVerifier.create(exchangeRateRepository.findById(saved.getId()))
+                .verifyComplete();
+    }
+    
+    @Test
+    void testDeleteReturning_MissingIdIsEmpty() {
+        StepVerifier.create(exchangeRateRepository.deleteReturning(MISSING_ID))
+                .verifyComplete();
+    }
+    
+    @Test
+    void testUpsertAll_ReturnsPreviousRowsOfExistingPairsOnly() {
+        ExchangeRate existing = save("RMA", "RMB", "1.100000");
+        LocalDateTime fecha = LocalDateTime.of(2024, 3, 1, 9, 0);
+        List<ExchangeRate> rates = List.of(
+                ExchangeRate.builder().monedaOrigen("RMA").monedaDestino("RMB")
+                        .tipoCambio(new BigDecimal("1.200000")).fechaActualizacion(fecha).build(),
+                ExchangeRate.builder().monedaOrigen("RMA").monedaDestino("RMC")
+                        .tipoCambio(new BigDecimal("3.000000")).fechaActualizacion(fecha).build());
+        
+        StepVerifier.create(exchangeRateRepository.upsertAll(rates))
+                .assertNext(previous -> {
+                    assertEquals(existing.getId(), previous.getId());
+                    assertEquals(new BigDecimal("1.100000"), previous.getTipoCambio());
+                })
+                .verifyComplete();
+        StepVerifier.create(exchangeRateRepository.findAllByMonedas(rates).map(ExchangeRate::getTipoCambio).collectList())
+                .assertNext(tipos -> assertEquals(
+                        List.of(new BigDecimal("1.200000"), new BigDecimal("3.000000")),
+                        tipos.stream().sorted().toList()))
+                .verifyComplete();
+    }
+    
+    @Test
+    void testSave_DuplicatePairRaisesDuplicateKey() {
+        save("RKA", "RKB", "2.000000");
+        
+        StepVerifier.create(exchangeRateRepository.save(ExchangeRate.builder()
+                        .monedaOrigen("RKA")
+                        .monedaDestino("RKB")
+                        .tipoCambio(new BigDecimal("3.000000"))
+                        .fechaActualizacion(LocalDateTime.now())
+                        .build()))
+                .expectError(DuplicateKeyException.class)
+                .verify();
+    }
+    
+    @Test
+    void testSaveWithFailingHistoryInsert_RollsBackRate() {
+        // Versión sin moneda origen: la inserción en exchange_rate_history viola NOT NULL
+        ExchangeRate exchangeRate = ExchangeRate.builder()
+                .monedaOrigen("RTA")
+                .monedaDestino("RTB")
+                .tipoCambio(new BigDecimal("4.000000"))
+                .fechaActualizacion(LocalDateTime.now())
+                .build();
+        
+        StepVerifier.create(exchangeRateRepository.save(exchangeRate)
+                        .flatMap(saved -> historyRepository.save(ExchangeRateHistory.builder()
+                                .exchangeRateId(saved.getId())
+                                .monedaDestino(saved.getMonedaDestino())
+                                .tipoCambio(saved.getTipoCambio())
+                                .validFrom(saved.getFechaActualizacion())
+                                .build()))
+                        .as(transactionalOperator::transactional))
+                .expectError(DataIntegrityViolationException.class)
+                .verify();
+        StepVerifier.create(exchangeRateRepository.findByMonedaOrigenAndMonedaDestino("RTA", "RTB"))
+                .verifyComplete();
+    }
+}
@@ -0,0 +1,120 @@
+package com.example.demo.security;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufAllocator;
+import io.netty.buffer.CompositeByteBuf;
+import io.netty.buffer.Unpooled;
+import io.rsocket.Payload;
+import io.rsocket.metadata.AuthMetadataCodec;
+import io.rsocket.metadata.CompositeMetadataCodec;
+import io.rsocket.metadata.WellKnownMimeType;
+import io.rsocket.util.DefaultPayload;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.ReactiveSecurityContextHolder;
+import org.springframework.security.core.context.SecurityContext;
+import org.springframework.security.rsocket.api.PayloadExchangeType;
+import org.springframework.security.rsocket.api.PayloadInterceptorChain;
+import org.springframework.security.rsocket.core.DefaultPayloadExchange;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.util.MimeType;
+import org.springframework.util.MimeTypeUtils;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests unitarios para JwtPayloadInterceptor.
+ */
+class JwtPayloadInterceptorTest {
+
+    private static final MimeType COMPOSITE_METADATA =
+            MimeTypeUtils.parseMimeType(WellKnownMimeType.MESSAGE_RSOCKET_COMPOSITE_METADATA.getString());
+
+    private static final MimeType JSON = MimeTypeUtils.APPLICATION_JSON;
+
+    private JwtUtil jwtUtil;
+
+    private JwtPayloadInterceptor interceptor;
+
+    private AtomicReference<Authentication> authentication;
+
+    private AtomicReference<Boolean> chainCalled;
+
+    private PayloadInterceptorChain chain;
+
+    @BeforeEach
+    void setUp() {
+        jwtUtil = new JwtUtil();
+        ReflectionTestUtils.setField(jwtUtil, "secret",
+                "MySecretKeyForJWTTokenGenerationThatShouldBeAtLeast256BitsLongForHS512Algorithm");
+        ReflectionTestUtils.setField(jwtUtil, "expiration", 60000L);
+        ReflectionTestUtils.setField(jwtUtil, "meterRegistry", new SimpleMeterRegistry());
+        jwtUtil.init();
+
+        interceptor = new JwtPayloadInterceptor(new VerifiedTokenCache(jwtUtil, 100));
+
+        authentication = new AtomicReference<>();
+        chainCalled = new AtomicReference<>(false);
+        chain = exchange -> ReactiveSecurityContextHolder.getContext()
+                .map(SecurityContext::getAuthentication)
+                .doOnNext(authentication::set)
+                .then(Mono.fromRunnable(() -> chainCalled.set(true)));
+    }
+
+    @Test
+    void testIntercept_ValidTokenAuthenticatesUser() {
+        Payload payload = payloadWithMetadata(
+                AuthMetadataCodec.encodeBearerMetadata(ByteBufAllocator.DEFAULT, jwtUtil.generateToken("admin").toCharArray()));
+
+        StepVerifier.create(interceptor.intercept(setupExchange(payload), chain))
+                .verifyComplete();
+
+        assertTrue(chainCalled.get());
+        assertEquals("admin", authentication.get().getName());
+        assertTrue(authentication.get().isAuthenticated());
+    }
+
+    @Test
+    void testIntercept_InvalidTokenIsRejected() {
+        Payload payload = payloadWithMetadata(
+                AuthMetadataCodec.encodeBearerMetadata(ByteBufAllocator.DEFAULT, "not-a-jwt".toCharArray()));
+
+        StepVerifier.create(interceptor.intercept(setupExchange(payload), chain))
+                .expectError(BadCredentialsException.class)
+                .verify();
+
+        assertFalse(chainCalled.get());
+    }
+
+    @Test
+    void testIntercept_NoTokenContinuesWithoutAuthentication() {
+        Payload payload = DefaultPayload.create(Unpooled.EMPTY_BUFFER, Unpooled.EMPTY_BUFFER);
+
+        StepVerifier.create(interceptor.intercept(setupExchange(payload), chain))
+                .verifyComplete();
+
+        assertTrue(chainCalled.get());
+        assertNull(authentication.get());
+    }
+
+    private static Payload payloadWithMetadata(ByteBuf authenticationMetadata) {
+        CompositeByteBuf metadata = ByteBufAllocator.DEFAULT.compositeBuffer();
+        CompositeMetadataCodec.encodeAndAddMetadata(metadata, ByteBufAllocator.DEFAULT,
+                WellKnownMimeType.MESSAGE_RSOCKET_AUTHENTICATION, authenticationMetadata);
+        return DefaultPayload.create(Unpooled.EMPTY_BUFFER, metadata);
+    }
+
+    private static DefaultPayloadExchange setupExchange(Payload payload) {
+        return new DefaultPayloadExchange(PayloadExchangeType.SETUP, payload, COMPOSITE_METADATA, JSON);
+    }
+}
@@ -0,0 +1,91 @@
+package com.example.demo.security;
+
+import com.example.demo.exception.AuthenticationBusyException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests unitarios para PasswordVerifier.
+ */
+class PasswordVerifierTest {
+    
+    private final CountDownLatch release = new CountDownLatch(1);
+    
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    
+    private PasswordVerifier passwordVerifier;
+    
+    @AfterEach
+    void tearDown() {
+        release.countDown();
+        passwordVerifier.shutdown();
+    }
+    
+    /**
+     * Encoder que bloquea hasta que el test lo libera, para ocupar el pool.
+     */
+    private PasswordEncoder blockingEncoder() {
+        return new PasswordEncoder() {
+            @Override
+            public String encode(CharSequence rawPassword) {
+                return rawPassword.toString();
+            }
+            
+            @Override
+            public boolean matches(CharSequence rawPassword, String encodedPassword) {
+                try {
+                    release.await(5, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return rawPassword.toString().equals(encodedPassword);
+            }
+        };
+    }
+    
+    @Test
+    void testMatches_RunsOffCallerThreadAndRecordsTime() {
+        release.countDown();
+        passwordVerifier = new PasswordVerifier(blockingEncoder(), meterRegistry, 1, 1);
+        String caller = Thread.currentThread().getName();
+        
+        StepVerifier.create(passwordVerifier.matches("admin123", "admin123")
+                        .map(matches -> matches && !Thread.currentThread().getName().equals(caller)))
+                .expectNext(true)
+                .verifyComplete();
+        
+        assertEquals(1, passwordVerifier.verifications());
+        assertTrue(passwordVerifier.meanHashMillis() > 0);
+        assertEquals(passwordVerifier.meanHashMillis(), passwordVerifier.maxHashMillis());
+        assertEquals(1, meterRegistry.get("password.hashing").timer().count());
+    }
+    
+    @Test
+    void testMatches_RejectsWhenQueueIsFull() {
+        passwordVerifier = new PasswordVerifier(blockingEncoder(), meterRegistry, 1, 1);
+        
+        // Uno en ejecución y uno en cola ocupan toda la capacidad
+        Flux.merge(
+                passwordVerifier.matches("a", "a"),
+                passwordVerifier.matches("b", "b")).subscribe();
+        
+        StepVerifier.create(Mono.defer(() -> passwordVerifier.matches("c", "c")))
+                .expectError(AuthenticationBusyException.class)
+                .verify();
+        assertEquals(1, passwordVerifier.rejected());
+        assertEquals(1.0, meterRegistry.get("password.hashing.rejected").counter().count());
+        assertEquals(1, passwordVerifier.queueDepth());
+        assertEquals(1.0, meterRegistry.get("password.hashing.queue").gauge().value());
+    }
+}
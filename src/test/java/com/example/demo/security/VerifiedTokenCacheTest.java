@@ -0,0 +1,78 @@
+package com.example.demo.security;
+
+import io.jsonwebtoken.ExpiredJwtException;
+import io.jsonwebtoken.JwtException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.authority.AuthorityUtils;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Tests unitarios para VerifiedTokenCache.
+ */
+class VerifiedTokenCacheTest {
+    
+    private JwtUtil jwtUtil;
+    
+    private VerifiedTokenCache verifiedTokenCache;
+    
+    @BeforeEach
+    void setUp() {
+        jwtUtil = new JwtUtil();
+        ReflectionTestUtils.setField(jwtUtil, "secret",
+                "MySecretKeyForJWTTokenGenerationThatShouldBeAtLeast256BitsLongForHS512Algorithm");
+        ReflectionTestUtils.setField(jwtUtil, "expiration", 60000L);
+        ReflectionTestUtils.setField(jwtUtil, "meterRegistry", new SimpleMeterRegistry());
+        jwtUtil.init();
+        
+        verifiedTokenCache = new VerifiedTokenCache(jwtUtil, 100);
+    }
+    
+    @Test
+    void testGetUsername_SecondLookupIsHit() {
+        String token = jwtUtil.generateToken("admin");
+        
+        assertEquals("admin", verifiedTokenCache.getUsername(token));
+        assertEquals("admin", verifiedTokenCache.getUsername(token));
+        
+        assertEquals(1, verifiedTokenCache.stats().hitCount());
+        assertEquals(1, verifiedTokenCache.stats().missCount());
+    }
+    
+    @Test
+    void testGet_RolesBecomeAuthorities() {
+        String token = jwtUtil.generateToken("admin", List.of("ROLE_ADMIN", "ROLE_USER"));
+        
+        Authentication authentication = verifiedTokenCache.get(token).toAuthentication();
+        
+        assertEquals("admin", authentication.getName());
+        assertEquals(Set.of("ROLE_ADMIN", "ROLE_USER"),
+                AuthorityUtils.authorityListToSet(authentication.getAuthorities()));
+    }
+    
+    @Test
+    void testGetUsername_TamperedTokenIsRejectedAndNotCached() {
+        String token = jwtUtil.generateToken("admin");
+        String tampered = token.substring(0, token.length() - 2) + "xx";
+        
+        assertThrows(JwtException.class, () -> verifiedTokenCache.getUsername(tampered));
+        assertEquals(0, verifiedTokenCache.size());
+    }
+    
+    @Test
+    void testGetUsername_ExpiredTokenIsRejected() {
+        ReflectionTestUtils.setField(jwtUtil, "expiration", -1000L);
+        ReflectionTestUtils.setField(jwtUtil, "meterRegistry", new SimpleMeterRegistry());
+        String token = jwtUtil.generateToken("admin");
+        
+        assertThrows(ExpiredJwtException.class, () -> verifiedTokenCache.getUsername(token));
+    }
+}
@@ -0,0 +1,164 @@
+package com.example.demo.service;
+
+import com.example.demo.dto.AuditLogCursor;
+import com.example.demo.dto.AuditLogQuery;
+import com.example.demo.entity.AuditLog;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import reactor.core.publisher.Flux;
+import reactor.test.StepVerifier;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.List;
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests unitarios para AuditArchive.
+ */
+class AuditArchiveTest {
+
+    private static final YearMonth ENERO = YearMonth.of(2024, 1);
+    private static final YearMonth FEBRERO = YearMonth.of(2024, 2);
+
+    @TempDir
+    private Path directory;
+
+    private AuditArchive archive() throws IOException {
+        AuditArchive archive = new AuditArchive(directory.toString(), 3);
+        archive.open();
+        return archive;
+    }
+
+    /**
+     * Un log por hora desde el inicio del mes, con IDs consecutivos desde firstId.
+     */
+    private Flux<AuditLog> logs(YearMonth month, long firstId, int count) {
+        return Flux.fromStream(LongStream.range(0, count).mapToObj(i -> AuditLog.builder()
+                .id(firstId + i)
+                .usuario(i % 2 == 0 ? "admin" : "user")
+                .monedaOrigen("PEN")
+                .monedaDestino(i % 3 == 0 ? "EUR" : "USD")
+                .montoInicial(new BigDecimal("100.50"))
+                .montoConvertido(new BigDecimal("27.14"))
+                .tipoCambioAplicado(new BigDecimal("0.270000"))
+                .fecha(month.atDay(1).atStartOfDay().plusHours(i).plusNanos(123_000))
+                .build()));
+    }
+
+    private List<Long> ids(AuditArchive archive, AuditLogQuery query, AuditLogCursor after, int limit) {
+        return archive.findPage(query, after, limit).map(AuditLog::getId).collectList().block();
+    }
+
+    @Test
+    void testWrite_ReadsBackNewestFirstAcrossMonthsAndBlocks() throws IOException {
+        AuditArchive archive = archive();
+        StepVerifier.create(archive.write(ENERO, logs(ENERO, 1, 10)))
+                .expectNext(10L)
+                .verifyComplete();
+        StepVerifier.create(archive.write(FEBRERO, logs(FEBRERO, 11, 5)))
+                .expectNext(5L)
+                .verifyComplete();
+
+        assertEquals(List.of(15L, 14L, 13L, 12L, 11L, 10L, 9L), ids(archive, new AuditLogQuery(), null, 7));
+
+        AuditLog first = archive.findPage(new AuditLogQuery(), null, 15).blockLast();
+        assertEquals(1L, first.getId());
+        assertEquals(new BigDecimal("100.50"), first.getMontoInicial());
+        assertEquals(new BigDecimal("0.270000"), first.getTipoCambioAplicado());
+        assertEquals(ENERO.atDay(1).atStartOfDay().plusNanos(123_000), first.getFecha());
+        assertEquals("EUR", first.getMonedaDestino());
+    }
+
+    @Test
+    void testFindPage_AppliesFiltersRangeAndCursor() throws IOException {
+        AuditArchive archive = archive();
+        archive.write(ENERO, logs(ENERO, 1, 10)).block();
+        LocalDateTime base = ENERO.atDay(1).atStartOfDay();
+
+        AuditLogQuery query = new AuditLogQuery();
+        query.setUsuario("admin");
+        query.setMonedaDestino("USD");
+        assertEquals(List.of(9L, 5L, 3L), ids(archive, query, null, 10));
+
+        AuditLogQuery range = new AuditLogQuery();
+        range.setDesde(base.plusHours(2));
+        range.setHasta(base.plusHours(6).plusNanos(123_000));
+        assertEquals(List.of(6L, 5L, 4L, 3L), ids(archive, range, null, 10));
+
+        AuditLogCursor cursor = new AuditLogCursor(base.plusHours(4).plusNanos(123_000), 5L);
+        assertEquals(List.of(4L, 3L), ids(archive, range, cursor, 10));
+    }
+
+    @Test
+    void testOpen_LoadsExistingFilesAndRemovesUnfinishedWrites() throws IOException {
+        assertNull(archive().horizon());
+        archive().write(ENERO, logs(ENERO, 1, 4)).block();
+        Path unfinished = directory.resolve("audit-logs-2024-02.arc.tmp");
+        Files.writeString(unfinished, "parcial");
+
+        AuditArchive reopened = archive();
+
+        assertTrue(reopened.contains(ENERO));
+        assertFalse(reopened.contains(FEBRERO));
+        assertFalse(Files.exists(unfinished));
+        assertEquals(FEBRERO.atDay(1).atStartOfDay(), reopened.horizon());
+        assertEquals(List.of(4L, 3L, 2L, 1L), ids(reopened, new AuditLogQuery(), null, 10));
+    }
+
+    @Test
+    void testWrite_FailedWriteLeavesNoFile() throws IOException {
+        AuditArchive archive = archive();
+
+        StepVerifier.create(archive.write(ENERO, logs(ENERO, 1, 4).concatWith(Flux.error(new IllegalStateException()))))
+                .expectError(IllegalStateException.class)
+                .verify();
+
+        assertFalse(archive.contains(ENERO));
+        try (var files = Files.list(directory)) {
+            assertEquals(0, files.count());
+        }
+    }
+
+    @Test
+    void testRead_ReturnsMonthOldestFirst() throws IOException {
+        AuditArchive archive = archive();
+        archive.write(ENERO, logs(ENERO, 1, 7)).block();
+
+        StepVerifier.create(archive.read(ENERO).map(AuditLog::getId))
+                .expectNext(1L, 2L, 3L, 4L, 5L, 6L, 7L)
+                .verifyComplete();
+        StepVerifier.create(archive.read(FEBRERO))
+                .verifyComplete();
+    }
+
+    @Test
+    void testRead_TruncatedBlockFails() throws IOException {
+        archive().write(ENERO, logs(ENERO, 1, 3)).block();
+        Path file = directory.resolve("audit-logs-2024-01.arc");
+        // Reduce el tamaño comprimido del único bloque en el índice: el inflater se queda sin datos
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            ByteBuffer trailer = ByteBuffer.allocate(Long.BYTES);
+            channel.read(trailer, channel.size() - Long.BYTES - Integer.BYTES);
+            long indexOffset = trailer.flip().getLong();
+            channel.write(ByteBuffer.allocate(Integer.BYTES).putInt(0, 8), indexOffset + Integer.BYTES + Long.BYTES);
+        }
+
+        StepVerifier.create(archive().findPage(new AuditLogQuery(), null, 10))
+                .expectError(IllegalStateException.class)
+                .verify(Duration.ofSeconds(5));
+    }
+}
@@ -0,0 +1,151 @@
+package com.example.demo.service;
+
+import com.example.demo.entity.AuditLog;
+import com.example.demo.repository.AuditLogRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Tests unitarios para AuditArchiver.
+ */
+@ExtendWith(MockitoExtension.class)
+class AuditArchiverTest {
+
+    private static final YearMonth ACTUAL = YearMonth.of(2024, 6);
+
+    @Mock
+    private AuditLogRepository auditLogRepository;
+
+    @Mock
+    private AuditArchive auditArchive;
+
+    private AuditArchiver archiver() {
+        return new AuditArchiver(auditLogRepository, auditArchive, 2, 60000);
+    }
+
+    private static LocalDateTime start(YearMonth month) {
+        return month.atDay(1).atStartOfDay();
+    }
+
+    private static AuditLog auditLog(long id, LocalDateTime fecha) {
+        return AuditLog.builder().id(id).fecha(fecha).build();
+    }
+
+    /**
+     * Simula AuditArchive.write consumiendo los logs; guarda los IDs escritos en written.
+     */
+    private void archiveConsumes(List<Long> written) {
+        when(auditArchive.write(any(), any())).thenAnswer(invocation -> invocation.<Flux<AuditLog>>getArgument(1)
+                .doOnNext(auditLog -> written.add(auditLog.getId()))
+                .count());
+    }
+
+    @Test
+    void testArchiveClosedMonths_ExportsThenDeletesEachClosedMonth() {
+        YearMonth enero = YearMonth.of(2024, 1);
+        YearMonth marzo = YearMonth.of(2024, 3);
+        when(auditLogRepository.findOldestFecha()).thenReturn(
+                Mono.just(start(enero).plusDays(3)),
+                Mono.just(start(marzo).plusDays(9)),
+                Mono.just(start(YearMonth.of(2024, 4))));
+        when(auditLogRepository.findBetween(start(enero), start(enero.plusMonths(1))))
+                .thenReturn(Flux.just(auditLog(1L, start(enero).plusDays(3)), auditLog(4L, start(enero).plusDays(5))));
+        when(auditLogRepository.findBetween(start(marzo), start(marzo.plusMonths(1))))
+                .thenReturn(Flux.just(auditLog(2L, start(marzo).plusDays(9))));
+        List<Long> written = new ArrayList<>();
+        archiveConsumes(written);
+        when(auditLogRepository.deleteBetween(any(), any(), anyLong())).thenReturn(Mono.just(5L), Mono.just(7L));
+
+        StepVerifier.create(archiver().archiveClosedMonths(ACTUAL))
+                .expectNext(12L)
+                .verifyComplete();
+
+        InOrder order = inOrder(auditArchive, auditLogRepository);
+        order.verify(auditArchive).write(eq(enero), any());
+        order.verify(auditLogRepository).deleteBetween(start(enero), start(enero.plusMonths(1)), 4L);
+        order.verify(auditArchive).write(eq(marzo), any());
+        order.verify(auditLogRepository).deleteBetween(start(marzo), start(marzo.plusMonths(1)), 2L);
+        assertEquals(List.of(1L, 4L, 2L), written);
+    }
+
+    @Test
+    void testArchiveClosedMonths_RowsInsertedAfterExportAreKept() {
+        YearMonth enero = YearMonth.of(2024, 1);
+        // La fila 9 llega después de exportar enero: queda en la tabla y se archiva en la siguiente pasada
+        when(auditLogRepository.findOldestFecha()).thenReturn(
+                Mono.just(start(enero)),
+                Mono.just(start(enero).plusDays(20)),
+                Mono.empty());
+        when(auditArchive.contains(enero)).thenReturn(false, true);
+        when(auditArchive.read(enero)).thenReturn(Flux.just(auditLog(3L, start(enero))));
+        when(auditLogRepository.findBetween(start(enero), start(enero.plusMonths(1)))).thenReturn(
+                Flux.just(auditLog(3L, start(enero))),
+                Flux.just(auditLog(9L, start(enero).plusDays(20))));
+        List<Long> written = new ArrayList<>();
+        archiveConsumes(written);
+        when(auditLogRepository.deleteBetween(start(enero), start(enero.plusMonths(1)), 3L)).thenReturn(Mono.just(1L));
+        when(auditLogRepository.deleteBetween(start(enero), start(enero.plusMonths(1)), 9L)).thenReturn(Mono.just(1L));
+
+        StepVerifier.create(archiver().archiveClosedMonths(ACTUAL))
+                .expectNext(2L)
+                .verifyComplete();
+
+        // La segunda escritura reemplaza el archivo con la fila ya archivada y la nueva
+        assertEquals(List.of(3L, 3L, 9L), written);
+    }
+
+    @Test
+    void testArchiveClosedMonths_AlreadyArchivedMonthIsMergedWithoutDuplicates() {
+        YearMonth enero = YearMonth.of(2024, 1);
+        when(auditLogRepository.findOldestFecha())
+                .thenReturn(Mono.just(start(enero)), Mono.empty());
+        when(auditArchive.contains(enero)).thenReturn(true);
+        when(auditArchive.read(enero)).thenReturn(Flux.just(
+                auditLog(1L, start(enero)), auditLog(2L, start(enero).plusDays(1))));
+        when(auditLogRepository.findBetween(start(enero), start(enero.plusMonths(1)))).thenReturn(Flux.just(
+                auditLog(2L, start(enero).plusDays(1)),
+                auditLog(5L, start(enero).plusDays(1)),
+                auditLog(4L, start(enero).plusDays(2))));
+        List<Long> written = new ArrayList<>();
+        archiveConsumes(written);
+        when(auditLogRepository.deleteBetween(start(enero), start(enero.plusMonths(1)), 5L)).thenReturn(Mono.just(3L));
+
+        StepVerifier.create(archiver().archiveClosedMonths(ACTUAL))
+                .expectNext(3L)
+                .verifyComplete();
+
+        assertEquals(List.of(1L, 2L, 5L, 4L), written);
+    }
+
+    @Test
+    void testArchiveClosedMonths_KeepsHotMonths() {
+        when(auditLogRepository.findOldestFecha()).thenReturn(Mono.just(start(ACTUAL.minusMonths(2))));
+
+        StepVerifier.create(archiver().archiveClosedMonths(ACTUAL))
+                .expectNext(0L)
+                .verifyComplete();
+
+        verify(auditLogRepository, never()).deleteBetween(any(), any(), anyLong());
+        verify(auditLogRepository, never()).findBetween(any(), eq(start(ACTUAL)));
+    }
+}
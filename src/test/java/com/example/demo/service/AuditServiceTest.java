@@ -0,0 +1,109 @@
+package com.example.demo.service;
+
+import com.example.demo.dto.AuditLogCursor;
+import com.example.demo.dto.AuditLogQuery;
+import com.example.demo.entity.AuditLog;
+import com.example.demo.exception.InvalidAuditQueryException;
+import com.example.demo.repository.AuditLogRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import reactor.core.publisher.Flux;
+import reactor.test.StepVerifier;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.stream.LongStream;
+
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.when;
+
+/**
+ * Tests unitarios para AuditService.
+ */
+@ExtendWith(MockitoExtension.class)
+class AuditServiceTest {
+    
+    @Mock
+    private AuditLogRepository auditLogRepository;
+    
+    @Mock
+    private AuditWriter auditWriter;
+    
+    @Mock
+    private AuditArchive auditArchive;
+    
+    @InjectMocks
+    private AuditService auditService;
+    
+    private final LocalDateTime base = LocalDateTime.of(2024, 1, 15, 10, 30);
+    
+    private Flux<AuditLog> logs(long count) {
+        return Flux.fromStream(LongStream.range(0, count).mapToObj(i -> AuditLog.builder()
+                .id(100 - i)
+                .usuario("admin")
+                .fecha(base.minusMinutes(i))
+                .build()));
+    }
+    
+    @Test
+    void testFindPage_ReturnsCursorWhenMoreResultsExist() {
+        AuditLogQuery query = new AuditLogQuery();
+        query.setLimit(2);
+        when(auditLogRepository.findPage(eq(query), isNull(), eq(3)))
+                .thenReturn(logs(3));
+        
+        StepVerifier.create(auditService.findPage(query))
+                .expectNextMatches(page -> page.getItems().size() == 2 &&
+                    new AuditLogCursor(base.minusMinutes(1), 99L).encode().equals(page.getNextCursor()))
+                .verifyComplete();
+    }
+    
+    @Test
+    void testFindPage_LastPageHasNoCursor() {
+        AuditLogCursor cursor = new AuditLogCursor(base, 100L);
+        AuditLogQuery query = new AuditLogQuery();
+        query.setCursor(cursor.encode());
+        when(auditLogRepository.findPage(eq(query), eq(cursor), eq(51)))
+                .thenReturn(logs(1));
+        
+        StepVerifier.create(auditService.findPage(query))
+                .expectNextMatches(page -> page.getItems().size() == 1 && page.getNextCursor() == null)
+                .verifyComplete();
+    }
+    
+    @Test
+    void testFindPage_InvalidCursor() {
+        AuditLogQuery query = new AuditLogQuery();
+        query.setCursor("no-es-un-cursor");
+        
+        StepVerifier.create(auditService.findPage(query))
+                .expectError(InvalidAuditQueryException.class)
+                .verify();
+    }
+    
+    @Test
+    void testFindPage_ContinuesIntoArchiveWhenTableIsExhausted() {
+        LocalDateTime horizon = base.minusMinutes(1);
+        AuditLogQuery query = new AuditLogQuery();
+        query.setUsuario("admin");
+        query.setLimit(3);
+        AuditLogQuery live = new AuditLogQuery();
+        live.setUsuario("admin");
+        live.setDesde(horizon);
+        live.setLimit(3);
+        when(auditArchive.horizon()).thenReturn(horizon);
+        when(auditLogRepository.findPage(eq(live), isNull(), eq(4)))
+                .thenReturn(logs(1));
+        when(auditArchive.findPage(eq(query), isNull(), eq(3)))
+                .thenReturn(logs(4).skip(1));
+        
+        StepVerifier.create(auditService.findPage(query))
+                .expectNextMatches(page -> page.getItems().stream().map(AuditLog::getId).toList().equals(List.of(100L, 99L, 98L)) &&
+                    new AuditLogCursor(base.minusMinutes(2), 98L).encode().equals(page.getNextCursor()))
+                .verifyComplete();
+    }
+}
@@ -0,0 +1,179 @@
+package com.example.demo.service;
+
+import com.example.demo.entity.AuditLog;
+import com.example.demo.exception.AuditBufferFullException;
+import com.example.demo.repository.AuditLogRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Tests unitarios para AuditWriter.
+ */
+@ExtendWith(MockitoExtension.class)
+class AuditWriterTest {
+    
+    @Mock
+    private AuditLogRepository auditLogRepository;
+    
+    private AuditWriter writer(int capacity, int batchSize, AuditWriter.OverflowPolicy policy) {
+        return new AuditWriter(auditLogRepository, capacity, batchSize, 60000, policy, 10, 2, 1);
+    }
+    
+    private AuditLog auditLog(String usuario) {
+        return AuditLog.builder()
+                .usuario(usuario)
+                .monedaOrigen("PEN")
+                .monedaDestino("USD")
+                .montoInicial(new BigDecimal("100.00"))
+                .montoConvertido(new BigDecimal("27.00"))
+                .tipoCambioAplicado(new BigDecimal("0.27"))
+                .fecha(LocalDateTime.now())
+                .build();
+    }
+    
+    @Test
+    @SuppressWarnings("unchecked")
+    void testSubmit_FlushesInBatchesWhenBatchSizeReached() {
+        when(auditLogRepository.insertAll(anyList()))
+                .thenAnswer(invocation -> Mono.just((long) ((List<AuditLog>) invocation.getArgument(0)).size()));
+        AuditWriter auditWriter = writer(100, 3, AuditWriter.OverflowPolicy.FAIL);
+        
+        for (int i = 0; i < 3; i++) {
+            StepVerifier.create(auditWriter.submit(auditLog("user" + i)))
+                    .expectNextCount(1)
+                    .verifyComplete();
+        }
+        
+        ArgumentCaptor<List<AuditLog>> captor = ArgumentCaptor.forClass(List.class);
+        verify(auditLogRepository, times(1)).insertAll(captor.capture());
+        assertEquals(3, captor.getValue().size());
+        assertEquals(0, auditWriter.pending());
+        assertEquals(3, auditWriter.written());
+    }
+    
+    @Test
+    void testSubmit_FailPolicyRejectsWhenFull() {
+        AuditWriter auditWriter = writer(2, 10, AuditWriter.OverflowPolicy.FAIL);
+        
+        auditWriter.submit(auditLog("a")).block();
+        auditWriter.submit(auditLog("b")).block();
+        
+        StepVerifier.create(auditWriter.submit(auditLog("c")))
+                .expectError(AuditBufferFullException.class)
+                .verify();
+        verify(auditLogRepository, never()).insertAll(anyList());
+    }
+    
+    @Test
+    void testSubmit_BlockPolicyTimesOutWhenFull() {
+        AuditWriter auditWriter = writer(1, 10, AuditWriter.OverflowPolicy.BLOCK);
+        
+        auditWriter.submit(auditLog("a")).block();
+        
+        StepVerifier.create(auditWriter.submit(auditLog("b")))
+                .expectError(AuditBufferFullException.class)
+                .verify();
+    }
+    
+    @Test
+    @SuppressWarnings("unchecked")
+    void testSubmit_DropOldestKeepsNewestRecords() {
+        when(auditLogRepository.insertAll(anyList()))
+                .thenAnswer(invocation -> Mono.just((long) ((List<AuditLog>) invocation.getArgument(0)).size()));
+        AuditWriter auditWriter = writer(2, 10, AuditWriter.OverflowPolicy.DROP_OLDEST);
+        
+        auditWriter.submit(auditLog("a")).block();
+        auditWriter.submit(auditLog("b")).block();
+        auditWriter.submit(auditLog("c")).block();
+        assertEquals(1, auditWriter.dropped());
+        
+        auditWriter.shutdown();
+        
+        ArgumentCaptor<List<AuditLog>> captor = ArgumentCaptor.forClass(List.class);
+        verify(auditLogRepository).insertAll(captor.capture());
+        assertEquals(List.of("b", "c"), captor.getValue().stream().map(AuditLog::getUsuario).toList());
+    }
+    
+    @Test
+    void testShutdown_FlushesPendingRecords() {
+        when(auditLogRepository.insertAll(anyList()))
+                .thenReturn(Mono.just(2L));
+        AuditWriter auditWriter = writer(100, 10, AuditWriter.OverflowPolicy.FAIL);
+        
+        auditWriter.submit(auditLog("a")).block();
+        auditWriter.submit(auditLog("b")).block();
+        auditWriter.shutdown();
+        
+        verify(auditLogRepository, times(1)).insertAll(anyList());
+        assertEquals(0, auditWriter.pending());
+    }
+    
+    @Test
+    void testShutdown_WaitsForFlushInProgress() {
+        when(auditLogRepository.insertAll(anyList()))
+                .thenReturn(Mono.delay(Duration.ofMillis(300)).thenReturn(1L));
+        AuditWriter auditWriter = new AuditWriter(auditLogRepository, 100, 10, 10,
+                AuditWriter.OverflowPolicy.FAIL, 100, 2, 1);
+        auditWriter.start();
+        
+        auditWriter.submit(auditLog("a")).block();
+        // El tick ya sacó el lote del buffer y la inserción sigue en curso
+        verify(auditLogRepository, timeout(1000)).insertAll(anyList());
+        assertEquals(0, auditWriter.pending());
+        auditWriter.shutdown();
+        
+        assertEquals(1, auditWriter.written());
+        assertEquals(0, auditWriter.dropped());
+        verify(auditLogRepository, times(1)).insertAll(anyList());
+    }
+    
+    @Test
+    void testFlush_RetriesFailedBatch() {
+        when(auditLogRepository.insertAll(anyList()))
+                .thenReturn(Mono.error(new IllegalStateException("conexión perdida")), Mono.just(2L));
+        AuditWriter auditWriter = writer(100, 10, AuditWriter.OverflowPolicy.FAIL);
+        
+        auditWriter.submit(auditLog("a")).block();
+        auditWriter.submit(auditLog("b")).block();
+        auditWriter.flush().block();
+        
+        verify(auditLogRepository, times(2)).insertAll(anyList());
+        assertEquals(2, auditWriter.written());
+        assertEquals(0, auditWriter.dropped());
+    }
+    
+    @Test
+    void testFlush_CountsBatchAsDroppedAfterRetries() {
+        when(auditLogRepository.insertAll(anyList()))
+                .thenReturn(Mono.error(new IllegalStateException("conexión perdida")));
+        AuditWriter auditWriter = writer(100, 10, AuditWriter.OverflowPolicy.FAIL);
+        
+        auditWriter.submit(auditLog("a")).block();
+        auditWriter.submit(auditLog("b")).block();
+        auditWriter.flush().block();
+        
+        // Intento inicial y 2 reintentos
+        verify(auditLogRepository, times(3)).insertAll(anyList());
+        assertEquals(2, auditWriter.dropped());
+        assertEquals(0, auditWriter.written());
+        assertEquals(0, auditWriter.pending());
+    }
+}
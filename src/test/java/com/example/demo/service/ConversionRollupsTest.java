@@ -0,0 +1,117 @@
+package com.example.demo.service;
+
+import com.example.demo.dto.ApplyExchangeResponse;
+import com.example.demo.dto.ConversionRollup;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests unitarios para ConversionRollups.
+ */
+class ConversionRollupsTest {
+
+    private final AtomicLong now = new AtomicLong(Duration.ofDays(1000).toMillis());
+
+    private ConversionRollups conversionRollups;
+
+    @BeforeEach
+    void setUp() {
+        conversionRollups = new ConversionRollups(now::get);
+    }
+
+    @Test
+    void testRecord_AggregatesPerPairAndPerUser() {
+        conversionRollups.record("admin", response("USD", "PEN", "100.00", "370.00", "3.70"));
+        conversionRollups.record("user", response("USD", "PEN", "50.00", "187.50", "3.75"));
+        conversionRollups.record("admin", response("PEN", "USD", "10.00", "2.70", "0.27"));
+
+        List<ConversionRollup> pairs = conversionRollups.byPair(Duration.ofMinutes(60));
+        assertEquals(2, pairs.size());
+        ConversionRollup usdPen = pairs.get(1);
+        assertEquals("USD:PEN", usdPen.getClave());
+        assertEquals(2, usdPen.getOperaciones());
+        assertEquals(new BigDecimal("150.00"), usdPen.getMontoInicialTotal());
+        assertEquals(new BigDecimal("557.50"), usdPen.getMontoConvertidoTotal());
+        assertEquals(new BigDecimal("3.70"), usdPen.getTipoCambioMinimo());
+        assertEquals(new BigDecimal("3.75"), usdPen.getTipoCambioMaximo());
+
+        List<ConversionRollup> users = conversionRollups.byUser(Duration.ofMinutes(60));
+        assertEquals("admin", users.get(0).getClave());
+        assertEquals(2, users.get(0).getOperaciones());
+        assertEquals(new BigDecimal("110.00"), users.get(0).getMontoInicialTotal());
+    }
+
+    @Test
+    void testByPair_OnlyCountsBucketsInsideWindow() {
+        conversionRollups.record("admin", response("USD", "PEN", "100.00", "370.00", "3.70"));
+        now.addAndGet(Duration.ofMinutes(10).toMillis());
+        conversionRollups.record("admin", response("USD", "PEN", "50.00", "185.00", "3.70"));
+
+        assertEquals(1, conversionRollups.byPair(Duration.ofMinutes(5)).get(0).getOperaciones());
+        assertEquals(2, conversionRollups.byPair(Duration.ofMinutes(15)).get(0).getOperaciones());
+
+        now.addAndGet(Duration.ofMinutes(70).toMillis());
+        assertTrue(conversionRollups.byPair(Duration.ofMinutes(60)).isEmpty());
+        assertEquals(2, conversionRollups.byPair(Duration.ofHours(3)).get(0).getOperaciones());
+
+        now.addAndGet(Duration.ofDays(1).toMillis());
+        assertTrue(conversionRollups.byPair(ConversionRollups.MAX_WINDOW).isEmpty());
+    }
+
+    @Test
+    void testRecord_ReusedSlotStartsFromZero() {
+        conversionRollups.record("admin", response("USD", "PEN", "100.00", "370.00", "3.70"));
+        now.addAndGet(Duration.ofHours(1).toMillis());
+        conversionRollups.record("admin", response("USD", "PEN", "1.00", "3.80", "3.80"));
+
+        ConversionRollup rollup = conversionRollups.byPair(Duration.ofMinutes(1)).get(0);
+        assertEquals(1, rollup.getOperaciones());
+        assertEquals(new BigDecimal("1.00"), rollup.getMontoInicialTotal());
+        assertEquals(new BigDecimal("3.80"), rollup.getTipoCambioMinimo());
+    }
+
+    @Test
+    void testRecord_EvictsSeriesOutsideMaxWindow() {
+        conversionRollups.record("admin", response("USD", "PEN", "100.00", "370.00", "3.70"));
+        now.addAndGet(Duration.ofHours(12).toMillis());
+        conversionRollups.record("user", response("EUR", "USD", "10.00", "10.80", "1.08"));
+        assertEquals(4, conversionRollups.size());
+
+        // admin y USD:PEN siguen dentro de la ventana de 24 horas
+        now.addAndGet(Duration.ofHours(12).toMillis() - 1);
+        conversionRollups.record("user", response("EUR", "USD", "10.00", "10.80", "1.08"));
+        assertEquals(4, conversionRollups.size());
+        assertEquals(2, conversionRollups.byUser(ConversionRollups.MAX_WINDOW).size());
+
+        now.addAndGet(Duration.ofHours(1).toMillis());
+        conversionRollups.record("user", response("EUR", "USD", "10.00", "10.80", "1.08"));
+        assertEquals(2, conversionRollups.size());
+        assertEquals("user", conversionRollups.byUser(ConversionRollups.MAX_WINDOW).get(0).getClave());
+        assertEquals(3, conversionRollups.byPair(ConversionRollups.MAX_WINDOW).get(0).getOperaciones());
+
+        // Una clave eliminada vuelve a registrarse desde cero
+        conversionRollups.record("admin", response("USD", "PEN", "1.00", "3.80", "3.80"));
+        assertEquals(1, conversionRollups.byPair(ConversionRollups.MAX_WINDOW).stream()
+                .filter(rollup -> rollup.getClave().equals("USD:PEN"))
+                .findFirst().orElseThrow().getOperaciones());
+    }
+
+    private ApplyExchangeResponse response(
+            String origen, String destino, String montoInicial, String montoConvertido, String tipoCambio) {
+        return ApplyExchangeResponse.builder()
+                .monedaOrigen(origen)
+                .monedaDestino(destino)
+                .montoInicial(new BigDecimal(montoInicial))
+                .montoConvertido(new BigDecimal(montoConvertido))
+                .tipoCambioAplicado(new BigDecimal(tipoCambio))
+                .build();
+    }
+}
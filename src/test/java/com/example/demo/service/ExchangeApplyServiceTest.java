@@ -3,26 +3,33 @@ package com.example.demo.service;
 import com.example.demo.dto.ApplyExchangeRequest;
 import com.example.demo.dto.ApplyExchangeResponse;
 import com.example.demo.entity.AuditLog;
-import com.example.demo.entity.ExchangeRate;
+import com.example.demo.entity.ExchangeRateHistory;
 import com.example.demo.exception.ExchangeRateNotFoundException;
-import com.example.demo.repository.AuditLogRepository;
-import com.example.demo.repository.ExchangeRateRepository;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import jakarta.validation.Validation;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.ReactiveSecurityContextHolder;
+import org.springframework.test.util.ReflectionTestUtils;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 import reactor.test.StepVerifier;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.util.List;
 
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 /**
@@ -32,42 +39,45 @@ import static org.mockito.Mockito.when;
 class ExchangeApplyServiceTest {
     
     @Mock
-    private ExchangeRateRepository exchangeRateRepository;
+    private ExchangeRateGraph exchangeRateGraph;
+    
+    @Mock
+    private RateHistoryService rateHistoryService;
     
     @Mock
     private AuditService auditService;
     
+    @Mock
+    private ConversionRollups conversionRollups;
+    
+    @Mock
+    private ExchangeMetrics exchangeMetrics;
+    
     @Mock
     private Authentication authentication;
     
     @InjectMocks
     private ExchangeApplyService exchangeApplyService;
     
-    private ExchangeRate exchangeRate;
+    private RateRoute route;
     private ApplyExchangeRequest request;
     
     @BeforeEach
     void setUp() {
-        exchangeRate = ExchangeRate.builder()
-                .id(1L)
-                .monedaOrigen("PEN")
-                .monedaDestino("USD")
-                .tipoCambio(new BigDecimal("0.27"))
-                .fechaActualizacion(LocalDateTime.now())
-                .build();
+        route = new RateRoute(List.of("PEN", "USD"), new BigDecimal("0.27"));
         
         request = new ApplyExchangeRequest();
         request.setMonedaOrigen("PEN");
         request.setMonedaDestino("USD");
         request.setMonto(new BigDecimal("100.00"));
         
-        when(authentication.getName()).thenReturn("admin");
+        lenient().when(authentication.getName()).thenReturn("admin");
     }
     
     @Test
     void testApplyExchange_Success() {
-        when(exchangeRateRepository.findByMonedaOrigenAndMonedaDestino("PEN", "USD"))
-                .thenReturn(Mono.just(exchangeRate));
+        when(exchangeRateGraph.findRoute("PEN", "USD"))
+                .thenReturn(Mono.just(route));
         when(auditService.logExchangeOperation(
                 anyString(), anyString(), anyString(), 
                 any(BigDecimal.class), any(BigDecimal.class), any(BigDecimal.class)))
@@ -82,14 +92,69 @@ class ExchangeApplyServiceTest {
                     response.getMonedaDestino().equals("USD") &&
                     response.getMontoInicial().equals(new BigDecimal("100.00")) &&
                     response.getMontoConvertido().equals(new BigDecimal("27.00")) &&
-                    response.getTipoCambioAplicado().equals(new BigDecimal("0.27"))
+                    response.getTipoCambioAplicado().equals(new BigDecimal("0.27")) &&
+                    response.getRuta().equals(List.of("PEN", "USD"))
+                )
+                .verifyComplete();
+        
+        verify(conversionRollups).record(eq("admin"), any(ApplyExchangeResponse.class));
+        verify(exchangeMetrics).recordConversion("PEN", "USD");
+    }
+    
+    @Test
+    void testApplyExchange_CrossRate() {
+        when(exchangeRateGraph.findRoute("PEN", "EUR"))
+                .thenReturn(Mono.just(new RateRoute(List.of("PEN", "USD", "EUR"), new BigDecimal("0.248400"))));
+        when(auditService.logExchangeOperation(
+                anyString(), anyString(), anyString(), 
+                any(BigDecimal.class), any(BigDecimal.class), any(BigDecimal.class)))
+                .thenReturn(Mono.just(AuditLog.builder().build()));
+        request.setMonedaDestino("EUR");
+        
+        StepVerifier.create(
+                exchangeApplyService.applyExchange(request)
+                        .contextWrite(ReactiveSecurityContextHolder.withAuthentication(authentication))
+        )
+                .expectNextMatches(response -> 
+                    response.getMontoConvertido().equals(new BigDecimal("24.84")) &&
+                    response.getRuta().equals(List.of("PEN", "USD", "EUR"))
                 )
                 .verifyComplete();
     }
     
+    @Test
+    void testApplyExchange_HistoricalRateUsesInverseVersion() {
+        LocalDateTime fecha = LocalDateTime.of(2024, 1, 15, 10, 0);
+        when(rateHistoryService.findAsOf("PEN", "USD", fecha))
+                .thenReturn(Mono.empty());
+        when(rateHistoryService.findAsOf("USD", "PEN", fecha))
+                .thenReturn(Mono.just(ExchangeRateHistory.builder()
+                        .monedaOrigen("USD")
+                        .monedaDestino("PEN")
+                        .tipoCambio(new BigDecimal("4.00"))
+                        .validFrom(fecha.minusDays(1))
+                        .build()));
+        when(auditService.logExchangeOperation(
+                anyString(), anyString(), anyString(), 
+                any(BigDecimal.class), any(BigDecimal.class), any(BigDecimal.class)))
+                .thenReturn(Mono.just(AuditLog.builder().build()));
+        request.setFechaTipoCambio(fecha);
+        
+        StepVerifier.create(
+                exchangeApplyService.applyExchange(request)
+                        .contextWrite(ReactiveSecurityContextHolder.withAuthentication(authentication))
+        )
+                .expectNextMatches(response -> 
+                    response.getTipoCambioAplicado().equals(new BigDecimal("0.250000")) &&
+                    response.getMontoConvertido().equals(new BigDecimal("25.00")))
+                .verifyComplete();
+        
+        verify(exchangeRateGraph, never()).findRoute(anyString(), anyString());
+    }
+    
     @Test
     void testApplyExchange_ExchangeRateNotFound() {
-        when(exchangeRateRepository.findByMonedaOrigenAndMonedaDestino("PEN", "USD"))
+        when(exchangeRateGraph.findRoute("PEN", "USD"))
                 .thenReturn(Mono.empty());
         
         StepVerifier.create(
@@ -98,6 +163,40 @@ class ExchangeApplyServiceTest {
         )
                 .expectError(ExchangeRateNotFoundException.class)
                 .verify();
+        
+        verify(exchangeMetrics).recordRateNotFound("PEN", "USD");
+    }
+    
+    @Test
+    void testApplyExchangeBatch_ReportsErrorsPerItemAndLooksUpEachPairOnce() {
+        ReflectionTestUtils.setField(exchangeApplyService, "validator",
+                Validation.buildDefaultValidatorFactory().getValidator());
+        when(exchangeRateGraph.findRoute("PEN", "USD"))
+                .thenReturn(Mono.just(route));
+        when(exchangeRateGraph.findRoute("PEN", "JPY"))
+                .thenReturn(Mono.empty());
+        when(auditService.logExchangeOperation(
+                anyString(), anyString(), anyString(), 
+                any(BigDecimal.class), any(BigDecimal.class), any(BigDecimal.class)))
+                .thenReturn(Mono.just(AuditLog.builder().build()));
+        
+        ApplyExchangeRequest missingPair = new ApplyExchangeRequest("PEN", "JPY", new BigDecimal("5.00"), null);
+        ApplyExchangeRequest invalid = new ApplyExchangeRequest("PEN", "USD", new BigDecimal("-1"), null);
+        ApplyExchangeRequest second = new ApplyExchangeRequest("PEN", "USD", new BigDecimal("10.00"), null);
+        
+        StepVerifier.create(
+                exchangeApplyService.applyExchangeBatch(Flux.just(request, missingPair, invalid, second))
+                        .contextWrite(ReactiveSecurityContextHolder.withAuthentication(authentication))
+        )
+                .expectNextMatches(item -> item.getIndex() == 0 &&
+                    item.getResult().getMontoConvertido().equals(new BigDecimal("27.00")))
+                .expectNextMatches(item -> item.getIndex() == 1 && item.getResult() == null &&
+                    item.getError().contains("PEN -> JPY"))
+                .expectNextMatches(item -> item.getIndex() == 2 && item.getError().startsWith("monto"))
+                .expectNextMatches(item -> item.getIndex() == 3 &&
+                    item.getResult().getMontoConvertido().equals(new BigDecimal("2.70")))
+                .verifyComplete();
+        
+        verify(exchangeRateGraph, times(1)).findRoute("PEN", "USD");
     }
 }
-
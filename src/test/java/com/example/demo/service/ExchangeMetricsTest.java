@@ -0,0 +1,61 @@
+package com.example.demo.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Tests unitarios para ExchangeMetrics.
+ */
+class ExchangeMetricsTest {
+    
+    private SimpleMeterRegistry meterRegistry;
+    
+    private ExchangeMetrics exchangeMetrics;
+    
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        exchangeMetrics = new ExchangeMetrics(meterRegistry, 2);
+    }
+    
+    @Test
+    void testRecordConversion_CountsPerPair() {
+        exchangeMetrics.recordConversion("PEN", "USD");
+        exchangeMetrics.recordConversion("PEN", "USD");
+        exchangeMetrics.recordConversion("USD", "EUR");
+        
+        assertEquals(2.0, meterRegistry.get("exchange.conversions").tag("pair", "PEN:USD").counter().count());
+        assertEquals(1.0, meterRegistry.get("exchange.conversions").tag("pair", "USD:EUR").counter().count());
+    }
+    
+    @Test
+    void testPairTags_AreCappedAndOverflowGoesToOther() {
+        exchangeMetrics.recordConversion("AAA", "BBB");
+        exchangeMetrics.recordConversion("CCC", "DDD");
+        exchangeMetrics.recordConversion("EEE", "FFF");
+        exchangeMetrics.recordConversion("GGG", "HHH");
+        
+        assertEquals(3, meterRegistry.get("exchange.conversions").counters().size());
+        assertEquals(2.0, meterRegistry.get("exchange.conversions")
+                .tag("pair", ExchangeMetrics.OTHER).counter().count());
+    }
+    
+    @Test
+    void testRateNotFound_DoesNotTakePairTagsFromRealPairs() {
+        for (int i = 0; i < 10; i++) {
+            exchangeMetrics.recordRateNotFound("X" + i, "Y" + i);
+        }
+        exchangeMetrics.recordConversion("PEN", "USD");
+        exchangeMetrics.recordConversion("USD", "EUR");
+        exchangeMetrics.recordRateNotFound("PEN", "USD");
+        
+        assertEquals(10.0, meterRegistry.get("exchange.rate.not.found")
+                .tag("pair", ExchangeMetrics.OTHER).counter().count());
+        assertEquals(1.0, meterRegistry.get("exchange.rate.not.found").tag("pair", "PEN:USD").counter().count());
+        assertEquals(1.0, meterRegistry.get("exchange.conversions").tag("pair", "PEN:USD").counter().count());
+        assertEquals(1.0, meterRegistry.get("exchange.conversions").tag("pair", "USD:EUR").counter().count());
+    }
+}
@@ -0,0 +1,165 @@
+package com.example.demo.service;
+
+import com.example.demo.entity.ExchangeRate;
+import com.example.demo.repository.ExchangeRateRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Tests unitarios para ExchangeRateCache.
+ */
+@ExtendWith(MockitoExtension.class)
+class ExchangeRateCacheTest {
+    
+    @Mock
+    private ExchangeRateRepository exchangeRateRepository;
+    
+    private ExchangeRateCache exchangeRateCache;
+    
+    private ExchangeRate exchangeRate;
+    
+    @BeforeEach
+    void setUp() {
+        exchangeRateCache = new ExchangeRateCache(exchangeRateRepository, 100, 60000);
+        
+        exchangeRate = ExchangeRate.builder()
+                .id(1L)
+                .monedaOrigen("PEN")
+                .monedaDestino("USD")
+                .tipoCambio(new BigDecimal("0.27"))
+                .fechaActualizacion(LocalDateTime.now())
+                .build();
+    }
+    
+    @Test
+    void testFindByMonedas_SecondLookupIsHit() {
+        when(exchangeRateRepository.findByMonedaOrigenAndMonedaDestino("PEN", "USD"))
+                .thenReturn(Mono.just(exchangeRate));
+        
+        StepVerifier.create(exchangeRateCache.findByMonedas("PEN", "USD"))
+                .expectNext(exchangeRate)
+                .verifyComplete();
+        StepVerifier.create(exchangeRateCache.findByMonedas("PEN", "USD"))
+                .expectNext(exchangeRate)
+                .verifyComplete();
+        
+        verify(exchangeRateRepository, times(1)).findByMonedaOrigenAndMonedaDestino("PEN", "USD");
+        assertEquals(1, exchangeRateCache.stats().hitCount());
+        assertEquals(1, exchangeRateCache.stats().missCount());
+    }
+    
+    @Test
+    void testPut_ReplacesSupersededRate() {
+        ExchangeRate updated = ExchangeRate.builder()
+                .id(1L)
+                .monedaOrigen("PEN")
+                .monedaDestino("USD")
+                .tipoCambio(new BigDecimal("0.28"))
+                .fechaActualizacion(LocalDateTime.now())
+                .build();
+        
+        exchangeRateCache.put(exchangeRate);
+        exchangeRateCache.put(updated);
+        
+        StepVerifier.create(exchangeRateCache.findByMonedas("PEN", "USD"))
+                .expectNextMatches(rate -> rate.getTipoCambio().equals(new BigDecimal("0.28")))
+                .verifyComplete();
+    }
+    
+    @Test
+    void testInvalidate_DeletedRateIsNotServed() {
+        exchangeRateCache.put(exchangeRate);
+        exchangeRateCache.invalidate("PEN", "USD");
+        
+        when(exchangeRateRepository.findByMonedaOrigenAndMonedaDestino("PEN", "USD"))
+                .thenReturn(Mono.empty());
+        
+        StepVerifier.create(exchangeRateCache.findByMonedas("PEN", "USD"))
+                .verifyComplete();
+    }
+    
+    @Test
+    void testFindByMonedas_StaleReadIsNotCachedAfterWrite() {
+        when(exchangeRateRepository.findByMonedaOrigenAndMonedaDestino("PEN", "USD"))
+                .thenReturn(Mono.fromSupplier(() -> {
+                    // Una escritura concurrente invalida el par mientras la lectura está en curso
+                    exchangeRateCache.invalidate("PEN", "USD");
+                    return exchangeRate;
+                }));
+        
+        StepVerifier.create(exchangeRateCache.findByMonedas("PEN", "USD"))
+                .expectNext(exchangeRate)
+                .verifyComplete();
+        
+        assertEquals(0, exchangeRateCache.size());
+    }
+    
+    @Test
+    void testFindByMonedas_ConcurrentWriteNeverLeavesStaleRead() throws Exception {
+        ExchangeRate updated = ExchangeRate.builder()
+                .id(1L)
+                .monedaOrigen("PEN")
+                .monedaDestino("USD")
+                .tipoCambio(new BigDecimal("0.28"))
+                .fechaActualizacion(LocalDateTime.now())
+                .build();
+        CyclicBarrier barrier = new CyclicBarrier(2);
+        // La lectura lenta de la base de datos termina a la vez que la escritura concurrente
+        when(exchangeRateRepository.findByMonedaOrigenAndMonedaDestino("PEN", "USD"))
+                .thenReturn(Mono.fromCallable(() -> {
+                    barrier.await();
+                    return exchangeRate;
+                }));
+        @SuppressWarnings("unchecked")
+        Cache<String, ExchangeRate> entries =
+                (Cache<String, ExchangeRate>) ReflectionTestUtils.getField(exchangeRateCache, "cache");
+        ExecutorService writer = Executors.newSingleThreadExecutor();
+        try {
+            for (int i = 0; i < 20_000; i++) {
+                entries.invalidateAll();
+                boolean invalidate = i % 2 == 0;
+                Future<?> write = writer.submit(() -> {
+                    barrier.await();
+                    if (invalidate) {
+                        exchangeRateCache.invalidate("PEN", "USD");
+                    } else {
+                        exchangeRateCache.put(updated);
+                    }
+                    return null;
+                });
+                exchangeRateCache.findByMonedas("PEN", "USD").block();
+                write.get();
+                
+                ExchangeRate cached = entries.asMap().get("PEN:USD");
+                if (invalidate) {
+                    assertNull(cached, "Tipo de cambio eliminado en caché en la iteración " + i);
+                } else {
+                    assertSame(updated, cached, "Tipo de cambio reemplazado en caché en la iteración " + i);
+                }
+            }
+        } finally {
+            writer.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,72 @@
+package com.example.demo.service;
+
+import com.example.demo.dto.ExchangeRateEvent;
+import com.example.demo.dto.ExchangeRateResponse;
+import org.junit.jupiter.api.Test;
+import reactor.test.StepVerifier;
+
+import java.math.BigDecimal;
+
+/**
+ * Tests unitarios para ExchangeRateEventPublisher.
+ */
+class ExchangeRateEventPublisherTest {
+    
+    private ExchangeRateResponse rate(String origen, String destino, String tipoCambio) {
+        return ExchangeRateResponse.builder()
+                .monedaOrigen(origen)
+                .monedaDestino(destino)
+                .tipoCambio(new BigDecimal(tipoCambio))
+                .build();
+    }
+    
+    @Test
+    void testSubscribe_FiltersByPair() {
+        ExchangeRateEventPublisher publisher = new ExchangeRateEventPublisher(16,
+                ExchangeRateEventPublisher.OverflowPolicy.DROP_OLDEST);
+        
+        StepVerifier.create(publisher.subscribe("PEN", "USD"))
+                .then(() -> {
+                    publisher.publish(ExchangeRateEvent.Tipo.CREATED, rate("USD", "EUR", "0.92"));
+                    publisher.publish(ExchangeRateEvent.Tipo.UPDATED, rate("PEN", "USD", "0.28"));
+                })
+                .expectNextMatches(event -> event.getTipo() == ExchangeRateEvent.Tipo.UPDATED &&
+                    event.getSecuencia() == 2)
+                .thenCancel()
+                .verify();
+    }
+    
+    @Test
+    void testSubscribe_SlowSubscriberKeepsNewestEvents() {
+        ExchangeRateEventPublisher publisher = new ExchangeRateEventPublisher(2,
+                ExchangeRateEventPublisher.OverflowPolicy.DROP_OLDEST);
+        
+        StepVerifier.create(publisher.subscribe(null, null), 0)
+                .then(() -> {
+                    publisher.publish(ExchangeRateEvent.Tipo.UPDATED, rate("PEN", "USD", "0.27"));
+                    publisher.publish(ExchangeRateEvent.Tipo.UPDATED, rate("PEN", "USD", "0.28"));
+                    publisher.publish(ExchangeRateEvent.Tipo.UPDATED, rate("PEN", "USD", "0.29"));
+                })
+                .thenRequest(2)
+                .expectNextMatches(event -> event.getSecuencia() == 2)
+                .expectNextMatches(event -> event.getSecuencia() == 3)
+                .thenCancel()
+                .verify();
+    }
+    
+    @Test
+    void testSubscribe_LatestPolicyKeepsOnlyLastEvent() {
+        ExchangeRateEventPublisher publisher = new ExchangeRateEventPublisher(2,
+                ExchangeRateEventPublisher.OverflowPolicy.LATEST);
+        
+        StepVerifier.create(publisher.subscribe(null, null), 0)
+                .then(() -> {
+                    publisher.publish(ExchangeRateEvent.Tipo.UPDATED, rate("PEN", "USD", "0.27"));
+                    publisher.publish(ExchangeRateEvent.Tipo.UPDATED, rate("PEN", "USD", "0.28"));
+                })
+                .thenRequest(1)
+                .expectNextMatches(event -> event.getSecuencia() == 2)
+                .thenCancel()
+                .verify();
+    }
+}
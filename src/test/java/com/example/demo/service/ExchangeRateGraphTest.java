@@ -0,0 +1,227 @@
+package com.example.demo.service;
+
+import com.example.demo.entity.ExchangeRate;
+import com.example.demo.repository.ExchangeRateRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+import reactor.core.publisher.Flux;
+import reactor.test.StepVerifier;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Tests unitarios para ExchangeRateGraph.
+ */
+@ExtendWith(MockitoExtension.class)
+class ExchangeRateGraphTest {
+    
+    @Mock
+    private ExchangeRateRepository exchangeRateRepository;
+    
+    private ExchangeRateGraph exchangeRateGraph;
+    
+    @BeforeEach
+    void setUp() {
+        exchangeRateGraph = new ExchangeRateGraph(exchangeRateRepository, 3);
+        lenient().when(exchangeRateRepository.findAll()).thenReturn(Flux.just(
+                rate("PEN", "USD", "0.27"),
+                rate("USD", "EUR", "0.92"),
+                rate("USD", "JPY", "150")));
+    }
+    
+    private ExchangeRate rate(String origen, String destino, String tipoCambio) {
+        return ExchangeRate.builder()
+                .monedaOrigen(origen)
+                .monedaDestino(destino)
+                .tipoCambio(new BigDecimal(tipoCambio))
+                .fechaActualizacion(LocalDateTime.now())
+                .build();
+    }
+    
+    @Test
+    void testFindRoute_DirectRateIsUsedAsStored() {
+        StepVerifier.create(exchangeRateGraph.findRoute("PEN", "USD"))
+                .expectNext(new RateRoute(List.of("PEN", "USD"), new BigDecimal("0.27")))
+                .verifyComplete();
+    }
+    
+    @Test
+    void testFindRoute_InverseRate() {
+        StepVerifier.create(exchangeRateGraph.findRoute("USD", "PEN"))
+                .expectNext(new RateRoute(List.of("USD", "PEN"), new BigDecimal("3.703704")))
+                .verifyComplete();
+    }
+    
+    @Test
+    void testFindRoute_CrossRate() {
+        StepVerifier.create(exchangeRateGraph.findRoute("PEN", "EUR"))
+                .expectNext(new RateRoute(List.of("PEN", "USD", "EUR"), new BigDecimal("0.248400")))
+                .verifyComplete();
+        StepVerifier.create(exchangeRateGraph.findRoute("EUR", "JPY"))
+                .expectNext(new RateRoute(List.of("EUR", "USD", "JPY"), new BigDecimal("163.043478")))
+                .verifyComplete();
+    }
+    
+    @Test
+    void testFindRoute_NoRoute() {
+        StepVerifier.create(exchangeRateGraph.findRoute("PEN", "GBP"))
+                .verifyComplete();
+    }
+    
+    @Test
+    void testUpsert_RateChangeRefreshesCrossRatesWithoutReload() {
+        exchangeRateGraph.findRoute("PEN", "EUR").block();
+        
+        exchangeRateGraph.upsert(rate("USD", "EUR", "0.90"));
+        
+        StepVerifier.create(exchangeRateGraph.findRoute("PEN", "EUR"))
+                .expectNext(new RateRoute(List.of("PEN", "USD", "EUR"), new BigDecimal("0.243000")))
+                .verifyComplete();
+        StepVerifier.create(exchangeRateGraph.findRoute("EUR", "PEN"))
+                .expectNext(new RateRoute(List.of("EUR", "USD", "PEN"), new BigDecimal("4.115226")))
+                .verifyComplete();
+        verify(exchangeRateRepository, times(1)).findAll();
+    }
+    
+    @Test
+    void testUpsert_DirectRatePreferredOverCrossRate() {
+        exchangeRateGraph.findRoute("PEN", "EUR").block();
+        
+        exchangeRateGraph.upsert(rate("PEN", "EUR", "0.25"));
+        
+        StepVerifier.create(exchangeRateGraph.findRoute("PEN", "EUR"))
+                .expectNext(new RateRoute(List.of("PEN", "EUR"), new BigDecimal("0.25")))
+                .verifyComplete();
+    }
+    
+    @Test
+    void testUpsertAll_NewAndChangedRatesVisibleAfterOneRecompute() {
+        exchangeRateGraph.findRoute("PEN", "EUR").block();
+        
+        exchangeRateGraph.upsertAll(List.of(rate("USD", "EUR", "0.90"), rate("EUR", "GBP", "0.80")));
+        
+        StepVerifier.create(exchangeRateGraph.findRoute("PEN", "EUR"))
+                .expectNext(new RateRoute(List.of("PEN", "USD", "EUR"), new BigDecimal("0.243000")))
+                .verifyComplete();
+        StepVerifier.create(exchangeRateGraph.findRoute("PEN", "GBP"))
+                .expectNext(new RateRoute(List.of("PEN", "USD", "EUR", "GBP"), new BigDecimal("0.194400")))
+                .verifyComplete();
+        verify(exchangeRateRepository, times(1)).findAll();
+    }
+    
+    @Test
+    void testRemove_RoutesThroughDeletedLegDisappear() {
+        exchangeRateGraph.findRoute("PEN", "EUR").block();
+        
+        exchangeRateGraph.remove("PEN", "USD");
+        
+        StepVerifier.create(exchangeRateGraph.findRoute("PEN", "EUR"))
+                .verifyComplete();
+        StepVerifier.create(exchangeRateGraph.findRoute("EUR", "JPY"))
+                .expectNextCount(1)
+                .verifyComplete();
+    }
+    
+    @Test
+    void testRemove_PrunesLegIndexOfRecomputedSources() {
+        exchangeRateGraph.findRoute("PEN", "EUR").block();
+        
+        exchangeRateGraph.remove("PEN", "USD");
+        
+        Map<String, Set<String>> sourcesByLeg = sourcesByLeg(exchangeRateGraph);
+        assertFalse(sourcesByLeg.containsKey("PEN:USD"));
+        assertFalse(sourcesByLeg.get("USD:EUR").contains("PEN"));
+    }
+    
+    @Test
+    void testUpsert_NewLegOnlyRecomputesSourcesThatReachIt() {
+        exchangeRateGraph.preload(List.of(
+                rate("PEN", "USD", "0.27"), rate("USD", "EUR", "0.92"), rate("GBP", "CHF", "1.12")));
+        Map<String, RateRoute> fromPen = routes(exchangeRateGraph).get("PEN");
+        
+        exchangeRateGraph.upsert(rate("CHF", "SEK", "12"));
+        
+        assertSame(fromPen, routes(exchangeRateGraph).get("PEN"));
+        StepVerifier.create(exchangeRateGraph.findRoute("GBP", "SEK"))
+                .expectNext(new RateRoute(List.of("GBP", "CHF", "SEK"), new BigDecimal("13.440000")))
+                .verifyComplete();
+        StepVerifier.create(exchangeRateGraph.findRoute("SEK", "GBP"))
+                .expectNextCount(1)
+                .verifyComplete();
+    }
+    
+    @Test
+    void testIncrementalChanges_MatchFullRecompute() {
+        exchangeRateGraph.findRoute("PEN", "EUR").block();
+        
+        exchangeRateGraph.upsert(rate("EUR", "GBP", "0.86"));
+        exchangeRateGraph.upsertAll(List.of(rate("GBP", "CHF", "1.12"), rate("USD", "EUR", "0.90")));
+        exchangeRateGraph.upsert(rate("JPY", "KRW", "9"));
+        exchangeRateGraph.remove("USD", "JPY");
+        
+        ExchangeRateGraph rebuilt = new ExchangeRateGraph(exchangeRateRepository, 3);
+        rebuilt.preload(List.of(rate("PEN", "USD", "0.27"), rate("USD", "EUR", "0.90"),
+                rate("EUR", "GBP", "0.86"), rate("GBP", "CHF", "1.12"), rate("JPY", "KRW", "9")));
+        assertEquals(routes(rebuilt), routes(exchangeRateGraph));
+        assertEquals(sourcesByLeg(rebuilt), sourcesByLeg(exchangeRateGraph));
+    }
+    
+    @Test
+    void testUpsert_BeforeInitialLoadIsApplied() {
+        exchangeRateGraph.upsert(rate("EUR", "GBP", "0.86"));
+        
+        StepVerifier.create(exchangeRateGraph.findRoute("PEN", "GBP"))
+                .expectNext(new RateRoute(List.of("PEN", "USD", "EUR", "GBP"), new BigDecimal("0.213624")))
+                .verifyComplete();
+    }
+    
+    @Test
+    void testPreload_LoadsWithoutReadingTable() {
+        exchangeRateGraph.preload(List.of(rate("PEN", "USD", "0.27"), rate("USD", "CLP", "900")));
+        
+        StepVerifier.create(exchangeRateGraph.findRoute("PEN", "CLP"))
+                .expectNext(new RateRoute(List.of("PEN", "USD", "CLP"), new BigDecimal("243.000000")))
+                .verifyComplete();
+        verify(exchangeRateRepository, never()).findAll();
+    }
+    
+    @Test
+    void testPreload_ReplacesEarlierTableLoad() {
+        StepVerifier.create(exchangeRateGraph.warmup()).verifyComplete();
+        
+        exchangeRateGraph.preload(List.of(rate("PEN", "USD", "0.28")));
+        
+        StepVerifier.create(exchangeRateGraph.findRoute("PEN", "USD"))
+                .expectNext(new RateRoute(List.of("PEN", "USD"), new BigDecimal("0.28")))
+                .verifyComplete();
+        StepVerifier.create(exchangeRateGraph.findRoute("USD", "JPY"))
+                .verifyComplete();
+    }
+    
+    @SuppressWarnings("unchecked")
+    private static Map<String, Map<String, RateRoute>> routes(ExchangeRateGraph graph) {
+        return (Map<String, Map<String, RateRoute>>) ReflectionTestUtils.getField(graph, "routes");
+    }
+    
+    @SuppressWarnings("unchecked")
+    private static Map<String, Set<String>> sourcesByLeg(ExchangeRateGraph graph) {
+        return (Map<String, Set<String>>) ReflectionTestUtils.getField(graph, "sourcesByLeg");
+    }
+}
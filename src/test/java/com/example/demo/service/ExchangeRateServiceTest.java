@@ -1,9 +1,11 @@
 package com.example.demo.service;
 
+import com.example.demo.dto.ExchangeRateEvent;
 import com.example.demo.dto.ExchangeRateRequest;
 import com.example.demo.dto.ExchangeRateResponse;
 import com.example.demo.dto.ExchangeRateUpdateRequest;
 import com.example.demo.entity.ExchangeRate;
+import com.example.demo.entity.ExchangeRateHistory;
 import com.example.demo.exception.ExchangeRateAlreadyExistsException;
 import com.example.demo.exception.ExchangeRateNotFoundException;
 import com.example.demo.repository.ExchangeRateRepository;
@@ -13,6 +15,8 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.transaction.reactive.TransactionalOperator;
 import reactor.core.publisher.Mono;
 import reactor.test.StepVerifier;
 
@@ -21,6 +25,10 @@ import java.time.LocalDateTime;
 
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 /**
@@ -32,6 +40,27 @@ class ExchangeRateServiceTest {
     @Mock
     private ExchangeRateRepository exchangeRateRepository;
     
+    @Mock
+    private ExchangeRateCache exchangeRateCache;
+    
+    @Mock
+    private ExchangeRateGraph exchangeRateGraph;
+    
+    @Mock
+    private ExchangeRateEventPublisher exchangeRateEventPublisher;
+    
+    @Mock
+    private RateHistoryService rateHistoryService;
+    
+    @Mock
+    private ExchangeMetrics exchangeMetrics;
+    
+    @Mock
+    private RateTableVersion rateTableVersion;
+    
+    @Mock
+    private TransactionalOperator transactionalOperator;
+    
     @InjectMocks
     private ExchangeRateService exchangeRateService;
     
@@ -40,6 +69,10 @@ class ExchangeRateServiceTest {
     
     @BeforeEach
     void setUp() {
+        // Deja pasar el Mono; la reversión contra H2 se prueba en ExchangeRateRepositoryTest
+        lenient().when(transactionalOperator.transactional(any(Mono.class)))
+                .thenAnswer(invocation -> invocation.getArgument(0));
+        
         exchangeRate = ExchangeRate.builder()
                 .id(1L)
                 .monedaOrigen("PEN")
@@ -56,10 +89,10 @@ class ExchangeRateServiceTest {
     
     @Test
     void testCreate_Success() {
-        when(exchangeRateRepository.existsByMonedaOrigenAndMonedaDestino(anyString(), anyString()))
-                .thenReturn(Mono.just(false));
         when(exchangeRateRepository.save(any(ExchangeRate.class)))
                 .thenReturn(Mono.just(exchangeRate));
+        when(rateHistoryService.record(exchangeRate))
+                .thenReturn(Mono.just(ExchangeRateHistory.builder().build()));
         
         StepVerifier.create(exchangeRateService.create(request))
                 .expectNextMatches(response -> 
@@ -70,14 +103,35 @@ class ExchangeRateServiceTest {
                 .verifyComplete();
     }
     
+    @Test
+    void testCreate_HistoryFailureLeavesNoPartialWrite() {
+        when(exchangeRateRepository.save(any(ExchangeRate.class)))
+                .thenReturn(Mono.just(exchangeRate));
+        when(rateHistoryService.record(exchangeRate))
+                .thenReturn(Mono.error(new IllegalStateException("exchange_rate_history no disponible")));
+        
+        StepVerifier.create(exchangeRateService.create(request))
+                .expectError(IllegalStateException.class)
+                .verify();
+        
+        verify(transactionalOperator).transactional(any(Mono.class));
+        verify(exchangeRateCache, never()).put(any());
+        verify(exchangeRateGraph, never()).upsert(any());
+        verify(rateTableVersion, never()).increment();
+        verify(exchangeRateEventPublisher, never()).publish(any(), any());
+    }
+    
     @Test
     void testCreate_AlreadyExists() {
-        when(exchangeRateRepository.existsByMonedaOrigenAndMonedaDestino(anyString(), anyString()))
-                .thenReturn(Mono.just(true));
+        when(exchangeRateRepository.save(any(ExchangeRate.class)))
+                .thenReturn(Mono.error(new DuplicateKeyException("UNIQUE(moneda_origen, moneda_destino)")));
         
         StepVerifier.create(exchangeRateService.create(request))
                 .expectError(ExchangeRateAlreadyExistsException.class)
                 .verify();
+        
+        verify(rateHistoryService, never()).record(any());
+        verify(exchangeRateEventPublisher, never()).publish(any(), any());
     }
     
     @Test
@@ -93,16 +147,21 @@ class ExchangeRateServiceTest {
                 .fechaActualizacion(LocalDateTime.now())
                 .build();
         
-        when(exchangeRateRepository.findById(1L))
-                .thenReturn(Mono.just(exchangeRate));
-        when(exchangeRateRepository.save(any(ExchangeRate.class)))
+        when(exchangeRateRepository.updateTipoCambio(eq(1L), eq(new BigDecimal("0.28")), any(LocalDateTime.class)))
                 .thenReturn(Mono.just(updated));
+        when(rateHistoryService.record(updated))
+                .thenReturn(Mono.just(ExchangeRateHistory.builder().build()));
         
         StepVerifier.create(exchangeRateService.update(1L, updateRequest))
                 .expectNextMatches(response -> 
                     response.getTipoCambio().equals(new BigDecimal("0.28"))
                 )
                 .verifyComplete();
+        
+        verify(exchangeRateCache).put(updated);
+        verify(exchangeRateGraph).upsert(updated);
+        verify(rateHistoryService).record(updated);
+        verify(rateTableVersion).increment();
     }
     
     @Test
@@ -110,7 +169,7 @@ class ExchangeRateServiceTest {
         ExchangeRateUpdateRequest updateRequest = new ExchangeRateUpdateRequest();
         updateRequest.setTipoCambio(new BigDecimal("0.28"));
         
-        when(exchangeRateRepository.findById(1L))
+        when(exchangeRateRepository.updateTipoCambio(eq(1L), any(BigDecimal.class), any(LocalDateTime.class)))
                 .thenReturn(Mono.empty());
         
         StepVerifier.create(exchangeRateService.update(1L, updateRequest))
@@ -120,7 +179,7 @@ class ExchangeRateServiceTest {
     
     @Test
     void testFindByMonedas_Success() {
-        when(exchangeRateRepository.findByMonedaOrigenAndMonedaDestino("PEN", "USD"))
+        when(exchangeRateCache.findByMonedas("PEN", "USD"))
                 .thenReturn(Mono.just(exchangeRate));
         
         StepVerifier.create(exchangeRateService.findByMonedas("PEN", "USD"))
@@ -133,12 +192,62 @@ class ExchangeRateServiceTest {
     
     @Test
     void testFindByMonedas_NotFound() {
-        when(exchangeRateRepository.findByMonedaOrigenAndMonedaDestino("PEN", "USD"))
+        when(exchangeRateCache.findByMonedas("PEN", "USD"))
                 .thenReturn(Mono.empty());
         
         StepVerifier.create(exchangeRateService.findByMonedas("PEN", "USD"))
                 .expectError(ExchangeRateNotFoundException.class)
                 .verify();
+        
+        verify(exchangeMetrics).recordRateNotFound("PEN", "USD");
+    }
+    
+    @Test
+    void testDelete_InvalidatesCache() {
+        when(exchangeRateRepository.deleteReturning(1L))
+                .thenReturn(Mono.just(exchangeRate));
+        when(rateHistoryService.recordDeletion(exchangeRate))
+                .thenReturn(Mono.just(ExchangeRateHistory.builder().eliminado(true).build()));
+        
+        StepVerifier.create(exchangeRateService.delete(1L))
+                .verifyComplete();
+        
+        verify(exchangeRateCache).invalidate("PEN", "USD");
+        verify(exchangeRateGraph).remove("PEN", "USD");
+        verify(rateHistoryService).recordDeletion(exchangeRate);
+        verify(rateTableVersion).increment();
+        verify(exchangeRateEventPublisher).publish(eq(ExchangeRateEvent.Tipo.DELETED), any(ExchangeRateResponse.class));
+    }
+    
+    @Test
+    void testDelete_HistoryFailureLeavesNoPartialWrite() {
+        when(exchangeRateRepository.deleteReturning(1L))
+                .thenReturn(Mono.just(exchangeRate));
+        when(rateHistoryService.recordDeletion(exchangeRate))
+                .thenReturn(Mono.error(new IllegalStateException("exchange_rate_history no disponible")));
+        
+        StepVerifier.create(exchangeRateService.delete(1L))
+                .expectError(IllegalStateException.class)
+                .verify();
+        
+        verify(transactionalOperator).transactional(any(Mono.class));
+        verify(exchangeRateCache, never()).invalidate(anyString(), anyString());
+        verify(exchangeRateGraph, never()).remove(anyString(), anyString());
+        verify(rateTableVersion, never()).increment();
+        verify(exchangeRateEventPublisher, never()).publish(any(), any());
+    }
+    
+    @Test
+    void testDelete_NotFound() {
+        when(exchangeRateRepository.deleteReturning(1L))
+                .thenReturn(Mono.empty());
+        
+        StepVerifier.create(exchangeRateService.delete(1L))
+                .expectError(ExchangeRateNotFoundException.class)
+                .verify();
+        
+        verify(exchangeRateCache, never()).invalidate(anyString(), anyString());
+        verify(rateHistoryService, never()).recordDeletion(any());
+        verify(rateTableVersion, never()).increment();
     }
 }
-
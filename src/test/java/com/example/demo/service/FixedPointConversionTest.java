@@ -0,0 +1,116 @@
+package com.example.demo.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+/**
+ * Tests unitarios para FixedPointConversion: el resultado debe ser idéntico
+ * (valor y escala) al cálculo con BigDecimal.
+ */
+class FixedPointConversionTest {
+    
+    /** Dígitos de ambos operandos juntos con los que el producto siempre cabe en un long. */
+    private static final int MAX_DIGITS = 18;
+    
+    private static final long[] POWERS_OF_TEN = new long[MAX_DIGITS + 1];
+    
+    static {
+        POWERS_OF_TEN[0] = 1;
+        for (int i = 1; i <= MAX_DIGITS; i++) {
+            POWERS_OF_TEN[i] = POWERS_OF_TEN[i - 1] * 10;
+        }
+    }
+    
+    @Test
+    void testConvert_ExhaustiveSmallValuesMatchBigDecimal() {
+        for (int montoScale = 0; montoScale <= 3; montoScale++) {
+            for (int tipoCambioScale = 0; tipoCambioScale <= 6; tipoCambioScale += 2) {
+                for (long monto = -300; monto <= 300; monto++) {
+                    for (long tipoCambio = 0; tipoCambio <= 1000; tipoCambio++) {
+                        assertSameAsBigDecimal(
+                                BigDecimal.valueOf(monto, montoScale),
+                                BigDecimal.valueOf(tipoCambio, tipoCambioScale));
+                    }
+                }
+            }
+        }
+    }
+    
+    /**
+     * Montos DECIMAL(20,2) y tipos de cambio DECIMAL(20,6) con un número de
+     * dígitos uniforme, de modo que se cubren todos los órdenes de magnitud y no
+     * solo los mayores. Con hasta 18 dígitos entre ambos (contando los que se
+     * agregan para llevar el producto a escala 2) el producto cabe en un long,
+     * así que el cálculo en punto fijo siempre debe aplicarse.
+     */
+    @Test
+    void testConvert_RandomValuesMatchBigDecimal() {
+        Random random = new Random(20240115L);
+        for (int i = 0; i < 500_000; i++) {
+            int montoScale = random.nextInt(3);
+            int tipoCambioScale = random.nextInt(7);
+            int available = MAX_DIGITS - Math.max(0, 2 - montoScale - tipoCambioScale);
+            int montoDigits = 1 + random.nextInt(14);
+            int tipoCambioDigits = 1 + random.nextInt(Math.min(10, available - montoDigits));
+            BigDecimal monto = BigDecimal.valueOf(
+                    (random.nextBoolean() ? 1 : -1) * randomDigits(random, montoDigits), montoScale);
+            BigDecimal tipoCambio = BigDecimal.valueOf(randomDigits(random, tipoCambioDigits), tipoCambioScale);
+            BigDecimal converted = FixedPointConversion.convert(monto, tipoCambio);
+            assertNotNull(converted, () -> monto + " x " + tipoCambio);
+            assertEquals(monto.multiply(tipoCambio).setScale(2, RoundingMode.HALF_UP), converted,
+                    () -> monto + " x " + tipoCambio);
+        }
+    }
+    
+    @Test
+    void testConvert_RandomValuesBeyondLongFallBack() {
+        Random random = new Random(20240116L);
+        for (int i = 0; i < 100_000; i++) {
+            // Al menos 21 dígitos entre ambos: el producto es al menos 10^19 y no cabe en un long
+            int montoDigits = 11 + random.nextInt(4);
+            int tipoCambioDigits = 21 - montoDigits + random.nextInt(montoDigits - 10);
+            BigDecimal monto = BigDecimal.valueOf(randomDigits(random, montoDigits), 2);
+            BigDecimal tipoCambio = BigDecimal.valueOf(randomDigits(random, tipoCambioDigits), 6);
+            assertNull(FixedPointConversion.convert(monto, tipoCambio), () -> monto + " x " + tipoCambio);
+        }
+    }
+    
+    @Test
+    void testConvert_HalfUpBoundaries() {
+        assertEquals(new BigDecimal("1.01"), FixedPointConversion.convert(new BigDecimal("1.005"), BigDecimal.ONE));
+        assertEquals(new BigDecimal("-1.01"), FixedPointConversion.convert(new BigDecimal("-1.005"), BigDecimal.ONE));
+        assertEquals(new BigDecimal("1.00"), FixedPointConversion.convert(new BigDecimal("1.004999"), BigDecimal.ONE));
+        assertEquals(new BigDecimal("27.00"), FixedPointConversion.convert(new BigDecimal("100"), new BigDecimal("0.27")));
+    }
+    
+    @Test
+    void testConvert_OverflowFallsBack() {
+        assertNull(FixedPointConversion.convert(new BigDecimal("999999999999999999"), new BigDecimal("999999.999999")));
+        assertNull(FixedPointConversion.convert(new BigDecimal("1234567890123456789012"), BigDecimal.ONE));
+        assertNull(FixedPointConversion.convert(new BigDecimal("1E+3"), BigDecimal.ONE));
+        assertNull(FixedPointConversion.convert(new BigDecimal("1.0000000000"), new BigDecimal("1.0000000000")));
+        assertNotNull(FixedPointConversion.convert(new BigDecimal("9999999999.99"), new BigDecimal("3.712345")));
+    }
+    
+    private static void assertSameAsBigDecimal(BigDecimal monto, BigDecimal tipoCambio) {
+        BigDecimal converted = FixedPointConversion.convert(monto, tipoCambio);
+        assertNotNull(converted, () -> monto + " x " + tipoCambio);
+        assertEquals(monto.multiply(tipoCambio).setScale(2, RoundingMode.HALF_UP), converted,
+                () -> monto + " x " + tipoCambio);
+    }
+    
+    /**
+     * Entero de exactamente digits dígitos (digits &lt;= 18).
+     */
+    private static long randomDigits(Random random, int digits) {
+        long min = digits == 1 ? 0 : POWERS_OF_TEN[digits - 1];
+        return min + (long) (random.nextDouble() * (POWERS_OF_TEN[digits] - min));
+    }
+}
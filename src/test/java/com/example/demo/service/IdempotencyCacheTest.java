@@ -0,0 +1,126 @@
+package com.example.demo.service;
+
+import com.example.demo.dto.ApplyExchangeRequest;
+import com.example.demo.dto.ApplyExchangeResponse;
+import com.example.demo.exception.IdempotencyKeyReusedException;
+import com.example.demo.exception.InvalidIdempotencyKeyException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.test.StepVerifier;
+
+import java.math.BigDecimal;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests unitarios para IdempotencyCache.
+ */
+class IdempotencyCacheTest {
+    
+    private IdempotencyCache idempotencyCache;
+    private ApplyExchangeRequest request;
+    private ApplyExchangeResponse response;
+    private AtomicInteger executions;
+    
+    @BeforeEach
+    void setUp() {
+        idempotencyCache = new IdempotencyCache(100, 60000);
+        request = new ApplyExchangeRequest("USD", "PEN", new BigDecimal("100"), null);
+        response = ApplyExchangeResponse.builder()
+                .monedaOrigen("USD")
+                .monedaDestino("PEN")
+                .montoInicial(new BigDecimal("100"))
+                .montoConvertido(new BigDecimal("375.00"))
+                .build();
+        executions = new AtomicInteger();
+    }
+    
+    @Test
+    void testExecute_CompletedDuplicateIsReplayed() {
+        StepVerifier.create(idempotencyCache.execute("user", "k1", request, this::apply))
+                .expectNext(response)
+                .verifyComplete();
+        StepVerifier.create(idempotencyCache.execute("user", "k1", request, this::apply))
+                .expectNext(response)
+                .verifyComplete();
+        
+        assertThat(executions).hasValue(1);
+    }
+    
+    @Test
+    void testExecute_ConcurrentDuplicateWaitsForFirstExecution() {
+        Sinks.One<ApplyExchangeResponse> pending = Sinks.one();
+        Mono<ApplyExchangeResponse> first = idempotencyCache.execute("user", "k1", request, () -> {
+            executions.incrementAndGet();
+            return pending.asMono();
+        });
+        Mono<ApplyExchangeResponse> second = idempotencyCache.execute("user", "k1", request, this::apply);
+        
+        StepVerifier.create(Mono.zip(first, second))
+                .then(() -> pending.tryEmitValue(response))
+                .assertNext(both -> {
+                    assertThat(both.getT1()).isSameAs(response);
+                    assertThat(both.getT2()).isSameAs(response);
+                })
+                .verifyComplete();
+        
+        assertThat(executions).hasValue(1);
+    }
+    
+    @Test
+    void testExecute_KeysAreScopedPerUser() {
+        idempotencyCache.execute("user", "k1", request, this::apply).block();
+        idempotencyCache.execute("admin", "k1", request, this::apply).block();
+        
+        assertThat(executions).hasValue(2);
+    }
+    
+    @Test
+    void testExecute_FailureIsNotCached() {
+        StepVerifier.create(idempotencyCache.execute("user", "k1", request, () -> {
+                    executions.incrementAndGet();
+                    return Mono.error(new IllegalStateException("fallo"));
+                }))
+                .expectError(IllegalStateException.class)
+                .verify();
+        
+        StepVerifier.create(idempotencyCache.execute("user", "k1", request, this::apply))
+                .expectNext(response)
+                .verifyComplete();
+        
+        assertThat(executions).hasValue(2);
+    }
+    
+    @Test
+    void testExecute_SameKeyDifferentRequestIsRejected() {
+        idempotencyCache.execute("user", "k1", request, this::apply).block();
+        ApplyExchangeRequest other = new ApplyExchangeRequest("USD", "PEN", new BigDecimal("200"), null);
+        
+        StepVerifier.create(idempotencyCache.execute("user", "k1", other, this::apply))
+                .expectError(IdempotencyKeyReusedException.class)
+                .verify();
+        assertThat(executions).hasValue(1);
+    }
+    
+    @Test
+    void testExecute_InvalidKey() {
+        StepVerifier.create(idempotencyCache.execute("user", " ", request, this::apply))
+                .expectError(InvalidIdempotencyKeyException.class)
+                .verify();
+        StepVerifier.create(idempotencyCache.execute(
+                        "user", "k".repeat(IdempotencyCache.MAX_KEY_LENGTH + 1), request, this::apply))
+                .expectError(InvalidIdempotencyKeyException.class)
+                .verify();
+        assertThat(executions).hasValue(0);
+    }
+    
+    private Mono<ApplyExchangeResponse> apply() {
+        return Mono.fromSupplier(() -> {
+            executions.incrementAndGet();
+            return response;
+        });
+    }
+}
@@ -0,0 +1,109 @@
+package com.example.demo.service;
+
+import com.example.demo.entity.ExchangeRate;
+import com.example.demo.entity.ExchangeRateHistory;
+import com.example.demo.repository.ExchangeRateHistoryRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Tests unitarios para RateHistoryService.
+ */
+@ExtendWith(MockitoExtension.class)
+class RateHistoryServiceTest {
+
+    @Mock
+    private ExchangeRateHistoryRepository historyRepository;
+
+    private RateHistoryService rateHistoryService;
+
+    private LocalDateTime now;
+
+    @BeforeEach
+    void setUp() {
+        rateHistoryService = new RateHistoryService(historyRepository, 3600000);
+        now = LocalDateTime.now();
+    }
+
+    @Test
+    void testFindAsOf_RecentInstantIsServedFromMemory() {
+        when(historyRepository.findRecentSince(any(LocalDateTime.class)))
+                .thenReturn(Flux.just(
+                        version(1L, "0.27", now.minusHours(2)),
+                        version(2L, "0.28", now.minusMinutes(30))));
+
+        StepVerifier.create(rateHistoryService.findAsOf("PEN", "USD", now.minusMinutes(45)))
+                .expectNextMatches(found -> found.getTipoCambio().equals(new BigDecimal("0.27")))
+                .verifyComplete();
+        StepVerifier.create(rateHistoryService.findAsOf("PEN", "USD", now))
+                .expectNextMatches(found -> found.getTipoCambio().equals(new BigDecimal("0.28")))
+                .verifyComplete();
+
+        verify(historyRepository, never()).findEffectiveAt(anyString(), anyString(), any(LocalDateTime.class));
+    }
+
+    @Test
+    void testFindAsOf_OlderInstantFallsBackToDatabase() {
+        LocalDateTime instante = now.minusDays(3);
+        when(historyRepository.findRecentSince(any(LocalDateTime.class)))
+                .thenReturn(Flux.just(version(2L, "0.28", now.minusMinutes(30))));
+        when(historyRepository.findEffectiveAt("PEN", "USD", instante))
+                .thenReturn(Mono.just(version(1L, "0.26", now.minusDays(4))));
+
+        StepVerifier.create(rateHistoryService.findAsOf("PEN", "USD", instante))
+                .expectNextMatches(found -> found.getTipoCambio().equals(new BigDecimal("0.26")))
+                .verifyComplete();
+    }
+
+    @Test
+    void testFindAsOf_DeletedPairIsEmpty() {
+        ExchangeRate exchangeRate = ExchangeRate.builder()
+                .id(1L)
+                .monedaOrigen("PEN")
+                .monedaDestino("USD")
+                .tipoCambio(new BigDecimal("0.27"))
+                .fechaActualizacion(now.minusMinutes(10))
+                .build();
+        when(historyRepository.findRecentSince(any(LocalDateTime.class)))
+                .thenReturn(Flux.empty());
+        when(historyRepository.save(any(ExchangeRateHistory.class)))
+                .thenAnswer(invocation -> Mono.just(invocation.getArgument(0)));
+
+        StepVerifier.create(rateHistoryService.record(exchangeRate)
+                        .then(rateHistoryService.recordDeletion(exchangeRate)))
+                .expectNextCount(1)
+                .verifyComplete();
+
+        StepVerifier.create(rateHistoryService.findAsOf("PEN", "USD", now.minusMinutes(5)))
+                .expectNextMatches(found -> found.getTipoCambio().equals(new BigDecimal("0.27")))
+                .verifyComplete();
+        StepVerifier.create(rateHistoryService.findAsOf("PEN", "USD", LocalDateTime.now()))
+                .verifyComplete();
+    }
+
+    private ExchangeRateHistory version(Long id, String tipoCambio, LocalDateTime validFrom) {
+        return ExchangeRateHistory.builder()
+                .id(id)
+                .exchangeRateId(1L)
+                .monedaOrigen("PEN")
+                .monedaDestino("USD")
+                .tipoCambio(new BigDecimal(tipoCambio))
+                .validFrom(validFrom)
+                .build();
+    }
+}
@@ -0,0 +1,249 @@
+package com.example.demo.service;
+
+import com.example.demo.dto.ExchangeRateEvent;
+import com.example.demo.entity.ExchangeRate;
+import com.example.demo.repository.ExchangeRateRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.validation.Validation;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.reactive.TransactionalOperator;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Tests unitarios para RateImportService.
+ */
+@ExtendWith(MockitoExtension.class)
+class RateImportServiceTest {
+    
+    @Mock
+    private ExchangeRateRepository exchangeRateRepository;
+    
+    @Mock
+    private ExchangeRateService exchangeRateService;
+    
+    @Mock
+    private ExchangeRateCache exchangeRateCache;
+    
+    @Mock
+    private ExchangeRateGraph exchangeRateGraph;
+    
+    @Mock
+    private ExchangeRateEventPublisher exchangeRateEventPublisher;
+    
+    @Mock
+    private RateHistoryService rateHistoryService;
+    
+    @Mock
+    private RateTableVersion rateTableVersion;
+    
+    @Mock
+    private TransactionalOperator transactionalOperator;
+    
+    @InjectMocks
+    private RateImportService rateImportService;
+    
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(rateImportService, "validator",
+                Validation.buildDefaultValidatorFactory().getValidator());
+        ReflectionTestUtils.setField(rateImportService, "objectMapper", new ObjectMapper());
+        ReflectionTestUtils.setField(rateImportService, "batchSize", 500);
+        ReflectionTestUtils.setField(rateImportService, "maxErrors", 100);
+        lenient().when(transactionalOperator.transactional(any(Mono.class)))
+                .thenAnswer(invocation -> invocation.getArgument(0));
+    }
+    
+    @Test
+    void testImportCsv_ReportsInvalidLinesAndSavesValidOnes() {
+        ExchangeRate saved = rate(1L, "PEN", "USD", "0.27");
+        when(exchangeRateRepository.findAllByMonedas(anyList())).thenReturn(Flux.just(saved));
+        when(exchangeRateRepository.upsertAll(anyList())).thenReturn(Flux.empty());
+        when(rateHistoryService.recordAll(anyList())).thenReturn(Mono.empty());
+        
+        Flux<String> lines = Flux.just(
+                "monedaOrigen,monedaDestino,tipoCambio",
+                "PEN,USD,0.27",
+                "",
+                "EUR,USD,abc",
+                "EUR,USD",
+                "EUR,USD,-1");
+        
+        StepVerifier.create(rateImportService.importLines(lines, RateImportService.Format.CSV))
+                .assertNext(summary -> {
+                    assertThat(summary.getProcesadas()).isEqualTo(4);
+                    assertThat(summary.getCreadas()).isEqualTo(1);
+                    assertThat(summary.getActualizadas()).isZero();
+                    assertThat(summary.getErrores()).isEqualTo(3);
+                    assertThat(summary.getDetalleErrores())
+                            .extracting(error -> error.getLinea())
+                            .containsExactly(4L, 5L, 6L);
+                })
+                .verifyComplete();
+        
+        verify(exchangeRateCache).put(saved);
+        verify(exchangeRateGraph).upsertAll(List.of(saved));
+        verify(exchangeRateEventPublisher).publish(ExchangeRateEvent.Tipo.CREATED, null);
+    }
+    
+    @Test
+    @SuppressWarnings("unchecked")
+    void testImportCsv_DuplicatePairInBatch_LastLineWins() {
+        ExchangeRate existing = rate(1L, "PEN", "USD", "0.27");
+        ExchangeRate saved = rate(1L, "PEN", "USD", "0.29");
+        when(exchangeRateRepository.findAllByMonedas(anyList())).thenReturn(Flux.just(saved));
+        when(exchangeRateRepository.upsertAll(anyList())).thenReturn(Flux.just(existing));
+        when(rateHistoryService.recordAll(anyList())).thenReturn(Mono.empty());
+        
+        StepVerifier.create(rateImportService.importLines(
+                        Flux.just("PEN,USD,0.28", "PEN,USD,0.29"), RateImportService.Format.CSV))
+                .assertNext(summary -> {
+                    assertThat(summary.getProcesadas()).isEqualTo(2);
+                    assertThat(summary.getCreadas()).isZero();
+                    assertThat(summary.getActualizadas()).isEqualTo(1);
+                    assertThat(summary.getDuplicadas()).isEqualTo(1);
+                })
+                .verifyComplete();
+        
+        ArgumentCaptor<List<ExchangeRate>> upserted = ArgumentCaptor.forClass(List.class);
+        verify(exchangeRateRepository).upsertAll(upserted.capture());
+        assertThat(upserted.getValue())
+                .singleElement()
+                .extracting(ExchangeRate::getTipoCambio)
+                .isEqualTo(new BigDecimal("0.29"));
+        verify(exchangeRateEventPublisher).publish(ExchangeRateEvent.Tipo.UPDATED, null);
+    }
+    
+    @Test
+    void testImportNdjson_SplitsIntoBatches() {
+        ReflectionTestUtils.setField(rateImportService, "batchSize", 2);
+        when(exchangeRateRepository.findAllByMonedas(anyList())).thenReturn(Flux.empty());
+        when(exchangeRateRepository.upsertAll(anyList())).thenReturn(Flux.empty());
+        when(rateHistoryService.recordAll(anyList())).thenReturn(Mono.empty());
+        
+        Flux<String> lines = Flux.just(
+                "{\"monedaOrigen\":\"PEN\",\"monedaDestino\":\"USD\",\"tipoCambio\":0.27}",
+                "{\"monedaOrigen\":\"USD\",\"monedaDestino\":\"EUR\",\"tipoCambio\":0.92}",
+                "{no es json",
+                "{\"monedaOrigen\":\"EUR\",\"monedaDestino\":\"GBP\",\"tipoCambio\":0.86}");
+        
+        StepVerifier.create(rateImportService.importLines(lines, RateImportService.Format.NDJSON))
+                .assertNext(summary -> {
+                    assertThat(summary.getProcesadas()).isEqualTo(4);
+                    assertThat(summary.getCreadas()).isEqualTo(3);
+                    assertThat(summary.getErrores()).isEqualTo(1);
+                    assertThat(summary.getDetalleErrores().get(0).getLinea()).isEqualTo(3);
+                })
+                .verifyComplete();
+        
+        verify(exchangeRateRepository, times(2)).upsertAll(anyList());
+    }
+    
+    @Test
+    void testImportCsv_NewPairRepeatedAcrossBatchesIsCreatedOnce() {
+        ReflectionTestUtils.setField(rateImportService, "batchSize", 1);
+        ExchangeRate first = rate(1L, "PEN", "USD", "0.27");
+        ExchangeRate second = rate(1L, "PEN", "USD", "0.28");
+        when(exchangeRateRepository.findAllByMonedas(anyList())).thenReturn(Flux.just(first), Flux.just(second));
+        // El segundo MERGE encuentra la fila creada por el primero
+        when(exchangeRateRepository.upsertAll(anyList())).thenReturn(Flux.empty(), Flux.just(first));
+        when(rateHistoryService.recordAll(anyList())).thenReturn(Mono.empty());
+        
+        StepVerifier.create(rateImportService.importLines(
+                        Flux.just("PEN,USD,0.27", "PEN,USD,0.28"), RateImportService.Format.CSV))
+                .assertNext(summary -> {
+                    assertThat(summary.getProcesadas()).isEqualTo(2);
+                    assertThat(summary.getCreadas()).isEqualTo(1);
+                    assertThat(summary.getActualizadas()).isZero();
+                    assertThat(summary.getDuplicadas()).isEqualTo(1);
+                })
+                .verifyComplete();
+        
+        verify(exchangeRateEventPublisher).publish(ExchangeRateEvent.Tipo.CREATED, null);
+        verify(exchangeRateEventPublisher).publish(ExchangeRateEvent.Tipo.UPDATED, null);
+    }
+    
+    @Test
+    void testImportCsv_PairCreatedConcurrentlyIsCountedFromMerge() {
+        ExchangeRate concurrent = rate(7L, "PEN", "USD", "0.26");
+        ExchangeRate saved = rate(7L, "PEN", "USD", "0.27");
+        // Otro escritor creó el par antes del MERGE: el MERGE lo actualiza y lo devuelve como fila previa
+        when(exchangeRateRepository.upsertAll(anyList())).thenReturn(Flux.just(concurrent));
+        when(exchangeRateRepository.findAllByMonedas(anyList())).thenReturn(Flux.just(saved));
+        when(rateHistoryService.recordAll(anyList())).thenReturn(Mono.empty());
+        
+        StepVerifier.create(rateImportService.importLines(
+                        Flux.just("PEN,USD,0.27", "USD,EUR,0.92"), RateImportService.Format.CSV))
+                .assertNext(summary -> {
+                    assertThat(summary.getCreadas()).isEqualTo(1);
+                    assertThat(summary.getActualizadas()).isEqualTo(1);
+                    assertThat(summary.getDuplicadas()).isZero();
+                })
+                .verifyComplete();
+    }
+    
+    @Test
+    void testImportCsv_HistoryFailureLeavesNoPartialWrite() {
+        when(exchangeRateRepository.upsertAll(anyList())).thenReturn(Flux.empty());
+        when(exchangeRateRepository.findAllByMonedas(anyList())).thenReturn(Flux.just(rate(1L, "PEN", "USD", "0.27")));
+        when(rateHistoryService.recordAll(anyList()))
+                .thenReturn(Mono.error(new IllegalStateException("exchange_rate_history no disponible")));
+        
+        StepVerifier.create(rateImportService.importLines(Flux.just("PEN,USD,0.27"), RateImportService.Format.CSV))
+                .expectError(IllegalStateException.class)
+                .verify();
+        
+        verify(transactionalOperator).transactional(any(Mono.class));
+        verify(exchangeRateCache, never()).put(any());
+        verify(exchangeRateGraph, never()).upsertAll(anyList());
+        verify(rateTableVersion, never()).increment();
+        verify(exchangeRateEventPublisher, never()).publish(any(), any());
+    }
+    
+    @Test
+    void testImport_CapsErrorDetails() {
+        ReflectionTestUtils.setField(rateImportService, "maxErrors", 2);
+        
+        StepVerifier.create(rateImportService.importLines(
+                        Flux.just("a", "b", "c"), RateImportService.Format.CSV))
+                .assertNext(summary -> {
+                    assertThat(summary.getErrores()).isEqualTo(3);
+                    assertThat(summary.getDetalleErrores()).hasSize(2);
+                })
+                .verifyComplete();
+        
+        verify(exchangeRateRepository, never()).upsertAll(anyList());
+        verify(exchangeRateEventPublisher, never()).publish(any(), any());
+    }
+    
+    private static ExchangeRate rate(Long id, String origen, String destino, String tipoCambio) {
+        return ExchangeRate.builder()
+                .id(id)
+                .monedaOrigen(origen)
+                .monedaDestino(destino)
+                .tipoCambio(new BigDecimal(tipoCambio))
+                .fechaActualizacion(LocalDateTime.now())
+                .build();
+    }
+}
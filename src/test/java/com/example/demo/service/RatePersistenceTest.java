@@ -0,0 +1,221 @@
+package com.example.demo.service;
+
+import com.example.demo.entity.ExchangeRate;
+import com.example.demo.repository.ExchangeRateRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.boot.web.context.WebServerGracefulShutdownLifecycle;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.test.StepVerifier;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Tests unitarios para RatePersistence.
+ */
+@ExtendWith(MockitoExtension.class)
+class RatePersistenceTest {
+
+    @Mock
+    private ExchangeRateRepository exchangeRateRepository;
+
+    @Mock
+    private RateHistoryService rateHistoryService;
+
+    @Mock
+    private ExchangeRateCache exchangeRateCache;
+
+    @Mock
+    private ExchangeRateGraph exchangeRateGraph;
+
+    @TempDir
+    private Path directory;
+
+    private Path file;
+
+    private RateTableVersion rateTableVersion;
+
+    private final List<ExchangeRate> rates = List.of(
+            new ExchangeRate(7L, "PEN", "USD", new BigDecimal("0.270000"), LocalDateTime.of(2024, 1, 15, 10, 30, 0, 123_456_789)),
+            new ExchangeRate(12L, "USD", "EUR", new BigDecimal("0.920000"), LocalDateTime.of(2024, 1, 16, 8, 0)));
+
+    @BeforeEach
+    void setUp() {
+        file = directory.resolve("rates.snapshot");
+        rateTableVersion = new RateTableVersion();
+    }
+
+    private RatePersistence persistence() {
+        return new RatePersistence(exchangeRateRepository, rateHistoryService, exchangeRateCache,
+                exchangeRateGraph, rateTableVersion, file.toString(), 1000);
+    }
+
+    @Test
+    void testRestore_InsertsSnapshotKeepingIdsAndWarmsMemory() throws IOException {
+        RateSnapshotFile.write(file, rates);
+        when(exchangeRateRepository.count()).thenReturn(Mono.just(0L));
+        when(exchangeRateRepository.insertAll(anyList())).thenReturn(Mono.just(2L));
+        when(rateHistoryService.recordCurrentVersions()).thenReturn(Mono.empty());
+        when(exchangeRateRepository.restartIdSequence()).thenReturn(Mono.empty());
+        RatePersistence persistence = persistence();
+
+        StepVerifier.create(persistence.restore())
+                .expectNext(2)
+                .verifyComplete();
+
+        verify(exchangeRateRepository).insertAll(rates);
+        verify(rateHistoryService).recordCurrentVersions();
+        verify(exchangeRateRepository).restartIdSequence();
+        verify(exchangeRateCache).put(rates.get(0));
+        verify(exchangeRateCache).put(rates.get(1));
+        verify(exchangeRateGraph).preload(rates);
+        verify(exchangeRateGraph, never()).warmup();
+        assertEquals(1, rateTableVersion.current());
+        assertEquals(2, persistence.restored());
+
+        // La tabla restaurada ya coincide con el archivo
+        StepVerifier.create(persistence.write())
+                .expectNext(false)
+                .verifyComplete();
+    }
+
+    @Test
+    void testRestore_KeepsNonEmptyTable() throws IOException {
+        RateSnapshotFile.write(file, rates);
+        when(exchangeRateRepository.count()).thenReturn(Mono.just(5L));
+        when(exchangeRateGraph.warmup()).thenReturn(Mono.empty());
+
+        StepVerifier.create(persistence().restore())
+                .expectNext(0)
+                .verifyComplete();
+
+        verify(exchangeRateRepository, never()).insertAll(anyList());
+        verify(exchangeRateCache, never()).put(any());
+    }
+
+    @Test
+    void testWrite_WritesOnlyWhenTableChanged() throws IOException {
+        when(exchangeRateRepository.count()).thenReturn(Mono.just(0L));
+        when(exchangeRateGraph.warmup()).thenReturn(Mono.empty());
+        when(exchangeRateRepository.findAll()).thenReturn(Flux.fromIterable(rates));
+        RatePersistence persistence = persistence();
+        persistence.restore().block();
+
+        StepVerifier.create(persistence.write())
+                .expectNext(false)
+                .verifyComplete();
+
+        rateTableVersion.increment();
+        StepVerifier.create(persistence.write())
+                .expectNext(true)
+                .verifyComplete();
+        StepVerifier.create(persistence.write())
+                .expectNext(false)
+                .verifyComplete();
+
+        verify(exchangeRateRepository, times(1)).findAll();
+        assertEquals(rates, RateSnapshotFile.read(file));
+    }
+
+    @Test
+    void testRead_RejectsCorruptedSnapshot() throws IOException {
+        RateSnapshotFile.write(file, rates);
+        byte[] bytes = Files.readAllBytes(file);
+        bytes[12] ^= 1;
+        Files.write(file, bytes);
+
+        assertThrows(IOException.class, () -> RateSnapshotFile.read(file));
+    }
+
+    @Test
+    void testStart_ReportsTruncatedSnapshot() throws IOException {
+        RateSnapshotFile.write(file, rates);
+        byte[] bytes = Files.readAllBytes(file);
+        Files.write(file, Arrays.copyOf(bytes, bytes.length / 2));
+        when(exchangeRateRepository.count()).thenReturn(Mono.just(0L));
+        RatePersistence persistence = persistence();
+
+        persistence.beginRestore();
+
+        IllegalStateException e = assertThrows(IllegalStateException.class, persistence::start);
+        assertThat(e.getMessage()).contains(file.toString()).contains("truncado");
+        assertThat(e.getCause()).isInstanceOf(IOException.class);
+        assertFalse(persistence.isRunning());
+        verify(exchangeRateRepository, never()).insertAll(anyList());
+    }
+
+    @Test
+    void testWrite_ReplacesSnapshotWithoutLeavingTemporaryFiles() throws IOException {
+        RateSnapshotFile.write(file, rates);
+        RateSnapshotFile.write(file, rates.subList(0, 1));
+
+        assertEquals(rates.subList(0, 1), RateSnapshotFile.read(file));
+        try (var files = Files.list(directory)) {
+            assertEquals(List.of(file), files.toList());
+        }
+    }
+
+    @Test
+    void testStart_WaitsForRestoreBeforeWebServerStarts() throws Exception {
+        RateSnapshotFile.write(file, rates);
+        Sinks.One<Long> count = Sinks.one();
+        when(exchangeRateRepository.count()).thenReturn(count.asMono());
+        when(exchangeRateRepository.insertAll(anyList())).thenReturn(Mono.just(2L));
+        when(rateHistoryService.recordCurrentVersions()).thenReturn(Mono.empty());
+        when(exchangeRateRepository.restartIdSequence()).thenReturn(Mono.empty());
+        RatePersistence persistence = persistence();
+        // El servidor web (WebServerStartStopLifecycle) arranca en SMART_LIFECYCLE_PHASE - 1024
+        assertTrue(persistence.getPhase() < WebServerGracefulShutdownLifecycle.SMART_LIFECYCLE_PHASE - 1024);
+
+        persistence.beginRestore();
+        Thread starter = new Thread(persistence::start);
+        starter.start();
+        starter.join(200);
+        assertFalse(persistence.isRunning(), "start() terminó antes que la restauración");
+
+        count.tryEmitValue(0L);
+        starter.join(5000);
+        assertTrue(persistence.isRunning());
+        assertEquals(2, persistence.restored());
+        persistence.stop();
+    }
+
+    @Test
+    void testStart_FailsWhenRestoreFails() throws IOException {
+        RateSnapshotFile.write(file, rates);
+        when(exchangeRateRepository.count()).thenReturn(Mono.just(0L));
+        when(exchangeRateRepository.insertAll(anyList())).thenReturn(Mono.error(new IllegalStateException("PK")));
+        when(rateHistoryService.recordCurrentVersions()).thenReturn(Mono.empty());
+        when(exchangeRateRepository.restartIdSequence()).thenReturn(Mono.empty());
+        RatePersistence persistence = persistence();
+
+        persistence.beginRestore();
+
+        assertThrows(IllegalStateException.class, persistence::start);
+        assertFalse(persistence.isRunning());
+    }
+}
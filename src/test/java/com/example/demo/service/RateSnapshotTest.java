@@ -0,0 +1,103 @@
+package com.example.demo.service;
+
+import com.example.demo.dto.ExchangeRateResponse;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import reactor.core.publisher.Flux;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Tests unitarios para RateSnapshot.
+ */
+@ExtendWith(MockitoExtension.class)
+class RateSnapshotTest {
+    
+    @Mock
+    private ExchangeRateService exchangeRateService;
+    
+    private RateTableVersion rateTableVersion;
+    private ObjectMapper objectMapper;
+    private RateSnapshot rateSnapshot;
+    private ExchangeRateResponse rate;
+    
+    @BeforeEach
+    void setUp() {
+        rateTableVersion = new RateTableVersion();
+        objectMapper = Jackson2ObjectMapperBuilder.json().build();
+        rateSnapshot = new RateSnapshot(exchangeRateService, rateTableVersion, objectMapper);
+        rate = ExchangeRateResponse.builder()
+                .id(1L)
+                .monedaOrigen("PEN")
+                .monedaDestino("USD")
+                .tipoCambio(new BigDecimal("0.27"))
+                .fechaActualizacion(LocalDateTime.of(2024, 1, 15, 10, 30))
+                .build();
+    }
+    
+    @Test
+    void testCurrent_EncodesOncePerVersion() throws IOException {
+        when(exchangeRateService.findAll()).thenReturn(Flux.just(rate));
+        
+        RateSnapshot.Snapshot first = rateSnapshot.current().block();
+        RateSnapshot.Snapshot second = rateSnapshot.current().block();
+        
+        assertThat(second).isSameAs(first);
+        assertThat(bytes(first.json())).isEqualTo(objectMapper.writeValueAsBytes(List.of(rate)));
+        assertThat(gunzip(first.gzip())).isEqualTo(bytes(first.json()));
+        verify(exchangeRateService, times(1)).findAll();
+    }
+    
+    @Test
+    void testCurrent_RebuiltAfterRateChange() {
+        when(exchangeRateService.findAll()).thenReturn(Flux.just(rate));
+        RateSnapshot.Snapshot first = rateSnapshot.current().block();
+        
+        rateTableVersion.increment();
+        RateSnapshot.Snapshot second = rateSnapshot.current().block();
+        
+        assertThat(second).isNotSameAs(first);
+        assertThat(second.version()).isEqualTo(1);
+        verify(exchangeRateService, times(2)).findAll();
+    }
+    
+    @Test
+    void testSnapshot_BuffersAreIndependentReadOnlyViews() {
+        when(exchangeRateService.findAll()).thenReturn(Flux.just(rate));
+        RateSnapshot.Snapshot snapshot = rateSnapshot.current().block();
+        
+        ByteBuffer json = snapshot.json();
+        json.get(new byte[json.remaining()]);
+        
+        assertThat(json.isReadOnly()).isTrue();
+        assertThat(snapshot.json().remaining()).isPositive();
+    }
+    
+    private static byte[] bytes(ByteBuffer buffer) {
+        byte[] bytes = new byte[buffer.remaining()];
+        buffer.get(bytes);
+        return bytes;
+    }
+    
+    private static byte[] gunzip(ByteBuffer buffer) throws IOException {
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(bytes(buffer)))) {
+            return in.readAllBytes();
+        }
+    }
+}
@@ -0,0 +1,24 @@
+package com.example.demo.service;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests unitarios para RateTableVersion.
+ */
+class RateTableVersionTest {
+    
+    @Test
+    void testEtag_ChangesOnlyAfterIncrement() {
+        RateTableVersion rateTableVersion = new RateTableVersion();
+        String etag = rateTableVersion.etag();
+        
+        assertThat(rateTableVersion.etag()).isEqualTo(etag);
+        
+        rateTableVersion.increment();
+        
+        assertThat(rateTableVersion.current()).isEqualTo(1);
+        assertThat(rateTableVersion.etag()).isNotEqualTo(etag).startsWith("W/\"").endsWith("-1\"");
+    }
+}